@@ -0,0 +1,72 @@
+package com.corso.samples.advanced;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.corso.samples.advanced.AnnotationAdvancedDemo.CreateProductRequest;
+
+/**
+ * Validazioni al secondo: scansione riflessiva a ogni chiamata
+ * ({@code AnnotationAdvancedDemo.validateObject}) contro {@link CompiledValidator}.
+ * Con {@code -prof gc} il caso {@code compiledValid} deve mostrare 0 B/op.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar AnnotationValidationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationValidationBenchmark {
+
+    private CreateProductRequest valid;
+    private CreateProductRequest invalid;
+    private CompiledValidator<CreateProductRequest> validator;
+
+    @Setup
+    public void setup() {
+        valid = new CreateProductRequest("SKU-1", 20, "Core item");
+        invalid = new CreateProductRequest("", 0, "");
+        validator = CompiledValidator.forClass(CreateProductRequest.class);
+    }
+
+    @Benchmark
+    public List<String> reflectiveValid() {
+        return AnnotationAdvancedDemo.validateObject(valid);
+    }
+
+    @Benchmark
+    public List<String> reflectiveInvalid() {
+        return AnnotationAdvancedDemo.validateObject(invalid);
+    }
+
+    @Benchmark
+    public List<String> compiledValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public List<String> compiledInvalid() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public List<String> compiledLookupPerCall() {
+        // Include il costo della ricerca nel ClassValue, come in un validatore generico
+        return CompiledValidator.validateObject(valid);
+    }
+}
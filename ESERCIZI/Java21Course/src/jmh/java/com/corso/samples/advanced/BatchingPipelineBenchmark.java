@@ -0,0 +1,84 @@
+package com.corso.samples.advanced;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo per messaggio di {@link BatchingPipelineStage} al variare della dimensione
+ * massima del blocco: con {@code maxBatchSize = 1} ogni messaggio paga il proprio
+ * passaggio di lock (come {@code put}/{@code take}), con blocchi più grandi il
+ * costo viene ammortizzato. Al termine di ogni trial vengono stampate le metriche
+ * dello stadio (dimensione media dei blocchi, tempo di blocco dei producer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchingPipelineBenchmark {
+
+    private static final int MESSAGES = 100_000;
+
+    @Param({ "1", "64", "256" })
+    public int maxBatchSize;
+
+    @Param({ "1", "4" })
+    public int consumers;
+
+    private final LongAdder consumed = new LongAdder();
+    private BatchingPipelineStage<Integer> stage;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BatchingPipelineStage.BatchPolicy policy =
+                new BatchingPipelineStage.BatchPolicy(maxBatchSize, Duration.ofMillis(1));
+        stage = new BatchingPipelineStage<>(1024, consumers, policy, this::handle);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stage.close();
+        System.out.println();
+        System.out.println("stage metrics -> " + stage.metrics());
+    }
+
+    private void handle(List<Integer> batch) {
+        consumed.add(batch.size());
+    }
+
+    /**
+     * Pubblica {@code MESSAGES} messaggi e attende che siano tutti elaborati.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void publishAndDrain() throws InterruptedException {
+        Integer message = 42;
+        for (int i = 0; i < MESSAGES; i++) {
+            stage.submit(message);
+        }
+
+        expected += MESSAGES;
+        while (consumed.sum() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+}
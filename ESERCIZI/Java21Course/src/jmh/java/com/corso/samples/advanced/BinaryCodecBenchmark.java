@@ -0,0 +1,129 @@
+package com.corso.samples.advanced;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.corso.samples.advanced.SerializationAdvancedDemo.CustomerRecord;
+import com.corso.samples.advanced.SerializationAdvancedDemo.ExternalOrder;
+
+/**
+ * Serializzazione Java ({@code ObjectOutputStream} nuovo a ogni chiamata, come in
+ * {@link SerializationAdvancedDemo}) rispetto a {@link BinaryCodec}, per un record e
+ * un tipo {@code Externalizable}.
+ *
+ * <p>
+ * La dimensione dei payload viene stampata al setup; con {@code -prof gc} il valore
+ * {@code gc.alloc.rate.norm} mostra i byte allocati per operazione.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar BinaryCodecBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    private BinaryCodec codec;
+    private CustomerRecord customer;
+    private ExternalOrder order;
+
+    private byte[] customerJava;
+    private byte[] customerBinary;
+    private byte[] orderJava;
+    private byte[] orderBinary;
+
+    @Setup
+    public void setup() throws IOException {
+        codec = new BinaryCodec(CustomerRecord.class, ExternalOrder.class);
+        customer = new CustomerRecord("C-001", "Alice", LocalDate.of(1990, 7, 14));
+        order = new ExternalOrder(1001, List.of("keyboard", "mouse", "monitor"));
+
+        customerJava = javaSerialize(customer);
+        customerBinary = codec.encode(customer);
+        orderJava = javaSerialize(order);
+        orderBinary = codec.encode(order);
+
+        System.out.printf("%nPayload bytes: CustomerRecord java=%d codec=%d, ExternalOrder java=%d codec=%d%n",
+                customerJava.length, customerBinary.length, orderJava.length, orderBinary.length);
+    }
+
+    // ---- CustomerRecord (record) ----
+
+    @Benchmark
+    public byte[] customerJavaSerialize() throws IOException {
+        return javaSerialize(customer);
+    }
+
+    @Benchmark
+    public byte[] customerCodecEncode() {
+        return codec.encode(customer);
+    }
+
+    @Benchmark
+    public Object customerJavaDeserialize() throws IOException, ClassNotFoundException {
+        return javaDeserialize(customerJava);
+    }
+
+    @Benchmark
+    public CustomerRecord customerCodecDecode() {
+        return codec.decode(customerBinary, CustomerRecord.class);
+    }
+
+    // ---- ExternalOrder (Externalizable) ----
+
+    @Benchmark
+    public byte[] orderJavaSerialize() throws IOException {
+        return javaSerialize(order);
+    }
+
+    @Benchmark
+    public byte[] orderCodecEncode() {
+        return codec.encode(order);
+    }
+
+    @Benchmark
+    public Object orderJavaDeserialize() throws IOException, ClassNotFoundException {
+        return javaDeserialize(orderJava);
+    }
+
+    @Benchmark
+    public ExternalOrder orderCodecDecode() {
+        return codec.decode(orderBinary, ExternalOrder.class);
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.corso.samples.advanced;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.corso.samples.advanced.SerializationAdvancedDemo.CustomerRecord;
+
+/**
+ * {@link JsonPipeline} rispetto alla serializzazione Java di {@link SerializationAdvancedDemo}:
+ * singolo record (scrittura e lettura) e array di {@code size} record.
+ *
+ * <p>
+ * Per gli array la serializzazione Java scrive la lista intera con un solo
+ * {@code writeObject}, come farebbe {@code serialize()}, e JSON usa lo streaming di
+ * {@link JsonPipeline#writeArray}. Entrambi scrivono sullo stesso stream che scarta i
+ * byte, senza copie della lista: tempi e allocazioni misurati sono solo quelli del formato.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar JsonPipelineBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonPipelineBenchmark {
+
+    @Param({ "10000" })
+    public int size;
+
+    private JsonPipeline<CustomerRecord> json;
+    private CustomerRecord customer;
+    private byte[] customerJava;
+    private byte[] customerJson;
+
+    // ArrayList è già serializzabile: writeObject la riceve senza copie
+    private ArrayList<CustomerRecord> customers;
+    private byte[] arrayJava;
+    private byte[] arrayJson;
+
+    @Setup
+    public void setup() throws IOException {
+        json = JsonPipeline.forType(CustomerRecord.class);
+        customer = new CustomerRecord("C-001", "Alice", LocalDate.of(1990, 7, 14));
+        customerJava = javaSerialize(customer);
+        customerJson = json.writeBytes(customer);
+
+        customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(new CustomerRecord("C-" + i, "Customer " + i, LocalDate.of(1970, 1, 1).plusDays(i)));
+        }
+        arrayJava = javaSerialize(customers);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        json.writeArray(customers.stream(), bytes);
+        arrayJson = bytes.toByteArray();
+
+        System.out.printf("%nPayload bytes: record java=%d json=%d, array java=%d json=%d%n",
+                customerJava.length, customerJson.length, arrayJava.length, arrayJson.length);
+    }
+
+    // ---- Singolo record ----
+
+    @Benchmark
+    public byte[] recordJavaWrite() throws IOException {
+        return javaSerialize(customer);
+    }
+
+    @Benchmark
+    public byte[] recordJsonWrite() {
+        return json.writeBytes(customer);
+    }
+
+    @Benchmark
+    public Object recordJavaRead() throws IOException, ClassNotFoundException {
+        return javaDeserialize(customerJava);
+    }
+
+    @Benchmark
+    public CustomerRecord recordJsonRead() {
+        return json.read(customerJson);
+    }
+
+    // ---- Array di record ----
+
+    @Benchmark
+    public long arrayJavaWrite() throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(OutputStream.nullOutputStream())) {
+            out.writeObject(customers);
+        }
+        return customers.size();
+    }
+
+    @Benchmark
+    public long arrayJsonStreamWrite() throws IOException {
+        return json.writeArray(customers.stream(), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public Object arrayJavaRead() throws IOException, ClassNotFoundException {
+        return javaDeserialize(arrayJava);
+    }
+
+    @Benchmark
+    public long arrayJsonStreamRead(Blackhole blackhole) throws IOException {
+        return json.readArray(new ByteArrayInputStream(arrayJson), blackhole::consume);
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        }
+    }
+}
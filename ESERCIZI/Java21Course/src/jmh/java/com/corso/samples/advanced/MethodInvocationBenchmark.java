@@ -0,0 +1,114 @@
+package com.corso.samples.advanced;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo di una chiamata dinamica a {@code Plugin.apply(int)}: chiamata diretta,
+ * {@code Method.invoke}, {@code MethodHandle.invokeExact} (costante e non costante)
+ * e gli invocatori di {@link MethodInvokerCache}.
+ *
+ * <p>
+ * L'handle {@code static final} è il caso ideale: il JIT lo tratta come costante e lo
+ * inline. L'handle in un campo di istanza rappresenta un dispatcher che sceglie
+ * l'handle a runtime (es. da una mappa di plugin).
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar MethodInvocationBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvocationBenchmark {
+
+    private static final MethodHandle CONSTANT_HANDLE =
+            MethodInvokerCache.handle(Plugin.class, "apply", int.class, int.class);
+
+    private Plugin plugin;
+    private int argument;
+
+    private Method method;
+    private MethodHandle handle;
+    private BiFunction<Plugin, Integer, Integer> lambda;
+    private MethodInvokerCache.Invoker invoker;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        plugin = new Plugin(3);
+        argument = 14;
+
+        method = Plugin.class.getMethod("apply", int.class);
+        handle = MethodInvokerCache.handle(Plugin.class, "apply", int.class, int.class);
+        lambda = MethodInvokerCache.biFunction(Plugin.class, "apply", int.class, int.class);
+        invoker = MethodInvokerCache.invoker(Plugin.class, "apply", int.class, int.class);
+    }
+
+    @Benchmark
+    public int direct() {
+        return plugin.apply(argument);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws ReflectiveOperationException {
+        return method.invoke(plugin, argument);
+    }
+
+    @Benchmark
+    public int methodHandleConstant() throws Throwable {
+        return (int) CONSTANT_HANDLE.invokeExact(plugin, argument);
+    }
+
+    @Benchmark
+    public int methodHandleField() throws Throwable {
+        return (int) handle.invokeExact(plugin, argument);
+    }
+
+    @Benchmark
+    public Integer lambdaMetafactory() {
+        return lambda.apply(plugin, argument);
+    }
+
+    @Benchmark
+    public Object cachedInvoker() {
+        return invoker.invoke(plugin, argument);
+    }
+
+    @Benchmark
+    public Object cacheLookupPerCall() {
+        // Ricerca nella ConcurrentHashMap a ogni chiamata, senza conservare l'invocatore
+        return MethodInvokerCache.invoker(Plugin.class, "apply", int.class, int.class).invoke(plugin, argument);
+    }
+
+    /**
+     * Plugin di esempio con un metodo non banale da inlineare.
+     */
+    public static class Plugin {
+        private final int factor;
+
+        public Plugin(int factor) {
+            this.factor = factor;
+        }
+
+        public int apply(int value) {
+            return value * factor + 1;
+        }
+    }
+}
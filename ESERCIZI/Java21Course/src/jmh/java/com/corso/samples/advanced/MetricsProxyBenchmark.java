@@ -0,0 +1,124 @@
+package com.corso.samples.advanced;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.corso.samples.advanced.ReflectionAdvancedDemo.UserFormatter;
+
+/**
+ * Costo di una chiamata attraverso un proxy con metriche: chiamata diretta,
+ * {@code InvocationHandler} che confronta {@code method.getName()} (come in
+ * {@link ReflectionAdvancedDemo}) e le due strategie di {@link MetricsProxyFactory}: tabella
+ * di dispatch su {@code Proxy} e hidden class generata.
+ *
+ * <p>
+ * Tutte le varianti tranne {@code direct} misurano la chiamata con lo stesso costo
+ * ({@code nanoTime} due volte e tre {@code LongAdder}); la differenza residua è il
+ * costo del dispatch.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar MetricsProxyBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsProxyBenchmark {
+
+    private UserFormatter direct;
+    private UserFormatter stringMatching;
+    private UserFormatter dispatchTable;
+    private UserFormatter hiddenClass;
+    private String input;
+
+    private final LongAdder[] formatUserCounters = { new LongAdder(), new LongAdder(), new LongAdder() };
+    private final LongAdder[] pingCounters = { new LongAdder(), new LongAdder(), new LongAdder() };
+
+    @Setup
+    public void setup() {
+        direct = new Formatter();
+        input = "mario";
+
+        // Handler ingenuo: confronto di stringhe e Method.invoke a ogni chiamata
+        InvocationHandler handler = (proxy, method, args) -> {
+            LongAdder[] counters;
+            if (method.getName().equals("formatUser")) {
+                counters = formatUserCounters;
+            } else if (method.getName().equals("ping")) {
+                counters = pingCounters;
+            } else {
+                return method.invoke(direct, args);
+            }
+            counters[0].increment();
+            long start = System.nanoTime();
+            Object result = method.invoke(direct, args);
+            counters[1].increment();
+            counters[2].add(System.nanoTime() - start);
+            return result;
+        };
+        stringMatching = (UserFormatter) Proxy.newProxyInstance(UserFormatter.class.getClassLoader(),
+                new Class<?>[] { UserFormatter.class }, handler);
+
+        dispatchTable = MetricsProxyFactory
+                .instrument(UserFormatter.class, direct, MetricsProxyFactory.Strategy.DYNAMIC_PROXY).instance();
+        MetricsProxyFactory.Instrumented<UserFormatter> generated = MetricsProxyFactory
+                .instrument(UserFormatter.class, direct, MetricsProxyFactory.Strategy.HIDDEN_CLASS);
+        if (generated.strategy() != MetricsProxyFactory.Strategy.HIDDEN_CLASS) {
+            throw new IllegalStateException("Hidden class not available for " + UserFormatter.class.getName());
+        }
+        hiddenClass = generated.instance();
+    }
+
+    @Benchmark
+    public String direct() {
+        return direct.formatUser(input);
+    }
+
+    @Benchmark
+    public String stringMatchingProxy() {
+        return stringMatching.formatUser(input);
+    }
+
+    @Benchmark
+    public String dispatchTableProxy() {
+        return dispatchTable.formatUser(input);
+    }
+
+    @Benchmark
+    public String hiddenClass() {
+        return hiddenClass.formatUser(input);
+    }
+
+    /**
+     * Implementazione leggera, così che il costo del proxy sia visibile.
+     */
+    public static final class Formatter implements UserFormatter {
+
+        @Override
+        public String formatUser(String input) {
+            return input;
+        }
+
+        @Override
+        public String ping() {
+            return "pong";
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.corso.samples.array_collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark JMH che sostituisce la misura manuale di
+ * {@code ConcurrentCollectionsMultithreadingDemo.benchmarkConcurrentReads}.
+ *
+ * <p>
+ * Confronta {@code Collections.synchronizedList} e {@link CopyOnWriteArrayList}
+ * su un carico misto letture/scritture, parametrizzato per dimensione della
+ * lista e percentuale di scritture. Il numero di thread si imposta con
+ * l'opzione JMH {@code -t} oppure eseguendo {@link #main(String[])}, che
+ * ripete la suite per più livelli di parallelismo e stampa throughput e p99
+ * per ogni configurazione.
+ * </p>
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -cp target/benchmarks.jar com.corso.samples.array_collections.ConcurrentListReadBenchmark 1 4 16 64
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentListReadBenchmark {
+
+    private static final int[] DEFAULT_THREAD_COUNTS = { 1, 4, 16, 64 };
+
+    @Param({ "synchronizedList", "copyOnWriteArrayList" })
+    public String listType;
+
+    @Param({ "100", "10000", "100000" })
+    public int size;
+
+    // Percentuale di operazioni di scrittura sul totale (0 = solo letture).
+    @Param({ "0", "1", "10" })
+    public int writePercent;
+
+    private List<String> list;
+
+    @Setup
+    public void setup() {
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add("item-" + i);
+        }
+
+        // Entrambe le liste partono dagli stessi dati, come nella demo originale.
+        list = switch (listType) {
+            case "synchronizedList" -> Collections.synchronizedList(new ArrayList<>(values));
+            case "copyOnWriteArrayList" -> new CopyOnWriteArrayList<>(values);
+            default -> throw new IllegalArgumentException("Unknown list type: " + listType);
+        };
+    }
+
+    /**
+     * Una operazione è una scansione completa della lista oppure, con
+     * probabilità {@code writePercent}, una sostituzione di un elemento.
+     */
+    @Benchmark
+    public void readWriteMix(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (random.nextInt(100) < writePercent) {
+            // set() mantiene costante la dimensione: su CopyOnWrite copia l'intero array.
+            int index = random.nextInt(size);
+            list.set(index, "item-" + index);
+            return;
+        }
+
+        if (list instanceof CopyOnWriteArrayList) {
+            // L'iteratore lavora su uno snapshot immutabile: nessun lock.
+            for (String value : list) {
+                blackhole.consume(value);
+            }
+        } else {
+            // Per synchronizedList l'iterazione coerente richiede il lock esterno.
+            synchronized (list) {
+                for (String value : list) {
+                    blackhole.consume(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Esegue il benchmark per ciascun numero di thread indicato (default
+     * 1, 4, 16, 64) e stampa una tabella riassuntiva con throughput e p99.
+     *
+     * @param args numeri di thread da misurare
+     * @throws RunnerException se JMH non riesce ad eseguire la suite
+     */
+    public static void main(String[] args) throws RunnerException {
+        int[] threadCounts = args.length == 0
+                ? DEFAULT_THREAD_COUNTS
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        List<String> summary = new ArrayList<>();
+        summary.add(String.format("%-8s %-22s %8s %6s %18s %14s",
+                "threads", "listType", "size", "write%", "throughput(ops/us)", "p99(us/op)"));
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(ConcurrentListReadBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+
+            Collection<RunResult> results = new Runner(options).run();
+            for (RunResult result : results) {
+                summary.add(formatRow(threads, result));
+            }
+        }
+
+        System.out.println();
+        summary.forEach(System.out::println);
+    }
+
+    /**
+     * Formatta una riga della tabella riassuntiva; p99 è disponibile solo per
+     * la modalità SampleTime, il throughput solo per Throughput.
+     */
+    private static String formatRow(int threads, RunResult result) {
+        var params = result.getParams();
+        Result<?> primary = result.getPrimaryResult();
+        boolean sampled = params.getMode() == Mode.SampleTime;
+
+        return String.format("%-8d %-22s %8s %6s %18s %14s",
+                threads,
+                params.getParam("listType"),
+                params.getParam("size"),
+                params.getParam("writePercent"),
+                sampled ? "" : String.format("%.3f", primary.getScore()),
+                sampled ? String.format("%.3f", primary.getStatistics().getPercentile(99)) : "");
+    }
+}
@@ -0,0 +1,91 @@
+package com.corso.samples.array_collections;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Confronto tra i pattern di conteggio della demo ({@code LongAdder} per chiave e
+ * {@code merge(key, 1, Integer::sum)}) e {@link FrequencyCounterMap}, su poche
+ * chiavi molto calde. Il numero di thread di default è 8, modificabile con {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class FrequencyCounterBenchmark {
+
+    @Param({ "1", "4", "64" })
+    public int keys;
+
+    private String[] keyNames;
+    private ConcurrentMap<String, LongAdder> longAdderMap;
+    private ConcurrentMap<String, Integer> mergeMap;
+    private FrequencyCounterMap<String> frequencyCounterMap;
+    private FrequencyCounterMap.Counter[] handles;
+
+    @Setup
+    public void setup() {
+        keyNames = new String[keys];
+        handles = new FrequencyCounterMap.Counter[keys];
+        longAdderMap = new ConcurrentHashMap<>();
+        mergeMap = new ConcurrentHashMap<>();
+        frequencyCounterMap = new FrequencyCounterMap<>();
+
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "EVENT-" + i;
+            handles[i] = frequencyCounterMap.counter(keyNames[i]);
+        }
+    }
+
+    /**
+     * Stato per thread: ogni thread scorre le chiavi in modo indipendente.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int nextIndex(int keys) {
+            int index = next;
+            next = index + 1 == keys ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public void longAdderMap(Cursor cursor) {
+        longAdderMap.computeIfAbsent(keyNames[cursor.nextIndex(keys)], ignored -> new LongAdder()).increment();
+    }
+
+    @Benchmark
+    public void mergeMap(Cursor cursor) {
+        mergeMap.merge(keyNames[cursor.nextIndex(keys)], 1, Integer::sum);
+    }
+
+    @Benchmark
+    public void frequencyCounterMap(Cursor cursor) {
+        frequencyCounterMap.increment(keyNames[cursor.nextIndex(keys)]);
+    }
+
+    @Benchmark
+    public void counterHandle(Cursor cursor) {
+        handles[cursor.nextIndex(keys)].increment();
+    }
+}
@@ -0,0 +1,178 @@
+package com.corso.samples.array_collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput producer/consumer di {@link MpmcRingBuffer} rispetto a
+ * {@link ConcurrentLinkedQueue} (illimitata) e {@link LinkedBlockingQueue} (limitata).
+ *
+ * <p>
+ * Ogni gruppo JMH ha 2 producer e 2 consumer che usano le operazioni non
+ * bloccanti ({@code offer}/{@code poll}); i gruppi {@code *Batch} trasferiscono
+ * blocchi di {@code batchSize} elementi. Gli elementi sono pre-allocati, quindi
+ * con {@code -prof gc} il valore {@code gc.alloc.rate.norm} misura solo
+ * l'allocazione della coda (nodi di ConcurrentLinkedQueue/LinkedBlockingQueue).
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar RingBufferBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RingBufferBenchmark {
+
+    private static final Integer[] VALUES = new Integer[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    @Param({ "1024" })
+    public int capacity;
+
+    @Param({ "32" })
+    public int batchSize;
+
+    private MpmcRingBuffer<Integer> ring;
+    private ConcurrentLinkedQueue<Integer> linkedQueue;
+    private LinkedBlockingQueue<Integer> blockingQueue;
+    private List<Integer> batch;
+
+    @Setup
+    public void setup() {
+        ring = new MpmcRingBuffer<>(capacity);
+        linkedQueue = new ConcurrentLinkedQueue<>();
+        blockingQueue = new LinkedBlockingQueue<>(capacity);
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(VALUES[i % VALUES.length]);
+        }
+    }
+
+    /**
+     * Buffer di destinazione per i drain, riutilizzato da ogni consumer.
+     */
+    @State(Scope.Thread)
+    public static class DrainBuffer {
+        final List<Integer> target = new ArrayList<>(1024);
+    }
+
+    // ---- MpmcRingBuffer, un elemento per operazione ----
+
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(2)
+    public boolean ringOffer() {
+        return ring.offer(VALUES[7]);
+    }
+
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(2)
+    public Integer ringPoll() {
+        return ring.poll();
+    }
+
+    // ---- MpmcRingBuffer, operazioni batch ----
+
+    @Benchmark
+    @Group("ringBufferBatch")
+    @GroupThreads(2)
+    public int ringOfferAll() {
+        return ring.offerAll(batch);
+    }
+
+    @Benchmark
+    @Group("ringBufferBatch")
+    @GroupThreads(2)
+    public int ringDrainTo(DrainBuffer buffer, Blackhole blackhole) {
+        int drained = ring.drainTo(buffer.target, batchSize);
+        blackhole.consume(buffer.target);
+        buffer.target.clear();
+        return drained;
+    }
+
+    // ---- ConcurrentLinkedQueue (un nodo allocato per offer, nessun limite) ----
+
+    @Benchmark
+    @Group("concurrentLinkedQueue")
+    @GroupThreads(2)
+    public boolean linkedOffer() {
+        // Nessuna backpressure: offer riesce sempre e alloca un nodo
+        return linkedQueue.offer(VALUES[7]);
+    }
+
+    @Benchmark
+    @Group("concurrentLinkedQueue")
+    @GroupThreads(2)
+    public Integer linkedPoll() {
+        return linkedQueue.poll();
+    }
+
+    // ---- LinkedBlockingQueue (limitata, due lock) ----
+
+    @Benchmark
+    @Group("linkedBlockingQueue")
+    @GroupThreads(2)
+    public boolean blockingOffer() {
+        return blockingQueue.offer(VALUES[7]);
+    }
+
+    @Benchmark
+    @Group("linkedBlockingQueue")
+    @GroupThreads(2)
+    public Integer blockingPoll() {
+        return blockingQueue.poll();
+    }
+
+    @Benchmark
+    @Group("linkedBlockingQueueBatch")
+    @GroupThreads(2)
+    public int blockingOfferAll() {
+        int offered = 0;
+        for (Integer value : batch) {
+            if (!blockingQueue.offer(value)) {
+                break;
+            }
+            offered++;
+        }
+        return offered;
+    }
+
+    @Benchmark
+    @Group("linkedBlockingQueueBatch")
+    @GroupThreads(2)
+    public int blockingDrainTo(DrainBuffer buffer, Blackhole blackhole) {
+        int drained = blockingQueue.drainTo(buffer.target, batchSize);
+        blackhole.consume(buffer.target);
+        buffer.target.clear();
+        return drained;
+    }
+}
@@ -0,0 +1,369 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Gli scenari di {@code WrapperTypesDemo.demoCollectionsAndGenerics} e
+ * {@code demoPerformanceConsiderations} con le collezioni JDK (wrapper) e con le
+ * collezioni primitive del package.
+ *
+ * <p>
+ * I valori sono interi casuali, quasi tutti fuori dalla cache di {@link Integer}:
+ * ogni autoboxing è un oggetto nuovo, come nei dati reali. Ogni operazione è uno
+ * scenario completo (riempimento più letture) su {@code size} elementi. Con
+ * {@code -prof gc} si vedono anche i byte allocati per operazione.
+ * </p>
+ *
+ * <p>
+ * {@link #main(String[])} stampa prima l'occupazione di heap per elemento di ogni
+ * struttura (misurata come differenza di heap usato dopo GC, quindi indicativa) e poi
+ * esegue la suite con il profiler GC.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PrimitiveCollectionsBenchmark -prof gc
+ * java -cp target/benchmarks.jar com.corso.samples.array_collections.primitive.PrimitiveCollectionsBenchmark 1000000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveCollectionsBenchmark {
+
+    private static final int DEFAULT_FOOTPRINT_SIZE = 1_000_000;
+    // Ogni parola distinta compare in media 16 volte nel testo dei conteggi
+    private static final int WORD_REPEAT = 16;
+
+    @Param({ "1000", "1000000" })
+    public int size;
+
+    private int[] values;
+    private String[] words;
+    private List<Integer> boxedList;
+    private IntArrayList intList;
+
+    @Setup
+    public void setup() {
+        values = randomValues(size);
+        words = words(size);
+        boxedList = new ArrayList<>(size);
+        intList = new IntArrayList(size);
+        for (int value : values) {
+            boxedList.add(value);
+            intList.add(value);
+        }
+    }
+
+    // "List con Wrapper" e somma con for-each: autoboxing in add, unboxing in lettura
+
+    @Benchmark
+    public long listAddAndSumBoxed() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int value : values) {
+            numbers.add(value);
+        }
+        long sum = 0;
+        for (Integer number : numbers) {
+            sum += number;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long listAddAndSumPrimitive() {
+        IntArrayList numbers = new IntArrayList();
+        for (int value : values) {
+            numbers.add(value);
+        }
+        long sum = 0;
+        for (int i = 0; i < numbers.size(); i++) {
+            sum += numbers.get(i);
+        }
+        return sum;
+    }
+
+    // numbers.stream().mapToInt(Integer::intValue).sum()
+
+    @Benchmark
+    public int streamSumBoxed() {
+        return boxedList.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Benchmark
+    public int streamSumPrimitive() {
+        return intList.stream().sum();
+    }
+
+    // "Long sum += i": accumulo di long in una lista e somma
+
+    @Benchmark
+    public long longAccumulateBoxed() {
+        List<Long> totals = new ArrayList<>();
+        Long running = 0L;
+        for (int value : values) {
+            running += value;
+            totals.add(running);
+        }
+        long sum = 0;
+        for (Long total : totals) {
+            sum += total;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long longAccumulatePrimitive() {
+        LongArrayList totals = new LongArrayList();
+        long running = 0;
+        for (int value : values) {
+            running += value;
+            totals.add(running);
+        }
+        return totals.stream().sum();
+    }
+
+    // Map<String, Integer>: conteggio con merge(key, 1, Integer::sum)
+
+    @Benchmark
+    public int wordCountBoxed() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String word : words) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        return counts.size();
+    }
+
+    @Benchmark
+    public int wordCountPrimitive() {
+        ObjectIntHashMap<String> counts = new ObjectIntHashMap<>();
+        for (String word : words) {
+            counts.addTo(word, 1);
+        }
+        return counts.size();
+    }
+
+    // Map<Integer, Integer>: inserimento e lettura di tutte le chiavi
+
+    @Benchmark
+    public long intMapPutGetBoxed() {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(values[i], i);
+        }
+        long sum = 0;
+        for (int value : values) {
+            sum += map.get(value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long intMapPutGetPrimitive() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int i = 0; i < values.length; i++) {
+            map.put(values[i], i);
+        }
+        long sum = 0;
+        for (int value : values) {
+            sum += map.getOrDefault(value, 0);
+        }
+        return sum;
+    }
+
+    // Set<Integer>: inserimento e ricerca (metà dei valori cercati è assente)
+
+    @Benchmark
+    public int setAddContainsBoxed() {
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < values.length; i += 2) {
+            set.add(values[i]);
+        }
+        int found = 0;
+        for (int value : values) {
+            if (set.contains(value)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int setAddContainsPrimitive() {
+        IntHashSet set = new IntHashSet();
+        for (int i = 0; i < values.length; i += 2) {
+            set.add(values[i]);
+        }
+        int found = 0;
+        for (int value : values) {
+            if (set.contains(value)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stampa l'occupazione di heap per elemento ed esegue la suite con {@link GCProfiler}.
+     *
+     * @param args Il numero di elementi per la misura di occupazione (default 1.000.000)
+     * @throws RunnerException se JMH non riesce ad eseguire la suite
+     */
+    public static void main(String[] args) throws RunnerException {
+        int elements = args.length == 0 ? DEFAULT_FOOTPRINT_SIZE : Integer.parseInt(args[0]);
+        int[] data = randomValues(elements);
+        String[] keys = words(elements);
+
+        System.out.printf("Occupazione di heap con %,d elementi (byte per elemento, per chiave nei conteggi)%n", elements);
+        printFootprint("ArrayList<Integer>", elements, () -> {
+            List<Integer> list = new ArrayList<>();
+            for (int value : data) {
+                list.add(value);
+            }
+            return list;
+        });
+        printFootprint("IntArrayList", elements, () -> {
+            IntArrayList list = new IntArrayList();
+            for (int value : data) {
+                list.add(value);
+            }
+            return list;
+        });
+        printFootprint("ArrayList<Long>", elements, () -> {
+            List<Long> list = new ArrayList<>();
+            for (int value : data) {
+                list.add((long) value);
+            }
+            return list;
+        });
+        printFootprint("LongArrayList", elements, () -> {
+            LongArrayList list = new LongArrayList();
+            for (int value : data) {
+                list.add(value);
+            }
+            return list;
+        });
+        printFootprint("HashMap<Integer, Integer>", elements, () -> {
+            Map<Integer, Integer> map = new HashMap<>();
+            for (int i = 0; i < data.length; i++) {
+                map.put(data[i], i);
+            }
+            return map;
+        });
+        printFootprint("IntIntHashMap", elements, () -> {
+            IntIntHashMap map = new IntIntHashMap();
+            for (int i = 0; i < data.length; i++) {
+                map.put(data[i], i);
+            }
+            return map;
+        });
+        printFootprint("HashSet<Integer>", elements, () -> {
+            Set<Integer> set = new HashSet<>();
+            for (int value : data) {
+                set.add(value);
+            }
+            return set;
+        });
+        printFootprint("IntHashSet", elements, () -> {
+            IntHashSet set = new IntHashSet();
+            for (int value : data) {
+                set.add(value);
+            }
+            return set;
+        });
+        // Le stringhe sono già nell'array: si misurano solo tabella e contatori, per chiave distinta
+        int distinctWords = distinctWords(elements);
+        printFootprint("HashMap<String, Integer> (conteggi)", distinctWords, () -> {
+            Map<String, Integer> map = new HashMap<>();
+            for (String key : keys) {
+                map.merge(key, 1, Integer::sum);
+            }
+            return map;
+        });
+        printFootprint("ObjectIntHashMap<String> (conteggi)", distinctWords, () -> {
+            ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+            for (String key : keys) {
+                map.addTo(key, 1);
+            }
+            return map;
+        });
+        System.out.println();
+
+        Options options = new OptionsBuilder()
+                .include(PrimitiveCollectionsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+    private static int[] randomValues(int count) {
+        Random random = new Random(42);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = random.nextInt();
+        }
+        return result;
+    }
+
+    private static String[] words(int count) {
+        Random random = new Random(43);
+        int distinct = distinctWords(count);
+        String[] vocabulary = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            vocabulary[i] = "word-" + i;
+        }
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = vocabulary[random.nextInt(distinct)];
+        }
+        return result;
+    }
+
+    private static int distinctWords(int count) {
+        return Math.max(1, count / WORD_REPEAT);
+    }
+
+    private static void printFootprint(String name, int elements, Supplier<Object> builder) {
+        long before = usedHeap();
+        Object structure = builder.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(structure);
+        System.out.printf("  %-38s %8.1f%n", name, (double) (after - before) / elements);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
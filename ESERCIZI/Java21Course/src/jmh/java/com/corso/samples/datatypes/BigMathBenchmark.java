@@ -0,0 +1,106 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * I cicli di {@code BigDecimalBigIntegerDemo} (fattoriale con {@code multiply} ripetuto,
+ * Fibonacci iterativo, {@code modPow} uno alla volta) rispetto a {@link BigMath}.
+ *
+ * <p>
+ * Il guadagno del fattoriale viene in parte dall'algoritmo (prodotti bilanciati) e
+ * in parte dal parallelismo: confrontare l'esecuzione normale con
+ * {@code -Djava.util.concurrent.ForkJoinPool.common.parallelism=1} passato al fork
+ * ({@code -jvmArgsAppend}) separa i due contributi.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar BigMathBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BigMathBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int n;
+
+    private BigInteger modPowBase;
+    private BigInteger modulus;
+    private List<BigInteger> exponents;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        modPowBase = new BigInteger(2048, random);
+        modulus = new BigInteger(2048, random).setBit(0);
+        exponents = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            exponents.add(new BigInteger(2048, random));
+        }
+    }
+
+    @Benchmark
+    public BigInteger factorialLoop() {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BigInteger factorialBigMath() {
+        return BigMath.factorial(n);
+    }
+
+    @Benchmark
+    public BigInteger fibonacciLoop() {
+        BigInteger previous = BigInteger.ZERO;
+        BigInteger current = BigInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            BigInteger next = previous.add(current);
+            previous = current;
+            current = next;
+        }
+        return previous;
+    }
+
+    @Benchmark
+    public BigInteger fibonacciBigMath() {
+        return BigMath.fibonacci(n);
+    }
+
+    @Benchmark
+    public List<BigInteger> modPowLoop() {
+        List<BigInteger> results = new ArrayList<>(exponents.size());
+        for (BigInteger exponent : exponents) {
+            results.add(modPowBase.modPow(exponent, modulus));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<BigInteger> modPowBigMath() {
+        return BigMath.modPow(modPowBase, exponents, modulus);
+    }
+}
@@ -0,0 +1,112 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Somma di molte righe d'ordine con {@link BigDecimal} ({@code add} in un ciclo, come
+ * {@code Stream.reduce(BigDecimal.ZERO, BigDecimal::add)}), con {@link Money#plus(Money)}
+ * e con {@link MoneyArray#sumUnscaled(int, int)}, più il calcolo dell'IVA per riga.
+ *
+ * <p>
+ * Le righe sono una tabella di {@value #TABLE_SIZE} importi letta ciclicamente fino a
+ * {@code lines} righe: 100M righe non richiedono 100M oggetti in memoria, mentre il
+ * lavoro per riga (e l'allocazione, visibile con {@code -prof gc}) resta quello reale.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar MoneyBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int TABLE_SIZE = 4096;
+    private static final BigDecimal VAT_RATE = new BigDecimal("0.22");
+
+    @Param({ "1000000", "100000000" })
+    public int lines;
+
+    private BigDecimal[] bigDecimals;
+    private Money[] moneys;
+    private MoneyArray column;
+
+    @Setup
+    public void setup() {
+        bigDecimals = new BigDecimal[TABLE_SIZE];
+        moneys = new Money[TABLE_SIZE];
+        column = new MoneyArray(2, TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            long cents = 100 + (i * 7919L) % 99_900;
+            bigDecimals[i] = BigDecimal.valueOf(cents, 2);
+            moneys[i] = Money.ofUnscaled(cents, 2);
+            column.addUnscaled(cents);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(bigDecimals[i & (TABLE_SIZE - 1)]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneySum() {
+        Money total = Money.zero(2);
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneys[i & (TABLE_SIZE - 1)]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long moneyArraySum() {
+        long total = 0;
+        int remaining = lines;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, TABLE_SIZE);
+            total = Math.addExact(total, column.sumUnscaled(0, chunk));
+            remaining -= chunk;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalVatSum() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(bigDecimals[i & (TABLE_SIZE - 1)].multiply(VAT_RATE).setScale(2, RoundingMode.HALF_EVEN));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyVatSum() {
+        Money total = Money.zero(2);
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneys[i & (TABLE_SIZE - 1)].times(22, 2, RoundingMode.HALF_EVEN));
+        }
+        return total;
+    }
+}
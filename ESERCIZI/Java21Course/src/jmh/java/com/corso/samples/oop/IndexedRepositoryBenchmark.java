@@ -0,0 +1,113 @@
+package com.corso.samples.oop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ricerche su 1M entità: scansione lineare di una {@code ArrayList} (come il vecchio
+ * {@code InMemoryRepository} della demo) contro {@link IndexedRepository}.
+ *
+ * <p>
+ * {@code findAllCopy} copia l'intero store come faceva la demo; {@code findAllSnapshot}
+ * restituisce la vista immutabile condivisa. Con {@code -t 4} si misurano le letture
+ * concorrenti sul read lock.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar IndexedRepositoryBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+public class IndexedRepositoryBenchmark {
+
+    private static final int CITIES = 100;
+
+    @Param({ "1000000" })
+    public int entities;
+
+    private List<Customer> list;
+    private IndexedRepository<Customer> repository;
+    private IndexedRepository.UniqueIndex<String, Customer> byEmail;
+    private IndexedRepository.MultiIndex<String, Customer> byCity;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<>(entities);
+        repository = new IndexedRepository<>();
+        byEmail = repository.uniqueIndex("email", Customer::email);
+        byCity = repository.multiIndex("city", Customer::city);
+
+        for (int i = 0; i < entities; i++) {
+            Customer customer = new Customer("C" + i, "user" + i + "@example.com", "CITY-" + (i % CITIES));
+            list.add(customer);
+        }
+        repository.saveAll(list);
+    }
+
+    private String randomId() {
+        return "C" + ThreadLocalRandom.current().nextInt(entities);
+    }
+
+    @Benchmark
+    public Optional<Customer> linearFindById() {
+        String id = randomId();
+        for (Customer customer : list) {
+            if (customer.id().equals(id)) {
+                return Optional.of(customer);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Benchmark
+    public Optional<Customer> indexedFindById() {
+        return repository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Customer> uniqueIndexFind() {
+        return byEmail.find("user" + ThreadLocalRandom.current().nextInt(entities) + "@example.com");
+    }
+
+    @Benchmark
+    public int multiIndexCount() {
+        return byCity.count("CITY-" + ThreadLocalRandom.current().nextInt(CITIES));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Customer> findAllCopy() {
+        return List.copyOf(list);
+    }
+
+    @Benchmark
+    public List<Customer> findAllSnapshot() {
+        return repository.findAll();
+    }
+
+    /**
+     * Entità di test con una chiave univoca (email) e una non univoca (città).
+     */
+    public record Customer(String id, String email, String city) implements Identifiable {
+    }
+}
@@ -0,0 +1,135 @@
+package com.corso.samples.oop;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Letture per id con uno scrittore concorrente: {@link IndexedRepository} (read lock)
+ * contro {@link SnapshotRepository} nelle due modalità. Ogni gruppo ha 3 lettori e
+ * 1 scrittore; con {@code -prof gc} si verifica che le letture su
+ * {@code SnapshotRepository.get} non allocano.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar SnapshotRepositoryBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotRepositoryBenchmark {
+
+    @Param({ "100000" })
+    public int entities;
+
+    @Param({ "64" })
+    public int stripes;
+
+    private String[] ids;
+    private Entry[] entries;
+    private IndexedRepository<Entry> indexed;
+    private SnapshotRepository<Entry> batched;
+    private SnapshotRepository<Entry> consistent;
+
+    @Setup
+    public void setup() {
+        ids = new String[entities];
+        entries = new Entry[entities];
+        indexed = new IndexedRepository<>();
+        batched = new SnapshotRepository<>(SnapshotRepository.Mode.BATCHED, stripes);
+        consistent = new SnapshotRepository<>(SnapshotRepository.Mode.CONSISTENT, stripes);
+
+        for (int i = 0; i < entities; i++) {
+            ids[i] = "U" + i;
+            entries[i] = new Entry(ids[i], i);
+            indexed.save(entries[i]);
+            batched.save(entries[i]);
+            consistent.save(entries[i]);
+        }
+        batched.publish();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batched.close();
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(entities);
+    }
+
+    // ---- IndexedRepository: hash map dietro ReentrantReadWriteLock ----
+
+    @Benchmark
+    @Group("indexed")
+    @GroupThreads(3)
+    public Optional<Entry> indexedRead() {
+        return indexed.findById(ids[randomIndex()]);
+    }
+
+    @Benchmark
+    @Group("indexed")
+    @GroupThreads(1)
+    public void indexedWrite() {
+        indexed.save(entries[randomIndex()]);
+    }
+
+    // ---- SnapshotRepository BATCHED: scritture accodate, publish ogni 64 ----
+
+    @Benchmark
+    @Group("batched")
+    @GroupThreads(3)
+    public Entry batchedRead() {
+        return batched.get(ids[randomIndex()]);
+    }
+
+    @Benchmark
+    @Group("batched")
+    @GroupThreads(1)
+    public void batchedWrite() {
+        batched.save(entries[randomIndex()]);
+        if (batched.pendingWrites() >= 64) {
+            batched.publish();
+        }
+    }
+
+    // ---- SnapshotRepository CONSISTENT: copia della stripe a ogni scrittura ----
+
+    @Benchmark
+    @Group("consistent")
+    @GroupThreads(3)
+    public Entry consistentRead() {
+        return consistent.get(ids[randomIndex()]);
+    }
+
+    @Benchmark
+    @Group("consistent")
+    @GroupThreads(1)
+    public void consistentWrite() {
+        consistent.save(entries[randomIndex()]);
+    }
+
+    /**
+     * Entità di test.
+     */
+    public record Entry(String id, int value) implements Identifiable {
+    }
+}
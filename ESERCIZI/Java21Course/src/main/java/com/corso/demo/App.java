@@ -1,32 +1,7 @@
 package com.corso.demo;
 
-import com.corso.samples.advanced.AnnotationAdvancedDemo;
-import com.corso.samples.advanced.ConcurrencyMultithreadingDemo;
-import com.corso.samples.advanced.ReflectionAdvancedDemo;
-import com.corso.samples.advanced.SerializationAdvancedDemo;
-import com.corso.samples.array_collections.ArrayDemo;
-import com.corso.samples.array_collections.CollectionDemo;
-import com.corso.samples.array_collections.ConcurrentCollectionsMultithreadingDemo;
-import com.corso.samples.array_collections.StreamsDemo;
-import com.corso.samples.datatypes.BigDecimalBigIntegerDemo;
-import com.corso.samples.datatypes.DateTimeDemo;
-import com.corso.samples.datatypes.FormatLocalizationDemo;
-import com.corso.samples.datatypes.LiteralsDemo;
-import com.corso.samples.datatypes.MathDemo;
-import com.corso.samples.datatypes.OptionalDemo;
-import com.corso.samples.datatypes.PrimitiveTypesDemo;
-import com.corso.samples.datatypes.StringDemo;
-import com.corso.samples.datatypes.WrapperTypesDemo;
-import com.corso.samples.javabase.FlowControlStatementsDemo;
-import com.corso.samples.javabase.OperatorsDemo;
-import com.corso.samples.javabase.SwitchAdvancedDemo;
-import com.corso.samples.oop.ClassDemo;
-import com.corso.samples.oop.GenericsDemo;
-import com.corso.samples.oop.InterfaceDemo;
-import com.corso.samples.oop.LambdaDemo;
-import com.corso.samples.oop.MethodsPropertiesDemo;
-import com.corso.samples.oop.OOPDemo;
-import com.corso.samples.oop.VisibilityLevelsDemo;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Classe principale dell'applicazione Java21 Course
@@ -36,51 +11,47 @@ public class App {
     /**
      * Metodo principale che avvia l'applicazione
      * 
-     * @param args Argomenti della riga di comando
+     * @param args Argomenti della riga di comando:
+     *             {@code --batch [opzioni]} esegue le demo senza interazione (vedi {@link DemoBatchRunner}),
+     *             {@code --startup-report} stampa su stderr tempi e classi caricate al primo frame,
+     *             {@code --exit-after-first-frame} termina dopo il primo frame (run di training AppCDS)
      */
     public static void main(String[] args) {
-        // Crea un'istanza del menu TUI con il titolo dell'applicazione
-        MenuTUI menu = new MenuTUI("Java 21 Course - Menu Principale");
-
-        // Aggiunge le voci di menu per le varie demo
-        addMenuItemPrimitiveTypes(menu);
-        addMenuItemWrapperTypes(menu);
-        addMenuItemBigDecimalBigInteger(menu);
-        addMenuItemMath(menu);
-        addMenuItemString(menu);
-        addMenuItemDateTime(menu);
-        addMenuItemFormatLocalization(menu);
-        addMenuItemLiterals(menu);
-
-        addMenuItemOperators(menu);
-        addMenuItemFlowControlStatements(menu);
-        addMenuItemSwitchAdvanced(menu);
-
-        addMenuItemOptional(menu);
+        List<String> options = Arrays.asList(args);
 
-        addMenuItemClass(menu);
-        addMenuItemOOP(menu);
-        addMenuItemInterfaces(menu);
-        addMenuItemMethodProperties(menu);
-        addMenuItemVisibilityLevels(menu);
-        addMenuItemGenerics(menu);
-        addMenuItemLamda(menu);
+        // Il report va creato per primo, per misurare il tempo trascorso in main
+        StartupReport startupReport = options.contains("--startup-report") ? new StartupReport() : null;
+        boolean exitAfterFirstFrame = options.contains("--exit-after-first-frame");
 
-        addMenuItemArray(menu);
-        addMenuItemCollection(menu);
-        addMenuItemStreams(menu);
+        // Modalità non interattiva (es. CI): nessun menu, nessuna attesa di INVIO
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            System.exit(DemoBatchRunner.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
 
-        addMenuItemConcurrencyMultithreading(menu);
-        addMenuItemConcurrentCollectionsMultithreading(menu);
+        // Crea un'istanza del menu TUI con il titolo dell'applicazione
+        MenuTUI menu = new MenuTUI("Java 21 Course - Menu Principale");
 
-        addMenuItemReflectionAdvanced(menu);
-        addMenuItemAnnotationAdvanced(menu);
-        addMenuItemSerializationAdvancedDemo(menu);
+        // Aggiunge le voci di menu per le varie demo, nell'ordine del catalogo.
+        // Le classi demo vengono caricate solo quando la voce viene selezionata.
+        for (DemoCatalog.Entry entry : DemoCatalog.entries()) {
+            addMenuItemDemo(menu, entry);
+        }
 
         // Aggiunge la voce per uscire dall'applicazione
         // Quando selezionata, questa voce termina il programma
         addMenuItemExit(menu);
 
+        if (startupReport != null || exitAfterFirstFrame) {
+            menu.onFirstFrame(() -> {
+                if (startupReport != null) {
+                    startupReport.printFirstFrame(System.err);
+                }
+                if (exitAfterFirstFrame) {
+                    menu.stop();
+                }
+            });
+        }
+
         // Avvia il loop principale del menu
         // Il programma rimarrà in esecuzione finché l'utente non seleziona l'opzione di
         // uscita
@@ -88,407 +59,15 @@ public class App {
     }
 
     /**
-     * Aggiunge al menu la voce per la demo dei Tipi Primitivi
-     *
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemPrimitiveTypes(MenuTUI menu) {
-        menu.addMenuItem("Tipi Primitivi", () -> {
-            // Esegue la demo completa dei tipi primitivi
-            PrimitiveTypesDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo dei Tipi Wrapper
+     * Aggiunge al menu la voce per una demo del catalogo
      *
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemWrapperTypes(MenuTUI menu) {
-        menu.addMenuItem("Tipi Wrapper", () -> {
-            // Esegue la demo completa dei tipi wrapper
-            WrapperTypesDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo di BigDecimal e BigInteger
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemBigDecimalBigInteger(MenuTUI menu) {
-        menu.addMenuItem("BigDecimal e BigInteger", () -> {
-            // Esegue la demo completa di BigDecimal e BigInteger
-            BigDecimalBigIntegerDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo di Math
-     *
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemMath(MenuTUI menu) {
-        menu.addMenuItem("Math", () -> {
-            // Esegue la demo completa della classe Math
-            MathDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo del tipo String
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemString(MenuTUI menu) {
-        menu.addMenuItem("String", () -> {
-            // Esegue la demo completa del tipo String
-            StringDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo di Date & Time
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemDateTime(MenuTUI menu) {
-        menu.addMenuItem("Date & Time", () -> {
-            // Esegue la demo completa di Date & Time (java.time API)
-            DateTimeDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo di Format e Localization
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemFormatLocalization(MenuTUI menu) {
-        menu.addMenuItem("Format e Localization", () -> {
-            // Esegue la demo completa di Format e Localization
-            FormatLocalizationDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo dei Letterali
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemLiterals(MenuTUI menu) {
-        menu.addMenuItem("Letterali", () -> {
-            // Esegue la demo completa dei letterali (literals)
-            LiteralsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo degli Operatori
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemOperators(MenuTUI menu) {
-        menu.addMenuItem("Operatori", () -> {
-            // Esegue la demo completa degli operatori e type casting
-            OperatorsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    private static void addMenuItemFlowControlStatements(MenuTUI menu) {
-        menu.addMenuItem("Flow Control Statements", () -> {
-            // Esegue la demo completa dei Flow Control Statements
-            FlowControlStatementsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo Switch Avanzati
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemSwitchAdvanced(MenuTUI menu) {
-        menu.addMenuItem("Switch Advanced", () -> {
-            // Esegue la demo completa sugli switch avanzati
-            SwitchAdvancedDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo su Optional
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemOptional(MenuTUI menu) {
-        menu.addMenuItem("Optional", () -> {
-            // Esegue la demo completa su Optional
-            OptionalDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge la voce di menu per la demo sulle classi
-     * Questa voce esegue ClassDemo che mostra l'utilizzo avanzato delle classi in
-     * Java 21
-     * 
-     * @param menu L'istanza del menu TUI a cui aggiungere la voce
-     */
-    private static void addMenuItemClass(MenuTUI menu) {
-        menu.addMenuItem("Class", () -> {
-
-            // Esegue la dimostrazione completa sulle classi
-            ClassDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo OOP
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemOOP(MenuTUI menu) {
-        menu.addMenuItem("OOP", () -> {
-            // Esegue la demo completa su incapsulamento, ereditarietà e polimorfismo
-            OOPDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle Interfacce
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemInterfaces(MenuTUI menu) {
-        menu.addMenuItem("Interfacce", () -> {
-            // Esegue la demo completa sulle interfacce
-            InterfaceDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle proprietà dei metodi
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemMethodProperties(MenuTUI menu) {
-        menu.addMenuItem("Method Properties", () -> {
-            // Esegue la demo completa sulle proprietà dei metodi
-            MethodsPropertiesDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sui livelli di visibilità
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemVisibilityLevels(MenuTUI menu) {
-        menu.addMenuItem("Livelli Visibilità", () -> {
-            // Esegue la demo completa sui livelli di visibilità
-            VisibilityLevelsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sui Generics
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemGenerics(MenuTUI menu) {
-        menu.addMenuItem("Generics", () -> {
-            // Esegue la demo completa sui Generics
-            GenericsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle Lambda function
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemLamda(MenuTUI menu) {
-        menu.addMenuItem("Lamda", () -> {
-            // Esegue la demo completa sulle Lambda function
-            LambdaDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo degli Array
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemArray(MenuTUI menu) {
-        menu.addMenuItem("Array", () -> {
-            // Esegue la demo completa degli Array
-            ArrayDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle Collection
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemCollection(MenuTUI menu) {
-        menu.addMenuItem("Collection", () -> {
-            // Esegue la demo completa sulle Collection
-            CollectionDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sugli Streams
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemStreams(MenuTUI menu) {
-        menu.addMenuItem("Streams", () -> {
-            // Esegue la demo completa sugli Streams
-            StreamsDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sugli ambienti concorrenti e
-     * multithreading
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemConcurrencyMultithreading(MenuTUI menu) {
-        menu.addMenuItem("Concurrency e Multithreading", () -> {
-            // Esegue la demo completa sugli Streams
-            ConcurrencyMultithreadingDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle collection in ambienti conorrenti
-     * e multithreading
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemConcurrentCollectionsMultithreading(MenuTUI menu) {
-        menu.addMenuItem("Collections Concurrency e Multithreading", () -> {
-            // Esegue la demo completa sugli Streams
-            ConcurrentCollectionsMultithreadingDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle collection in ambienti conorrenti
-     * e multithreading
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemReflectionAdvanced(MenuTUI menu) {
-        menu.addMenuItem("Reflection", () -> {
-            // Esegue la demo completa sugli Streams
-            ReflectionAdvancedDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle collection in ambienti conorrenti
-     * e multithreading
-     * 
-     * @param menu Il menu a cui aggiungere la voce
-     */
-    private static void addMenuItemAnnotationAdvanced(MenuTUI menu) {
-        menu.addMenuItem("Annotation", () -> {
-            // Esegue la demo completa sugli Streams
-            AnnotationAdvancedDemo.run();
-
-            // Attende che l'utente prema INVIO prima di tornare al menu
-            menu.waitForEnter();
-        });
-    }
-
-    /**
-     * Aggiunge al menu la voce per la demo sulle collection in ambienti conorrenti
-     * e multithreading
-     * 
-     * @param menu Il menu a cui aggiungere la voce
+     * @param menu  Il menu a cui aggiungere la voce
+     * @param entry La demo da eseguire quando la voce viene selezionata
      */
-    private static void addMenuItemSerializationAdvancedDemo(MenuTUI menu) {
-        menu.addMenuItem("Serialization ", () -> {
-            // Esegue la demo completa sugli Streams
-            SerializationAdvancedDemo.run();
+    private static void addMenuItemDemo(MenuTUI menu, DemoCatalog.Entry entry) {
+        menu.addMenuItem(entry.title(), () -> {
+            // Esegue la demo completa
+            entry.run();
 
             // Attende che l'utente prema INVIO prima di tornare al menu
             menu.waitForEnter();
@@ -0,0 +1,391 @@
+package com.corso.demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Esecuzione non interattiva delle demo del {@link DemoCatalog}, pensata per la CI.
+ *
+ * <p>
+ * Ogni demo viene eseguita senza menu e con uno {@code System.in} vuoto, così le
+ * pause "Premi INVIO" ritornano subito. Le demo indipendenti girano in parallelo
+ * su un pool a dimensione fissa; quelle marcate come non {@code parallelSafe}
+ * vengono eseguite dopo, una alla volta. L'output di ogni demo è catturato in un
+ * buffer dedicato e al termine viene stampato un report con esito, tempo e
+ * memoria allocata per demo.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/classes com.corso.demo.App --batch [--filter testo[,testo...]]
+ *      [--threads N] [--timeout secondi] [--show-output] [--list]
+ * </pre>
+ */
+public final class DemoBatchRunner {
+
+    /**
+     * Esito dell'esecuzione di una demo.
+     */
+    public enum Status {
+        OK, FAILED, TIMEOUT
+    }
+
+    /**
+     * Risultato di una demo.
+     *
+     * @param title          Il titolo della demo
+     * @param status         L'esito
+     * @param wallNanos      Il tempo di esecuzione in nanosecondi
+     * @param allocatedBytes I byte allocati dal thread che ha eseguito la demo
+     *                       (-1 se la JVM non supporta la misura)
+     * @param output         L'output catturato (stdout e stderr)
+     * @param failure        L'eccezione sollevata, oppure {@code null}
+     */
+    public record DemoResult(String title, Status status, long wallNanos, long allocatedBytes,
+            String output, Throwable failure) {
+    }
+
+    private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+
+    // Buffer del thread corrente: usato dalle demo eseguite in parallelo
+    private static final ThreadLocal<ByteArrayOutputStream> THREAD_BUFFER = new ThreadLocal<>();
+
+    // Buffer globale: usato dalle demo isolate, che stampano anche da thread propri
+    private static volatile ByteArrayOutputStream isolatedBuffer;
+
+    private DemoBatchRunner() {
+    }
+
+    /**
+     * Punto di ingresso diretto, equivalente a {@code App --batch}.
+     *
+     * @param args Le opzioni da riga di comando
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Interpreta le opzioni, esegue le demo selezionate e stampa il report.
+     *
+     * @param args Le opzioni da riga di comando
+     * @return 0 se tutte le demo sono terminate correttamente, 1 altrimenti, 2 per opzioni non valide
+     */
+    public static int run(String[] args) {
+        List<String> filters = new ArrayList<>();
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        int timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+        boolean showOutput = false;
+        boolean listOnly = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--filter" -> filters.addAll(Arrays.asList(args[++i].toLowerCase(Locale.ROOT).split(",")));
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--timeout" -> timeoutSeconds = Integer.parseInt(args[++i]);
+                    case "--show-output" -> showOutput = true;
+                    case "--list" -> listOnly = true;
+                    default -> throw new IllegalArgumentException("Opzione sconosciuta: " + args[i]);
+                }
+            }
+            if (threads < 1 || timeoutSeconds < 1) {
+                throw new IllegalArgumentException("--threads e --timeout devono essere positivi");
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Uso: --batch [--filter testo[,testo...]] [--threads N] [--timeout secondi] "
+                    + "[--show-output] [--list]");
+            System.err.println(e.getMessage() == null ? "Valore mancante per l'ultima opzione" : e.getMessage());
+            return 2;
+        }
+
+        List<DemoCatalog.Entry> selected = select(DemoCatalog.entries(), filters);
+
+        if (listOnly) {
+            selected.forEach(entry -> System.out.println(entry.title()));
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        List<DemoResult> results = runAll(selected, threads, timeoutSeconds);
+        long elapsed = System.nanoTime() - start;
+
+        if (showOutput) {
+            for (DemoResult result : results) {
+                System.out.println("===== " + result.title() + " =====");
+                System.out.println(result.output());
+            }
+        }
+        printReport(results, elapsed, threads);
+
+        return results.stream().allMatch(result -> result.status() == Status.OK) ? 0 : 1;
+    }
+
+    /**
+     * Seleziona le demo il cui titolo contiene (case-insensitive) almeno uno dei filtri.
+     * Senza filtri vengono restituite tutte.
+     *
+     * @param entries Le demo disponibili
+     * @param filters I filtri in minuscolo
+     * @return Le demo selezionate, nell'ordine del catalogo
+     */
+    static List<DemoCatalog.Entry> select(List<DemoCatalog.Entry> entries, List<String> filters) {
+        if (filters.isEmpty()) {
+            return entries;
+        }
+        return entries.stream()
+                .filter(entry -> {
+                    String title = entry.title().toLowerCase(Locale.ROOT).trim();
+                    return filters.stream().map(String::trim).anyMatch(title::contains);
+                })
+                .toList();
+    }
+
+    /**
+     * Esegue le demo: prima quelle indipendenti in parallelo, poi quelle isolate
+     * una alla volta. I risultati sono restituiti nell'ordine di input.
+     *
+     * @param entries        Le demo da eseguire
+     * @param threads        La dimensione del pool per le demo indipendenti
+     * @param timeoutSeconds Il tempo massimo di attesa per ogni demo
+     * @return I risultati nell'ordine di {@code entries}
+     */
+    public static List<DemoResult> runAll(List<DemoCatalog.Entry> entries, int threads, int timeoutSeconds) {
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        InputStream originalIn = System.in;
+
+        // Le pause "Premi INVIO" leggono uno stream vuoto e ritornano subito
+        System.setIn(new ByteArrayInputStream(new byte[0]));
+        System.setOut(new PrintStream(new RoutingOutputStream(originalOut), true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(new RoutingOutputStream(originalErr), true, StandardCharsets.UTF_8));
+
+        DemoResult[] results = new DemoResult[entries.size()];
+        try {
+            ExecutorService pool = Executors.newFixedThreadPool(threads,
+                    Thread.ofPlatform().daemon().name("demo-batch-", 0).factory());
+            try {
+                List<DemoTask> tasks = new ArrayList<>();
+                List<Future<DemoResult>> futures = new ArrayList<>();
+                for (DemoCatalog.Entry entry : entries) {
+                    DemoTask task = entry.parallelSafe() ? new DemoTask(entry, false) : null;
+                    tasks.add(task);
+                    futures.add(task != null ? pool.submit(task) : null);
+                }
+                for (int i = 0; i < entries.size(); i++) {
+                    if (futures.get(i) != null) {
+                        results[i] = await(tasks.get(i), futures.get(i), timeoutSeconds);
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            // Le demo isolate usano un thread dedicato ciascuna, così il timeout resta applicabile
+            for (int i = 0; i < entries.size(); i++) {
+                DemoCatalog.Entry entry = entries.get(i);
+                if (!entry.parallelSafe()) {
+                    ExecutorService single = Executors.newSingleThreadExecutor(
+                            Thread.ofPlatform().daemon().name("demo-batch-isolated").factory());
+                    try {
+                        DemoTask task = new DemoTask(entry, true);
+                        results[i] = await(task, single.submit(task), timeoutSeconds);
+                    } finally {
+                        single.shutdownNow();
+                        isolatedBuffer = null;
+                    }
+                }
+            }
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            System.setIn(originalIn);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Esegue una demo sul thread corrente catturandone output, tempo e allocazioni.
+     */
+    private static DemoResult execute(DemoCatalog.Entry entry, boolean isolated) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        if (isolated) {
+            isolatedBuffer = buffer;
+        } else {
+            THREAD_BUFFER.set(buffer);
+        }
+
+        long allocatedBefore = currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            entry.run();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            THREAD_BUFFER.remove();
+        }
+        long wallNanos = System.nanoTime() - start;
+        long allocatedAfter = currentThreadAllocatedBytes();
+
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        String output;
+        synchronized (buffer) {
+            output = buffer.toString(StandardCharsets.UTF_8);
+        }
+        return new DemoResult(entry.title(), failure == null ? Status.OK : Status.FAILED,
+                wallNanos, allocated, output, failure);
+    }
+
+    /**
+     * Attende il risultato di una demo traducendo timeout ed errori in un {@link DemoResult}.
+     * Il timeout decorre dall'avvio della demo, non dall'inizio dell'attesa: le demo
+     * in coda dietro a quelle lente non guadagnano tempo extra.
+     */
+    private static DemoResult await(DemoTask task, Future<DemoResult> future, int timeoutSeconds) {
+        DemoCatalog.Entry entry = task.entry;
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            // Le demo precedenti sono già terminate o cancellate: se il pool è libero parte subito
+            if (!task.started.await(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("demo never started");
+            }
+            long remaining = task.startNanos + timeoutNanos - System.nanoTime();
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return new DemoResult(entry.title(), Status.TIMEOUT, TimeUnit.SECONDS.toNanos(timeoutSeconds), -1, "", e);
+        } catch (ExecutionException e) {
+            return new DemoResult(entry.title(), Status.FAILED, 0, -1, "", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new DemoResult(entry.title(), Status.FAILED, 0, -1, "", e);
+        }
+    }
+
+    /**
+     * Byte allocati finora dal thread corrente, se la JVM espone la misura.
+     */
+    private static long currentThreadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Stampa la tabella riassuntiva con esito, tempo e allocazioni per demo.
+     */
+    private static void printReport(List<DemoResult> results, long elapsedNanos, int threads) {
+        System.out.println();
+        System.out.printf("%-3s %-8s %10s %12s %8s  %s%n", "#", "status", "wall(ms)", "alloc(KB)", "lines", "demo");
+        System.out.println("-".repeat(80));
+
+        long sumNanos = 0;
+        for (int i = 0; i < results.size(); i++) {
+            DemoResult result = results.get(i);
+            sumNanos += result.wallNanos();
+            System.out.printf("%-3d %-8s %10.1f %12s %8d  %s%n",
+                    i + 1,
+                    result.status(),
+                    result.wallNanos() / 1_000_000.0,
+                    result.allocatedBytes() < 0 ? "n/a" : String.valueOf(result.allocatedBytes() / 1024),
+                    result.output().lines().count(),
+                    result.title());
+            if (result.failure() != null) {
+                System.out.println("      -> " + result.failure());
+            }
+        }
+
+        long failed = results.stream().filter(result -> result.status() != Status.OK).count();
+        System.out.println("-".repeat(80));
+        System.out.printf("%d demo, %d fallite, %d thread: totale %.1f ms (somma dei tempi %.1f ms)%n",
+                results.size(), failed, threads, elapsedNanos / 1_000_000.0, sumNanos / 1_000_000.0);
+    }
+
+    /**
+     * Demo da eseguire, con l'istante di avvio da cui decorre il timeout.
+     */
+    private static final class DemoTask implements Callable<DemoResult> {
+
+        private final DemoCatalog.Entry entry;
+        private final boolean isolated;
+        private final CountDownLatch started = new CountDownLatch(1);
+        // Pubblicato da countDown() sul latch
+        private long startNanos;
+
+        DemoTask(DemoCatalog.Entry entry, boolean isolated) {
+            this.entry = entry;
+            this.isolated = isolated;
+        }
+
+        @Override
+        public DemoResult call() {
+            startNanos = System.nanoTime();
+            started.countDown();
+            return execute(entry, isolated);
+        }
+    }
+
+    /**
+     * OutputStream che instrada i byte verso il buffer della demo in esecuzione:
+     * prima quello del thread corrente, poi quello della demo isolata, altrimenti
+     * verso lo stream originale.
+     */
+    private static final class RoutingOutputStream extends OutputStream {
+
+        private final OutputStream fallback;
+
+        RoutingOutputStream(OutputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        private OutputStream target() {
+            ByteArrayOutputStream buffer = THREAD_BUFFER.get();
+            if (buffer == null) {
+                buffer = isolatedBuffer;
+            }
+            return buffer != null ? buffer : fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            OutputStream target = target();
+            synchronized (target) {
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            OutputStream target = target();
+            synchronized (target) {
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            fallback.flush();
+        }
+    }
+}
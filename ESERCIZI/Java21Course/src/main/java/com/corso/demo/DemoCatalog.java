@@ -0,0 +1,130 @@
+package com.corso.demo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalogo unico delle demo del corso.
+ * Viene usato sia dal menu interattivo ({@link App}) sia dall'esecuzione
+ * non interattiva ({@link DemoBatchRunner}), così l'elenco è definito una
+ * sola volta e nello stesso ordine.
+ *
+ * <p>
+ * Le demo sono registrate per nome di classe: nessuna classe demo viene
+ * caricata (né inizializzata) finché la relativa voce non viene eseguita,
+ * così l'avvio del launcher non paga i loro inizializzatori statici.
+ * </p>
+ */
+public final class DemoCatalog {
+
+    /**
+     * Voce del catalogo.
+     *
+     * @param title        Il titolo mostrato nel menu e nel report
+     * @param className    Il nome completo della classe demo, che espone
+     *                     {@code public static void run()}
+     * @param parallelSafe {@code false} se la demo stampa da thread propri
+     *                     (executor, virtual thread, ...) e quindi va eseguita
+     *                     in isolamento per catturarne correttamente l'output
+     */
+    public record Entry(String title, String className, boolean parallelSafe) {
+
+        /**
+         * Carica la classe demo e ne esegue l'entry-point {@code run()}
+         */
+        public void run() {
+            MethodHandle entryPoint;
+            try {
+                entryPoint = MethodHandles.publicLookup()
+                        .findStatic(demoClass(), "run", MethodType.methodType(void.class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Demo non disponibile: " + className, e);
+            }
+
+            LOADED_DEMOS.add(className);
+            try {
+                entryPoint.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Errore nella demo " + className, t);
+            }
+        }
+
+        /**
+         * Risolve la classe demo senza inizializzarla
+         *
+         * @return La classe demo
+         * @throws ClassNotFoundException se la classe non esiste
+         */
+        public Class<?> demoClass() throws ClassNotFoundException {
+            return Class.forName(className, false, DemoCatalog.class.getClassLoader());
+        }
+    }
+
+    private static final String SAMPLES = "com.corso.samples.";
+
+    // Demo già avviate almeno una volta (usato dal report di avvio)
+    private static final Set<String> LOADED_DEMOS = ConcurrentHashMap.newKeySet();
+
+    private static final List<Entry> ENTRIES = List.of(
+            new Entry("Tipi Primitivi", SAMPLES + "datatypes.PrimitiveTypesDemo", true),
+            new Entry("Tipi Wrapper", SAMPLES + "datatypes.WrapperTypesDemo", true),
+            new Entry("BigDecimal e BigInteger", SAMPLES + "datatypes.BigDecimalBigIntegerDemo", true),
+            new Entry("Math", SAMPLES + "datatypes.MathDemo", true),
+            new Entry("String", SAMPLES + "datatypes.StringDemo", true),
+            new Entry("Date & Time", SAMPLES + "datatypes.DateTimeDemo", true),
+            new Entry("Format e Localization", SAMPLES + "datatypes.FormatLocalizationDemo", true),
+            new Entry("Letterali", SAMPLES + "datatypes.LiteralsDemo", true),
+
+            new Entry("Operatori", SAMPLES + "javabase.OperatorsDemo", true),
+            new Entry("Flow Control Statements", SAMPLES + "javabase.FlowControlStatementsDemo", true),
+            new Entry("Switch Advanced", SAMPLES + "javabase.SwitchAdvancedDemo", true),
+
+            new Entry("Optional", SAMPLES + "datatypes.OptionalDemo", true),
+
+            new Entry("Class", SAMPLES + "oop.ClassDemo", true),
+            new Entry("OOP", SAMPLES + "oop.OOPDemo", true),
+            new Entry("Interfacce", SAMPLES + "oop.InterfaceDemo", true),
+            new Entry("Method Properties", SAMPLES + "oop.MethodsPropertiesDemo", true),
+            new Entry("Livelli Visibilità", SAMPLES + "oop.VisibilityLevelsDemo", true),
+            new Entry("Generics", SAMPLES + "oop.GenericsDemo", true),
+            new Entry("Lamda", SAMPLES + "oop.LambdaDemo", true),
+
+            new Entry("Array", SAMPLES + "array_collections.ArrayDemo", true),
+            new Entry("Collection", SAMPLES + "array_collections.CollectionDemo", true),
+            new Entry("Streams", SAMPLES + "array_collections.StreamsDemo", true),
+
+            // Le demo di concorrenza stampano da thread di lavoro propri
+            new Entry("Concurrency e Multithreading", SAMPLES + "advanced.ConcurrencyMultithreadingDemo", false),
+            new Entry("Collections Concurrency e Multithreading", SAMPLES + "array_collections.ConcurrentCollectionsMultithreadingDemo", false),
+
+            new Entry("Reflection", SAMPLES + "advanced.ReflectionAdvancedDemo", true),
+            new Entry("Annotation", SAMPLES + "advanced.AnnotationAdvancedDemo", true),
+            new Entry("Serialization ", SAMPLES + "advanced.SerializationAdvancedDemo", true));
+
+    private DemoCatalog() {
+    }
+
+    /**
+     * Restituisce tutte le demo registrate, nell'ordine del menu
+     *
+     * @return Lista immutabile delle voci
+     */
+    public static List<Entry> entries() {
+        return ENTRIES;
+    }
+
+    /**
+     * Restituisce il numero di demo distinte avviate finora
+     *
+     * @return Il numero di classi demo caricate tramite il catalogo
+     */
+    public static int loadedDemoCount() {
+        return LOADED_DEMOS.size();
+    }
+}
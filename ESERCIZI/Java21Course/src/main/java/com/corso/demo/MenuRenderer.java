@@ -0,0 +1,227 @@
+package com.corso.demo;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motore di rendering del menu TUI.
+ *
+ * <p>
+ * Il frame completo (cornice, titolo, voci e prompt) viene costruito una sola
+ * volta e conservato come array di byte UTF-8; viene ricostruito solo quando il
+ * menu cambia ({@link #invalidate()}). Ogni ridisegno è quindi una singola
+ * scrittura seguita da un flush, senza allocazioni. Invece di pulire lo schermo
+ * il frame riposiziona il cursore e cancella solo il contenuto residuo, per
+ * evitare lo sfarfallio sui terminali remoti.
+ * </p>
+ */
+final class MenuRenderer {
+
+    // Codici ANSI per i colori
+    private static final String RESET = "\033[0m";
+    private static final String CYAN = "\033[96m";
+    private static final String GREEN = "\033[92m";
+    private static final String YELLOW = "\033[93m";
+    private static final String BOLD = "\033[1m";
+    private static final String BLUE = "\033[94m";
+
+    // Codici ANSI per il posizionamento del cursore e la cancellazione
+    private static final String CURSOR_HOME = "\033[H";
+    private static final String ERASE_TO_LINE_END = "\033[K";
+    private static final String ERASE_TO_SCREEN_END = "\033[J";
+
+    // Caratteri Unicode per le decorazioni
+    private static final String TOP_LEFT = "╔";
+    private static final String TOP_RIGHT = "╗";
+    private static final String BOTTOM_LEFT = "╚";
+    private static final String BOTTOM_RIGHT = "╝";
+    private static final String HORIZONTAL = "═";
+    private static final String VERTICAL = "║";
+    private static final String T_RIGHT = "╠";
+    private static final String T_LEFT = "╣";
+
+    private final String title;
+    private final int width;
+
+    // Lunghezze visibili già calcolate, indicizzate per testo
+    private final Map<String, Integer> visibleLengths = new HashMap<>();
+
+    private byte[] frame;
+
+    /**
+     * Costruttore del renderer
+     * @param title Il titolo da visualizzare nel menu
+     * @param width La larghezza interna della cornice
+     */
+    MenuRenderer(String title, int width) {
+        this.title = title;
+        this.width = width;
+    }
+
+    /**
+     * Segnala che le voci del menu sono cambiate: il frame verrà ricostruito al
+     * prossimo {@link #render(PrintStream, List)}.
+     */
+    void invalidate() {
+        frame = null;
+    }
+
+    /**
+     * Disegna il menu con una sola scrittura sullo stream
+     * @param out Lo stream di destinazione
+     * @param items Le voci del menu
+     */
+    void render(PrintStream out, List<MenuTUI.MenuItem> items) {
+        if (frame == null) {
+            frame = buildFrame(items);
+        }
+        out.write(frame, 0, frame.length);
+        out.flush();
+    }
+
+    /**
+     * Costruisce il frame completo in un unico buffer
+     * @param items Le voci del menu
+     * @return Il frame codificato in UTF-8
+     */
+    private byte[] buildFrame(List<MenuTUI.MenuItem> items) {
+        StringBuilder sb = new StringBuilder(256 + items.size() * (width + 32));
+
+        sb.append(CURSOR_HOME);
+
+        // Barra superiore
+        appendHorizontalLine(sb, TOP_LEFT, TOP_RIGHT);
+
+        // Titolo
+        appendRowCentered(sb, BOLD + YELLOW + title + RESET);
+
+        // Separatore
+        appendHorizontalLine(sb, T_RIGHT, T_LEFT);
+
+        // Voci del menu
+        for (int i = 0; i < items.size(); i++) {
+            appendItemRow(sb, i + 1, items.get(i).getDescription());
+        }
+
+        // Barra inferiore
+        appendHorizontalLine(sb, BOTTOM_LEFT, BOTTOM_RIGHT);
+
+        // Cancella quanto resta dei contenuti precedenti, poi il prompt per l'input
+        sb.append(ERASE_TO_SCREEN_END);
+        sb.append('\n').append(BLUE).append("➤ Seleziona un'opzione: ").append(RESET);
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Aggiunge una linea orizzontale decorativa
+     */
+    private void appendHorizontalLine(StringBuilder sb, String start, String end) {
+        sb.append(CYAN).append(start).append(HORIZONTAL.repeat(width)).append(end).append(RESET);
+        endLine(sb);
+    }
+
+    /**
+     * Aggiunge una riga con bordi verticali e contenuto centrato
+     */
+    private void appendRowCentered(StringBuilder sb, String content) {
+        int padding = Math.max(0, width - visibleLength(content));
+        int paddingLeft = padding / 2;
+
+        sb.append(CYAN).append(VERTICAL).append(RESET);
+        appendSpaces(sb, paddingLeft);
+        sb.append(content);
+        appendSpaces(sb, padding - paddingLeft);
+        sb.append(CYAN).append(VERTICAL).append(RESET);
+        endLine(sb);
+    }
+
+    /**
+     * Aggiunge la riga di una voce, allineata a sinistra, nella forma "[n] descrizione"
+     */
+    private void appendItemRow(StringBuilder sb, int number, String description) {
+        // "[n] " più la descrizione, più lo spazio iniziale dopo il bordo
+        int visible = 1 + 2 + stringSize(number) + 1 + visibleLength(description);
+
+        sb.append(CYAN).append(VERTICAL).append(RESET);
+        sb.append(' ').append(GREEN).append('[').append(number).append(']').append(RESET);
+        sb.append(' ').append(description);
+        appendSpaces(sb, width - visible);
+        sb.append(CYAN).append(VERTICAL).append(RESET);
+        endLine(sb);
+    }
+
+    /**
+     * Chiude una riga cancellando eventuali caratteri residui a destra
+     */
+    private static void endLine(StringBuilder sb) {
+        sb.append(ERASE_TO_LINE_END).append('\n');
+    }
+
+    private static void appendSpaces(StringBuilder sb, int count) {
+        for (int i = 0; i < count; i++) {
+            sb.append(' ');
+        }
+    }
+
+    private static int stringSize(int number) {
+        int digits = 1;
+        while (number >= 10) {
+            number /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Restituisce la lunghezza visibile di un testo, ignorando le sequenze ANSI
+     * di tipo {@code ESC [ ... m}; il risultato viene memorizzato per testo.
+     * @param text Il testo da misurare
+     * @return La lunghezza visibile del testo
+     */
+    int visibleLength(String text) {
+        Integer cached = visibleLengths.get(text);
+        if (cached != null) {
+            return cached;
+        }
+        int length = computeVisibleLength(text);
+        visibleLengths.put(text, length);
+        return length;
+    }
+
+    /**
+     * Indica se il carattere può comparire tra {@code ESC [} e {@code m}
+     */
+    private static boolean isParameterChar(char c) {
+        return (c >= '0' && c <= '9') || c == ';';
+    }
+
+    /**
+     * Scansione lineare senza espressioni regolari: salta ogni sequenza
+     * {@code ESC [ cifre/; m} e conta i caratteri rimanenti.
+     */
+    static int computeVisibleLength(String text) {
+        int length = 0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c == '\033' && i + 1 < n && text.charAt(i + 1) == '[') {
+                int j = i + 2;
+                while (j < n && isParameterChar(text.charAt(j))) {
+                    j++;
+                }
+                if (j < n && text.charAt(j) == 'm') {
+                    i = j + 1;
+                    continue;
+                }
+            }
+            length++;
+            i++;
+        }
+        return length;
+    }
+}
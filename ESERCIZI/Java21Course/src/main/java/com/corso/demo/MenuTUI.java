@@ -12,36 +12,26 @@ public class MenuTUI {
     
     // Codici ANSI per i colori
     private static final String RESET = "\033[0m";
-    private static final String CYAN = "\033[96m";
     private static final String GREEN = "\033[92m";
     private static final String YELLOW = "\033[93m";
     private static final String RED = "\033[91m";
-    private static final String BOLD = "\033[1m";
-    private static final String BLUE = "\033[94m";
-    
-    // Caratteri Unicode per le decorazioni
-    private static final String TOP_LEFT = "╔";
-    private static final String TOP_RIGHT = "╗";
-    private static final String BOTTOM_LEFT = "╚";
-    private static final String BOTTOM_RIGHT = "╝";
-    private static final String HORIZONTAL = "═";
-    private static final String VERTICAL = "║";
-    private static final String T_RIGHT = "╠";
-    private static final String T_LEFT = "╣";
-    
-    private final String title;
+
+    // Larghezza interna della cornice del menu
+    private static final int WIDTH = 60;
+
     private final List<MenuItem> menuItems;
-    private final Scanner scanner;
+    private final MenuRenderer renderer;
+    private Scanner scanner;
     private boolean running;
+    private Runnable firstFrameListener;
     
     /**
      * Costruttore del menu TUI
      * @param title Il titolo da visualizzare nel menu
      */
     public MenuTUI(String title) {
-        this.title = title;
         this.menuItems = new ArrayList<>();
-        this.scanner = new Scanner(System.in);
+        this.renderer = new MenuRenderer(title, WIDTH);
         this.running = false;
     }
     
@@ -73,111 +63,18 @@ public class MenuTUI {
      */
     public void addMenuItem(String description, Runnable action) {
         menuItems.add(new MenuItem(description, action));
+
+        // Il frame precalcolato non è più valido
+        renderer.invalidate();
     }
     
     /**
-     * Pulisce lo schermo (funziona su terminali che supportano codici ANSI)
-     */
-    private void clearScreen() {
-        System.out.print("\033[H\033[2J");
-        System.out.flush();
-    }
-    
-    /**
-     * Disegna una linea orizzontale decorativa
-     * @param length La lunghezza della linea
-     * @param start Il carattere iniziale
-     * @param end Il carattere finale
-     */
-    private void drawHorizontalLine(int length, String start, String end) {
-        System.out.print(CYAN + start);
-        for (int i = 0; i < length; i++) {
-            System.out.print(HORIZONTAL);
-        }
-        System.out.println(end + RESET);
-    }
-    
-    /**
-     * Disegna una riga con bordi verticali e contenuto centrato
-     * @param content Il contenuto da visualizzare
-     * @param length La lunghezza totale della riga
-     */
-    private void drawRowWithBorders(String content, int length) {
-        // Calcola la lunghezza visibile rimuovendo i codici ANSI
-        int visibleLength = getVisibleLength(content);
-        int padding = length - visibleLength;
-        int paddingLeft = padding / 2;
-        int paddingRight = padding - paddingLeft;
-        
-        System.out.print(CYAN + VERTICAL + RESET);
-        System.out.print(" ".repeat(paddingLeft));
-        System.out.print(content);
-        System.out.print(" ".repeat(paddingRight));
-        System.out.println(CYAN + VERTICAL + RESET);
-    }
-    
-    /**
-     * Disegna una riga con bordi verticali e contenuto allineato a sinistra
-     * @param content Il contenuto da visualizzare
-     * @param length La lunghezza totale della riga
-     */
-    private void drawRowLeftAligned(String content, int length) {
-        // Calcola la lunghezza visibile rimuovendo i codici ANSI
-        int visibleLength = getVisibleLength(content);
-        int padding = length - visibleLength;
-        
-        System.out.print(CYAN + VERTICAL + RESET);
-        System.out.print(" ");
-        System.out.print(content);
-        System.out.print(" ".repeat(padding - 1));
-        System.out.println(CYAN + VERTICAL + RESET);
-    }
-    
-    /**
-     * Calcola la lunghezza visibile di una stringa rimuovendo i codici ANSI
-     * @param text Il testo da misurare
-     * @return La lunghezza visibile del testo
-     */
-    private int getVisibleLength(String text) {
-        // Rimuove tutti i codici ANSI dalla stringa
-        String withoutAnsi = text.replaceAll("\\033\\[[0-9;]*m", "");
-        return withoutAnsi.length();
-    }
-    
-    /**
-     * Visualizza il menu completo con tutte le decorazioni
+     * Visualizza il menu completo con tutte le decorazioni.
+     * Il frame viene costruito una sola volta per configurazione del menu e
+     * scritto con un'unica operazione (vedi {@link MenuRenderer}).
      */
     private void displayMenu() {
-        int width = 60;
-        
-        // Pulisce lo schermo prima di visualizzare il menu
-        clearScreen();
-        
-        // Barra superiore
-        drawHorizontalLine(width, TOP_LEFT, TOP_RIGHT);
-        
-        // Titolo
-        String formattedTitle = BOLD + YELLOW + title + RESET;
-        drawRowWithBorders(formattedTitle, width);
-        
-        // Separatore
-        drawHorizontalLine(width, T_RIGHT, T_LEFT);
-        
-        // Voci del menu
-        for (int i = 0; i < menuItems.size(); i++) {
-            String item = String.format("%s[%d]%s %s", 
-                GREEN, 
-                i + 1, 
-                RESET, 
-                menuItems.get(i).getDescription());
-            drawRowLeftAligned(item, width);
-        }
-        
-        // Barra inferiore
-        drawHorizontalLine(width, BOTTOM_LEFT, BOTTOM_RIGHT);
-        
-        // Prompt per l'input
-        System.out.print("\n" + BLUE + "➤ Seleziona un'opzione: " + RESET);
+        renderer.render(System.out, menuItems);
     }
     
     /**
@@ -185,7 +82,7 @@ public class MenuTUI {
      */
     private void handleInput() {
         try {
-            String input = scanner.nextLine().trim();
+            String input = scanner().nextLine().trim();
             
             // Verifica se l'input è un numero valido
             int choice = Integer.parseInt(input);
@@ -209,7 +106,7 @@ public class MenuTUI {
      */
     private void showError(String message) {
         System.out.println("\n" + RED + "✖ " + message + RESET);
-        scanner.nextLine();
+        scanner().nextLine();
     }
     
     /**
@@ -225,7 +122,28 @@ public class MenuTUI {
      */
     public void waitForEnter() {
         System.out.print("\n" + YELLOW + "Premi INVIO per continuare..." + RESET);
-        scanner.nextLine();
+        scanner().nextLine();
+    }
+    
+    /**
+     * Restituisce lo Scanner sullo standard input, creandolo al primo utilizzo:
+     * così il primo frame del menu non attende il caricamento delle classi regex
+     * @return Lo Scanner del menu
+     */
+    private Scanner scanner() {
+        if (scanner == null) {
+            scanner = new Scanner(System.in);
+        }
+        return scanner;
+    }
+    
+    /**
+     * Registra un'azione da eseguire una sola volta, subito dopo il primo frame
+     * disegnato (es. report dei tempi di avvio)
+     * @param listener L'azione da eseguire
+     */
+    public void onFirstFrame(Runnable listener) {
+        this.firstFrameListener = listener;
     }
     
     /**
@@ -237,6 +155,18 @@ public class MenuTUI {
         // Loop principale che continua finché running è true
         while (running) {
             displayMenu();
+            
+            if (firstFrameListener != null) {
+                Runnable listener = firstFrameListener;
+                firstFrameListener = null;
+                listener.run();
+                
+                // Il listener può chiedere l'uscita immediata (es. run di training AppCDS)
+                if (!running) {
+                    break;
+                }
+            }
+            
             handleInput();
         }
     }
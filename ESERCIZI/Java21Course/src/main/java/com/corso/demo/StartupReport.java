@@ -0,0 +1,52 @@
+package com.corso.demo;
+
+import java.io.PrintStream;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+/**
+ * Report dei tempi di avvio del launcher ({@code App --startup-report}).
+ *
+ * <p>
+ * Misura il tempo trascorso fino al primo frame del menu, sia dall'avvio della
+ * JVM sia dall'ingresso in {@code main}, e stampa il numero di classi caricate
+ * e di demo già avviate. Le API di management vengono caricate solo dopo aver
+ * preso i tempi, per non falsare la misura; il conteggio delle classi include
+ * quindi anche quelle di {@code java.management}. Per un elenco dettagliato
+ * usare {@code -Xlog:class+load}.
+ * </p>
+ */
+final class StartupReport {
+
+    private final long mainStartNanos;
+
+    /**
+     * Costruttore del report: va creato come prima istruzione di {@code main}
+     */
+    StartupReport() {
+        this.mainStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Stampa il report: da invocare subito dopo il primo frame del menu
+     * @param out Lo stream su cui scrivere (tipicamente System.err)
+     */
+    void printFirstFrame(PrintStream out) {
+        long firstFrameNanos = System.nanoTime();
+        long firstFrameMillis = System.currentTimeMillis();
+
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+        out.println();
+        out.println("[startup] primo frame dopo " + (firstFrameMillis - runtime.getStartTime())
+                + " ms dall'avvio della JVM, " + (firstFrameNanos - mainStartNanos) / 1_000_000 + " ms da main()");
+        out.println("[startup] classi caricate: " + classLoading.getLoadedClassCount()
+                + " (totale " + classLoading.getTotalLoadedClassCount() + ", incluse quelle del report)");
+        out.println("[startup] demo caricate: " + DemoCatalog.loadedDemoCount()
+                + " di " + DemoCatalog.entries().size());
+        out.println("[startup] CDS: " + (runtime.getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile")) ? "archivio applicativo" : "default"));
+    }
+}
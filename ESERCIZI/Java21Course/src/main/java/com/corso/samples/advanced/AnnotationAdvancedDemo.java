@@ -16,6 +16,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.corso.samples.generated.AnnotationRegistry;
+
 /**
  * Advanced demo on Java annotations.
  *
@@ -104,6 +106,16 @@ public final class AnnotationAdvancedDemo {
                 System.out.println("Field @NotBlank -> " + field.getName());
             }
         }
+
+        printSubSection("Same metadata without reflection (generated at compile time)");
+        // ValidationProcessor raccoglie @UseCase e @AuditAction durante la compilazione:
+        // a runtime si leggono costanti, senza reflection né scansione del classpath.
+        for (AnnotationRegistry.UseCaseInfo useCase : AnnotationRegistry.USE_CASES) {
+            System.out.println("Registry @UseCase -> " + useCase);
+        }
+        for (AnnotationRegistry.AuditActionInfo auditAction : AnnotationRegistry.AUDIT_ACTIONS) {
+            System.out.println("Registry @AuditAction -> " + auditAction);
+        }
     }
 
     /**
@@ -166,9 +178,12 @@ public final class AnnotationAdvancedDemo {
                         + parameter.getType().getSimpleName() + " annotations=" + annotationNames);
             }
 
-            // Invocazione dinamica di metodo annotato con dati validi.
+            // Invocazione dinamica di metodo annotato con dati validi: l'invoker viene
+            // risolto una volta e messo in cache, senza Method.invoke a ogni chiamata.
             AnnotatedInventoryService service = new AnnotatedInventoryService();
-            method.invoke(service, "SKU-900", 12, LocalDate.now().plusDays(1));
+            MethodInvokerCache.Invoker registerStock = MethodInvokerCache.invoker(AnnotatedInventoryService.class,
+                    "registerStock", void.class, String.class, int.class, LocalDate.class);
+            registerStock.invoke(service, "SKU-900", 12, LocalDate.now().plusDays(1));
         } catch (ReflectiveOperationException exception) {
             System.out.println("Parameter annotation demo error: " + exception.getMessage());
         }
@@ -189,6 +204,21 @@ public final class AnnotationAdvancedDemo {
 
         System.out.println("Valid request issues -> " + validIssues);
         System.out.println("Invalid request issues -> " + invalidIssues);
+
+        printSubSection("Compiled validator (MethodHandle, cached per class)");
+        // La classe viene ispezionata una sola volta; le chiamate successive non usano reflection.
+        CompiledValidator<CreateProductRequest> validator = CompiledValidator.forClass(CreateProductRequest.class);
+        System.out.println("Compiled rules -> " + validator.ruleCount());
+        System.out.println("Valid request issues -> " + validator.validate(validRequest));
+        System.out.println("Invalid request issues -> " + validator.validate(invalidRequest));
+        System.out.println("Same validator instance on second lookup -> "
+                + (validator == CompiledValidator.forClass(CreateProductRequest.class)));
+
+        printSubSection("Generated validator (annotation processor)");
+        // Codice Java generato a compile time: nessuna ispezione della classe nemmeno al primo uso.
+        System.out.println("Valid request issues -> "
+                + AnnotationAdvancedDemo_CreateProductRequestValidator.validate(validRequest));
+        System.out.println("Invalid request issues -> " + AnnotationRegistry.validate(invalidRequest));
     }
 
     /**
@@ -216,9 +246,11 @@ public final class AnnotationAdvancedDemo {
     }
 
     /**
-     * Valida un oggetto leggendo annotation su ciascun campo.
+     * Valida un oggetto leggendo annotation su ciascun campo, a ogni chiamata.
+     * Resta come riferimento per il confronto con {@link CompiledValidator}
+     * (vedi {@code AnnotationValidationBenchmark}).
      */
-    private static List<String> validateObject(Object target) {
+    static List<String> validateObject(Object target) {
         List<String> issues = new ArrayList<>();
 
         for (Field field : target.getClass().getDeclaredFields()) {
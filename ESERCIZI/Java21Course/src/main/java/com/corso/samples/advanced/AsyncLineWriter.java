@@ -0,0 +1,396 @@
+package com.corso.samples.advanced;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.corso.samples.array_collections.MpmcRingBuffer;
+
+/**
+ * Scrittore asincrono di righe su file, pensato per audit trail fuori dal percorso
+ * della richiesta.
+ *
+ * <p>
+ * {@link #append(String)} inserisce la riga in un {@link MpmcRingBuffer} limitato e
+ * lock-free e ritorna subito. Un solo thread di scrittura preleva le righe a blocchi
+ * con {@code drainTo}, le codifica in UTF-8 in un buffer diretto riutilizzato e le
+ * accoda al file con una sola {@code write} per blocco (o poche, se il blocco supera
+ * il buffer). Con buffer pieno il comportamento dipende da {@link Overflow}: scartare
+ * la riga (il chiamante non attende mai) oppure attendere spazio.
+ * </p>
+ *
+ * <p>
+ * La durabilità dipende da {@link FsyncPolicy}: nessun {@code force}, un
+ * {@code force} per blocco, oppure al più uno ogni {@code fsyncInterval}.
+ * {@link #metrics()} espone righe accettate/scartate/scritte, istogramma della latenza
+ * di accodamento e istogramma delle dimensioni dei blocchi.
+ * </p>
+ *
+ * <p>
+ * A buffer vuoto il thread di scrittura si sospende senza polling: il producer che
+ * lo trova sospeso lo risveglia. {@link #close()} attende gli {@code append} già in
+ * corso, quindi una riga accettata viene sempre scritta.
+ * </p>
+ */
+public final class AsyncLineWriter implements AutoCloseable {
+
+    /**
+     * Comportamento di {@link #append(String)} a buffer pieno.
+     */
+    public enum Overflow {
+        /** La riga viene scartata e conteggiata; il chiamante non attende mai. */
+        DROP,
+        /** Il chiamante attende che si liberi spazio. */
+        BLOCK
+    }
+
+    /**
+     * Frequenza di {@code FileChannel.force}.
+     */
+    public enum FsyncPolicy {
+        /** Mai: i dati arrivano su disco quando decide il sistema operativo. */
+        NEVER,
+        /** Dopo ogni blocco scritto. */
+        EVERY_BATCH,
+        /** Al più una volta ogni {@code fsyncInterval}, e sempre alla chiusura. */
+        PERIODIC
+    }
+
+    /**
+     * Configurazione dello scrittore.
+     *
+     * @param capacity      La capacità del buffer (arrotondata a potenza di 2)
+     * @param maxBatchSize  Il numero massimo di righe per scrittura
+     * @param overflow      Il comportamento a buffer pieno
+     * @param fsync         La politica di fsync
+     * @param fsyncInterval L'intervallo per {@link FsyncPolicy#PERIODIC}
+     */
+    public record Options(int capacity, int maxBatchSize, Overflow overflow, FsyncPolicy fsync,
+            Duration fsyncInterval) {
+
+        public Options {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+            }
+            Objects.requireNonNull(overflow, "overflow must not be null");
+            Objects.requireNonNull(fsync, "fsync must not be null");
+            Objects.requireNonNull(fsyncInterval, "fsyncInterval must not be null");
+            if (fsyncInterval.isNegative()) {
+                throw new IllegalArgumentException("fsyncInterval must not be negative: " + fsyncInterval);
+            }
+        }
+
+        /**
+         * @return 64K righe, blocchi da 1024, scarto a buffer pieno, fsync ogni secondo
+         */
+        public static Options defaults() {
+            return new Options(64 * 1024, 1024, Overflow.DROP, FsyncPolicy.PERIODIC, Duration.ofSeconds(1));
+        }
+    }
+
+    /**
+     * Fotografia delle metriche.
+     *
+     * @param appended                Righe accettate nel buffer
+     * @param dropped                 Righe scartate (buffer pieno con {@link Overflow#DROP} o interruzione)
+     * @param written                 Righe scritte sul file
+     * @param batches                 Scritture eseguite
+     * @param bytes                   Byte scritti
+     * @param fsyncs                  Chiamate a {@code force}
+     * @param writeErrors             Blocchi persi per errori di I/O
+     * @param enqueueLatencyHistogram Accodamenti per latenza: l'indice {@code i} conta
+     *                                le latenze in [2^i, 2^(i+1)) ns
+     * @param batchSizeHistogram      Blocchi per dimensione: l'indice {@code i} conta i
+     *                                blocchi di dimensione in [2^i, 2^(i+1))
+     */
+    public record Metrics(long appended, long dropped, long written, long batches, long bytes, long fsyncs,
+            long writeErrors, long[] enqueueLatencyHistogram, long[] batchSizeHistogram) {
+
+        /**
+         * @return La dimensione media dei blocchi
+         */
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) written / batches;
+        }
+
+        /**
+         * Percentile della latenza di accodamento, approssimato al limite superiore del bucket.
+         *
+         * @param percentile Il percentile, in (0, 100]
+         * @return La latenza in nanosecondi
+         */
+        public long enqueueLatencyPercentileNanos(double percentile) {
+            long total = 0;
+            for (long count : enqueueLatencyHistogram) {
+                total += count;
+            }
+            long threshold = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < enqueueLatencyHistogram.length; i++) {
+                seen += enqueueLatencyHistogram[i];
+                if (seen >= threshold && seen > 0) {
+                    return (1L << (i + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("appended=%d dropped=%d written=%d batches=%d (avg %.1f) bytes=%d fsyncs=%d "
+                    + "writeErrors=%d enqueue p50<=%dns p99<=%dns",
+                    appended, dropped, written, batches, averageBatchSize(), bytes, fsyncs, writeErrors,
+                    enqueueLatencyPercentileNanos(50), enqueueLatencyPercentileNanos(99));
+        }
+    }
+
+    private final MpmcRingBuffer<String> buffer;
+    private final Options options;
+    private final FileChannel channel;
+    private final Thread writer;
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLongArray enqueueLatencyHistogram = new AtomicLongArray(64);
+
+    // Aggiornati solo dal thread di scrittura, letti da metrics()
+    private volatile long written;
+    private volatile long batches;
+    private volatile long bytes;
+    private volatile long fsyncs;
+    private volatile long writeErrors;
+    private final AtomicLongArray batchSizeHistogram = new AtomicLongArray(32);
+
+    private volatile boolean closed;
+    // Append che hanno superato il controllo di chiusura e non hanno ancora accodato
+    private final LongAdder inFlight = new LongAdder();
+    // true mentre il writer si sospende a buffer vuoto: solo allora i producer lo risvegliano
+    private volatile boolean writerParked;
+
+    /**
+     * Apre (o crea) il file in append e avvia il thread di scrittura.
+     *
+     * @param file    Il file di destinazione
+     * @param options La configurazione
+     * @throws IOException se il file non può essere aperto
+     */
+    public AsyncLineWriter(Path file, Options options) throws IOException {
+        Objects.requireNonNull(file, "file must not be null");
+        this.options = Objects.requireNonNull(options, "options must not be null");
+        this.buffer = new MpmcRingBuffer<>(options.capacity());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+
+        this.writer = new Thread(this::writeLoop, "async-line-writer-" + file.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Accoda una riga (senza terminatore).
+     *
+     * @param line La riga
+     * @return {@code false} se la riga è stata scartata
+     */
+    public boolean append(String line) {
+        Objects.requireNonNull(line, "line must not be null");
+        // Incremento prima della lettura di closed: il writer legge closed e poi il
+        // contatore, quindi non termina finché un append che ha visto closed == false è in corso
+        inFlight.increment();
+        if (closed) {
+            inFlight.decrement();
+            throw new IllegalStateException("writer is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean accepted;
+        try {
+            accepted = buffer.offer(line);
+            if (!accepted && options.overflow() == Overflow.BLOCK) {
+                try {
+                    buffer.put(line);
+                    accepted = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            inFlight.decrement();
+        }
+        if (accepted && writerParked) {
+            LockSupport.unpark(writer);
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        enqueueLatencyHistogram.incrementAndGet(63 - Long.numberOfLeadingZeros(elapsed));
+
+        if (accepted) {
+            appended.increment();
+        } else {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * @return Le metriche correnti
+     */
+    public Metrics metrics() {
+        long[] latencies = new long[enqueueLatencyHistogram.length()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = enqueueLatencyHistogram.get(i);
+        }
+        long[] sizes = new long[batchSizeHistogram.length()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = batchSizeHistogram.get(i);
+        }
+        return new Metrics(appended.sum(), dropped.sum(), written, batches, bytes, fsyncs, writeErrors,
+                latencies, sizes);
+    }
+
+    /**
+     * Smette di accettare righe, attende gli {@code append} in corso, scrive le righe
+     * in coda, esegue un fsync finale (salvo {@link FsyncPolicy#NEVER}) e chiude il file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Ciclo del thread di scrittura.
+     */
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(options.maxBatchSize());
+        ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        long intervalNanos = options.fsyncInterval().toNanos();
+        long lastFsync = System.nanoTime();
+        boolean dirty = false;
+
+        while (true) {
+            // Letti prima del drain: se era chiuso senza append in corso, un drain vuoto
+            // significa coda esaurita
+            boolean closing = closed && inFlight.sum() == 0;
+            if (buffer.drainTo(batch, options.maxBatchSize()) == 0) {
+                if (closing) {
+                    break;
+                }
+                boolean periodic = dirty && options.fsync() == FsyncPolicy.PERIODIC;
+                if (periodic && System.nanoTime() - lastFsync >= intervalNanos) {
+                    dirty = !force();
+                    lastFsync = System.nanoTime();
+                    periodic = dirty;
+                }
+                park(periodic ? lastFsync + intervalNanos - System.nanoTime() : 0);
+                continue;
+            }
+
+            writeBatch(batch, out, encoder);
+            dirty = true;
+            if (options.fsync() == FsyncPolicy.EVERY_BATCH
+                    || options.fsync() == FsyncPolicy.PERIODIC && System.nanoTime() - lastFsync >= intervalNanos) {
+                dirty = !force();
+                lastFsync = System.nanoTime();
+            }
+            batch.clear();
+        }
+
+        if (dirty && options.fsync() != FsyncPolicy.NEVER) {
+            force();
+        }
+    }
+
+    /**
+     * Sospende il writer finché un producer o {@link #close()} lo risveglia, o al più
+     * per {@code timeoutNanos} se positivo (la scadenza del prossimo fsync periodico).
+     */
+    private void park(long timeoutNanos) {
+        writerParked = true;
+        // Ricontrollo dopo la pubblicazione del flag: una riga accodata prima che il
+        // producer potesse vederlo sarebbe altrimenti scritta solo al risveglio successivo
+        if (buffer.isEmpty() && !closed) {
+            if (timeoutNanos > 0) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        writerParked = false;
+    }
+
+    private void writeBatch(List<String> batch, ByteBuffer out, CharsetEncoder encoder) {
+        try {
+            for (String line : batch) {
+                encode(CharBuffer.wrap(line), out, encoder);
+                if (!out.hasRemaining()) {
+                    flushBuffer(out);
+                }
+                out.put((byte) '\n');
+            }
+            flushBuffer(out);
+            written += batch.size();
+            batches++;
+            batchSizeHistogram.incrementAndGet(31 - Integer.numberOfLeadingZeros(batch.size()));
+        } catch (IOException e) {
+            out.clear();
+            writeErrors++;
+        }
+    }
+
+    /**
+     * Codifica nel buffer; scrive sul file ogni volta che il buffer si riempie.
+     */
+    private void encode(CharBuffer chars, ByteBuffer out, CharsetEncoder encoder) throws IOException {
+        encoder.reset();
+        while (encoder.encode(chars, out, true).isOverflow()) {
+            flushBuffer(out);
+        }
+        while (encoder.flush(out).isOverflow()) {
+            flushBuffer(out);
+        }
+    }
+
+    private void flushBuffer(ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            bytes += channel.write(out);
+        }
+        out.clear();
+    }
+
+    private boolean force() {
+        try {
+            channel.force(false);
+            fsyncs++;
+            return true;
+        } catch (IOException e) {
+            writeErrors++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.corso.samples.advanced;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Stadio di pipeline producer-consumer che elabora i messaggi a blocchi.
+ *
+ * <p>
+ * I producer pubblicano su una {@link LinkedBlockingQueue} limitata con
+ * {@link #submit(Object)}, che blocca a coda piena (backpressure). N consumer su
+ * virtual thread prelevano invece interi blocchi: attendono il primo messaggio,
+ * poi usano {@code drainTo} per prendere tutto ciò che è già in coda e, se il
+ * blocco non è pieno, attendono altri messaggi fino a {@code maxLatency}. In
+ * questo modo il passaggio di lock tra producer e consumer avviene una volta per
+ * blocco invece che una volta per messaggio.
+ * </p>
+ *
+ * <p>
+ * {@link #metrics()} espone profondità della coda, istogramma delle dimensioni
+ * dei blocchi e tempo trascorso dai producer in attesa di spazio. Le eccezioni
+ * dell'handler, {@link Error} compresi, vengono contate, passate al gestore di
+ * errori indicato alla creazione e conservate: {@link #lastFailure()} restituisce
+ * l'ultima. Il consumer prosegue con il blocco successivo, così la coda continua a
+ * svuotarsi e i producer non restano bloccati.
+ * </p>
+ *
+ * <p>
+ * {@link #close()} attende i submit già in corso prima dello svuotamento finale:
+ * un messaggio accettato viene sempre consegnato.
+ * </p>
+ *
+ * @param <T> Il tipo dei messaggi
+ */
+public final class BatchingPipelineStage<T> implements AutoCloseable {
+
+    /**
+     * Politica di formazione dei blocchi.
+     *
+     * @param maxBatchSize Il numero massimo di messaggi per blocco
+     * @param maxLatency   L'attesa massima, dal primo messaggio, per completare un blocco
+     */
+    public record BatchPolicy(int maxBatchSize, Duration maxLatency) {
+
+        public BatchPolicy {
+            if (maxBatchSize < 1) {
+                throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+            }
+            Objects.requireNonNull(maxLatency, "maxLatency must not be null");
+            if (maxLatency.isNegative()) {
+                throw new IllegalArgumentException("maxLatency must not be negative: " + maxLatency);
+            }
+        }
+    }
+
+    /**
+     * Fotografia delle metriche dello stadio.
+     *
+     * @param submitted            Messaggi accettati
+     * @param processed            Messaggi consegnati all'handler
+     * @param batches              Blocchi consegnati all'handler
+     * @param failedBatches        Blocchi per cui l'handler ha sollevato un'eccezione
+     * @param queueDepth           Messaggi in coda al momento della lettura
+     * @param maxQueueDepth        Massima profondità osservata al momento di un submit
+     * @param producerBlockedCount Submit che hanno trovato la coda piena
+     * @param producerBlockedNanos Tempo totale trascorso dai producer in attesa di spazio
+     * @param batchSizeHistogram   Blocchi per classe di dimensione: l'indice {@code i}
+     *                             conta i blocchi di dimensione in [2^i, 2^(i+1))
+     */
+    public record Metrics(long submitted, long processed, long batches, long failedBatches,
+            int queueDepth, int maxQueueDepth, long producerBlockedCount, long producerBlockedNanos,
+            long[] batchSizeHistogram) {
+
+        /**
+         * @return La dimensione media dei blocchi
+         */
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) processed / batches;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder histogram = new StringBuilder();
+            for (int i = 0; i < batchSizeHistogram.length; i++) {
+                if (batchSizeHistogram[i] > 0) {
+                    histogram.append(histogram.isEmpty() ? "" : ", ")
+                            .append(1 << i).append("..").append((1 << (i + 1)) - 1)
+                            .append('=').append(batchSizeHistogram[i]);
+                }
+            }
+            return String.format("submitted=%d processed=%d batches=%d (avg %.1f) failed=%d queueDepth=%d "
+                    + "maxQueueDepth=%d producerBlocked=%d (%.3f ms) histogram=[%s]",
+                    submitted, processed, batches, averageBatchSize(), failedBatches, queueDepth,
+                    maxQueueDepth, producerBlockedCount, producerBlockedNanos / 1_000_000.0, histogram);
+        }
+    }
+
+    // Con coda vuota i consumer si risvegliano periodicamente per verificare la chiusura
+    private static final long IDLE_POLL_MILLIS = 50;
+    // Attesa tra due controlli dei submit in corso durante la chiusura
+    private static final long CLOSE_WAIT_NANOS = 100_000;
+
+    private final BlockingQueue<T> queue;
+    private final BatchPolicy policy;
+    private final Consumer<List<T>> handler;
+    private final BiConsumer<? super List<T>, ? super Throwable> errorHandler;
+    private final ExecutorService consumers;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder producerBlockedCount = new LongAdder();
+    private final LongAdder producerBlockedNanos = new LongAdder();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLongArray batchSizeHistogram = new AtomicLongArray(32);
+    private final AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+    // Submit che hanno superato il controllo di chiusura e non hanno ancora accodato
+    private final LongAdder inFlight = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Crea lo stadio e avvia i consumer.
+     *
+     * @param capacity      La capacità della coda (oltre la quale {@link #submit(Object)} blocca)
+     * @param consumerCount Il numero di consumer su virtual thread
+     * @param policy        La politica di formazione dei blocchi
+     * @param handler       L'elaborazione di un blocco; la lista viene riutilizzata dal
+     *                      consumer e non va conservata dopo il ritorno
+     */
+    public BatchingPipelineStage(int capacity, int consumerCount, BatchPolicy policy, Consumer<List<T>> handler) {
+        this(capacity, consumerCount, policy, handler, (batch, failure) -> {
+        });
+    }
+
+    /**
+     * Crea lo stadio con un gestore per le eccezioni dell'handler e avvia i consumer.
+     *
+     * @param capacity      La capacità della coda (oltre la quale {@link #submit(Object)} blocca)
+     * @param consumerCount Il numero di consumer su virtual thread
+     * @param policy        La politica di formazione dei blocchi
+     * @param handler       L'elaborazione di un blocco; la lista viene riutilizzata dal
+     *                      consumer e non va conservata dopo il ritorno
+     * @param errorHandler  Riceve il blocco e l'eccezione quando l'handler fallisce; viene
+     *                      chiamato sul thread del consumer
+     */
+    public BatchingPipelineStage(int capacity, int consumerCount, BatchPolicy policy, Consumer<List<T>> handler,
+            BiConsumer<? super List<T>, ? super Throwable> errorHandler) {
+        if (consumerCount < 1) {
+            throw new IllegalArgumentException("consumerCount must be positive: " + consumerCount);
+        }
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.policy = Objects.requireNonNull(policy, "policy must not be null");
+        this.handler = Objects.requireNonNull(handler, "handler must not be null");
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler must not be null");
+        this.consumers = Executors.newVirtualThreadPerTaskExecutor();
+
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.submit(this::consumeLoop);
+        }
+    }
+
+    /**
+     * Pubblica un messaggio, attendendo se la coda è piena.
+     *
+     * @param message Il messaggio
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa
+     */
+    public void submit(T message) throws InterruptedException {
+        Objects.requireNonNull(message, "message must not be null");
+        enter();
+        try {
+            // Percorso veloce senza misure di tempo; si cronometra solo l'attesa effettiva
+            if (!queue.offer(message)) {
+                long start = System.nanoTime();
+                queue.put(message);
+                producerBlockedNanos.add(System.nanoTime() - start);
+                producerBlockedCount.increment();
+            }
+        } finally {
+            inFlight.decrement();
+        }
+        submitted.increment();
+        recordQueueDepth();
+    }
+
+    /**
+     * Pubblica un messaggio solo se c'è spazio.
+     *
+     * @param message Il messaggio
+     * @return {@code false} se la coda è piena
+     */
+    public boolean trySubmit(T message) {
+        Objects.requireNonNull(message, "message must not be null");
+        enter();
+        try {
+            if (!queue.offer(message)) {
+                return false;
+            }
+        } finally {
+            inFlight.decrement();
+        }
+        submitted.increment();
+        recordQueueDepth();
+        return true;
+    }
+
+    /**
+     * @return L'ultima eccezione o errore sollevato dall'handler, o {@code null}
+     */
+    public Throwable lastFailure() {
+        return lastFailure.get();
+    }
+
+    /**
+     * @return Le metriche correnti
+     */
+    public Metrics metrics() {
+        long[] histogram = new long[batchSizeHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = batchSizeHistogram.get(i);
+        }
+        return new Metrics(submitted.sum(), processed.sum(), batches.sum(), failedBatches.sum(),
+                queue.size(), maxQueueDepth.get(), producerBlockedCount.sum(), producerBlockedNanos.sum(),
+                histogram);
+    }
+
+    /**
+     * Smette di accettare messaggi, attende i submit in corso e che i consumer svuotino
+     * la coda, poi li termina.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Un submit che ha visto closed == false sta ancora accodando: va atteso
+        // (i consumer sono attivi, quindi anche un put bloccato si sblocca)
+        while (inFlight.sum() != 0) {
+            LockSupport.parkNanos(CLOSE_WAIT_NANOS);
+        }
+        consumers.close();
+
+        // Messaggi accodati dopo l'uscita dei consumer
+        List<T> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, policy.maxBatchSize()) > 0) {
+            deliver(remaining);
+            remaining.clear();
+        }
+    }
+
+    /**
+     * Registra un submit in corso; fallisce se lo stadio è chiuso.
+     */
+    private void enter() {
+        // Incremento prima della lettura di closed: close() scrive closed e poi legge
+        // il contatore, quindi almeno uno dei due vede l'altro
+        inFlight.increment();
+        if (closed) {
+            inFlight.decrement();
+            throw new IllegalStateException("stage is closed");
+        }
+    }
+
+    private void recordQueueDepth() {
+        int depth = queue.size();
+        int max = maxQueueDepth.get();
+        while (depth > max && !maxQueueDepth.compareAndSet(max, depth)) {
+            max = maxQueueDepth.get();
+        }
+    }
+
+    /**
+     * Ciclo di un consumer: forma un blocco alla volta e lo consegna all'handler.
+     */
+    private void consumeLoop() {
+        int maxBatchSize = policy.maxBatchSize();
+        long maxLatencyNanos = policy.maxLatency().toNanos();
+        List<T> batch = new ArrayList<>(maxBatchSize);
+
+        try {
+            while (true) {
+                // Attesa del primo messaggio del blocco
+                T first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+
+                // Tutto ciò che è già in coda, con un solo passaggio di lock
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                // Blocco non pieno: attende altri messaggi fino alla scadenza
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                deliver(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Consegna un blocco all'handler aggiornando le metriche.
+     */
+    private void deliver(List<T> batch) {
+        try {
+            handler.accept(batch);
+        } catch (Throwable t) {
+            // Anche un Error (AssertionError, StackOverflowError) non deve fermare il
+            // consumer: la coda resterebbe piena e submit() bloccato per sempre
+            failedBatches.increment();
+            lastFailure.set(t);
+            try {
+                errorHandler.accept(batch, t);
+            } catch (Throwable ignored) {
+                // Un gestore di errori difettoso non deve fermare il consumer
+            }
+        }
+        processed.add(batch.size());
+        batches.increment();
+        batchSizeHistogram.incrementAndGet(31 - Integer.numberOfLeadingZeros(batch.size()));
+    }
+}
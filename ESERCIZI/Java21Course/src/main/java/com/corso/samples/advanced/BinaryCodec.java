@@ -0,0 +1,1207 @@
+package com.corso.samples.advanced;
+
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Codec binario guidato da schema per record e tipi {@link Externalizable}, alternativo
+ * a {@code ObjectOutputStream}/{@code ObjectInputStream}.
+ *
+ * <p>
+ * Lo schema di ogni tipo è calcolato una volta alla costruzione: per i record i
+ * componenti in ordine di dichiarazione con accessor e costruttore canonico già
+ * risolti come {@link MethodHandle}; per gli {@code Externalizable} il costruttore
+ * senza argomenti. Il flusso non contiene nomi di classi né descrittori: un tag
+ * numerico (l'indice del tipo nell'elenco passato al costruttore) seguito dai valori.
+ * Interi e lunghezze sono varint (zigzag per i valori con segno), le stringhe UTF-8
+ * con prefisso di lunghezza.
+ * </p>
+ *
+ * <p>
+ * Sicurezza: come un {@code ObjectInputFilter} con allowlist, in lettura sono
+ * ammessi solo i tipi registrati; un tag sconosciuto, un payload troncato, una
+ * lunghezza incoerente o un annidamento oltre {@link #MAX_DEPTH} producono
+ * {@link IllegalArgumentException} senza istanziare nulla. Il codec scrive e legge
+ * solo gli schemi registrati, quindi entrambe le parti devono registrare gli stessi
+ * tipi nello stesso ordine.
+ * </p>
+ *
+ * <p>
+ * I buffer di scrittura sono riutilizzati tramite un piccolo pool (adatto anche ai
+ * virtual thread, a differenza di un {@code ThreadLocal}); i buffer cresciuti oltre
+ * {@link #MAX_RETAINED_BUFFER} non vengono trattenuti. Il codec è immutabile e
+ * thread-safe.
+ * </p>
+ */
+public final class BinaryCodec {
+
+    /** Massimo livello di annidamento accettato in lettura. */
+    public static final int MAX_DEPTH = 32;
+
+    /** Dimensione oltre la quale un buffer non torna nel pool. */
+    public static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    /** Dimensione massima di un messaggio letto con {@link #decodeDelimited(InputStream, Class)}. */
+    public static final int MAX_DELIMITED_MESSAGE = 16 * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER = 256;
+
+    private final Map<Class<?>, Schema> schemasByType = new HashMap<>();
+    private final Schema[] schemasByTag;
+    private final BlockingQueue<Output> pool;
+
+    /**
+     * Crea un codec per i tipi indicati.
+     *
+     * @param allowedTypes I tipi ammessi, record o {@code Externalizable}; l'ordine
+     *                     determina i tag ed è parte del formato
+     * @throws IllegalArgumentException se un tipo non è supportato o un componente ha un
+     *                                  tipo non serializzabile
+     */
+    public BinaryCodec(Class<?>... allowedTypes) {
+        Objects.requireNonNull(allowedTypes, "allowedTypes must not be null");
+        if (allowedTypes.length == 0) {
+            throw new IllegalArgumentException("At least one type must be registered");
+        }
+
+        // Prima i tag, poi i componenti: un record può contenere un altro tipo registrato
+        this.schemasByTag = new Schema[allowedTypes.length + 1];
+        for (int i = 0; i < allowedTypes.length; i++) {
+            Class<?> type = Objects.requireNonNull(allowedTypes[i], "allowedTypes must not contain null");
+            Schema schema;
+            if (type.isRecord()) {
+                schema = new RecordSchema(type, i + 1);
+            } else if (Externalizable.class.isAssignableFrom(type)) {
+                schema = new ExternalizableSchema(type, i + 1);
+            } else {
+                throw new IllegalArgumentException("Not a record or Externalizable: " + type.getName());
+            }
+            if (schemasByType.putIfAbsent(type, schema) != null) {
+                throw new IllegalArgumentException("Type registered twice: " + type.getName());
+            }
+            schemasByTag[i + 1] = schema;
+        }
+        for (Schema schema : schemasByType.values()) {
+            schema.resolve();
+        }
+
+        this.pool = new ArrayBlockingQueue<>(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /**
+     * @param type Il tipo da verificare
+     * @return {@code true} se il tipo è registrato
+     */
+    public boolean isAllowed(Class<?> type) {
+        return schemasByType.containsKey(type);
+    }
+
+    /**
+     * @return I tipi registrati, in ordine di tag
+     */
+    public List<Class<?>> allowedTypes() {
+        return Arrays.stream(schemasByTag, 1, schemasByTag.length).<Class<?>>map(schema -> schema.type).toList();
+    }
+
+    /**
+     * Codifica un oggetto di un tipo registrato.
+     *
+     * @param value L'oggetto
+     * @return I byte codificati, della lunghezza esatta
+     */
+    public byte[] encode(Object value) {
+        Output out = acquire();
+        try {
+            writeTagged(out, Objects.requireNonNull(value, "value must not be null"));
+            return Arrays.copyOf(out.buffer, out.position);
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * Codifica un oggetto direttamente su uno stream, senza copie intermedie.
+     *
+     * @param value  L'oggetto
+     * @param target Lo stream di destinazione (non viene chiuso)
+     * @return Il numero di byte scritti
+     * @throws IOException in caso di errore dello stream
+     */
+    public int encode(Object value, OutputStream target) throws IOException {
+        Objects.requireNonNull(target, "target must not be null");
+        Output out = acquire();
+        try {
+            writeTagged(out, Objects.requireNonNull(value, "value must not be null"));
+            target.write(out.buffer, 0, out.position);
+            return out.position;
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * Scrive un messaggio preceduto dalla sua lunghezza in varint, così che più
+     * messaggi possano essere concatenati sullo stesso stream e riletti uno alla volta
+     * con {@link #decodeDelimited(InputStream, Class)}.
+     *
+     * @param value  L'oggetto
+     * @param target Lo stream di destinazione (non viene chiuso)
+     * @return Il numero di byte scritti, prefisso incluso
+     * @throws IOException in caso di errore dello stream
+     */
+    public int encodeDelimited(Object value, OutputStream target) throws IOException {
+        Objects.requireNonNull(target, "target must not be null");
+        Output out = acquire();
+        try {
+            // Spazio per il prefisso più lungo (5 byte per un int), poi spostato a ridosso del messaggio
+            out.position = 5;
+            writeTagged(out, Objects.requireNonNull(value, "value must not be null"));
+            int length = out.position - 5;
+            if (length > MAX_DELIMITED_MESSAGE) {
+                throw new IllegalArgumentException("Message too large: " + length);
+            }
+            int prefix = varIntSize(length);
+            int start = 5 - prefix;
+            out.position = start;
+            out.writeVarLong(length);
+            target.write(out.buffer, start, prefix + length);
+            return prefix + length;
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * Legge il messaggio successivo scritto da {@link #encodeDelimited(Object, OutputStream)}.
+     * Viene letto dallo stream solo il messaggio corrente, in un buffer del pool.
+     *
+     * @param source     Lo stream di origine
+     * @param targetType Il tipo atteso
+     * @param <T>        Il tipo atteso
+     * @return L'oggetto, oppure {@code null} se lo stream è terminato tra due messaggi
+     * @throws IOException              in caso di errore dello stream o di stream troncato
+     * @throws IllegalArgumentException se il messaggio non è valido o supera
+     *                                  {@link #MAX_DELIMITED_MESSAGE}
+     */
+    public <T> T decodeDelimited(InputStream source, Class<T> targetType) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        int first = source.read();
+        if (first < 0) {
+            return null;
+        }
+
+        long length = first & 0x7F;
+        for (int shift = 7, b = first; (b & 0x80) != 0; shift += 7) {
+            b = source.read();
+            if (b < 0) {
+                throw new EOFException("Truncated length prefix");
+            }
+            if (shift > 28) {
+                throw new IllegalArgumentException("Malformed length prefix");
+            }
+            length |= (long) (b & 0x7F) << shift;
+        }
+        if (length > MAX_DELIMITED_MESSAGE) {
+            throw new IllegalArgumentException("Message too large: " + length);
+        }
+
+        Output scratch = acquire();
+        try {
+            scratch.ensure((int) length);
+            if (source.readNBytes(scratch.buffer, 0, (int) length) != length) {
+                throw new EOFException("Truncated message");
+            }
+            return decode(scratch.buffer, 0, (int) length, targetType);
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Decodifica un payload prodotto da {@link #encode(Object)}.
+     *
+     * @param payload    I byte codificati
+     * @param targetType Il tipo atteso
+     * @param <T>        Il tipo atteso
+     * @return L'oggetto ricostruito
+     * @throws IllegalArgumentException se il payload non è valido o il tipo non è ammesso
+     */
+    public <T> T decode(byte[] payload, Class<T> targetType) {
+        Objects.requireNonNull(payload, "payload must not be null");
+        return decode(payload, 0, payload.length, targetType);
+    }
+
+    /**
+     * Decodifica una porzione di array.
+     *
+     * @param payload    L'array che contiene i byte codificati
+     * @param offset     La posizione iniziale
+     * @param length     Il numero di byte del messaggio
+     * @param targetType Il tipo atteso
+     * @param <T>        Il tipo atteso
+     * @return L'oggetto ricostruito
+     * @throws IllegalArgumentException se il payload non è valido o il tipo non è ammesso
+     */
+    public <T> T decode(byte[] payload, int offset, int length, Class<T> targetType) {
+        Objects.requireNonNull(payload, "payload must not be null");
+        Objects.requireNonNull(targetType, "targetType must not be null");
+        Objects.checkFromIndexSize(offset, length, payload.length);
+
+        Input in = new Input(payload, offset, offset + length);
+        Object value = readTagged(in);
+        if (value == null || !targetType.isInstance(value)) {
+            throw new IllegalArgumentException("Payload does not contain a " + targetType.getName());
+        }
+        if (in.position != in.limit) {
+            throw new IllegalArgumentException("Trailing bytes after payload: " + (in.limit - in.position));
+        }
+        return targetType.cast(value);
+    }
+
+    private Output acquire() {
+        Output out = pool.poll();
+        return out != null ? out : new Output(INITIAL_BUFFER);
+    }
+
+    private void release(Output out) {
+        if (out.buffer.length <= MAX_RETAINED_BUFFER) {
+            out.position = 0;
+            pool.offer(out);
+        }
+    }
+
+    private Schema schemaOf(Class<?> type) {
+        Schema schema = schemasByType.get(type);
+        if (schema == null) {
+            throw new IllegalArgumentException("Type not registered: " + type.getName());
+        }
+        return schema;
+    }
+
+    /**
+     * Tag del tipo (0 per null) seguito dal valore.
+     */
+    private void writeTagged(Output out, Object value) {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        Schema schema = schemaOf(value.getClass());
+        out.writeVarLong(schema.tag);
+        schema.write(out, value);
+    }
+
+    private Object readTagged(Input in) {
+        long tag = in.readVarLong();
+        if (tag == 0) {
+            return null;
+        }
+        if (tag < 0 || tag >= schemasByTag.length) {
+            throw new IllegalArgumentException("Type not allowed: tag " + tag);
+        }
+        return schemasByTag[(int) tag].read(in);
+    }
+
+    // ---- Schemi ----
+
+    private abstract class Schema {
+
+        final Class<?> type;
+        final int tag;
+
+        Schema(Class<?> type, int tag) {
+            this.type = type;
+            this.tag = tag;
+        }
+
+        void resolve() {
+        }
+
+        abstract void write(Output out, Object value);
+
+        abstract Object read(Input in);
+    }
+
+    private final class RecordSchema extends Schema {
+
+        private Component[] components;
+        private MethodHandle constructor;
+
+        RecordSchema(Class<?> type, int tag) {
+            super(type, tag);
+        }
+
+        @Override
+        void resolve() {
+            RecordComponent[] recordComponents = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+            components = new Component[recordComponents.length];
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                for (int i = 0; i < recordComponents.length; i++) {
+                    parameterTypes[i] = recordComponents[i].getType();
+                    MethodHandle accessor = lookup.unreflect(recordComponents[i].getAccessor());
+                    components[i] = component(recordComponents[i], accessor);
+                }
+                // (Object[] values) -> Object
+                constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                        .asSpreader(Object[].class, parameterTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Record not accessible: " + type.getName(), e);
+            }
+        }
+
+        @Override
+        void write(Output out, Object value) {
+            try {
+                for (Component component : components) {
+                    component.write(out, value);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot encode " + type.getName(), e);
+            }
+        }
+
+        @Override
+        Object read(Input in) {
+            in.enter();
+            Object[] values = new Object[components.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = components[i].read(in);
+            }
+            in.exit();
+            try {
+                return (Object) constructor.invokeExact(values);
+            } catch (RuntimeException e) {
+                // Il costruttore canonico valida gli invarianti: payload semanticamente non valido
+                throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + e.getMessage(), e);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+            }
+        }
+
+        private Component component(RecordComponent recordComponent, MethodHandle accessor) {
+            Class<?> componentType = recordComponent.getType();
+            if (componentType == int.class || componentType == short.class || componentType == byte.class
+                    || componentType == char.class) {
+                return new IntComponent(accessor.asType(MethodType.methodType(int.class, Object.class)),
+                        componentType);
+            }
+            if (componentType == long.class) {
+                return new LongComponent(accessor.asType(MethodType.methodType(long.class, Object.class)));
+            }
+            if (componentType == double.class || componentType == float.class) {
+                return new DoubleComponent(accessor.asType(MethodType.methodType(double.class, Object.class)),
+                        componentType == float.class);
+            }
+            if (componentType == boolean.class) {
+                return new BooleanComponent(accessor.asType(MethodType.methodType(boolean.class, Object.class)));
+            }
+            ValueCodec codec = valueCodec(recordComponent.getGenericType(), type.getName() + "."
+                    + recordComponent.getName());
+            return new ValueComponent(accessor.asType(MethodType.methodType(Object.class, Object.class)), codec);
+        }
+    }
+
+    private final class ExternalizableSchema extends Schema {
+
+        private final MethodHandle constructor;
+
+        ExternalizableSchema(Class<?> type, int tag) {
+            super(type, tag);
+            try {
+                this.constructor = MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+                        .findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Externalizable without no-arg constructor: " + type.getName(), e);
+            }
+        }
+
+        @Override
+        void write(Output out, Object value) {
+            if (value.getClass() != type) {
+                throw new IllegalArgumentException("Type not registered: " + value.getClass().getName());
+            }
+            try {
+                ((Externalizable) value).writeExternal(out.objectOutput());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        Object read(Input in) {
+            in.enter();
+            Externalizable value;
+            try {
+                value = (Externalizable) (Object) constructor.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+            }
+            try {
+                value.readExternal(in.objectInput());
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + e.getMessage(), e);
+            }
+            in.exit();
+            return value;
+        }
+    }
+
+    // ---- Componenti dei record: accessor risolto + codifica ----
+
+    private interface Component {
+
+        void write(Output out, Object owner) throws Throwable;
+
+        Object read(Input in);
+    }
+
+    private record IntComponent(MethodHandle accessor, Class<?> primitive) implements Component {
+
+        @Override
+        public void write(Output out, Object owner) throws Throwable {
+            out.writeVarLong(zigzag((int) accessor.invokeExact(owner)));
+        }
+
+        @Override
+        public Object read(Input in) {
+            long value = unzigzag(in.readVarLong());
+            if (primitive == int.class) {
+                return (int) value;
+            }
+            if (primitive == short.class) {
+                return (short) value;
+            }
+            return primitive == byte.class ? (Object) (byte) value : (Object) (char) value;
+        }
+    }
+
+    private record LongComponent(MethodHandle accessor) implements Component {
+
+        @Override
+        public void write(Output out, Object owner) throws Throwable {
+            out.writeVarLong(zigzag((long) accessor.invokeExact(owner)));
+        }
+
+        @Override
+        public Object read(Input in) {
+            return unzigzag(in.readVarLong());
+        }
+    }
+
+    private record DoubleComponent(MethodHandle accessor, boolean isFloat) implements Component {
+
+        @Override
+        public void write(Output out, Object owner) throws Throwable {
+            double value = (double) accessor.invokeExact(owner);
+            if (isFloat) {
+                out.writeFixed(Float.floatToRawIntBits((float) value), 4);
+            } else {
+                out.writeFixed(Double.doubleToRawLongBits(value), 8);
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            return isFloat ? (Object) Float.intBitsToFloat((int) in.readFixed(4))
+                    : (Object) Double.longBitsToDouble(in.readFixed(8));
+        }
+    }
+
+    private record BooleanComponent(MethodHandle accessor) implements Component {
+
+        @Override
+        public void write(Output out, Object owner) throws Throwable {
+            out.writeByte((boolean) accessor.invokeExact(owner) ? 1 : 0);
+        }
+
+        @Override
+        public Object read(Input in) {
+            return in.readByte() != 0;
+        }
+    }
+
+    private record ValueComponent(MethodHandle accessor, ValueCodec codec) implements Component {
+
+        @Override
+        public void write(Output out, Object owner) throws Throwable {
+            codec.write(out, (Object) accessor.invokeExact(owner));
+        }
+
+        @Override
+        public Object read(Input in) {
+            return codec.read(in);
+        }
+    }
+
+    // ---- Codifica dei valori di riferimento (tutti ammettono null) ----
+
+    private interface ValueCodec {
+
+        void write(Output out, Object value);
+
+        Object read(Input in);
+    }
+
+    private ValueCodec valueCodec(Type genericType, String owner) {
+        Class<?> raw = genericType instanceof ParameterizedType parameterized
+                ? (Class<?>) parameterized.getRawType()
+                : genericType instanceof Class<?> plain ? plain : null;
+        if (raw == null) {
+            throw new IllegalArgumentException("Unsupported type " + genericType + " in " + owner);
+        }
+
+        if (raw == String.class) {
+            return STRING;
+        }
+        if (raw == Integer.class || raw == Long.class || raw == Short.class || raw == Byte.class) {
+            return new BoxedIntegerCodec(raw);
+        }
+        if (raw == Double.class) {
+            return BOXED_DOUBLE;
+        }
+        if (raw == Boolean.class) {
+            return BOXED_BOOLEAN;
+        }
+        if (raw == LocalDate.class) {
+            return LOCAL_DATE;
+        }
+        if (raw == byte[].class) {
+            return BYTES;
+        }
+        if (raw.isEnum()) {
+            return new EnumCodec(raw.getEnumConstants());
+        }
+        if (raw == List.class && genericType instanceof ParameterizedType parameterized) {
+            return new ListCodec(valueCodec(parameterized.getActualTypeArguments()[0], owner));
+        }
+        if (schemasByType.containsKey(raw)) {
+            return new NestedCodec(schemasByType.get(raw));
+        }
+        throw new IllegalArgumentException("Unsupported type " + genericType.getTypeName() + " in " + owner
+                + " (nested records and Externalizable types must be registered)");
+    }
+
+    private static final ValueCodec STRING = new ValueCodec() {
+        @Override
+        public void write(Output out, Object value) {
+            out.writeString((String) value);
+        }
+
+        @Override
+        public Object read(Input in) {
+            return in.readString();
+        }
+    };
+
+    private static final ValueCodec BOXED_DOUBLE = new ValueCodec() {
+        @Override
+        public void write(Output out, Object value) {
+            out.writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                out.writeFixed(Double.doubleToRawLongBits((Double) value), 8);
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            return in.readByte() == 0 ? null : Double.longBitsToDouble(in.readFixed(8));
+        }
+    };
+
+    private static final ValueCodec BOXED_BOOLEAN = new ValueCodec() {
+        @Override
+        public void write(Output out, Object value) {
+            out.writeByte(value == null ? 0 : (Boolean) value ? 2 : 1);
+        }
+
+        @Override
+        public Object read(Input in) {
+            int flag = in.readByte();
+            return flag == 0 ? null : flag == 2;
+        }
+    };
+
+    /** Giorno epoch in zigzag, +1 per riservare lo 0 al null. */
+    private static final ValueCodec LOCAL_DATE = new ValueCodec() {
+        @Override
+        public void write(Output out, Object value) {
+            out.writeVarLong(value == null ? 0 : zigzag(((LocalDate) value).toEpochDay()) + 1);
+        }
+
+        @Override
+        public Object read(Input in) {
+            long encoded = in.readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            try {
+                return LocalDate.ofEpochDay(unzigzag(encoded - 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid date: " + e.getMessage(), e);
+            }
+        }
+    };
+
+    private static final ValueCodec BYTES = new ValueCodec() {
+        @Override
+        public void write(Output out, Object value) {
+            byte[] bytes = (byte[]) value;
+            out.writeVarLong(bytes == null ? 0 : bytes.length + 1L);
+            if (bytes != null) {
+                out.writeBytes(bytes, 0, bytes.length);
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            int length = in.readLength();
+            return length < 0 ? null : in.readBytes(length);
+        }
+    };
+
+    private record BoxedIntegerCodec(Class<?> type) implements ValueCodec {
+
+        @Override
+        public void write(Output out, Object value) {
+            out.writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                out.writeVarLong(zigzag(((Number) value).longValue()));
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            if (in.readByte() == 0) {
+                return null;
+            }
+            long value = unzigzag(in.readVarLong());
+            if (type == Integer.class) {
+                return (int) value;
+            }
+            if (type == Short.class) {
+                return (short) value;
+            }
+            return type == Byte.class ? (Object) (byte) value : (Object) value;
+        }
+    }
+
+    private record EnumCodec(Object[] constants) implements ValueCodec {
+
+        @Override
+        public void write(Output out, Object value) {
+            out.writeVarLong(value == null ? 0 : ((Enum<?>) value).ordinal() + 1L);
+        }
+
+        @Override
+        public Object read(Input in) {
+            long ordinal = in.readVarLong();
+            if (ordinal < 0 || ordinal > constants.length) {
+                throw new IllegalArgumentException("Invalid enum ordinal: " + (ordinal - 1));
+            }
+            return ordinal == 0 ? null : constants[(int) ordinal - 1];
+        }
+    }
+
+    /** Dimensione +1 (0 = null), poi gli elementi; in lettura restituisce una lista immutabile. */
+    private record ListCodec(ValueCodec elements) implements ValueCodec {
+
+        @Override
+        public void write(Output out, Object value) {
+            List<?> list = (List<?>) value;
+            out.writeVarLong(list == null ? 0 : list.size() + 1L);
+            if (list != null) {
+                for (Object element : list) {
+                    elements.write(out, element);
+                }
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            int size = in.readLength();
+            if (size < 0) {
+                return null;
+            }
+            // Gli elementi possono essere null: List.copyOf non è applicabile
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(elements.read(in));
+            }
+            return Collections.unmodifiableList(list);
+        }
+    }
+
+    /** Tipo registrato usato come componente: presenza + valore, senza tag. */
+    private record NestedCodec(Schema schema) implements ValueCodec {
+
+        @Override
+        public void write(Output out, Object value) {
+            out.writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                schema.write(out, value);
+            }
+        }
+
+        @Override
+        public Object read(Input in) {
+            return in.readByte() == 0 ? null : schema.read(in);
+        }
+    }
+
+    // ---- Buffer ----
+
+    private static int varIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Buffer di scrittura crescente, riutilizzato tramite il pool.
+     */
+    private final class Output {
+
+        private byte[] buffer;
+        private int position;
+        private ObjectOutput objectOutput;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        /** Little-endian a lunghezza fissa. */
+        void writeFixed(long value, int bytes) {
+            ensure(bytes);
+            for (int i = 0; i < bytes; i++) {
+                buffer[position++] = (byte) (value >>> (i * 8));
+            }
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        /** Lunghezza UTF-8 +1 (0 = null); le stringhe ASCII sono copiate senza allocare. */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80) {
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(utf8.length + 1L);
+                    writeBytes(utf8, 0, utf8.length);
+                    return;
+                }
+            }
+            writeVarLong(length + 1L);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                buffer[position++] = (byte) value.charAt(i);
+            }
+        }
+
+        ObjectOutput objectOutput() {
+            if (objectOutput == null) {
+                objectOutput = new CodecObjectOutput(this);
+            }
+            return objectOutput;
+        }
+    }
+
+    /**
+     * Cursore di lettura con controllo dei limiti.
+     */
+    private final class Input {
+
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+        private int depth;
+        private ObjectInput objectInput;
+
+        Input(byte[] buffer, int offset, int limit) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("Nesting deeper than " + MAX_DEPTH);
+            }
+        }
+
+        void exit() {
+            depth--;
+        }
+
+        int readByte() {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Truncated payload");
+            }
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readFixed(int bytes) {
+            if (limit - position < bytes) {
+                throw new IllegalArgumentException("Truncated payload");
+            }
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value |= (buffer[position++] & 0xFFL) << (i * 8);
+            }
+            return value;
+        }
+
+        /**
+         * Lunghezza con prefisso +1: -1 per null. Ogni elemento occupa almeno un byte,
+         * quindi una lunghezza oltre i byte rimanenti è sicuramente falsa e viene
+         * rifiutata prima di allocare.
+         */
+        int readLength() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return -1;
+            }
+            if (encoded < 0 || encoded - 1 > limit - position) {
+                throw new IllegalArgumentException("Length exceeds payload: " + (encoded - 1));
+            }
+            return (int) (encoded - 1);
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readLength();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        ObjectInput objectInput() {
+            if (objectInput == null) {
+                objectInput = new CodecObjectInput(this);
+            }
+            return objectInput;
+        }
+    }
+
+    // ---- Adattatori per Externalizable ----
+
+    /**
+     * {@link ObjectOutput} sul buffer del codec: int/long in varint, stringhe in UTF-8,
+     * {@code writeObject} ammesso solo per null e tipi registrati.
+     */
+    private final class CodecObjectOutput implements ObjectOutput {
+
+        private final Output out;
+
+        CodecObjectOutput(Output out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeObject(Object value) {
+            writeTagged(out, value);
+        }
+
+        @Override
+        public void write(int value) {
+            out.writeByte(value);
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            out.writeBytes(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            out.writeBytes(bytes, offset, length);
+        }
+
+        @Override
+        public void writeBoolean(boolean value) {
+            out.writeByte(value ? 1 : 0);
+        }
+
+        @Override
+        public void writeByte(int value) {
+            out.writeByte(value);
+        }
+
+        @Override
+        public void writeShort(int value) {
+            out.writeVarLong(zigzag((short) value));
+        }
+
+        @Override
+        public void writeChar(int value) {
+            out.writeVarLong((char) value);
+        }
+
+        @Override
+        public void writeInt(int value) {
+            out.writeVarLong(zigzag(value));
+        }
+
+        @Override
+        public void writeLong(long value) {
+            out.writeVarLong(zigzag(value));
+        }
+
+        @Override
+        public void writeFloat(float value) {
+            out.writeFixed(Float.floatToRawIntBits(value), 4);
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            out.writeFixed(Double.doubleToRawLongBits(value), 8);
+        }
+
+        @Override
+        public void writeBytes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                out.writeByte(value.charAt(i));
+            }
+        }
+
+        @Override
+        public void writeChars(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                writeChar(value.charAt(i));
+            }
+        }
+
+        @Override
+        public void writeUTF(String value) {
+            out.writeString(Objects.requireNonNull(value, "value must not be null"));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * {@link ObjectInput} simmetrico a {@link CodecObjectOutput}: gli errori di formato
+     * restano {@link IllegalArgumentException}.
+     */
+    private final class CodecObjectInput implements ObjectInput {
+
+        private final Input in;
+
+        CodecObjectInput(Input in) {
+            this.in = in;
+        }
+
+        @Override
+        public Object readObject() {
+            return readTagged(in);
+        }
+
+        @Override
+        public int read() {
+            return in.position < in.limit ? in.readByte() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes) {
+            return read(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            int count = Math.min(length, in.limit - in.position);
+            if (count <= 0) {
+                return length == 0 ? 0 : -1;
+            }
+            System.arraycopy(in.buffer, in.position, bytes, offset, count);
+            in.position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, in.limit - in.position));
+            in.position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return in.limit - in.position;
+        }
+
+        @Override
+        public void readFully(byte[] bytes) {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int offset, int length) {
+            if (in.limit - in.position < length) {
+                throw new IllegalArgumentException("Truncated payload");
+            }
+            System.arraycopy(in.buffer, in.position, bytes, offset, length);
+            in.position += length;
+        }
+
+        @Override
+        public int skipBytes(int count) {
+            return (int) skip(count);
+        }
+
+        @Override
+        public boolean readBoolean() {
+            return in.readByte() != 0;
+        }
+
+        @Override
+        public byte readByte() {
+            return (byte) in.readByte();
+        }
+
+        @Override
+        public int readUnsignedByte() {
+            return in.readByte() & 0xFF;
+        }
+
+        @Override
+        public short readShort() {
+            return (short) unzigzag(in.readVarLong());
+        }
+
+        @Override
+        public int readUnsignedShort() {
+            return readShort() & 0xFFFF;
+        }
+
+        @Override
+        public char readChar() {
+            return (char) in.readVarLong();
+        }
+
+        @Override
+        public int readInt() {
+            return (int) unzigzag(in.readVarLong());
+        }
+
+        @Override
+        public long readLong() {
+            return unzigzag(in.readVarLong());
+        }
+
+        @Override
+        public float readFloat() {
+            return Float.intBitsToFloat((int) in.readFixed(4));
+        }
+
+        @Override
+        public double readDouble() {
+            return Double.longBitsToDouble(in.readFixed(8));
+        }
+
+        @Override
+        public String readLine() {
+            throw new UnsupportedOperationException("readLine is not supported");
+        }
+
+        @Override
+        public String readUTF() {
+            String value = in.readString();
+            if (value == null) {
+                throw new IllegalArgumentException("Null string in writeUTF field");
+            }
+            return value;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
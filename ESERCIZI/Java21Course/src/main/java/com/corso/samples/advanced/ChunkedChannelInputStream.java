@@ -0,0 +1,149 @@
+package com.corso.samples.advanced;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link InputStream} che legge il formato a chunk di {@link ChunkedChannelOutputStream}
+ * da un {@link ReadableByteChannel}, un chunk alla volta, in un buffer diretto del pool.
+ *
+ * <p>
+ * Ogni chunk viene verificato con il suo CRC32C prima di essere esposto. La fine del
+ * canale senza terminatore produce {@link EOFException}; lunghezze o checksum non
+ * validi producono {@link StreamCorruptedException}. Dopo il terminatore lo stream
+ * restituisce -1. {@link #close()} restituisce il buffer al pool e non chiude il canale.
+ * </p>
+ */
+public final class ChunkedChannelInputStream extends InputStream {
+
+    private static final int HEADER_SIZE = ChunkedChannelOutputStream.HEADER_SIZE;
+
+    private final ReadableByteChannel channel;
+    private final DirectBufferPool pool;
+    private final CRC32C checksum = new CRC32C();
+    private ByteBuffer buffer;
+    private boolean finished;
+    private long chunks;
+
+    /**
+     * Crea uno stream con il pool condiviso.
+     *
+     * @param channel Il canale di origine
+     */
+    public ChunkedChannelInputStream(ReadableByteChannel channel) {
+        this(channel, DirectBufferPool.shared());
+    }
+
+    /**
+     * Crea uno stream; i buffer del pool devono essere grandi almeno quanto quelli dello
+     * scrittore.
+     *
+     * @param channel Il canale di origine
+     * @param pool    Il pool di buffer diretti
+     */
+    public ChunkedChannelInputStream(ReadableByteChannel channel, DirectBufferPool pool) {
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.buffer = pool.acquire().limit(0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    /**
+     * @return I chunk di dati letti finora
+     */
+    public long chunkCount() {
+        return chunks;
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Carica il chunk successivo se quello corrente è esaurito.
+     *
+     * @return {@code false} a fine flusso
+     */
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+        while (!buffer.hasRemaining()) {
+            if (finished) {
+                return false;
+            }
+            readChunk();
+        }
+        return true;
+    }
+
+    private void readChunk() throws IOException {
+        buffer.clear().limit(HEADER_SIZE);
+        readFully();
+        int length = buffer.getInt(0);
+        int expected = buffer.getInt(4);
+
+        if (length == 0) {
+            finished = true;
+            buffer.limit(0);
+            return;
+        }
+        if (length < 0 || length > buffer.capacity() - HEADER_SIZE) {
+            throw new StreamCorruptedException("Invalid chunk length: " + length);
+        }
+
+        buffer.limit(HEADER_SIZE + length);
+        readFully();
+        buffer.position(HEADER_SIZE);
+        checksum.reset();
+        checksum.update(buffer.duplicate());
+        if ((int) checksum.getValue() != expected) {
+            throw new StreamCorruptedException("Checksum mismatch in chunk " + chunks);
+        }
+        chunks++;
+    }
+
+    private void readFully() throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated stream: missing end-of-stream chunk");
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.corso.samples.advanced;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link OutputStream} che scrive su un {@link WritableByteChannel} a blocchi (chunk),
+ * attraverso un buffer diretto preso da un {@link DirectBufferPool}.
+ *
+ * <p>
+ * Alternativa a {@code ByteArrayOutputStream.toByteArray()} per payload grandi: la
+ * memoria usata è quella di un solo buffer, qualunque sia la dimensione totale, e il
+ * canale riceve i byte direttamente dalla memoria nativa senza copie intermedie.
+ * </p>
+ *
+ * <p>
+ * Formato di ogni chunk: lunghezza del payload (int), CRC32C del payload (int),
+ * payload. Un chunk di lunghezza 0 chiude il flusso: chi legge distingue così una
+ * chiusura regolare da un file troncato. {@link #flush()} emette il chunk parziale
+ * corrente; {@link #close()} emette l'ultimo chunk e il terminatore, restituisce il
+ * buffer al pool e non chiude il canale.
+ * </p>
+ */
+public final class ChunkedChannelOutputStream extends OutputStream {
+
+    /** Dimensione dell'intestazione di ogni chunk: lunghezza + CRC32C. */
+    public static final int HEADER_SIZE = 8;
+
+    private final WritableByteChannel channel;
+    private final DirectBufferPool pool;
+    private final CRC32C checksum = new CRC32C();
+    private ByteBuffer buffer;
+    private long chunks;
+    private long payloadBytes;
+
+    /**
+     * Crea uno stream con il pool condiviso.
+     *
+     * @param channel Il canale di destinazione
+     */
+    public ChunkedChannelOutputStream(WritableByteChannel channel) {
+        this(channel, DirectBufferPool.shared());
+    }
+
+    /**
+     * Crea uno stream con chunk grandi quanto i buffer del pool (meno l'intestazione).
+     *
+     * @param channel Il canale di destinazione
+     * @param pool    Il pool di buffer diretti
+     */
+    public ChunkedChannelOutputStream(WritableByteChannel channel, DirectBufferPool pool) {
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.buffer = pool.acquire();
+        buffer.position(HEADER_SIZE);
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            writeChunk();
+        }
+        buffer.put((byte) value);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        ensureOpen();
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                writeChunk();
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Emette il chunk corrente, anche se non pieno.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (buffer.position() > HEADER_SIZE) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * @return I chunk di dati scritti finora (escluso il terminatore)
+     */
+    public long chunkCount() {
+        return chunks;
+    }
+
+    /**
+     * @return I byte di payload scritti sul canale finora
+     */
+    public long payloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * Emette l'ultimo chunk e il terminatore. Il canale resta aperto.
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+            // Terminatore: lunghezza 0, CRC 0
+            buffer.clear().putInt(0).putInt(0).flip();
+            writeFully();
+        } finally {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        int length = buffer.position() - HEADER_SIZE;
+        checksum.reset();
+        checksum.update(buffer.duplicate().flip().position(HEADER_SIZE));
+        buffer.putInt(0, length).putInt(4, (int) checksum.getValue()).flip();
+        writeFully();
+        buffer.clear().position(HEADER_SIZE);
+        chunks++;
+        payloadBytes += length;
+    }
+
+    private void writeFully() throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.corso.samples.advanced;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.corso.samples.advanced.AnnotationAdvancedDemo.IntRange;
+import com.corso.samples.advanced.AnnotationAdvancedDemo.NotBlank;
+
+/**
+ * Validatore per le annotation {@link NotBlank} e {@link IntRange} compilato una sola
+ * volta per classe.
+ *
+ * <p>
+ * La prima richiesta per una classe ispeziona i campi (inclusi quelli ereditati e i
+ * componenti dei record) e trasforma ogni annotation in una regola con un
+ * {@link MethodHandle} di lettura già adattato al tipo esatto ({@code String} o
+ * {@code int}). Il risultato è memorizzato in un {@link ClassValue}: le validazioni
+ * successive non fanno lookup riflessivi, non leggono annotation e, se l'oggetto è
+ * valido, non allocano (viene restituita la lista vuota condivisa).
+ * </p>
+ *
+ * <p>
+ * La semantica coincide con la validazione riflessiva della demo: un valore
+ * {@code null} non viola {@code @NotBlank}, un {@code Integer} null non viola
+ * {@code @IntRange}.
+ * </p>
+ *
+ * @param <T> Il tipo validato
+ */
+public final class CompiledValidator<T> {
+
+    private static final ClassValue<CompiledValidator<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected CompiledValidator<?> computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private static final MethodType STRING_GETTER = MethodType.methodType(String.class, Object.class);
+    private static final MethodType INT_GETTER = MethodType.methodType(int.class, Object.class);
+    private static final MethodType INTEGER_GETTER = MethodType.methodType(Integer.class, Object.class);
+
+    private final Class<T> type;
+    private final Rule[] rules;
+
+    private CompiledValidator(Class<T> type, Rule[] rules) {
+        this.type = type;
+        this.rules = rules;
+    }
+
+    /**
+     * Restituisce il validatore della classe, compilandolo alla prima richiesta.
+     *
+     * @param type La classe da validare
+     * @param <T>  Il tipo validato
+     * @return Il validatore (condiviso e thread-safe)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompiledValidator<T> forClass(Class<T> type) {
+        return (CompiledValidator<T>) CACHE.get(Objects.requireNonNull(type, "type must not be null"));
+    }
+
+    /**
+     * Valida un oggetto usando il validatore della sua classe.
+     *
+     * @param target L'oggetto da validare
+     * @return Le violazioni, oppure una lista vuota condivisa se l'oggetto è valido
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> validateObject(Object target) {
+        Objects.requireNonNull(target, "target must not be null");
+        return ((CompiledValidator<Object>) CACHE.get(target.getClass())).validate(target);
+    }
+
+    /**
+     * Applica tutte le regole.
+     *
+     * @param target L'oggetto da validare
+     * @return Le violazioni nell'ordine dei campi, oppure {@code List.of()} se l'oggetto è valido
+     */
+    public List<String> validate(T target) {
+        List<String> issues = null;
+        for (Rule rule : rules) {
+            String issue = rule.check(target);
+            if (issue != null) {
+                if (issues == null) {
+                    issues = new ArrayList<>(rules.length);
+                }
+                issues.add(issue);
+            }
+        }
+        return issues == null ? List.of() : issues;
+    }
+
+    /**
+     * Verifica se l'oggetto è valido, senza costruire la lista delle violazioni.
+     *
+     * @param target L'oggetto da validare
+     * @return {@code true} se nessuna regola è violata
+     */
+    public boolean isValid(T target) {
+        for (Rule rule : rules) {
+            if (rule.check(target) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Il numero di regole compilate
+     */
+    public int ruleCount() {
+        return rules.length;
+    }
+
+    /**
+     * @return La classe validata
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Ispeziona la classe una sola volta e costruisce le regole.
+     */
+    private static <T> CompiledValidator<T> compile(Class<T> type) {
+        List<Rule> rules = new ArrayList<>();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            // Prima i campi delle superclassi, poi quelli dichiarati: ordine stabile dei messaggi.
+            // Le classi del JDK (Object, Record, ...) non hanno campi annotati e non sono accessibili.
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> current = type; current != null && current.getClassLoader() != null;
+                    current = current.getSuperclass()) {
+                hierarchy.add(0, current);
+            }
+
+            for (Class<?> declaring : hierarchy) {
+                MethodHandles.Lookup declaringLookup = declaring == type
+                        ? lookup
+                        : MethodHandles.privateLookupIn(declaring, MethodHandles.lookup());
+
+                for (Field field : declaring.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    if (field.isAnnotationPresent(NotBlank.class) && field.getType() == String.class) {
+                        MethodHandle getter = getter(declaringLookup, declaring, field).asType(STRING_GETTER);
+                        rules.add(new NotBlankRule(getter, field.getName() + " must not be blank"));
+                    }
+
+                    IntRange range = field.getAnnotation(IntRange.class);
+                    if (range != null && (field.getType() == int.class || field.getType() == Integer.class)) {
+                        String message = field.getName() + " out of range [" + range.min() + ", " + range.max() + "]";
+                        MethodHandle getter = getter(declaringLookup, declaring, field);
+                        rules.add(field.getType() == int.class
+                                ? new IntRangeRule(getter.asType(INT_GETTER), range.min(), range.max(), message)
+                                : new BoxedIntRangeRule(getter.asType(INTEGER_GETTER), range.min(), range.max(), message));
+                    }
+                }
+            }
+        } catch (IllegalAccessException | NoSuchMethodException exception) {
+            throw new IllegalArgumentException("Cannot compile validator for " + type.getName(), exception);
+        }
+        return new CompiledValidator<>(type, rules.toArray(Rule[]::new));
+    }
+
+    /**
+     * Per i record usa l'accessor pubblico, per le altre classi il getter del campo.
+     */
+    private static MethodHandle getter(MethodHandles.Lookup lookup, Class<?> declaring, Field field)
+            throws IllegalAccessException, NoSuchMethodException {
+        if (declaring.isRecord()) {
+            Method accessor = declaring.getDeclaredMethod(field.getName());
+            return lookup.unreflect(accessor);
+        }
+        return lookup.unreflectGetter(field);
+    }
+
+    /**
+     * Regola compilata: restituisce il messaggio precalcolato se violata, altrimenti {@code null}.
+     */
+    private interface Rule {
+        String check(Object target);
+    }
+
+    private record NotBlankRule(MethodHandle getter, String message) implements Rule {
+        @Override
+        public String check(Object target) {
+            String value;
+            try {
+                value = (String) getter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+            return value != null && value.isBlank() ? message : null;
+        }
+    }
+
+    private record IntRangeRule(MethodHandle getter, int min, int max, String message) implements Rule {
+        @Override
+        public String check(Object target) {
+            int value;
+            try {
+                value = (int) getter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+            return value < min || value > max ? message : null;
+        }
+    }
+
+    private record BoxedIntRangeRule(MethodHandle getter, int min, int max, String message) implements Rule {
+        @Override
+        public String check(Object target) {
+            Integer value;
+            try {
+                value = (Integer) getter.invokeExact(target);
+            } catch (Throwable throwable) {
+                throw rethrow(throwable);
+            }
+            return value != null && (value < min || value > max) ? message : null;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException("Validation getter failed", throwable);
+    }
+}
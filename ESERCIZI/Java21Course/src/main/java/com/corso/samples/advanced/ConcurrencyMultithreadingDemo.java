@@ -22,6 +22,8 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.corso.samples.array_collections.MpmcRingBuffer;
+
 /**
  * Demo avanzata su Concurrency e Multithreading in Java 21.
  *
@@ -333,6 +335,38 @@ public class ConcurrencyMultithreadingDemo {
         producer.start();
         consumer.start();
         joinAll(producer, consumer);
+
+        printSubSection("Variante lock-free con MpmcRingBuffer");
+
+        // Coda limitata senza lock: put/take attendono con spin/yield/park invece di
+        // sospendersi su una Condition, e ogni messaggio non alloca nodi di coda.
+        MpmcRingBuffer<String> ring = new MpmcRingBuffer<>(2);
+
+        Thread ringProducer = Thread.ofPlatform().name("ring-producer").unstarted(() -> {
+            for (int i = 1; i <= 3; i++) {
+                try {
+                    ring.put("msg-" + i);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        });
+
+        Thread ringConsumer = Thread.ofPlatform().name("ring-consumer").unstarted(() -> {
+            for (int i = 1; i <= 3; i++) {
+                try {
+                    System.out.println("consumed (ring) -> " + ring.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        });
+
+        ringProducer.start();
+        ringConsumer.start();
+        joinAll(ringProducer, ringConsumer);
     }
 
     /**
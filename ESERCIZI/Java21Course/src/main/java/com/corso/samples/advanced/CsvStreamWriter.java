@@ -0,0 +1,411 @@
+package com.corso.samples.advanced;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrittore CSV in streaming con memoria costante, conforme a RFC 4180.
+ *
+ * <p>
+ * Le righe si compongono campo per campo ({@link #field(CharSequence)},
+ * {@link #field(long)}) e si chiudono con {@link #endRow()}: i caratteri finiscono in
+ * uno {@link StringBuilder} riutilizzato, svuotato verso la destinazione ogni
+ * {@link #FLUSH_THRESHOLD} caratteri. La destinazione può essere un {@link Appendable}
+ * oppure un {@link WritableByteChannel}; nel secondo caso la codifica passa da un
+ * {@link CharsetEncoder} e da un buffer diretto del {@link DirectBufferPool}, entrambi
+ * riutilizzati. La memoria usata non dipende dal numero di righe.
+ * </p>
+ *
+ * <p>
+ * Escaping RFC 4180 senza espressioni regolari: un campo che contiene virgola,
+ * doppio apice, CR o LF viene racchiuso tra doppi apici e gli apici interni vengono
+ * raddoppiati; le righe terminano con CRLF. {@link #exportPartitioned} divide un
+ * export in più file scritti in parallelo.
+ * </p>
+ *
+ * <p>
+ * Un'istanza non è thread-safe: nell'export partizionato ogni file ha il proprio writer.
+ * </p>
+ */
+public final class CsvStreamWriter implements Closeable, Flushable {
+
+    /** Caratteri accumulati prima di svuotare il buffer verso la destinazione. */
+    public static final int FLUSH_THRESHOLD = 8 * 1024;
+
+    /**
+     * Sorgente di righe indicizzate per l'export partizionato: scrive i campi della riga
+     * {@code row}; la riga viene chiusa dall'export.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void writeRow(long row, CsvStreamWriter out) throws IOException;
+    }
+
+    private final StringBuilder pending = new StringBuilder(FLUSH_THRESHOLD + 256);
+    private final Appendable appendable;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final DirectBufferPool pool;
+    private ByteBuffer bytes;
+    private char[] chars;
+    private CharBuffer charView;
+
+    private boolean rowStarted;
+    private long rows;
+    private boolean closed;
+
+    /**
+     * Crea uno scrittore verso un {@link Appendable} (es. {@code Writer}, {@code StringBuilder},
+     * {@code System.out}).
+     *
+     * @param out La destinazione, che non viene chiusa
+     */
+    public CsvStreamWriter(Appendable out) {
+        this.appendable = Objects.requireNonNull(out, "out must not be null");
+        this.channel = null;
+        this.encoder = null;
+        this.pool = null;
+    }
+
+    /**
+     * Crea uno scrittore UTF-8 verso un canale.
+     *
+     * @param channel La destinazione, che non viene chiusa
+     */
+    public CsvStreamWriter(WritableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8, DirectBufferPool.shared());
+    }
+
+    /**
+     * Crea uno scrittore verso un canale.
+     *
+     * @param channel La destinazione, che non viene chiusa
+     * @param charset La codifica; i caratteri non rappresentabili vengono sostituiti
+     * @param pool    Il pool da cui prendere il buffer diretto
+     */
+    public CsvStreamWriter(WritableByteChannel channel, Charset charset, DirectBufferPool pool) {
+        this.appendable = null;
+        this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        this.encoder = Objects.requireNonNull(charset, "charset must not be null").newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.pool = Objects.requireNonNull(pool, "pool must not be null");
+        this.bytes = pool.acquire();
+        this.chars = new char[FLUSH_THRESHOLD + 256];
+        this.charView = CharBuffer.wrap(chars);
+    }
+
+    /**
+     * Aggiunge un campo testuale alla riga corrente ({@code null} diventa campo vuoto).
+     *
+     * @param value Il valore
+     * @return Questo writer
+     */
+    public CsvStreamWriter field(CharSequence value) {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        boolean quote = false;
+        for (int i = 0; i < length && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            pending.append(value);
+            return this;
+        }
+
+        pending.append('"');
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                pending.append('"');
+            }
+            pending.append(c);
+        }
+        pending.append('"');
+        return this;
+    }
+
+    /**
+     * Aggiunge un campo numerico senza creare stringhe intermedie.
+     *
+     * @param value Il valore
+     * @return Questo writer
+     */
+    public CsvStreamWriter field(long value) {
+        separator();
+        pending.append(value);
+        return this;
+    }
+
+    /**
+     * Aggiunge un campo decimale.
+     *
+     * @param value Il valore
+     * @return Questo writer
+     */
+    public CsvStreamWriter field(double value) {
+        separator();
+        pending.append(value);
+        return this;
+    }
+
+    /**
+     * Scrive una riga completa.
+     *
+     * @param fields I campi
+     * @throws IOException in caso di errore della destinazione
+     */
+    public void row(CharSequence... fields) throws IOException {
+        for (CharSequence value : fields) {
+            field(value);
+        }
+        endRow();
+    }
+
+    /**
+     * Scrive una riga completa.
+     *
+     * @param fields I campi
+     * @throws IOException in caso di errore della destinazione
+     */
+    public void row(List<? extends CharSequence> fields) throws IOException {
+        for (CharSequence value : fields) {
+            field(value);
+        }
+        endRow();
+    }
+
+    /**
+     * Chiude la riga corrente con CRLF, svuotando il buffer se ha superato la soglia.
+     *
+     * @throws IOException in caso di errore della destinazione
+     */
+    public void endRow() throws IOException {
+        ensureOpen();
+        pending.append('\r').append('\n');
+        rowStarted = false;
+        rows++;
+        if (pending.length() >= FLUSH_THRESHOLD) {
+            drain(false);
+        }
+    }
+
+    /**
+     * @return Le righe completate
+     */
+    public long rowCount() {
+        return rows;
+    }
+
+    /**
+     * Scrive sulla destinazione tutto ciò che è in buffer.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain(false);
+    }
+
+    /**
+     * Svuota i buffer e restituisce il buffer diretto al pool; la destinazione resta aperta.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            drain(true);
+        } finally {
+            closed = true;
+            if (bytes != null) {
+                pool.release(bytes);
+                bytes = null;
+            }
+        }
+    }
+
+    /**
+     * Esporta {@code totalRows} righe in file da al più {@code rowsPerFile} righe,
+     * scritti in parallelo. Ogni file ripete l'intestazione e ha il proprio writer, quindi
+     * la memoria è costante per file e proporzionale solo al parallelismo.
+     *
+     * @param directory   La cartella di destinazione
+     * @param prefix      Il prefisso dei file ({@code prefix-00000.csv}, ...)
+     * @param header      L'intestazione (vuota per nessuna intestazione)
+     * @param totalRows   Il numero totale di righe
+     * @param rowsPerFile Il numero massimo di righe per file
+     * @param parallelism Il numero di file scritti contemporaneamente
+     * @param source      La sorgente delle righe, chiamata in parallelo da più thread
+     * @return I file scritti, in ordine di riga
+     * @throws IOException se la scrittura di un file fallisce
+     */
+    public static List<Path> exportPartitioned(Path directory, String prefix, List<String> header, long totalRows,
+            long rowsPerFile, int parallelism, RowSource source) throws IOException {
+        Objects.requireNonNull(directory, "directory must not be null");
+        Objects.requireNonNull(prefix, "prefix must not be null");
+        Objects.requireNonNull(header, "header must not be null");
+        Objects.requireNonNull(source, "source must not be null");
+        if (totalRows < 0) {
+            throw new IllegalArgumentException("totalRows must not be negative: " + totalRows);
+        }
+        if (rowsPerFile < 1) {
+            throw new IllegalArgumentException("rowsPerFile must be positive: " + rowsPerFile);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+
+        long partitions = Math.max(1, (totalRows + rowsPerFile - 1) / rowsPerFile);
+        List<Path> files = new ArrayList<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool((int) Math.min(parallelism, partitions));
+        try {
+            for (long partition = 0; partition < partitions; partition++) {
+                Path file = directory.resolve(String.format("%s-%05d.csv", prefix, partition));
+                long from = partition * rowsPerFile;
+                long to = Math.min(totalRows, from + rowsPerFile);
+                files.add(file);
+                tasks.add(executor.submit(() -> {
+                    writePartition(file, header, from, to, source);
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            // Export parziale: si interrompono gli altri file e si rimuove quanto già scritto
+            tasks.forEach(task -> task.cancel(true));
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Export failed: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return List.copyOf(files);
+    }
+
+    private static void writePartition(Path file, List<String> header, long from, long to, RowSource source)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                CsvStreamWriter out = new CsvStreamWriter(channel)) {
+            if (!header.isEmpty()) {
+                out.row(header);
+            }
+            for (long row = from; row < to; row++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Export cancelled");
+                }
+                source.writeRow(row, out);
+                out.endRow();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private void separator() {
+        if (rowStarted) {
+            pending.append(',');
+        }
+        rowStarted = true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed");
+        }
+    }
+
+    /**
+     * Trasferisce i caratteri in buffer alla destinazione.
+     */
+    private void drain(boolean endOfInput) throws IOException {
+        if (appendable != null) {
+            if (!pending.isEmpty()) {
+                appendable.append(pending);
+                pending.setLength(0);
+            }
+            return;
+        }
+
+        // Copia in un char[] riutilizzato: nessuna allocazione per la vista CharBuffer
+        int length = pending.length();
+        if (length > chars.length) {
+            chars = new char[length];
+            charView = CharBuffer.wrap(chars);
+        }
+        pending.getChars(0, length, chars, 0);
+        pending.setLength(0);
+        charView.clear().limit(length);
+
+        while (true) {
+            CoderResult result = encoder.encode(charView, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else {
+                break;
+            }
+        }
+        // Un surrogato alto a fine blocco resta nel CharBuffer fino al blocco successivo
+        if (charView.hasRemaining()) {
+            pending.append(charView);
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            encoder.reset();
+        }
+        writeBytes();
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,88 @@
+package com.corso.samples.advanced;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool limitato di {@link ByteBuffer} diretti di dimensione fissa.
+ *
+ * <p>
+ * Allocare un buffer diretto è costoso (memoria nativa azzerata, rilasciata solo dal
+ * GC): i buffer vanno riutilizzati. {@link #acquire()} restituisce un buffer dal pool
+ * o ne alloca uno nuovo se il pool è vuoto; {@link #release(ByteBuffer)} lo rimette
+ * nel pool se c'è posto, altrimenti lo lascia al GC. Nessun thread resta mai in
+ * attesa di un buffer.
+ * </p>
+ */
+public final class DirectBufferPool {
+
+    private static final DirectBufferPool SHARED = new DirectBufferPool(64 * 1024,
+            Runtime.getRuntime().availableProcessors() * 2);
+
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int bufferSize;
+    private final LongAdder allocated = new LongAdder();
+
+    /**
+     * Crea un pool.
+     *
+     * @param bufferSize La capacità di ogni buffer
+     * @param maxPooled  Il numero massimo di buffer trattenuti
+     */
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize must be at least 16: " + bufferSize);
+        }
+        if (maxPooled < 1) {
+            throw new IllegalArgumentException("maxPooled must be positive: " + maxPooled);
+        }
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * @return Il pool condiviso con buffer da 64 KB
+     */
+    public static DirectBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return Un buffer vuoto (posizione 0, limite uguale alla capacità)
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            allocated.increment();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer.clear();
+    }
+
+    /**
+     * Restituisce un buffer al pool. Il buffer non va più usato dal chiamante.
+     *
+     * @param buffer Il buffer ottenuto da {@link #acquire()}
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == bufferSize) {
+            buffers.offer(buffer.clear());
+        }
+    }
+
+    /**
+     * @return La capacità dei buffer
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return Il numero di buffer allocati dalla creazione del pool
+     */
+    public long allocatedCount() {
+        return allocated.sum();
+    }
+}
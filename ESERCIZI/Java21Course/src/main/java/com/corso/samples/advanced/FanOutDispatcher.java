@@ -0,0 +1,372 @@
+package com.corso.samples.advanced;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Invio di un messaggio a molti destinatari su più canali, in parallelo su virtual thread.
+ *
+ * <p>
+ * Ogni canale ha la propria {@link ChannelPolicy}: un {@link Semaphore} limita gli
+ * invii contemporanei (per non saturare il provider), i canali che supportano
+ * l'invio multiplo ricevono i destinatari a blocchi e il timeout vale per l'intero
+ * canale a partire da {@link #dispatch(String, List)}, attese sul semaforo comprese.
+ * Gli invii non conclusi entro il timeout vengono interrotti e risultano
+ * {@link Status#TIMED_OUT}.
+ * </p>
+ *
+ * <p>
+ * Il risultato aggrega una {@link Delivery} per coppia canale/destinatario; un
+ * errore di un canale non interrompe gli altri.
+ * </p>
+ */
+public final class FanOutDispatcher implements AutoCloseable {
+
+    /**
+     * Invio a un singolo destinatario.
+     */
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * @param recipient Il destinatario
+         * @param message   Il messaggio
+         * @return L'esito restituito dal canale
+         * @throws Exception se l'invio fallisce
+         */
+        String send(String recipient, String message) throws Exception;
+    }
+
+    /**
+     * Invio a un blocco di destinatari con una sola chiamata.
+     */
+    @FunctionalInterface
+    public interface BatchSender {
+        /**
+         * @param recipients I destinatari
+         * @param message    Il messaggio
+         * @return Un esito per destinatario, nello stesso ordine
+         * @throws Exception se l'invio del blocco fallisce
+         */
+        List<String> sendBatch(List<String> recipients, String message) throws Exception;
+    }
+
+    /**
+     * Limiti di un canale.
+     *
+     * @param maxConcurrency Gli invii (o blocchi) contemporanei ammessi
+     * @param batchSize      I destinatari per blocco; usato solo dai canali con {@link BatchSender}
+     * @param timeout        Il tempo massimo del canale, dall'inizio del dispatch
+     */
+    public record ChannelPolicy(int maxConcurrency, int batchSize, Duration timeout) {
+
+        public ChannelPolicy {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+            }
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+            }
+            Objects.requireNonNull(timeout, "timeout must not be null");
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("timeout must be positive: " + timeout);
+            }
+        }
+    }
+
+    /**
+     * Esito di una consegna.
+     */
+    public enum Status {
+        DELIVERED, FAILED, TIMED_OUT
+    }
+
+    /**
+     * Consegna a un destinatario su un canale.
+     *
+     * @param channel      Il nome del canale
+     * @param recipient    Il destinatario
+     * @param status       L'esito
+     * @param detail       La risposta del canale o il messaggio d'errore
+     * @param latencyNanos La durata della chiamata (per i blocchi, dell'intero blocco);
+     *                     {@code -1} se scaduta o mai iniziata
+     */
+    public record Delivery(String channel, String recipient, Status status, String detail, long latencyNanos) {
+    }
+
+    /**
+     * Riepilogo di un canale.
+     *
+     * @param channel          Il nome del canale
+     * @param delivered        Consegne riuscite
+     * @param failed           Consegne fallite
+     * @param timedOut         Consegne non concluse entro il timeout
+     * @param calls            Chiamate al canale (invii singoli o blocchi) concluse
+     * @param busyNanos        La somma delle durate delle chiamate concluse
+     * @param maxLatencyNanos  La chiamata più lenta tra quelle concluse
+     */
+    public record ChannelSummary(String channel, int delivered, int failed, int timedOut, int calls,
+            long busyNanos, long maxLatencyNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("%s: delivered=%d failed=%d timedOut=%d calls=%d busy=%.1f ms maxLatency=%.1f ms",
+                    channel, delivered, failed, timedOut, calls, busyNanos / 1_000_000.0,
+                    maxLatencyNanos / 1_000_000.0);
+        }
+    }
+
+    /**
+     * Risultato aggregato di un dispatch.
+     *
+     * @param deliveries  Le consegne, raggruppate per canale nell'ordine di registrazione
+     * @param summaries   Il riepilogo per canale
+     * @param elapsedNanos La durata del dispatch
+     */
+    public record Result(List<Delivery> deliveries, List<ChannelSummary> summaries, long elapsedNanos) {
+
+        /**
+         * @param status L'esito cercato
+         * @return Le consegne con quell'esito
+         */
+        public long count(Status status) {
+            return deliveries.stream().filter(delivery -> delivery.status() == status).count();
+        }
+
+        /**
+         * @return La somma delle durate delle chiamate: il tempo di un invio sequenziale
+         */
+        public long sequentialNanos() {
+            long total = 0;
+            for (ChannelSummary summary : summaries) {
+                total += summary.busyNanos();
+            }
+            return total;
+        }
+    }
+
+    private record Channel(String name, ChannelPolicy policy, Semaphore permits, Sender sender,
+            BatchSender batchSender) {
+    }
+
+    /**
+     * Esito di una chiamata al canale; {@code latencyNanos < 0} se non si è conclusa.
+     */
+    private record Call(List<Delivery> deliveries, long latencyNanos) {
+    }
+
+    private record Pending(Channel channel, List<String> recipients, Future<Call> future) {
+    }
+
+    private final Map<String, Channel> channels = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Registra un canale che invia un destinatario alla volta.
+     *
+     * @param name   Il nome del canale
+     * @param policy I limiti del canale
+     * @param sender L'invio
+     * @return Questo dispatcher
+     */
+    public synchronized FanOutDispatcher addChannel(String name, ChannelPolicy policy, Sender sender) {
+        Objects.requireNonNull(sender, "sender must not be null");
+        return register(name, policy, sender, null);
+    }
+
+    /**
+     * Registra un canale che accetta blocchi di destinatari.
+     *
+     * @param name        Il nome del canale
+     * @param policy      I limiti del canale
+     * @param batchSender L'invio a blocchi
+     * @return Questo dispatcher
+     */
+    public synchronized FanOutDispatcher addBatchChannel(String name, ChannelPolicy policy, BatchSender batchSender) {
+        Objects.requireNonNull(batchSender, "batchSender must not be null");
+        return register(name, policy, null, batchSender);
+    }
+
+    /**
+     * Invia il messaggio a tutti i destinatari su tutti i canali e attende la
+     * conclusione o il timeout di ogni canale.
+     *
+     * @param message    Il messaggio
+     * @param recipients I destinatari
+     * @return Il risultato aggregato
+     * @throws InterruptedException se il thread chiamante viene interrotto; gli invii pendenti vengono annullati
+     */
+    public Result dispatch(String message, List<String> recipients) throws InterruptedException {
+        Objects.requireNonNull(message, "message must not be null");
+        List<String> targets = List.copyOf(recipients);
+        List<Channel> snapshot;
+        synchronized (this) {
+            snapshot = List.copyOf(channels.values());
+        }
+
+        long start = System.nanoTime();
+        List<Pending> pending = new ArrayList<>();
+        for (Channel channel : snapshot) {
+            int step = channel.batchSender() == null ? 1 : channel.policy().batchSize();
+            for (int from = 0; from < targets.size(); from += step) {
+                List<String> slice = targets.subList(from, Math.min(from + step, targets.size()));
+                pending.add(new Pending(channel, slice, executor.submit(() -> send(channel, slice, message))));
+            }
+        }
+
+        List<Call> calls = new ArrayList<>(pending.size());
+        try {
+            for (Pending next : pending) {
+                calls.add(await(next, start));
+            }
+        } catch (InterruptedException e) {
+            for (Pending next : pending) {
+                next.future().cancel(true);
+            }
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<Delivery> deliveries = new ArrayList<>(targets.size() * snapshot.size());
+        for (Call call : calls) {
+            deliveries.addAll(call.deliveries());
+        }
+        return new Result(Collections.unmodifiableList(deliveries), summarize(snapshot, pending, calls), elapsed);
+    }
+
+    /**
+     * Interrompe gli invii ancora in corso.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private FanOutDispatcher register(String name, ChannelPolicy policy, Sender sender, BatchSender batchSender) {
+        Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(policy, "policy must not be null");
+        if (channels.containsKey(name)) {
+            throw new IllegalArgumentException("channel already registered: " + name);
+        }
+        channels.put(name, new Channel(name, policy, new Semaphore(policy.maxConcurrency()), sender, batchSender));
+        return this;
+    }
+
+    /**
+     * Eseguito su un virtual thread: attende un permesso del canale ed esegue la chiamata.
+     * Un errore del canale, o un'interruzione (ad esempio da {@link #close()}) durante
+     * l'attesa del permesso, diventa un esito {@link Status#FAILED} per tutto il blocco.
+     */
+    private static Call send(Channel channel, List<String> recipients, String message) {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            channel.permits().acquire();
+            acquired = true;
+            start = System.nanoTime();
+            if (channel.batchSender() == null) {
+                String detail = channel.sender().send(recipients.get(0), message);
+                long latency = System.nanoTime() - start;
+                return new Call(List.of(new Delivery(channel.name(), recipients.get(0), Status.DELIVERED, detail,
+                        latency)), latency);
+            }
+            List<String> details = channel.batchSender().sendBatch(recipients, message);
+            long latency = System.nanoTime() - start;
+            if (details == null || details.size() != recipients.size()) {
+                throw new IllegalStateException("batch returned " + (details == null ? "null" : details.size())
+                        + " results for " + recipients.size() + " recipients");
+            }
+            List<Delivery> deliveries = new ArrayList<>(recipients.size());
+            for (int i = 0; i < recipients.size(); i++) {
+                deliveries.add(new Delivery(channel.name(), recipients.get(i), Status.DELIVERED, details.get(i), latency));
+            }
+            return new Call(deliveries, latency);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (!acquired) {
+                return new Call(failAll(channel, recipients, Status.FAILED, "interrupted while waiting for a permit",
+                        -1), -1);
+            }
+            long latency = System.nanoTime() - start;
+            return new Call(failAll(channel, recipients, Status.FAILED,
+                    e.getClass().getSimpleName() + ": " + e.getMessage(), latency), latency);
+        } finally {
+            if (acquired) {
+                channel.permits().release();
+            }
+        }
+    }
+
+    private static Call await(Pending pending, long dispatchStart) throws InterruptedException {
+        Channel channel = pending.channel();
+        long remaining = dispatchStart + channel.policy().timeout().toNanos() - System.nanoTime();
+        try {
+            return pending.future().get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            pending.future().cancel(true);
+            return new Call(failAll(channel, pending.recipients(), Status.TIMED_OUT, "no response within "
+                    + channel.policy().timeout().toMillis() + " ms", -1), -1);
+        } catch (ExecutionException e) {
+            // send() trasforma ogni Exception, interruzioni comprese, in esiti FAILED: qui arriva solo un Error
+            throw new IllegalStateException("channel " + channel.name() + " failed", e.getCause());
+        }
+    }
+
+    private static List<Delivery> failAll(Channel channel, List<String> recipients, Status status, String detail,
+            long latency) {
+        List<Delivery> deliveries = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            deliveries.add(new Delivery(channel.name(), recipient, status, detail, latency));
+        }
+        return deliveries;
+    }
+
+    private static List<ChannelSummary> summarize(List<Channel> channels, List<Pending> pending, List<Call> calls) {
+        Map<String, int[]> counts = new LinkedHashMap<>();
+        Map<String, long[]> latencies = new LinkedHashMap<>();
+        for (Channel channel : channels) {
+            // DELIVERED, FAILED, TIMED_OUT, chiamate concluse
+            counts.put(channel.name(), new int[Status.values().length + 1]);
+            // busy, max
+            latencies.put(channel.name(), new long[2]);
+        }
+        for (int i = 0; i < calls.size(); i++) {
+            String name = pending.get(i).channel().name();
+            Call call = calls.get(i);
+            int[] count = counts.get(name);
+            for (Delivery delivery : call.deliveries()) {
+                count[delivery.status().ordinal()]++;
+            }
+            if (call.latencyNanos() >= 0) {
+                long[] latency = latencies.get(name);
+                count[Status.values().length]++;
+                latency[0] += call.latencyNanos();
+                latency[1] = Math.max(latency[1], call.latencyNanos());
+            }
+        }
+
+        List<ChannelSummary> summaries = new ArrayList<>(channels.size());
+        for (Channel channel : channels) {
+            int[] count = counts.get(channel.name());
+            long[] latency = latencies.get(channel.name());
+            summaries.add(new ChannelSummary(channel.name(), count[Status.DELIVERED.ordinal()],
+                    count[Status.FAILED.ordinal()], count[Status.TIMED_OUT.ordinal()], count[Status.values().length],
+                    latency[0], latency[1]));
+        }
+        return List.copyOf(summaries);
+    }
+}
@@ -0,0 +1,238 @@
+package com.corso.samples.advanced;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+/**
+ * Export/import JSON dei record delle demo con Jackson.
+ *
+ * <p>
+ * Un solo {@link ObjectMapper} condiviso (costoso da creare, thread-safe dopo la
+ * configurazione) e, per ogni tipo, un {@link ObjectReader} e un {@link ObjectWriter}
+ * già costruiti: immutabili, senza lookup del serializer a ogni chiamata. Le date
+ * {@code java.time} sono scritte in ISO-8601.
+ * </p>
+ *
+ * <p>
+ * Per array molto grandi {@link #writeArray(Stream, OutputStream)} e
+ * {@link #readArray(InputStream, Consumer)} usano lo streaming di Jackson
+ * ({@link JsonGenerator}/{@link JsonParser}): un elemento alla volta, senza
+ * materializzare né la lista né il documento. Gli stream passati non vengono chiusi.
+ * </p>
+ *
+ * @param <T> Il tipo esportato
+ */
+public final class JsonPipeline<T> {
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new ParameterNamesModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // Un flush per elemento negli array in streaming annullerebbe il buffering
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private static final ClassValue<JsonPipeline<?>> PIPELINES = new ClassValue<>() {
+        @Override
+        protected JsonPipeline<?> computeValue(Class<?> type) {
+            return new JsonPipeline<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private JsonPipeline(Class<T> type) {
+        this.type = type;
+        this.reader = MAPPER.readerFor(type);
+        this.writer = MAPPER.writerFor(type);
+    }
+
+    /**
+     * Restituisce la pipeline di un tipo, creata alla prima richiesta.
+     *
+     * @param type Il tipo da esportare
+     * @param <T>  Il tipo da esportare
+     * @return La pipeline condivisa del tipo
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonPipeline<T> forType(Class<T> type) {
+        Objects.requireNonNull(type, "type must not be null");
+        return (JsonPipeline<T>) PIPELINES.get(type);
+    }
+
+    /**
+     * @return L'{@link ObjectMapper} condiviso (da non riconfigurare)
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Normalizza un documento JSON in forma compatta.
+     *
+     * @param json Il documento
+     * @return Il documento senza spazi superflui
+     * @throws IllegalArgumentException se il documento non è JSON valido
+     */
+    public static String normalize(String json) {
+        Objects.requireNonNull(json, "json must not be null");
+        try {
+            JsonNode tree = MAPPER.readTree(json);
+            return MAPPER.writeValueAsString(tree);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * @param value Il valore
+     * @return Il documento JSON
+     */
+    public String write(T value) {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write " + type.getSimpleName() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * @param value Il valore
+     * @return Il documento JSON in UTF-8
+     */
+    public byte[] writeBytes(T value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write " + type.getSimpleName() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * @param json Il documento JSON
+     * @return Il valore letto
+     * @throws IllegalArgumentException se il documento non è valido per il tipo
+     */
+    public T read(String json) {
+        Objects.requireNonNull(json, "json must not be null");
+        try {
+            return reader.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * @param json Il documento JSON in UTF-8
+     * @return Il valore letto
+     * @throws IllegalArgumentException se il documento non è valido per il tipo
+     */
+    public T read(byte[] json) {
+        Objects.requireNonNull(json, "json must not be null");
+        try {
+            return reader.readValue(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Scrive un array JSON un elemento alla volta.
+     *
+     * @param values Gli elementi, anche generati in modo lazy
+     * @param target Lo stream di destinazione (non viene chiuso)
+     * @return Il numero di elementi scritti
+     * @throws IOException in caso di errore dello stream
+     */
+    public long writeArray(Stream<? extends T> values, OutputStream target) throws IOException {
+        Objects.requireNonNull(values, "values must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+
+        long count = 0;
+        try (JsonGenerator generator = MAPPER.createGenerator(target)) {
+            generator.writeStartArray();
+            for (Iterator<? extends T> iterator = values.iterator(); iterator.hasNext();) {
+                writer.writeValue(generator, iterator.next());
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+
+    /**
+     * Legge un array JSON consegnando un elemento alla volta.
+     *
+     * @param source   Lo stream di origine (non viene chiuso)
+     * @param consumer Il destinatario di ogni elemento
+     * @return Il numero di elementi letti
+     * @throws IOException              in caso di errore dello stream o di array troncato
+     * @throws IllegalArgumentException se il documento non è un array del tipo atteso
+     */
+    public long readArray(InputStream source, Consumer<? super T> consumer) throws IOException {
+        Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+
+        long count = 0;
+        try (JsonParser parser = MAPPER.createParser(source)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of " + type.getSimpleName());
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new EOFException("Truncated JSON array after " + count + " elements");
+                }
+                consumer.accept(reader.readValue(parser));
+                count++;
+            }
+        } catch (JsonProcessingException e) {
+            if (isTruncation(e)) {
+                EOFException eof = new EOFException("Truncated JSON array after " + count + " elements");
+                eof.initCause(e);
+                throw eof;
+            }
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + " array: "
+                    + e.getOriginalMessage(), e);
+        }
+        return count;
+    }
+
+    /**
+     * Fine dell'input dentro un elemento: databind avvolge la {@link JsonEOFException}
+     * del parser in una {@code JsonMappingException} quando l'oggetto è annidato.
+     */
+    private static boolean isTruncation(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonEOFException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
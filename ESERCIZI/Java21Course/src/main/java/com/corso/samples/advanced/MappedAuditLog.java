@@ -0,0 +1,525 @@
+package com.corso.samples.advanced;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.corso.samples.advanced.ReflectionAdvancedDemo.AuditRecord;
+
+/**
+ * Log di audit append-only su segmenti mappati in memoria.
+ *
+ * <p>
+ * Ogni segmento è un file di dimensione fissa mappato con {@link MappedByteBuffer}:
+ * scrivere un record è una copia in memoria, senza una syscall {@code write} per riga.
+ * Quando un record non entra nello spazio rimasto si passa al segmento successivo
+ * ({@code audit-00000000.seg}, {@code audit-00000001.seg}, ...).
+ * </p>
+ *
+ * <p>
+ * Formato di un record (big-endian):
+ * {@code [int len][int epochDay][u16 actorLen][actor UTF-8][u16 actionLen][action UTF-8]},
+ * dove {@code len} esclude i 4 byte del prefisso. Il payload è scritto prima della
+ * lunghezza, e un prefisso a zero (la parte non ancora scritta del file) chiude il segmento.
+ * </p>
+ *
+ * <p>
+ * L'indice sparso è in memoria: per ogni blocco di {@link #INDEX_INTERVAL} record tiene
+ * offset, giorno minimo e massimo e un piccolo filtro di Bloom a 64 bit sugli actor.
+ * Il replay salta i blocchi che non possono contenere record del {@link Query} e
+ * confronta actor e data sui byte, decodificando le stringhe solo dei record che
+ * corrispondono. All'apertura di una directory esistente l'indice viene ricostruito
+ * scandendo i segmenti; un record troncato in coda viene scartato.
+ * </p>
+ *
+ * <p>
+ * Le scritture sono serializzate; il replay può procedere in parallelo alle scritture
+ * e vede i record presenti al momento della chiamata. La durabilità è garantita solo
+ * dopo {@link #force()} (o {@link #close()}). Le mappature vengono rilasciate dal GC.
+ * </p>
+ */
+public final class MappedAuditLog implements Closeable {
+
+    /** Record per blocco dell'indice sparso. */
+    public static final int INDEX_INTERVAL = 64;
+
+    /** Dimensione predefinita dei segmenti (1 MB). */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    private static final int MIN_SEGMENT_SIZE = 4 * 1024;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    // epochDay + due lunghezze u16
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{8,})\\.seg");
+    private static final int FIXED_PAYLOAD = 4 + 2 + 2;
+
+    /**
+     * Filtro del replay: actor esatto e intervallo di date inclusivo; {@code null}
+     * significa nessun vincolo.
+     *
+     * @param actor L'actor cercato
+     * @param from  La prima data inclusa
+     * @param to    L'ultima data inclusa
+     */
+    public record Query(String actor, LocalDate from, LocalDate to) {
+
+        public Query {
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("from must not be after to: " + from + " > " + to);
+            }
+        }
+
+        /**
+         * @return Il filtro che accetta tutti i record
+         */
+        public static Query all() {
+            return new Query(null, null, null);
+        }
+
+        /**
+         * @param actor L'actor cercato
+         * @return Il filtro per actor
+         */
+        public static Query byActor(String actor) {
+            return new Query(Objects.requireNonNull(actor, "actor must not be null"), null, null);
+        }
+
+        /**
+         * @param from La prima data inclusa
+         * @param to   L'ultima data inclusa
+         * @return Il filtro per intervallo di date
+         */
+        public static Query between(LocalDate from, LocalDate to) {
+            return new Query(null, from, to);
+        }
+
+        /**
+         * @param actor L'actor cercato
+         * @return Lo stesso filtro ristretto a un actor
+         */
+        public Query withActor(String actor) {
+            return new Query(actor, from, to);
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    // Indice del prossimo file: dopo l'ultimo esistente, anche se mancano segmenti intermedi
+    private long nextIndex;
+    private Segment active;
+    private boolean closed;
+
+    /**
+     * Apre il log con segmenti da {@link #DEFAULT_SEGMENT_SIZE}.
+     *
+     * @param directory La directory dei segmenti (creata se non esiste)
+     * @throws IOException se la directory o i segmenti non sono accessibili
+     */
+    public MappedAuditLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Apre il log; i segmenti esistenti vengono riletti per ricostruire l'indice e
+     * la posizione di scrittura.
+     *
+     * @param directory   La directory dei segmenti (creata se non esiste)
+     * @param segmentSize La dimensione dei nuovi segmenti, in byte
+     * @throws IOException se la directory o i segmenti non sono accessibili
+     */
+    public MappedAuditLog(Path directory, int segmentSize) throws IOException {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be at least " + MIN_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(MappedAuditLog::segmentIndex))
+                    .toList();
+        }
+        for (Path file : existing) {
+            segments.add(Segment.recover(file));
+            nextIndex = segmentIndex(file) + 1;
+        }
+        active = segments.isEmpty() ? openSegment() : segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Accoda un record.
+     *
+     * @param audit Il record
+     * @throws IllegalArgumentException se actor o action superano 65535 byte, il record non entra in un
+     *                                  segmento o la data non è rappresentabile come giorno {@code int}
+     * @throws IOException              se non è possibile creare un nuovo segmento
+     */
+    public synchronized void append(AuditRecord audit) throws IOException {
+        Objects.requireNonNull(audit, "audit must not be null");
+        if (closed) {
+            throw new IllegalStateException("log is closed");
+        }
+        long day = Objects.requireNonNull(audit.at(), "at must not be null").toEpochDay();
+        if (day != (int) day) {
+            throw new IllegalArgumentException("at is out of the supported range: " + audit.at());
+        }
+        byte[] actor = utf8(audit.actor(), "actor");
+        byte[] action = utf8(audit.action(), "action");
+        int length = FIXED_PAYLOAD + actor.length + action.length;
+        if (4 + length > segmentSize) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit a segment");
+        }
+        if (active.position + 4 + length > active.buffer.capacity()) {
+            active.buffer.force();
+            active = openSegment();
+        }
+        active.append((int) day, actor, action, length);
+    }
+
+    /**
+     * Forza su disco il segmento corrente (i precedenti sono forzati alla rotazione).
+     */
+    public synchronized void force() {
+        if (!closed) {
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * @return Il numero di segmenti
+     */
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return I record scritti
+     */
+    public synchronized long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.records;
+        }
+        return size;
+    }
+
+    /**
+     * Rilegge in ordine i record che soddisfano il filtro.
+     *
+     * @param query    Il filtro
+     * @param consumer Il destinatario dei record
+     * @return Il numero di record consegnati
+     */
+    public long replay(Query query, Consumer<? super AuditRecord> consumer) {
+        Objects.requireNonNull(query, "query must not be null");
+        Objects.requireNonNull(consumer, "consumer must not be null");
+        Filter filter = new Filter(query);
+        long count = 0;
+        for (SegmentView view : snapshot()) {
+            count += view.scan(filter, consumer);
+        }
+        return count;
+    }
+
+    /**
+     * Raccoglie i record che soddisfano il filtro, scandendo i segmenti in parallelo
+     * se richiesto; l'ordine del log viene mantenuto in entrambi i casi.
+     *
+     * @param query    Il filtro
+     * @param parallel {@code true} per un segmento per task sul ForkJoinPool comune
+     * @return I record trovati
+     */
+    public List<AuditRecord> query(Query query, boolean parallel) {
+        Objects.requireNonNull(query, "query must not be null");
+        Filter filter = new Filter(query);
+        Stream<SegmentView> views = snapshot().stream();
+        if (parallel) {
+            views = views.parallel();
+        }
+        return views.flatMap(view -> {
+            List<AuditRecord> found = new ArrayList<>();
+            view.scan(filter, found::add);
+            return found.stream();
+        }).toList();
+    }
+
+    /**
+     * Forza su disco il segmento corrente; le scritture successive falliscono.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            active.buffer.force();
+            closed = true;
+        }
+    }
+
+    private synchronized List<SegmentView> snapshot() {
+        List<SegmentView> views = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            views.add(segment.view());
+        }
+        return views;
+    }
+
+    /**
+     * Crea il segmento successivo; CREATE_NEW garantisce di non riaprire un file esistente.
+     */
+    private Segment openSegment() throws IOException {
+        Path file = directory.resolve(String.format("audit-%08d.seg", nextIndex));
+        Segment segment = new Segment(map(file, segmentSize, StandardOpenOption.CREATE_NEW), 0);
+        nextIndex++;
+        segments.add(segment);
+        return segment;
+    }
+
+    private static long segmentIndex(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a segment file: " + file);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static MappedByteBuffer map(Path file, long size, OpenOption... extraOptions) throws IOException {
+        Set<OpenOption> options = new HashSet<>(List.of(extraOptions));
+        options.add(StandardOpenOption.READ);
+        options.add(StandardOpenOption.WRITE);
+        // La mappatura resta valida anche dopo la chiusura del canale.
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+        }
+    }
+
+    private static byte[] utf8(String value, String name) {
+        byte[] bytes = Objects.requireNonNull(value, name + " must not be null").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException(name + " exceeds " + MAX_STRING_BYTES + " bytes: " + bytes.length);
+        }
+        return bytes;
+    }
+
+    private static long actorBloom(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[offset + i];
+        }
+        hash ^= hash >>> 16;
+        return 1L << (hash & 63) | 1L << ((hash >>> 6) & 63);
+    }
+
+    /**
+     * Segmento mappato con il suo indice sparso; modificato solo sotto il lock del log.
+     */
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final List<Block> blocks = new ArrayList<>();
+        private int position;
+        private long records;
+
+        private Segment(MappedByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        /**
+         * Riapre un segmento esistente fermandosi al primo prefisso nullo o non valido;
+         * la coda viene azzerata, così un record troncato non può sembrare valido dopo
+         * le scritture successive.
+         */
+        static Segment recover(Path file) throws IOException {
+            MappedByteBuffer buffer = map(file, 0);
+            Segment segment = new Segment(buffer, 0);
+            byte[] actor = new byte[MAX_STRING_BYTES];
+            int capacity = buffer.capacity();
+            int position = 0;
+            while (position + 4 <= capacity) {
+                int length = buffer.getInt(position);
+                if (length < FIXED_PAYLOAD || position + 4 + length > capacity) {
+                    break;
+                }
+                int actorLength = Short.toUnsignedInt(buffer.getShort(position + 8));
+                if (FIXED_PAYLOAD + actorLength > length
+                        || FIXED_PAYLOAD + actorLength + Short.toUnsignedInt(buffer.getShort(position + 10 + actorLength)) != length) {
+                    break;
+                }
+                buffer.get(position + 10, actor, 0, actorLength);
+                segment.index(position, buffer.getInt(position + 4), actorBloom(actor, 0, actorLength), length);
+                position += 4 + length;
+            }
+            segment.position = position;
+            for (int i = position; i < capacity; i++) {
+                if (buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            return segment;
+        }
+
+        void append(int epochDay, byte[] actor, byte[] action, int length) {
+            int start = position;
+            int offset = start + 4;
+            buffer.putInt(offset, epochDay);
+            buffer.putShort(offset + 4, (short) actor.length);
+            buffer.put(offset + 6, actor);
+            buffer.putShort(offset + 6 + actor.length, (short) action.length);
+            buffer.put(offset + 8 + actor.length, action);
+            // La lunghezza per ultima: un prefisso valido segue sempre un payload completo.
+            buffer.putInt(start, length);
+            index(start, epochDay, actorBloom(actor, 0, actor.length), length);
+            position = start + 4 + length;
+        }
+
+        private void index(int start, int epochDay, long bloom, int length) {
+            Block block = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+            if (block == null || block.records == INDEX_INTERVAL) {
+                block = new Block(start);
+                blocks.add(block);
+            }
+            block.add(epochDay, bloom, start + 4 + length);
+            records++;
+        }
+
+        SegmentView view() {
+            List<Block> copy = new ArrayList<>(blocks);
+            if (!copy.isEmpty()) {
+                // L'ultimo blocco può ancora crescere: se ne fotografa lo stato.
+                copy.set(copy.size() - 1, copy.get(copy.size() - 1).copy());
+            }
+            return new SegmentView(buffer.duplicate(), copy);
+        }
+    }
+
+    /**
+     * Voce dell'indice sparso: un intervallo di record con i loro giorni e actor.
+     */
+    private static final class Block {
+        private final int start;
+        private int end;
+        private int records;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+        private long actors;
+
+        private Block(int start) {
+            this.start = start;
+            this.end = start;
+        }
+
+        void add(int epochDay, long bloom, int recordEnd) {
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+            actors |= bloom;
+            end = recordEnd;
+            records++;
+        }
+
+        Block copy() {
+            Block copy = new Block(start);
+            copy.end = end;
+            copy.records = records;
+            copy.minDay = minDay;
+            copy.maxDay = maxDay;
+            copy.actors = actors;
+            return copy;
+        }
+    }
+
+    /**
+     * Il {@link Query} tradotto in confronti su interi e byte.
+     */
+    private static final class Filter {
+        private final byte[] actor;
+        private final long actorBloom;
+        private final int fromDay;
+        private final int toDay;
+
+        Filter(Query query) {
+            this.actor = query.actor() == null ? null : query.actor().getBytes(StandardCharsets.UTF_8);
+            this.actorBloom = actor == null ? 0 : actorBloom(actor, 0, actor.length);
+            this.fromDay = query.from() == null ? Integer.MIN_VALUE : clampDay(query.from());
+            this.toDay = query.to() == null ? Integer.MAX_VALUE : clampDay(query.to());
+        }
+
+        /**
+         * I record hanno giorni {@code int}: un limite oltre (ad esempio {@code LocalDate.MAX})
+         * equivale al limite aperto.
+         */
+        private static int clampDay(LocalDate date) {
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+        }
+
+        boolean mayMatch(Block block) {
+            return block.maxDay >= fromDay && block.minDay <= toDay && (block.actors & actorBloom) == actorBloom;
+        }
+    }
+
+    /**
+     * Vista di sola lettura di un segmento al momento dello snapshot.
+     */
+    private record SegmentView(ByteBuffer buffer, List<Block> blocks) {
+
+        long scan(Filter filter, Consumer<? super AuditRecord> consumer) {
+            long count = 0;
+            for (Block block : blocks) {
+                if (!filter.mayMatch(block)) {
+                    continue;
+                }
+                for (int position = block.start; position < block.end;) {
+                    int length = buffer.getInt(position);
+                    int epochDay = buffer.getInt(position + 4);
+                    int actorLength = Short.toUnsignedInt(buffer.getShort(position + 8));
+                    if (epochDay >= filter.fromDay && epochDay <= filter.toDay
+                            && (filter.actor == null || actorEquals(position + 10, actorLength, filter.actor))) {
+                        consumer.accept(decode(position, epochDay, actorLength));
+                        count++;
+                    }
+                    position += 4 + length;
+                }
+            }
+            return count;
+        }
+
+        private boolean actorEquals(int offset, int length, byte[] expected) {
+            if (length != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(offset + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private AuditRecord decode(int position, int epochDay, int actorLength) {
+            byte[] actor = new byte[actorLength];
+            buffer.get(position + 10, actor);
+            int actionOffset = position + 10 + actorLength;
+            byte[] action = new byte[Short.toUnsignedInt(buffer.getShort(actionOffset))];
+            buffer.get(actionOffset + 2, action);
+            return new AuditRecord(new String(actor, StandardCharsets.UTF_8), LocalDate.ofEpochDay(epochDay),
+                    new String(action, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.corso.samples.advanced;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Cache di invocatori per chiamate dinamiche, alternativa a {@code Method.invoke}.
+ *
+ * <p>
+ * Un metodo viene risolto una sola volta per chiave (classe, nome, firma): la ricerca
+ * riflessiva e l'eventuale {@code setAccessible} avvengono solo alla prima richiesta.
+ * Il metodo viene poi trasformato in:
+ * </p>
+ * <ul>
+ * <li>un {@link MethodHandle} ({@link #handle(Class, String, Class, Class...)}), da
+ * invocare con {@code invokeExact} o da salvare in un campo {@code static final};</li>
+ * <li>un'interfaccia funzionale generata con {@link LambdaMetafactory}
+ * ({@link #function(Class, String, Class)}, {@link #biFunction(Class, String, Class, Class)},
+ * {@link #biConsumer(Class, String, Class)}, {@link #lambda(Class, Class, String, Class, Class...)}):
+ * la chiamata costa come quella di una lambda scritta a mano;</li>
+ * <li>un {@link Invoker} generico per un numero qualsiasi di argomenti, con la stessa
+ * forma di {@code Method.invoke} ma senza controlli di accesso per chiamata.</li>
+ * </ul>
+ *
+ * <p>
+ * I metodi pubblici (anche del JDK, come {@code String.length}) si risolvono con
+ * {@link MethodHandles#publicLookup()}; {@code privateLookupIn} serve solo per i
+ * metodi non pubblici.
+ * </p>
+ *
+ * <p>
+ * La cache è un {@link ClassValue} per classe proprietaria, come in
+ * {@link CompiledValidator}: gli invocatori vivono quanto la classe e non trattengono
+ * il suo class loader. Gli oggetti restituiti sono thread-safe: vanno risolti una volta
+ * (es. alla registrazione di un plugin) e riutilizzati.
+ * </p>
+ */
+public final class MethodInvokerCache {
+
+    /**
+     * Chiave di cache all'interno della classe proprietaria.
+     *
+     * @param name  Il nome del metodo
+     * @param type  La firma del metodo (ritorno e parametri, senza il ricevitore)
+     * @param shape L'interfaccia funzionale richiesta, {@code MethodHandle} o {@code Invoker}
+     */
+    private record Key(String name, MethodType type, Class<?> shape) {
+    }
+
+    private static final ClassValue<ConcurrentHashMap<Key, Object>> CACHE = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<Key, Object> computeValue(Class<?> owner) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private MethodInvokerCache() {
+    }
+
+    /**
+     * Invocatore generico con la forma di {@code Method.invoke}.
+     */
+    @FunctionalInterface
+    public interface Invoker {
+
+        /**
+         * Invoca il metodo.
+         *
+         * @param target Il ricevitore ({@code null} per i metodi statici)
+         * @param args   Gli argomenti
+         * @return Il risultato (boxed), oppure {@code null} per i metodi void
+         * @throws UndeclaredThrowableException se il metodo lancia un'eccezione checked
+         */
+        Object invoke(Object target, Object... args);
+    }
+
+    /**
+     * Restituisce il {@link MethodHandle} del metodo, con il ricevitore come primo
+     * parametro per i metodi di istanza.
+     *
+     * @param owner      La classe
+     * @param name       Il nome del metodo
+     * @param returnType Il tipo di ritorno
+     * @param params     I tipi dei parametri
+     * @return L'handle, condiviso tra le chiamate
+     * @throws IllegalArgumentException se il metodo non esiste o non è accessibile
+     */
+    public static MethodHandle handle(Class<?> owner, String name, Class<?> returnType, Class<?>... params) {
+        MethodType type = MethodType.methodType(returnType, params);
+        return (MethodHandle) cacheOf(owner).computeIfAbsent(new Key(name, type, MethodHandle.class),
+                key -> resolve(owner, key.name(), key.type()).handle());
+    }
+
+    /**
+     * Metodo di istanza senza argomenti come {@link Function}: {@code target -> target.name()}.
+     *
+     * @param owner      La classe
+     * @param name       Il nome del metodo
+     * @param returnType Il tipo di ritorno
+     * @param <T>        Il tipo del ricevitore
+     * @param <R>        Il tipo del risultato
+     * @return La funzione generata, condivisa tra le chiamate
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> Function<T, R> function(Class<T> owner, String name, Class<R> returnType) {
+        return lambda(Function.class, owner, name, returnType);
+    }
+
+    /**
+     * Metodo di istanza con un argomento come {@link BiFunction}:
+     * {@code (target, arg) -> target.name(arg)}.
+     *
+     * @param owner      La classe
+     * @param name       Il nome del metodo
+     * @param returnType Il tipo di ritorno
+     * @param argType    Il tipo dell'argomento (anche primitivo)
+     * @param <T>        Il tipo del ricevitore
+     * @param <A>        Il tipo dell'argomento (wrapper se primitivo)
+     * @param <R>        Il tipo del risultato
+     * @return La funzione generata, condivisa tra le chiamate
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, A, R> BiFunction<T, A, R> biFunction(Class<T> owner, String name, Class<R> returnType,
+            Class<?> argType) {
+        return lambda(BiFunction.class, owner, name, returnType, argType);
+    }
+
+    /**
+     * Metodo di istanza void con un argomento come {@link BiConsumer}:
+     * {@code (target, arg) -> target.name(arg)}.
+     *
+     * @param owner   La classe
+     * @param name    Il nome del metodo
+     * @param argType Il tipo dell'argomento (anche primitivo)
+     * @param <T>     Il tipo del ricevitore
+     * @param <A>     Il tipo dell'argomento (wrapper se primitivo)
+     * @return Il consumer generato, condiviso tra le chiamate
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, A> BiConsumer<T, A> biConsumer(Class<T> owner, String name, Class<?> argType) {
+        return lambda(BiConsumer.class, owner, name, void.class, argType);
+    }
+
+    /**
+     * Genera con {@link LambdaMetafactory} un'implementazione dell'interfaccia funzionale
+     * indicata che chiama il metodo. Per i metodi di istanza il ricevitore è il primo
+     * parametro del metodo astratto; boxing e unboxing sono gestiti dalla factory.
+     *
+     * @param functionalInterface L'interfaccia funzionale da implementare
+     * @param owner               La classe
+     * @param name                Il nome del metodo
+     * @param returnType          Il tipo di ritorno
+     * @param params              I tipi dei parametri
+     * @param <F>                 Il tipo dell'interfaccia
+     * @return L'istanza generata, condivisa tra le chiamate
+     * @throws IllegalArgumentException se il metodo non esiste o non è compatibile con l'interfaccia
+     */
+    public static <F> F lambda(Class<F> functionalInterface, Class<?> owner, String name, Class<?> returnType,
+            Class<?>... params) {
+        MethodType type = MethodType.methodType(returnType, params);
+        Object lambda = cacheOf(owner).computeIfAbsent(new Key(name, type, functionalInterface),
+                key -> generate(functionalInterface, resolve(owner, key.name(), key.type())));
+        return functionalInterface.cast(lambda);
+    }
+
+    /**
+     * Restituisce un {@link Invoker} generico per il metodo.
+     *
+     * @param owner      La classe
+     * @param name       Il nome del metodo
+     * @param returnType Il tipo di ritorno
+     * @param params     I tipi dei parametri
+     * @return L'invocatore, condiviso tra le chiamate
+     */
+    public static Invoker invoker(Class<?> owner, String name, Class<?> returnType, Class<?>... params) {
+        MethodType type = MethodType.methodType(returnType, params);
+        return (Invoker) cacheOf(owner).computeIfAbsent(new Key(name, type, Invoker.class),
+                key -> spreadInvoker(resolve(owner, key.name(), key.type())));
+    }
+
+    private static ConcurrentHashMap<Key, Object> cacheOf(Class<?> owner) {
+        return CACHE.get(Objects.requireNonNull(owner, "owner must not be null"));
+    }
+
+    /**
+     * Metodo risolto: handle diretto e lookup con accesso completo da usare come
+     * chiamante di {@link LambdaMetafactory}.
+     */
+    private record Resolved(Method method, MethodHandles.Lookup lookup, MethodHandle handle) {
+
+        boolean isStatic() {
+            return Modifier.isStatic(method.getModifiers());
+        }
+    }
+
+    /**
+     * Unico punto in cui si usa la reflection: ricerca del metodo (anche privato o ereditato).
+     */
+    private static Resolved resolve(Class<?> owner, String name, MethodType type) {
+        Objects.requireNonNull(name, "name must not be null");
+
+        Method method = null;
+        for (Class<?> current = owner; current != null && method == null; current = current.getSuperclass()) {
+            try {
+                method = current.getDeclaredMethod(name, type.parameterArray());
+            } catch (NoSuchMethodException e) {
+                // Si prosegue sulla superclasse
+            }
+        }
+        if (method == null) {
+            try {
+                // Metodi di interfaccia (anche default)
+                method = owner.getMethod(name, type.parameterArray());
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("No method " + owner.getName() + "." + name + type, e);
+            }
+        }
+        if (method.getReturnType() != type.returnType()) {
+            throw new IllegalArgumentException("Return type mismatch for " + method + ": expected " + type.returnType());
+        }
+
+        IllegalAccessException publicFailure = null;
+        if (Modifier.isPublic(method.getModifiers())) {
+            try {
+                // Nessun setAccessible né apertura del package: basta che classe e metodo
+                // siano pubblici ed esportati. LambdaMetafactory richiede comunque un
+                // chiamante con accesso completo: quello di questa classe.
+                return new Resolved(method, MethodHandles.lookup(), MethodHandles.publicLookup().unreflect(method));
+            } catch (IllegalAccessException e) {
+                publicFailure = e;
+            }
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            return new Resolved(method, lookup, lookup.unreflect(method));
+        } catch (IllegalAccessException e) {
+            if (publicFailure != null) {
+                e.addSuppressed(publicFailure);
+            }
+            throw new IllegalArgumentException("Method not accessible: " + method, e);
+        }
+    }
+
+    /**
+     * Crea l'implementazione dell'interfaccia funzionale tramite LambdaMetafactory, come
+     * fa javac per le lambda e i method reference.
+     */
+    private static Object generate(Class<?> functionalInterface, Resolved resolved) {
+        Method sam = singleAbstractMethod(functionalInterface);
+        MethodType samType = MethodType.methodType(sam.getReturnType(), sam.getParameterTypes());
+
+        // Firma "istanziata": ricevitore + parametri; i primitivi diventano wrapper
+        // dove l'interfaccia usa tipi riferimento (es. BiConsumer<T, Integer> su un int)
+        MethodType implType = resolved.handle().type();
+        if (implType.parameterCount() != samType.parameterCount()) {
+            throw new IllegalArgumentException(resolved.method() + " does not match " + sam);
+        }
+        MethodType dynamicType = MethodType.methodType(
+                instantiated(samType.returnType(), implType.returnType()));
+        for (int i = 0; i < implType.parameterCount(); i++) {
+            dynamicType = dynamicType.appendParameterTypes(
+                    instantiated(samType.parameterType(i), implType.parameterType(i)));
+        }
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(resolved.lookup(), sam.getName(),
+                    MethodType.methodType(functionalInterface), samType, resolved.handle(), dynamicType);
+            return site.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot generate " + functionalInterface.getSimpleName()
+                    + " for " + resolved.method(), e);
+        }
+    }
+
+    private static Class<?> instantiated(Class<?> samType, Class<?> implType) {
+        if (samType == void.class) {
+            return void.class;
+        }
+        return samType.isPrimitive() ? implType : MethodType.methodType(implType).wrap().returnType();
+    }
+
+    private static Invoker spreadInvoker(Resolved resolved) {
+        MethodHandle handle = resolved.handle();
+        if (resolved.isStatic()) {
+            // Ricevitore ignorato per uniformità con Method.invoke
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int arity = handle.type().parameterCount() - 1;
+
+        // (Object target, Object[] args) -> Object, con cast e unboxing inclusi nell'handle
+        MethodHandle spread = handle.asSpreader(Object[].class, arity)
+                .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        return (target, args) -> {
+            try {
+                return spread.invokeExact(target, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static Method singleAbstractMethod(Class<?> functionalInterface) {
+        if (!functionalInterface.isInterface()) {
+            throw new IllegalArgumentException("Not an interface: " + functionalInterface.getName());
+        }
+        List<Method> abstractMethods = Arrays.stream(functionalInterface.getMethods())
+                .filter(method -> Modifier.isAbstract(method.getModifiers()))
+                .filter(method -> !isObjectMethod(method))
+                .toList();
+        if (abstractMethods.size() != 1) {
+            throw new IllegalArgumentException("Not a functional interface: " + functionalInterface.getName());
+        }
+        return abstractMethods.get(0);
+    }
+
+    /**
+     * I metodi di Object ridichiarati astratti (es. {@code Comparator.equals}) non contano come SAM.
+     */
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,896 @@
+package com.corso.samples.advanced;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Factory di proxy che misurano ogni chiamata ai metodi di un'interfaccia.
+ *
+ * <p>
+ * Ogni metodo ha un {@link MethodMetrics} con numero di chiamate, chiamate non
+ * completate (eccezioni o in corso) e un istogramma delle latenze a bucket di potenze
+ * di 2 in nanosecondi. Due implementazioni:
+ * </p>
+ * <ul>
+ * <li>{@link Strategy#DYNAMIC_PROXY} (predefinita): {@link Proxy} con una tabella di
+ * dispatch calcolata una volta per interfaccia ({@code Method} -> indice ->
+ * {@code MethodHandle}), senza confronti tra stringhe né {@code Method.invoke} per
+ * chiamata, ma con l'array degli argomenti e il boxing dei primitivi;</li>
+ * <li>{@link Strategy#HIDDEN_CLASS}: una classe generata a runtime per interfaccia e
+ * definita con {@link MethodHandles.Lookup#defineHiddenClassWithClassData}. Ogni metodo
+ * misura la chiamata e invoca il target con {@code invokeExact} su un handle
+ * {@code static final}: niente array né boxing, e il JIT inlinea l'intera catena.</li>
+ * </ul>
+ *
+ * <p>
+ * Gli handle dei metodi pubblici (anche delle interfacce del JDK, come
+ * {@code Supplier}) si ottengono con {@link MethodHandles#publicLookup()}; per le
+ * interfacce non pubbliche serve {@code privateLookupIn}. La classe generata vive nel
+ * package di questa factory se l'interfaccia è pubblica e visibile da qui, altrimenti
+ * nel package dell'interfaccia se appartiene allo stesso modulo; negli altri casi
+ * (ad esempio un'interfaccia non pubblica caricata da un class loader di plugin) si
+ * ripiega sul {@link Proxy}. In entrambe le implementazioni i metodi di
+ * {@code Object} vengono delegati senza misure.
+ * </p>
+ */
+public final class MetricsProxyFactory {
+
+    /**
+     * Implementazione del proxy.
+     */
+    public enum Strategy {
+        /** {@code java.lang.reflect.Proxy} con tabella di dispatch precalcolata. */
+        DYNAMIC_PROXY,
+        /** Classe generata a runtime (hidden class) con chiamate dirette al target. */
+        HIDDEN_CLASS
+    }
+
+    // Descrittori usati dalla classe generata
+    private static final String METRICS_INTERNAL = MethodMetrics.class.getName().replace('.', '/');
+    private static final String METRICS_ARRAY = "[L" + METRICS_INTERNAL + ";";
+    private static final String METHOD_HANDLE = "Ljava/lang/invoke/MethodHandle;";
+
+    private static final ClassValue<Dispatch> DISPATCH = new ClassValue<>() {
+        @Override
+        protected Dispatch computeValue(Class<?> type) {
+            return new Dispatch(type);
+        }
+    };
+
+    // Costruttore (Object target, MethodMetrics[] metrics) -> Object; vuoto se la classe non è definibile
+    private static final ClassValue<Optional<MethodHandle>> HIDDEN_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return defineHiddenClass(type, DISPATCH.get(type));
+        }
+    };
+
+    private MetricsProxyFactory() {
+    }
+
+    /**
+     * Avvolge il target in un {@link Proxy} che misura ogni chiamata.
+     *
+     * @param type   L'interfaccia da esporre
+     * @param target L'implementazione reale
+     * @param <T>    Il tipo dell'interfaccia
+     * @return Il proxy e le sue metriche
+     */
+    public static <T> Instrumented<T> instrument(Class<T> type, T target) {
+        return instrument(type, target, Strategy.DYNAMIC_PROXY);
+    }
+
+    /**
+     * Avvolge il target in un proxy che misura ogni chiamata. Con
+     * {@link Strategy#HIDDEN_CLASS}, se la classe non può essere definita per
+     * l'interfaccia, si usa il {@link Proxy}: {@link Instrumented#strategy()} indica
+     * l'implementazione effettiva.
+     *
+     * @param type     L'interfaccia da esporre
+     * @param target   L'implementazione reale
+     * @param strategy L'implementazione del proxy
+     * @param <T>      Il tipo dell'interfaccia
+     * @return Il proxy e le sue metriche
+     */
+    public static <T> Instrumented<T> instrument(Class<T> type, T target, Strategy strategy) {
+        Objects.requireNonNull(type, "type must not be null");
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(strategy, "strategy must not be null");
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException("Not an interface: " + type.getName());
+        }
+
+        Dispatch dispatch = DISPATCH.get(type);
+        MethodMetrics[] metrics = new MethodMetrics[dispatch.methods.length];
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new MethodMetrics(signature(dispatch.methods[i]));
+        }
+
+        if (strategy == Strategy.HIDDEN_CLASS) {
+            Optional<MethodHandle> constructor = HIDDEN_CONSTRUCTORS.get(type);
+            if (constructor.isPresent()) {
+                try {
+                    Object instance = constructor.get().invokeExact((Object) target, metrics);
+                    return new Instrumented<>(type.cast(instance), metrics, Strategy.HIDDEN_CLASS);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Cannot instantiate metrics class for " + type.getName(), e);
+                }
+            }
+        }
+
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new MetricsHandler(dispatch, target, metrics));
+        return new Instrumented<>(type.cast(proxy), metrics, Strategy.DYNAMIC_PROXY);
+    }
+
+    /**
+     * Proxy con le metriche associate.
+     *
+     * @param <T> Il tipo dell'interfaccia
+     */
+    public static final class Instrumented<T> {
+
+        private final T instance;
+        private final MethodMetrics[] metrics;
+        private final Strategy strategy;
+
+        private Instrumented(T instance, MethodMetrics[] metrics, Strategy strategy) {
+            this.instance = instance;
+            this.metrics = metrics;
+            this.strategy = strategy;
+        }
+
+        /**
+         * @return Il proxy da usare al posto del target
+         */
+        public T instance() {
+            return instance;
+        }
+
+        /**
+         * @return L'implementazione effettiva del proxy
+         */
+        public Strategy strategy() {
+            return strategy;
+        }
+
+        /**
+         * @return Le statistiche di tutti i metodi, in ordine di firma
+         */
+        public List<MethodStats> stats() {
+            List<MethodStats> stats = new ArrayList<>(metrics.length);
+            for (MethodMetrics metric : metrics) {
+                stats.add(metric.snapshot());
+            }
+            return List.copyOf(stats);
+        }
+
+        /**
+         * @return Le statistiche dei soli metodi chiamati almeno una volta
+         */
+        public List<MethodStats> calledStats() {
+            return stats().stream().filter(stat -> stat.calls() > 0).toList();
+        }
+    }
+
+    /**
+     * Statistiche di un metodo.
+     *
+     * @param method     La firma del metodo
+     * @param calls      Le chiamate iniziate
+     * @param completed  Le chiamate terminate senza eccezioni
+     * @param totalNanos La somma delle latenze delle chiamate completate
+     * @param histogram  Chiamate completate per bucket: l'indice {@code i} conta le latenze
+     *                   in [2^i, 2^(i+1)) ns
+     */
+    public record MethodStats(String method, long calls, long completed, long totalNanos, long[] histogram) {
+
+        /**
+         * @return Le chiamate fallite o ancora in corso
+         */
+        public long notCompleted() {
+            return calls - completed;
+        }
+
+        /**
+         * @return La latenza media in nanosecondi
+         */
+        public double meanNanos() {
+            return completed == 0 ? 0 : (double) totalNanos / completed;
+        }
+
+        /**
+         * Percentile approssimato al limite superiore del bucket.
+         *
+         * @param percentile Il percentile, in (0, 100]
+         * @return La latenza in nanosecondi
+         */
+        public long percentileNanos(double percentile) {
+            long threshold = (long) Math.ceil(completed * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= threshold && seen > 0) {
+                    return (1L << (i + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s calls=%d notCompleted=%d mean=%.0fns p50<=%dns p99<=%dns",
+                    method, calls, notCompleted(), meanNanos(), percentileNanos(50), percentileNanos(99));
+        }
+    }
+
+    /**
+     * Contatori di un metodo.
+     */
+    public static final class MethodMetrics {
+
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[64];
+
+        private MethodMetrics(String method) {
+            this.method = method;
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Registra l'inizio di una chiamata.
+         *
+         * @return L'istante di inizio, da passare a {@link #stop(long)}
+         */
+        public long start() {
+            calls.increment();
+            return System.nanoTime();
+        }
+
+        /**
+         * Registra la fine di una chiamata completata senza eccezioni.
+         *
+         * @param start Il valore restituito da {@link #start()}
+         */
+        public void stop(long start) {
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            completed.increment();
+            totalNanos.add(elapsed);
+            histogram[63 - Long.numberOfLeadingZeros(elapsed)].increment();
+        }
+
+        MethodStats snapshot() {
+            long[] buckets = new long[histogram.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram[i].sum();
+            }
+            return new MethodStats(method, calls.sum(), completed.sum(), totalNanos.sum(), buckets);
+        }
+    }
+
+    /**
+     * Tabella di dispatch di un'interfaccia, calcolata una volta.
+     */
+    private static final class Dispatch {
+
+        private final Method[] methods;
+        private final Map<Method, Integer> indexes;
+        // Handle diretti (T target, parametri...) -> ritorno, per la classe generata
+        private final MethodHandle[] handles;
+        // Handle (Object target, Object[] args) -> Object, per il Proxy
+        private final MethodHandle[] invokers;
+
+        private Dispatch(Class<?> type) {
+            // Un metodo per firma (le superinterfacce possono ridichiarare lo stesso metodo)
+            Map<String, Method> unique = new LinkedHashMap<>();
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    unique.putIfAbsent(method.getName() + descriptor(method).toMethodDescriptorString(), method);
+                }
+            }
+            this.methods = unique.values().stream()
+                    .sorted(Comparator.comparing(MetricsProxyFactory::signature))
+                    .toArray(Method[]::new);
+
+            this.indexes = new HashMap<>();
+            this.handles = new MethodHandle[methods.length];
+            this.invokers = new MethodHandle[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                indexes.put(methods[i], i);
+                // Il ricevitore diventa l'interfaccia esposta anche per i metodi delle superinterfacce
+                handles[i] = unreflect(type, methods[i]).asType(descriptor(methods[i]).insertParameterTypes(0, type));
+                invokers[i] = handles[i].asSpreader(Object[].class, methods[i].getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+            }
+        }
+
+        /**
+         * {@code publicLookup} per i metodi di interfacce pubbliche ed esportate (anche del
+         * JDK, dove {@code privateLookupIn} fallisce); {@code privateLookupIn} solo per le
+         * interfacce non pubbliche, tipicamente annidate nelle demo.
+         */
+        private static MethodHandle unreflect(Class<?> type, Method method) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException publicFailure) {
+                try {
+                    return MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflect(method);
+                } catch (IllegalAccessException e) {
+                    e.addSuppressed(publicFailure);
+                    throw new IllegalArgumentException("Interface not accessible: " + type.getName(), e);
+                }
+            }
+        }
+    }
+
+    private record MetricsHandler(Dispatch dispatch, Object target, MethodMetrics[] metrics)
+            implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer index = dispatch.indexes.get(method);
+            if (index == null) {
+                // equals/hashCode/toString di Object: delegati senza misure
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    // Il chiamante vede l'eccezione del target, come per i metodi dell'interfaccia
+                    throw e.getCause();
+                }
+            }
+
+            MethodMetrics metric = metrics[index];
+            long start = metric.start();
+            Object result = dispatch.invokers[index].invokeExact(target, args);
+            metric.stop(start);
+            return result;
+        }
+    }
+
+    /**
+     * Genera e definisce la classe di un'interfaccia.
+     *
+     * @return Il costruttore {@code (Object target, MethodMetrics[] metrics) -> Object},
+     *         oppure vuoto se la classe non può essere definita per l'interfaccia
+     */
+    private static Optional<MethodHandle> defineHiddenClass(Class<?> type, Dispatch dispatch) {
+        MethodHandles.Lookup host;
+        try {
+            host = hostLookup(type);
+        } catch (IllegalAccessException e) {
+            return Optional.empty();
+        }
+
+        String packagePrefix = host.lookupClass().getPackageName().replace('.', '/');
+        String className = (packagePrefix.isEmpty() ? "" : packagePrefix + "/") + type.getSimpleName() + "$$Metrics";
+        String typeDescriptor = type.descriptorString();
+        ClassWriter writer = new ClassWriter(className, type.getName().replace('.', '/'));
+
+        writer.field(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_FINAL, "target", typeDescriptor);
+        writer.field(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_FINAL, "metrics", METRICS_ARRAY);
+        List<Integer> measured = new ArrayList<>();
+        List<MethodHandle> handles = new ArrayList<>();
+        for (int i = 0; i < dispatch.methods.length; i++) {
+            // equals/hashCode/toString ridichiarati nell'interfaccia: delegati senza misure, come nel Proxy
+            if (!isObjectMethod(dispatch.methods[i])) {
+                writer.field(ClassWriter.ACC_PRIVATE | ClassWriter.ACC_STATIC | ClassWriter.ACC_FINAL,
+                        "handle" + i, METHOD_HANDLE);
+                writer.delegate(i, dispatch.methods[i], typeDescriptor);
+                measured.add(i);
+                handles.add(dispatch.handles[i]);
+            }
+        }
+        writer.staticInitializer(measured);
+        writer.constructor(typeDescriptor);
+        writer.forward("equals", "(Ljava/lang/Object;)Z", typeDescriptor);
+        writer.forward("hashCode", "()I", typeDescriptor);
+        writer.forward("toString", "()Ljava/lang/String;", typeDescriptor);
+
+        try {
+            MethodHandles.Lookup lookup = host.defineHiddenClassWithClassData(writer.toByteArray(), List.copyOf(handles),
+                    true);
+            return Optional.of(lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, type, MethodMetrics[].class))
+                    .asType(MethodType.methodType(Object.class, Object.class, MethodMetrics[].class)));
+        } catch (IllegalAccessException | LinkageError e) {
+            // Ad esempio un tipo di parametro non accessibile dal package della classe generata
+            return Optional.empty();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Generated metrics class without constructor: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Il package in cui definire la classe: quello della factory per le interfacce
+     * pubbliche visibili dal suo class loader (anche del JDK, dove {@code privateLookupIn}
+     * fallisce), altrimenti quello dell'interfaccia. Definire una hidden class richiede
+     * accesso completo, che {@code privateLookupIn} concede solo nello stesso modulo.
+     */
+    private static MethodHandles.Lookup hostLookup(Class<?> type) throws IllegalAccessException {
+        MethodHandles.Lookup own = MethodHandles.lookup();
+        try {
+            if (Class.forName(type.getName(), false, MetricsProxyFactory.class.getClassLoader()) == type) {
+                own.accessClass(type);
+                return own;
+            }
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            // Interfaccia non pubblica o di un altro class loader: si prova nel suo package
+        }
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, own);
+        if (!lookup.hasFullPrivilegeAccess()) {
+            throw new IllegalAccessException("No full privilege access to " + type.getPackageName());
+        }
+        return lookup;
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static MethodType descriptor(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+    }
+
+    /**
+     * Scrittore minimale di class file per la classe di metriche. I metodi generati non
+     * hanno salti né gestori di eccezioni, quindi non serve la StackMapTable.
+     *
+     * <p>
+     * La classe generata equivale a:
+     * </p>
+     *
+     * <pre>
+     * final class Tipo$$Metrics implements Tipo {
+     *     private static final MethodHandle handle0 = classDataAt(lookup(), "_", MethodHandle.class, 0);
+     *     private final Tipo target;
+     *     private final MethodMetrics[] metrics;
+     *
+     *     public R metodo(A a) {
+     *         long start = metrics[0].start();
+     *         R result = (R) handle0.invokeExact(target, a);
+     *         metrics[0].stop(start);
+     *         return result;
+     *     }
+     *
+     *     public String toString() {
+     *         return target.toString();
+     *     }
+     * }
+     * </pre>
+     */
+    private static final class ClassWriter {
+
+        static final int ACC_PUBLIC = 0x0001;
+        static final int ACC_PRIVATE = 0x0002;
+        static final int ACC_STATIC = 0x0008;
+        static final int ACC_FINAL = 0x0010;
+        private static final int ACC_SUPER = 0x0020;
+        private static final int JAVA_17 = 61;
+
+        // Tag del constant pool
+        private static final int CONSTANT_UTF8 = 1;
+        private static final int CONSTANT_CLASS = 7;
+        private static final int CONSTANT_STRING = 8;
+        private static final int CONSTANT_FIELDREF = 9;
+        private static final int CONSTANT_METHODREF = 10;
+        private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+        // Opcode usati, con i nomi della JVMS
+        private static final int ICONST_0 = 0x03;
+        private static final int BIPUSH = 0x10;
+        private static final int SIPUSH = 0x11;
+        private static final int LDC_W = 0x13;
+        private static final int ILOAD = 0x15;
+        private static final int LLOAD = 0x16;
+        private static final int FLOAD = 0x17;
+        private static final int DLOAD = 0x18;
+        private static final int ALOAD = 0x19;
+        private static final int ALOAD_0 = 0x2a;
+        private static final int ALOAD_1 = 0x2b;
+        private static final int ALOAD_2 = 0x2c;
+        private static final int AALOAD = 0x32;
+        private static final int STORE_OFFSET = 0x21; // xstore = xload + 0x21
+        private static final int IRETURN = 0xac;
+        private static final int LRETURN = 0xad;
+        private static final int FRETURN = 0xae;
+        private static final int DRETURN = 0xaf;
+        private static final int ARETURN = 0xb0;
+        private static final int RETURN = 0xb1;
+        private static final int GETSTATIC = 0xb2;
+        private static final int PUTSTATIC = 0xb3;
+        private static final int GETFIELD = 0xb4;
+        private static final int PUTFIELD = 0xb5;
+        private static final int INVOKEVIRTUAL = 0xb6;
+        private static final int INVOKESPECIAL = 0xb7;
+        private static final int INVOKESTATIC = 0xb8;
+        private static final int CHECKCAST = 0xc0;
+        private static final int WIDE = 0xc4;
+
+        private final Map<String, Integer> constants = new HashMap<>();
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private int constantCount = 1;
+
+        private final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+        private final DataOutputStream fieldsOut = new DataOutputStream(fields);
+        private int fieldCount;
+
+        private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        private final DataOutputStream methodsOut = new DataOutputStream(methods);
+        private int methodCount;
+
+        private final String className;
+        private final String interfaceName;
+
+        ClassWriter(String className, String interfaceName) {
+            this.className = className;
+            this.interfaceName = interfaceName;
+        }
+
+        void field(int access, String name, String descriptor) {
+            try {
+                fieldsOut.writeShort(access);
+                fieldsOut.writeShort(utf8(name));
+                fieldsOut.writeShort(utf8(descriptor));
+                fieldsOut.writeShort(0);
+                fieldCount++;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * {@code <clinit>}: {@code handleI = (MethodHandle) classDataAt(lookup(), "_", MethodHandle.class, n)}
+         * per l'n-esimo metodo misurato, di indice {@code I} nella tabella di dispatch.
+         */
+        void staticInitializer(List<Integer> measured) {
+            int lookup = methodRef("java/lang/invoke/MethodHandles", "lookup",
+                    "()Ljava/lang/invoke/MethodHandles$Lookup;");
+            int classDataAt = methodRef("java/lang/invoke/MethodHandles", "classDataAt",
+                    "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;");
+            int methodHandleClass = classRef("java/lang/invoke/MethodHandle");
+
+            Code code = new Code();
+            for (int n = 0; n < measured.size(); n++) {
+                code.op(INVOKESTATIC).u2(lookup);
+                code.op(LDC_W).u2(string("_"));
+                code.op(LDC_W).u2(methodHandleClass);
+                code.index(n);
+                code.op(INVOKESTATIC).u2(classDataAt);
+                code.op(CHECKCAST).u2(methodHandleClass);
+                code.op(PUTSTATIC).u2(fieldRef("handle" + measured.get(n), METHOD_HANDLE));
+            }
+            code.op(RETURN);
+            method(ACC_STATIC, "<clinit>", "()V", code, 4, 0);
+        }
+
+        /**
+         * {@code <init>(T target, MethodMetrics[] metrics)}: assegna i due campi.
+         */
+        void constructor(String typeDescriptor) {
+            Code code = new Code();
+            code.op(ALOAD_0).op(INVOKESPECIAL).u2(methodRef("java/lang/Object", "<init>", "()V"));
+            code.op(ALOAD_0).op(ALOAD_1).op(PUTFIELD).u2(fieldRef("target", typeDescriptor));
+            code.op(ALOAD_0).op(ALOAD_2).op(PUTFIELD).u2(fieldRef("metrics", METRICS_ARRAY));
+            code.op(RETURN);
+            method(ACC_PUBLIC, "<init>", "(" + typeDescriptor + METRICS_ARRAY + ")V", code, 2, 3);
+        }
+
+        /**
+         * Metodo misurato:
+         * {@code long s = metrics[i].start(); r = handleI.invokeExact(target, args); metrics[i].stop(s); return r;}
+         * Se il target solleva un'eccezione la chiamata resta non completata, come nel Proxy.
+         */
+        void delegate(int index, Method method, String typeDescriptor) {
+            String descriptor = descriptor(method).toMethodDescriptorString();
+            String invokeDescriptor = "(" + typeDescriptor + descriptor.substring(1);
+            Class<?> returnType = method.getReturnType();
+
+            int argumentSlots = 0;
+            for (Class<?> parameter : method.getParameterTypes()) {
+                argumentSlots += slots(parameter);
+            }
+            int startSlot = 1 + argumentSlots;
+            int resultSlot = startSlot + 2;
+
+            Code code = new Code();
+            loadMetric(code, index);
+            code.op(INVOKEVIRTUAL).u2(methodRef(METRICS_INTERNAL, "start", "()J"));
+            code.var(LLOAD + STORE_OFFSET, startSlot);
+
+            code.op(GETSTATIC).u2(fieldRef("handle" + index, METHOD_HANDLE));
+            code.op(ALOAD_0).op(GETFIELD).u2(fieldRef("target", typeDescriptor));
+            int slot = 1;
+            for (Class<?> parameter : method.getParameterTypes()) {
+                code.var(loadOpcode(parameter), slot);
+                slot += slots(parameter);
+            }
+            code.op(INVOKEVIRTUAL).u2(methodRef("java/lang/invoke/MethodHandle", "invokeExact", invokeDescriptor));
+            if (returnType != void.class) {
+                code.var(loadOpcode(returnType) + STORE_OFFSET, resultSlot);
+            }
+
+            loadMetric(code, index);
+            code.var(LLOAD, startSlot);
+            code.op(INVOKEVIRTUAL).u2(methodRef(METRICS_INTERNAL, "stop", "(J)V"));
+
+            if (returnType != void.class) {
+                code.var(loadOpcode(returnType), resultSlot);
+            }
+            code.op(returnOpcode(returnType));
+
+            int maxStack = Math.max(4, 2 + argumentSlots);
+            int maxLocals = resultSlot + slots(returnType);
+            method(ACC_PUBLIC, method.getName(), descriptor, code, maxStack, maxLocals);
+        }
+
+        /**
+         * Metodo di {@code Object} delegato al target senza misure.
+         */
+        void forward(String name, String descriptor, String typeDescriptor) {
+            boolean hasArgument = !descriptor.startsWith("()");
+            Code code = new Code();
+            code.op(ALOAD_0).op(GETFIELD).u2(fieldRef("target", typeDescriptor));
+            if (hasArgument) {
+                code.op(ALOAD_1);
+            }
+            code.op(INVOKEVIRTUAL).u2(methodRef("java/lang/Object", name, descriptor));
+            code.op(descriptor.endsWith(")Ljava/lang/String;") ? ARETURN : IRETURN);
+            method(ACC_PUBLIC, name, descriptor, code, 2, hasArgument ? 2 : 1);
+        }
+
+        byte[] toByteArray() {
+            try {
+                int thisClass = classRef(className);
+                int superClass = classRef("java/lang/Object");
+                int implemented = classRef(interfaceName);
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(JAVA_17);
+                out.writeShort(constantCount);
+                poolOut.flush();
+                pool.writeTo(out);
+                out.writeShort(ACC_FINAL | ACC_SUPER);
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(implemented);
+                out.writeShort(fieldCount);
+                fieldsOut.flush();
+                fields.writeTo(out);
+                out.writeShort(methodCount);
+                methodsOut.flush();
+                methods.writeTo(out);
+                out.writeShort(0); // attributi di classe
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * {@code metrics[index]} sullo stack.
+         */
+        private void loadMetric(Code code, int index) {
+            code.op(ALOAD_0).op(GETFIELD).u2(fieldRef("metrics", METRICS_ARRAY));
+            code.index(index).op(AALOAD);
+        }
+
+        private void method(int access, String name, String descriptor, Code code, int maxStack, int maxLocals) {
+            try {
+                byte[] bytecode = code.bytes.toByteArray();
+                methodsOut.writeShort(access);
+                methodsOut.writeShort(utf8(name));
+                methodsOut.writeShort(utf8(descriptor));
+                methodsOut.writeShort(1);
+                methodsOut.writeShort(utf8("Code"));
+                methodsOut.writeInt(12 + bytecode.length);
+                methodsOut.writeShort(maxStack);
+                methodsOut.writeShort(maxLocals);
+                methodsOut.writeInt(bytecode.length);
+                methodsOut.write(bytecode);
+                methodsOut.writeShort(0); // exception table
+                methodsOut.writeShort(0); // attributi del Code
+                methodCount++;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private int fieldRef(String name, String descriptor) {
+            return constant("F:" + name + descriptor, CONSTANT_FIELDREF, classRef(className),
+                    nameAndType(name, descriptor));
+        }
+
+        private int methodRef(String owner, String name, String descriptor) {
+            return constant("M:" + owner + "." + name + descriptor, CONSTANT_METHODREF, classRef(owner),
+                    nameAndType(name, descriptor));
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            return constant("N:" + name + ":" + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+        }
+
+        private int classRef(String internalName) {
+            return reference("C:" + internalName, CONSTANT_CLASS, utf8(internalName));
+        }
+
+        private int string(String value) {
+            return reference("S:" + value, CONSTANT_STRING, utf8(value));
+        }
+
+        private int utf8(String value) {
+            Integer existing = constants.get("U:" + value);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                poolOut.writeByte(CONSTANT_UTF8);
+                poolOut.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return register("U:" + value);
+        }
+
+        /**
+         * Costante con un solo indice verso una stringa UTF-8 (Class, String).
+         */
+        private int reference(String key, int tag, int utf8Index) {
+            Integer existing = constants.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                poolOut.writeByte(tag);
+                poolOut.writeShort(utf8Index);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return register(key);
+        }
+
+        /**
+         * Costante con due indici (Fieldref, Methodref, NameAndType).
+         */
+        private int constant(String key, int tag, int first, int second) {
+            Integer existing = constants.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                poolOut.writeByte(tag);
+                poolOut.writeShort(first);
+                poolOut.writeShort(second);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return register(key);
+        }
+
+        private int register(String key) {
+            int index = constantCount++;
+            constants.put(key, index);
+            return index;
+        }
+
+        private static int slots(Class<?> type) {
+            if (type == void.class) {
+                return 0;
+            }
+            return type == long.class || type == double.class ? 2 : 1;
+        }
+
+        private static int loadOpcode(Class<?> type) {
+            if (type == long.class) {
+                return LLOAD;
+            }
+            if (type == float.class) {
+                return FLOAD;
+            }
+            if (type == double.class) {
+                return DLOAD;
+            }
+            return type.isPrimitive() ? ILOAD : ALOAD;
+        }
+
+        private static int returnOpcode(Class<?> type) {
+            if (type == void.class) {
+                return RETURN;
+            }
+            if (type == long.class) {
+                return LRETURN;
+            }
+            if (type == float.class) {
+                return FRETURN;
+            }
+            if (type == double.class) {
+                return DRETURN;
+            }
+            return type.isPrimitive() ? IRETURN : ARETURN;
+        }
+    }
+
+    /**
+     * Buffer del bytecode di un metodo.
+     */
+    private static final class Code {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        /**
+         * Carica una costante int (iconst, bipush o sipush).
+         */
+        Code index(int value) {
+            if (value <= 5) {
+                return op(ClassWriter.ICONST_0 + value);
+            }
+            if (value <= Byte.MAX_VALUE) {
+                return op(ClassWriter.BIPUSH).op(value);
+            }
+            return op(ClassWriter.SIPUSH).u2(value);
+        }
+
+        /**
+         * Load/store di una variabile locale, con prefisso wide oltre lo slot 255.
+         */
+        Code var(int opcode, int slot) {
+            if (slot > 255) {
+                return op(ClassWriter.WIDE).op(opcode).u2(slot);
+            }
+            return op(opcode).op(slot);
+        }
+    }
+
+    private static String signature(Method method) {
+        String params = Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .reduce((left, right) -> left + ", " + right)
+                .orElse("");
+        return method.getName() + "(" + params + ")";
+    }
+}
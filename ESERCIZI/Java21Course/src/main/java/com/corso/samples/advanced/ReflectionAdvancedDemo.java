@@ -15,6 +15,8 @@ import java.lang.reflect.Proxy;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 /**
  * Advanced demo on Java Reflection.
@@ -152,6 +154,19 @@ public final class ReflectionAdvancedDemo {
             System.out.println("Entity after invoke -> " + entity);
             System.out.println("Private method result -> " + auditResult);
 
+            printSubSection("Cached invokers (MethodHandle / LambdaMetafactory)");
+            // Risoluzione una sola volta: le chiamate successive non passano da Method.invoke.
+            BiConsumer<DemoEntity, Integer> increase =
+                    MethodInvokerCache.biConsumer(DemoEntity.class, "increase", int.class);
+            BiFunction<DemoEntity, String, String> auditLine =
+                    MethodInvokerCache.biFunction(DemoEntity.class, "auditLine", String.class, String.class);
+
+            increase.accept(entity, 3);
+            System.out.println("Entity after generated lambda -> " + entity);
+            System.out.println("Private method via lambda -> " + auditLine.apply(entity, "lambda-check"));
+            System.out.println("Same instance on second lookup -> "
+                    + (increase == MethodInvokerCache.<DemoEntity, Integer>biConsumer(DemoEntity.class, "increase", int.class)));
+
             printSubSection("Method parameters metadata");
             for (Method method : DemoEntity.class.getDeclaredMethods()) {
                 Parameter[] parameters = method.getParameters();
@@ -242,6 +257,34 @@ public final class ReflectionAdvancedDemo {
 
         System.out.println("Proxy call formatUser -> " + formatter.formatUser("mario"));
         System.out.println("Proxy call ping -> " + formatter.ping());
+
+        printSubSection("Metrics proxy (dispatch table / hidden class)");
+        // Il proxy sopra confronta stringhe a ogni chiamata: MetricsProxyFactory risolve
+        // una volta per interfaccia Method -> indice e misura ogni chiamata.
+        UserFormatter target = new UserFormatter() {
+            @Override
+            public String formatUser(String input) {
+                return "USER::" + input.toUpperCase();
+            }
+
+            @Override
+            public String ping() {
+                return "pong";
+            }
+        };
+
+        for (MetricsProxyFactory.Strategy strategy : MetricsProxyFactory.Strategy.values()) {
+            MetricsProxyFactory.Instrumented<UserFormatter> instrumented = MetricsProxyFactory
+                    .instrument(UserFormatter.class, target, strategy);
+            UserFormatter measured = instrumented.instance();
+            for (int i = 0; i < 1_000; i++) {
+                measured.formatUser("user-" + i);
+            }
+            measured.ping();
+
+            System.out.println(instrumented.strategy() + " -> " + measured.getClass().getSimpleName());
+            instrumented.stats().forEach(stats -> System.out.println("  " + stats));
+        }
     }
 
     /**
@@ -11,10 +11,17 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Advanced demo on Java Serialization.
@@ -49,6 +56,10 @@ public final class SerializationAdvancedDemo {
         demoExternalizable();
         demoReadResolveSingleton();
         demoDeserializationFilter();
+        demoBinaryCodec();
+        demoStreamingToChannel();
+        demoJsonPipeline();
+        demoMappedAuditLog();
         demoBestPracticesAndAntiPatterns();
 
         printFooter();
@@ -161,11 +172,247 @@ public final class SerializationAdvancedDemo {
         }
     }
 
+    /**
+     * Mostra il codec binario guidato da schema come alternativa a ObjectOutputStream.
+     */
+    private static void demoBinaryCodec() {
+        printSection("8) Schema-driven Binary Codec");
+
+        // Allowlist: solo i tipi registrati possono essere scritti e letti.
+        BinaryCodec codec = new BinaryCodec(CustomerRecord.class, ExternalOrder.class);
+
+        CustomerRecord customer = new CustomerRecord("C-001", "Alice", LocalDate.of(1990, 7, 14));
+        byte[] binary = codec.encode(customer);
+        System.out.println("CustomerRecord -> java=" + serialize(customer).length + " bytes, codec="
+                + binary.length + " bytes");
+        System.out.println("Restored -> " + codec.decode(binary, CustomerRecord.class));
+
+        ExternalOrder order = new ExternalOrder(1001, List.of("keyboard", "mouse", "monitor"));
+        byte[] orderBinary = codec.encode(order);
+        System.out.println("ExternalOrder  -> java=" + serialize(order).length + " bytes, codec="
+                + orderBinary.length + " bytes");
+        System.out.println("Restored -> " + codec.decode(orderBinary, ExternalOrder.class));
+
+        printSubSection("Allowlist and malformed input");
+        try {
+            codec.encode(new SessionContext("token-abc", "ADMIN", "secret-value"));
+        } catch (IllegalArgumentException exception) {
+            System.out.println("Encode blocked -> " + exception.getMessage());
+        }
+
+        byte[] forged = binary.clone();
+        forged[0] = 42;
+        try {
+            codec.decode(forged, CustomerRecord.class);
+        } catch (IllegalArgumentException exception) {
+            System.out.println("Decode blocked -> " + exception.getMessage());
+        }
+        try {
+            codec.decode(Arrays.copyOf(binary, binary.length - 3), CustomerRecord.class);
+        } catch (IllegalArgumentException exception) {
+            System.out.println("Decode blocked -> " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Mostra la scrittura a chunk su FileChannel e la lettura incrementale record per record.
+     */
+    private static void demoStreamingToChannel() {
+        printSection("9) Streaming to FileChannel (chunked, pooled direct buffers)");
+
+        BinaryCodec codec = new BinaryCodec(CustomerRecord.class, ExternalOrder.class);
+        int count = 50_000;
+        Path file = null;
+
+        try {
+            file = Files.createTempFile("customers", ".bin");
+
+            // Nessun byte[] con l'intero payload: ogni chunk parte dal buffer diretto verso il canale.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ChunkedChannelOutputStream out = new ChunkedChannelOutputStream(channel);
+                try (out) {
+                    for (int i = 0; i < count; i++) {
+                        codec.encodeDelimited(new CustomerRecord("C-" + i, "Customer " + i,
+                                LocalDate.of(1970, 1, 1).plusDays(i % 20_000)), out);
+                    }
+                }
+                System.out.println("Codec stream -> " + count + " records, " + out.chunkCount() + " chunks, "
+                        + channel.size() + " bytes on disk");
+            }
+
+            // Lettura incrementale: in memoria c'è un chunk e un record alla volta.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    ChunkedChannelInputStream in = new ChunkedChannelInputStream(channel)) {
+                int read = 0;
+                CustomerRecord last = null;
+                for (CustomerRecord next; (next = codec.decodeDelimited(in, CustomerRecord.class)) != null;) {
+                    last = next;
+                    read++;
+                }
+                System.out.println("Read back -> " + read + " records, last=" + last);
+            }
+
+            printSubSection("Java serialization over the same chunked stream");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                    ChunkedChannelOutputStream chunked = new ChunkedChannelOutputStream(channel);
+                    ObjectOutputStream out = new ObjectOutputStream(chunked)) {
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeObject(new CustomerRecord("C-" + i, "Customer " + i, LocalDate.of(1990, 1, 1)));
+                    // Senza reset lo stream trattiene un riferimento a ogni oggetto scritto.
+                    if (i % 1_000 == 999) {
+                        out.reset();
+                    }
+                }
+                out.flush();
+                System.out.println("ObjectOutputStream -> " + channel.size() + " bytes before terminator");
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    ObjectInputStream in = new ObjectInputStream(new ChunkedChannelInputStream(channel))) {
+                int expected = in.readInt();
+                int read = 0;
+                for (int i = 0; i < expected; i++) {
+                    in.readObject();
+                    read++;
+                }
+                System.out.println("ObjectInputStream read back -> " + read + " records");
+            }
+        } catch (IOException | ClassNotFoundException exception) {
+            throw new RuntimeException("Streaming error: " + exception.getMessage(), exception);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // File temporaneo: la cancellazione è best effort.
+                }
+            }
+        }
+    }
+
+    /**
+     * Mostra export/import JSON con Jackson: reader/writer precostruiti e array in streaming.
+     */
+    private static void demoJsonPipeline() {
+        printSection("10) JSON Pipeline (Jackson)");
+
+        JsonPipeline<CustomerRecord> customers = JsonPipeline.forType(CustomerRecord.class);
+        CustomerRecord customer = new CustomerRecord("C-001", "Alice", LocalDate.of(1990, 7, 14));
+        String json = customers.write(customer);
+        System.out.println("CustomerRecord -> " + json + " (" + customers.writeBytes(customer).length
+                + " bytes, java=" + serialize(customer).length + ")");
+        System.out.println("Restored -> " + customers.read(json));
+
+        JsonPipeline<ReflectionAdvancedDemo.AuditRecord> audits =
+                JsonPipeline.forType(ReflectionAdvancedDemo.AuditRecord.class);
+        System.out.println("AuditRecord -> "
+                + audits.write(new ReflectionAdvancedDemo.AuditRecord("alice", LocalDate.of(2024, 3, 1), "LOGIN")));
+
+        printSubSection("Streaming array with JsonGenerator / JsonParser");
+        int count = 200_000;
+        Path file = null;
+        try {
+            file = Files.createTempFile("customers", ".json");
+
+            // Gli elementi sono generati e scritti uno alla volta: nessuna lista in memoria.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                    ChunkedChannelOutputStream out = new ChunkedChannelOutputStream(channel)) {
+                long written = customers.writeArray(IntStream.range(0, count)
+                        .mapToObj(i -> new CustomerRecord("C-" + i, "Customer " + i, LocalDate.of(1990, 1, 1))), out);
+                System.out.println("Written -> " + written + " records");
+            }
+
+            CustomerRecord[] last = new CustomerRecord[1];
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    ChunkedChannelInputStream in = new ChunkedChannelInputStream(channel)) {
+                long read = customers.readArray(in, record -> last[0] = record);
+                System.out.println("Read back -> " + read + " records, " + Files.size(file) + " bytes on disk, last="
+                        + last[0]);
+            }
+        } catch (IOException exception) {
+            throw new RuntimeException("JSON streaming error: " + exception.getMessage(), exception);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // File temporaneo: la cancellazione è best effort.
+                }
+            }
+        }
+    }
+
+    /**
+     * Mostra il log di audit su segmenti mappati: append senza syscall, riapertura e
+     * replay filtrato tramite indice sparso.
+     */
+    private static void demoMappedAuditLog() {
+        printSection("11) Memory-mapped Audit Log");
+
+        int count = 500_000;
+        String[] actors = { "alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi" };
+        LocalDate firstDay = LocalDate.of(2024, 1, 1);
+        Path directory = null;
+
+        try {
+            directory = Files.createTempDirectory("audit-log");
+
+            long start = System.nanoTime();
+            try (MappedAuditLog log = new MappedAuditLog(directory)) {
+                for (int i = 0; i < count; i++) {
+                    // Circa 1.400 eventi al giorno, in ordine di data come in un log reale.
+                    log.append(new ReflectionAdvancedDemo.AuditRecord(actors[i % actors.length],
+                            firstDay.plusDays(i / 1_400), i % 10 == 0 ? "LOGIN" : "UPDATE"));
+                }
+                System.out.println("Appended -> " + count + " records in " + log.segmentCount() + " segments, "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+
+            // La riapertura ricostruisce l'indice sparso leggendo i segmenti.
+            try (MappedAuditLog log = new MappedAuditLog(directory)) {
+                System.out.println("Reopened -> " + log.size() + " records");
+
+                MappedAuditLog.Query march = MappedAuditLog.Query.between(LocalDate.of(2024, 3, 1),
+                        LocalDate.of(2024, 3, 31));
+                start = System.nanoTime();
+                long inMarch = log.replay(march, audit -> {
+                });
+                System.out.println("Replay March -> " + inMarch + " records, "
+                        + (System.nanoTime() - start) / 1_000 + " us");
+
+                start = System.nanoTime();
+                List<ReflectionAdvancedDemo.AuditRecord> sequential = log.query(march.withActor("carol"), false);
+                long sequentialMicros = (System.nanoTime() - start) / 1_000;
+                start = System.nanoTime();
+                List<ReflectionAdvancedDemo.AuditRecord> parallel = log.query(MappedAuditLog.Query.byActor("carol"), true);
+                System.out.println("carol in March (sequential) -> " + sequential.size() + " records, "
+                        + sequentialMicros + " us, first=" + sequential.get(0));
+                System.out.println("carol overall (parallel) -> " + parallel.size() + " records, "
+                        + (System.nanoTime() - start) / 1_000 + " us");
+            }
+        } catch (IOException exception) {
+            throw new RuntimeException("Audit log error: " + exception.getMessage(), exception);
+        } finally {
+            if (directory != null) {
+                try (Stream<Path> files = Files.list(directory)) {
+                    for (Path file : files.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                    Files.deleteIfExists(directory);
+                } catch (IOException ignored) {
+                    // Directory temporanea: la cancellazione è best effort.
+                }
+            }
+        }
+    }
+
     /**
      * Riepilogo di pratiche consigliate e anti-pattern comuni.
      */
     private static void demoBestPracticesAndAntiPatterns() {
-        printSection("8) Best Practices and Anti-Patterns");
+        printSection("12) Best Practices and Anti-Patterns");
 
         String[] practices = {
                 "Define explicit serialVersionUID on every Serializable class.",
@@ -173,7 +420,9 @@ public final class SerializationAdvancedDemo {
                 "Prefer custom writeObject/readObject only when there is clear need.",
                 "Use ObjectInputFilter to constrain deserialization inputs.",
                 "Validate object invariants inside readObject/readResolve.",
-                "Consider JSON/Protobuf for cross-system contracts and versioning." };
+                "Consider JSON/Protobuf for cross-system contracts and versioning.",
+                "Use a schema-driven binary codec with an allowlist for hot internal paths.",
+                "Stream large payloads to a channel in chunks instead of building a byte[]." };
 
         for (int i = 0; i < practices.length; i++) {
             System.out.printf("%d) %s%n", i + 1, practices[i]);
@@ -280,21 +529,11 @@ public final class SerializationAdvancedDemo {
     }
 
     /**
-     * Classe Serializable base.
+     * Record Serializable base: serializzato tramite il costruttore canonico.
      */
-    public static class CustomerRecord implements Serializable {
+    public record CustomerRecord(String customerId, String name, LocalDate birthDate) implements Serializable {
         private static final long serialVersionUID = 1L;
 
-        private final String customerId;
-        private final String name;
-        private final LocalDate birthDate;
-
-        public CustomerRecord(String customerId, String name, LocalDate birthDate) {
-            this.customerId = customerId;
-            this.name = name;
-            this.birthDate = birthDate;
-        }
-
         @Override
         public String toString() {
             return "CustomerRecord{id='" + customerId + "', name='" + name + "', birthDate=" + birthDate + "}";
@@ -21,6 +21,8 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.corso.samples.advanced.BatchingPipelineStage;
+
 /**
  * Advanced demo on collections for concurrent and multithreaded programming.
  *
@@ -96,13 +98,17 @@ public final class ConcurrentCollectionsMultithreadingDemo {
             copyOnWriteList.add(value);
         }
 
-        // Misuriamo molte letture concorrenti:
+        // Eseguiamo letture concorrenti su entrambe le liste:
         // CopyOnWriteArrayList è spesso ottimale in scenari con poche scritture e tante letture.
-        long syncReadTime = benchmarkConcurrentReads(synchronizedList);
-        long cowReadTime = benchmarkConcurrentReads(copyOnWriteList);
+        // Un singolo run temporizzato misurerebbe soprattutto l'avvio dei thread, quindi i numeri
+        // reali (throughput e p99 per thread/dimensione/rapporto scritture) sono nel benchmark JMH.
+        int syncReads = readConcurrently(synchronizedList);
+        int cowReads = readConcurrently(copyOnWriteList);
 
-        System.out.println("synchronizedList read benchmark: " + syncReadTime + " ms");
-        System.out.println("CopyOnWriteArrayList read benchmark: " + cowReadTime + " ms");
+        System.out.println("synchronizedList elements read: " + syncReads);
+        System.out.println("CopyOnWriteArrayList elements read: " + cowReads);
+        System.out.println("For throughput/p99 figures run: mvn -Pjmh package && "
+                + "java -jar target/benchmarks.jar ConcurrentListReadBenchmark");
 
         // Nota didattica: su CopyOnWrite ogni scrittura crea una copia interna dell'array,
         // quindi è sconsigliata in workload write-heavy.
@@ -175,6 +181,40 @@ public final class ConcurrentCollectionsMultithreadingDemo {
 
         System.out.println("LOGIN count: " + counters.get("LOGIN").sum());
         System.out.println("SEARCH count: " + counters.get("SEARCH").sum());
+
+        printSubSection("FrequencyCounterMap (striped primitive counters)");
+
+        // Stesso carico con contatori long a stripe per core: nessun LongAdder per chiave,
+        // e per le chiavi calde l'handle del contatore evita anche la lookup nella mappa.
+        FrequencyCounterMap<String> frequencies = new FrequencyCounterMap<>();
+        FrequencyCounterMap.Counter loginCounter = frequencies.counter("LOGIN");
+        ExecutorService stripedPool = Executors.newFixedThreadPool(6);
+        CountDownLatch stripedLatch = new CountDownLatch(6);
+
+        for (int i = 0; i < 6; i++) {
+            final int workerId = i;
+            stripedPool.submit(() -> {
+                try {
+                    for (int j = 0; j < 3_000; j++) {
+                        if (workerId % 2 == 0) {
+                            loginCounter.increment();
+                        } else {
+                            frequencies.increment("SEARCH");
+                        }
+                    }
+                } finally {
+                    stripedLatch.countDown();
+                }
+            });
+        }
+
+        awaitLatch(stripedLatch, "FrequencyCounterMap workload");
+        shutdownExecutor(stripedPool, "frequency-counter-pool");
+
+        // Totale e classifica provengono dallo stesso snapshot, quindi sono coerenti tra loro.
+        FrequencyCounterMap.Snapshot<String> snapshot = frequencies.snapshot();
+        System.out.println("Total events (expected 18000): " + snapshot.total());
+        System.out.println("Top keys: " + snapshot.topK(2));
     }
 
     /**
@@ -203,6 +243,34 @@ public final class ConcurrentCollectionsMultithreadingDemo {
         while ((head = events.poll()) != null) {
             System.out.println("consumed -> " + head);
         }
+
+        printSubSection("MpmcRingBuffer (bounded, array-backed)");
+
+        // Stesso scenario su ring buffer limitato: nessun nodo allocato per offer,
+        // e a coda piena offer restituisce false (backpressure esplicita).
+        MpmcRingBuffer<String> ring = new MpmcRingBuffer<>(8);
+
+        runTwoThreads(
+                () -> {
+                    // offerAll riserva più slot con una sola CAS
+                    List<String> batch = List.of("producer-A:event-0", "producer-A:event-1", "producer-A:event-2");
+                    System.out.println("producer-A offered " + ring.offerAll(batch) + " events in one batch");
+                },
+                () -> {
+                    for (int i = 0; i < 5; i++) {
+                        ring.offer("producer-B:event-" + i);
+                    }
+                });
+
+        boolean accepted = ring.offer("overflow-event");
+        System.out.println("ring size=" + ring.size() + "/" + ring.capacity() + ", offer when full accepted: " + accepted);
+
+        // drainTo trasferisce a blocchi: un'unica CAS per l'intero batch letto.
+        List<String> drained = new ArrayList<>();
+        while (ring.drainTo(drained, 4) > 0) {
+            System.out.println("drained batch -> " + drained);
+            drained.clear();
+        }
     }
 
     /**
@@ -242,6 +310,24 @@ public final class ConcurrentCollectionsMultithreadingDemo {
             producer.join();
             consumer.join();
         }
+
+        printSubSection("Batching stage: drainTo + virtual-thread consumers");
+
+        // Stesso flusso, ma i consumer prelevano blocchi con drainTo (max 4 messaggi o 5 ms):
+        // il passaggio di lock producer/consumer avviene una volta per blocco.
+        BatchingPipelineStage.BatchPolicy policy = new BatchingPipelineStage.BatchPolicy(4, Duration.ofMillis(5));
+        BatchingPipelineStage<String> stage = new BatchingPipelineStage<>(10, 2, policy,
+                batch -> System.out.println("processed batch -> " + batch));
+        try (stage) {
+            for (int i = 1; i <= 8; i++) {
+                stage.submit("message-" + i);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Metriche: profondità coda, istogramma dei blocchi, tempo di blocco dei producer.
+        System.out.println("stage metrics -> " + stage.metrics());
     }
 
     /**
@@ -330,15 +416,16 @@ public final class ConcurrentCollectionsMultithreadingDemo {
     }
 
     /**
-     * Benchmark semplificato per leggere una lista in parallelo.
+     * Legge una lista in parallelo da 4 thread e restituisce il numero totale di
+     * elementi letti. La misura delle prestazioni è delegata a
+     * {@code ConcurrentListReadBenchmark} (profilo Maven {@code jmh}).
      */
-    private static long benchmarkConcurrentReads(List<String> list) {
+    private static int readConcurrently(List<String> list) {
         Objects.requireNonNull(list, "list must not be null");
 
-        Instant start = Instant.now();
-
         ExecutorService pool = Executors.newFixedThreadPool(4);
         CountDownLatch latch = new CountDownLatch(4);
+        LongAdder elementsRead = new LongAdder();
 
         for (int i = 0; i < 4; i++) {
             pool.submit(() -> {
@@ -347,11 +434,13 @@ public final class ConcurrentCollectionsMultithreadingDemo {
                     if (list instanceof CopyOnWriteArrayList) {
                         for (int index = 0; index < list.size(); index++) {
                             list.get(index);
+                            elementsRead.increment();
                         }
                     } else {
                         synchronized (list) {
                             for (int index = 0; index < list.size(); index++) {
                                 list.get(index);
+                                elementsRead.increment();
                             }
                         }
                     }
@@ -361,10 +450,10 @@ public final class ConcurrentCollectionsMultithreadingDemo {
             });
         }
 
-        awaitLatch(latch, "read benchmark");
-        shutdownExecutor(pool, "read-benchmark-pool");
+        awaitLatch(latch, "concurrent reads");
+        shutdownExecutor(pool, "concurrent-read-pool");
 
-        return Duration.between(start, Instant.now()).toMillis();
+        return elementsRead.intValue();
     }
 
     /**
@@ -0,0 +1,265 @@
+package com.corso.samples.array_collections;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mappa di contatori di frequenza per carichi ad altissima contesa su poche chiavi.
+ *
+ * <p>
+ * Sostituisce i pattern {@code computeIfAbsent(key, k -> new LongAdder()).increment()}
+ * e {@code merge(key, 1, Integer::sum)}: ogni chiave ha un {@link Counter} con un
+ * array di {@code long} primitivi suddiviso in stripe, una per core, ciascuna su
+ * una propria cache line per evitare il false sharing. Un thread aggiorna sempre
+ * la stessa stripe, quindi thread diversi raramente si contendono la stessa
+ * cella. Nessun boxing e nessuna allocazione dopo la creazione della chiave.
+ * </p>
+ *
+ * <p>
+ * Per le chiavi più calde conviene risolvere una volta il contatore con
+ * {@link #counter(Object)} e incrementare direttamente l'handle: si elimina
+ * anche la lookup nella mappa.
+ * </p>
+ *
+ * <p>
+ * Le letture ({@link #sumAll()}, {@link #topK(int)}) sono calcolate su uno
+ * {@link Snapshot} immutabile: totale e classifica sono coerenti tra loro.
+ * Come per {@code LongAdder.sum()}, gli incrementi concorrenti alla raccolta
+ * possono essere inclusi o no. Ogni chiave occupa {@code stripes * 64} byte:
+ * la struttura è pensata per poche chiavi molto calde, non per milioni di
+ * chiavi fredde (in quel caso usare meno stripe).
+ * </p>
+ *
+ * @param <K> Il tipo della chiave
+ */
+public final class FrequencyCounterMap<K> {
+
+    // Una stripe ogni 8 long = 64 byte, la dimensione tipica di una cache line
+    private static final int PADDING = 8;
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ConcurrentHashMap<K, Counter> counters = new ConcurrentHashMap<>();
+    private final int stripes;
+
+    /**
+     * Crea una mappa con una stripe per core disponibile (arrotondato a potenza di 2, max 64).
+     */
+    public FrequencyCounterMap() {
+        this(Math.min(64, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Crea una mappa con il numero di stripe indicato.
+     *
+     * @param stripes Il numero di stripe per chiave, arrotondato alla potenza di 2 successiva
+     */
+    public FrequencyCounterMap(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        this.stripes = roundUpToPowerOfTwo(stripes);
+    }
+
+    /**
+     * Incrementa di uno il contatore della chiave.
+     *
+     * @param key La chiave
+     */
+    public void increment(K key) {
+        counter(key).add(1);
+    }
+
+    /**
+     * Aggiunge {@code delta} al contatore della chiave.
+     *
+     * @param key   La chiave
+     * @param delta Il valore da sommare
+     */
+    public void add(K key, long delta) {
+        counter(key).add(delta);
+    }
+
+    /**
+     * Restituisce l'handle del contatore di una chiave, creandolo se assente.
+     * L'handle resta valido per tutta la vita della mappa.
+     *
+     * @param key La chiave
+     * @return Il contatore associato
+     */
+    public Counter counter(K key) {
+        Objects.requireNonNull(key, "key must not be null");
+
+        // get() senza lock nel caso comune; computeIfAbsent solo alla prima occorrenza
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, ignored -> new Counter(stripes));
+        }
+        return counter;
+    }
+
+    /**
+     * Restituisce il valore corrente di una chiave (0 se assente).
+     *
+     * @param key La chiave
+     * @return La somma delle stripe della chiave
+     */
+    public long get(K key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Restituisce il numero di chiavi distinte.
+     *
+     * @return Il numero di chiavi
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Somma di tutti i contatori, calcolata su uno snapshot.
+     *
+     * @return Il totale degli eventi
+     */
+    public long sumAll() {
+        return snapshot().total();
+    }
+
+    /**
+     * Le {@code k} chiavi con il conteggio più alto, in ordine decrescente.
+     *
+     * @param k Il numero massimo di chiavi
+     * @return La classifica, calcolata su uno snapshot
+     */
+    public List<KeyCount<K>> topK(int k) {
+        return snapshot().topK(k);
+    }
+
+    /**
+     * Fotografa tutti i contatori in una struttura immutabile.
+     *
+     * @return Lo snapshot corrente
+     */
+    public Snapshot<K> snapshot() {
+        Map<K, Long> values = new HashMap<>(Math.max(16, counters.size() * 2));
+        long total = 0;
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            long value = entry.getValue().sum();
+            values.put(entry.getKey(), value);
+            total += value;
+        }
+        return new Snapshot<>(Collections.unmodifiableMap(values), total);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    /**
+     * Coppia chiave/conteggio restituita da {@link #topK(int)}.
+     *
+     * @param key   La chiave
+     * @param count Il conteggio
+     * @param <K>   Il tipo della chiave
+     */
+    public record KeyCount<K>(K key, long count) {
+    }
+
+    /**
+     * Vista immutabile dei contatori: totale e classifica sono calcolati sugli stessi valori.
+     *
+     * @param counts I conteggi per chiave
+     * @param total  La somma dei conteggi
+     * @param <K>    Il tipo della chiave
+     */
+    public record Snapshot<K>(Map<K, Long> counts, long total) {
+
+        /**
+         * Le {@code k} chiavi con il conteggio più alto, in ordine decrescente.
+         *
+         * @param k Il numero massimo di chiavi
+         * @return La classifica
+         */
+        public List<KeyCount<K>> topK(int k) {
+            if (k <= 0) {
+                return List.of();
+            }
+
+            // Min-heap di dimensione k: O(n log k) invece di ordinare tutte le chiavi
+            PriorityQueue<KeyCount<K>> heap = new PriorityQueue<>(k + 1, Comparator.comparingLong(KeyCount::count));
+            for (Map.Entry<K, Long> entry : counts.entrySet()) {
+                heap.offer(new KeyCount<>(entry.getKey(), entry.getValue()));
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+
+            List<KeyCount<K>> result = new ArrayList<>(heap);
+            result.sort(Comparator.comparingLong(KeyCount<K>::count).reversed());
+            return List.copyOf(result);
+        }
+    }
+
+    /**
+     * Contatore di una singola chiave: array di long con una stripe per cache line.
+     */
+    public static final class Counter {
+
+        private final long[] cells;
+        private final int mask;
+
+        private Counter(int stripes) {
+            // Cella extra in testa e in coda: la prima/ultima stripe non condivide
+            // la cache line con l'header dell'array o con altri oggetti
+            this.cells = new long[(stripes + 2) * PADDING];
+            this.mask = stripes - 1;
+        }
+
+        /**
+         * Incrementa di uno il contatore.
+         */
+        public void increment() {
+            add(1);
+        }
+
+        /**
+         * Aggiunge {@code delta} alla stripe del thread corrente.
+         *
+         * @param delta Il valore da sommare
+         */
+        public void add(long delta) {
+            CELLS.getAndAdd(cells, (stripeOf(Thread.currentThread()) + 1) * PADDING, delta);
+        }
+
+        /**
+         * Somma di tutte le stripe.
+         *
+         * @return Il valore corrente
+         */
+        public long sum() {
+            long sum = 0;
+            for (int i = 1; i <= mask + 1; i++) {
+                sum += (long) CELLS.getVolatile(cells, i * PADDING);
+            }
+            return sum;
+        }
+
+        private int stripeOf(Thread thread) {
+            // Mescola l'id del thread così che id consecutivi finiscano su stripe diverse
+            long h = thread.threadId() * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+}
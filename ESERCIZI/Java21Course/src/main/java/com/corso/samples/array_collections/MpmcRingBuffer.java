@@ -0,0 +1,301 @@
+package com.corso.samples.array_collections;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coda limitata lock-free multi-producer/multi-consumer basata su array (ring buffer).
+ *
+ * <p>
+ * Alternativa a {@code ConcurrentLinkedQueue} quando servono backpressure e zero
+ * allocazioni: la capacità è fissa (potenza di 2), {@link #offer(Object)} restituisce
+ * {@code false} a coda piena e nessun nodo viene allocato per elemento. Ogni slot ha
+ * un numero di sequenza che indica se è libero per il producer o pronto per il
+ * consumer del giro corrente (algoritmo di D. Vyukov); producer e consumer si
+ * coordinano solo con CAS sui due contatori di posizione, tenuti su cache line
+ * separate per evitare il false sharing.
+ * </p>
+ *
+ * <p>
+ * Le operazioni batch {@link #offerAll(List)} e {@link #drainTo(Collection, int)}
+ * riservano un intero intervallo di slot con una sola CAS. {@link #put(Object)} e
+ * {@link #take()} sono varianti bloccanti con attesa attiva progressiva
+ * (spin, yield, park), adatte ad attese brevi.
+ * </p>
+ *
+ * @param <E> Il tipo degli elementi (null non ammessi)
+ */
+public final class MpmcRingBuffer<E> {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Contatori in un array con 128 byte di distanza tra loro e dai bordi:
+    // la distanza copre anche il prefetch della cache line adiacente
+    private static final int PAD = 16;
+    private static final int TAIL = PAD;
+    private static final int HEAD = PAD * 2;
+
+    private final Object[] elements;
+    private final long[] sequences;
+    private final long[] positions = new long[PAD * 3];
+    private final int mask;
+
+    /**
+     * Crea un ring buffer con la capacità indicata.
+     *
+     * @param capacity La capacità minima, arrotondata alla potenza di 2 successiva
+     */
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in [2, 2^30]: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+
+        this.elements = new Object[size];
+        this.sequences = new long[size];
+        this.mask = size - 1;
+
+        // Lo slot i è libero per il producer della posizione i
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        VarHandle.releaseFence();
+    }
+
+    /**
+     * Inserisce un elemento se c'è spazio.
+     *
+     * @param element L'elemento da inserire
+     * @return {@code false} se la coda è piena
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element must not be null");
+
+        long position = (long) LONGS.getVolatile(positions, TAIL);
+        while (true) {
+            int index = (int) position & mask;
+            long delta = (long) LONGS.getAcquire(sequences, index) - position;
+
+            if (delta == 0) {
+                // Slot libero: lo riserviamo avanzando la coda
+                if (LONGS.compareAndSet(positions, TAIL, position, position + 1)) {
+                    elements[index] = element;
+                    LONGS.setRelease(sequences, index, position + 1);
+                    return true;
+                }
+                position = (long) LONGS.getVolatile(positions, TAIL);
+            } else if (delta < 0) {
+                // Lo slot contiene ancora un elemento del giro precedente: coda piena
+                return false;
+            } else {
+                // Un altro producer ci ha preceduto
+                position = (long) LONGS.getVolatile(positions, TAIL);
+            }
+        }
+    }
+
+    /**
+     * Estrae un elemento se disponibile.
+     *
+     * @return L'elemento in testa, oppure {@code null} se la coda è vuota
+     */
+    public E poll() {
+        long position = (long) LONGS.getVolatile(positions, HEAD);
+        while (true) {
+            int index = (int) position & mask;
+            long delta = (long) LONGS.getAcquire(sequences, index) - (position + 1);
+
+            if (delta == 0) {
+                if (LONGS.compareAndSet(positions, HEAD, position, position + 1)) {
+                    return consume(index, position);
+                }
+                position = (long) LONGS.getVolatile(positions, HEAD);
+            } else if (delta < 0) {
+                // Lo slot non è ancora stato pubblicato: coda vuota
+                return null;
+            } else {
+                position = (long) LONGS.getVolatile(positions, HEAD);
+            }
+        }
+    }
+
+    /**
+     * Inserisce quanti più elementi possibile, nell'ordine della lista, riservando
+     * gli slot con una sola CAS per tentativo.
+     *
+     * @param batch Gli elementi da inserire
+     * @return Il numero di elementi inseriti (i primi {@code n} della lista)
+     */
+    public int offerAll(List<? extends E> batch) {
+        // Validazione prima di riservare gli slot: uno slot riservato e mai pubblicato
+        // bloccherebbe per sempre i consumer
+        for (E element : batch) {
+            Objects.requireNonNull(element, "element must not be null");
+        }
+        int offered = 0;
+        while (offered < batch.size()) {
+            int wanted = batch.size() - offered;
+            long position = (long) LONGS.getVolatile(positions, TAIL);
+
+            // Conta gli slot consecutivi liberi a partire dalla coda
+            int free = 0;
+            while (free < wanted && free <= mask
+                    && (long) LONGS.getAcquire(sequences, (int) (position + free) & mask) == position + free) {
+                free++;
+            }
+            if (free == 0) {
+                if ((long) LONGS.getAcquire(sequences, (int) position & mask) < position) {
+                    return offered;
+                }
+                continue;
+            }
+
+            if (LONGS.compareAndSet(positions, TAIL, position, position + free)) {
+                for (int i = 0; i < free; i++) {
+                    int index = (int) (position + i) & mask;
+                    elements[index] = batch.get(offered + i);
+                    LONGS.setRelease(sequences, index, position + i + 1);
+                }
+                offered += free;
+            }
+        }
+        return offered;
+    }
+
+    /**
+     * Trasferisce fino a {@code maxElements} elementi nella collezione di destinazione,
+     * riservandoli con una sola CAS per tentativo.
+     *
+     * <p>
+     * Se {@code target.add} lancia un'eccezione gli slot riservati vengono comunque
+     * liberati: gli elementi non ancora aggiunti sono persi, ma la coda resta utilizzabile.
+     * </p>
+     *
+     * @param target      La collezione di destinazione
+     * @param maxElements Il numero massimo di elementi da trasferire
+     * @return Il numero di elementi trasferiti (0 se la coda è vuota o {@code maxElements <= 0})
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        Objects.requireNonNull(target, "target must not be null");
+        if (maxElements <= 0) {
+            return 0;
+        }
+        while (true) {
+            long position = (long) LONGS.getVolatile(positions, HEAD);
+
+            // Conta gli slot consecutivi già pubblicati a partire dalla testa
+            int ready = 0;
+            while (ready < maxElements && ready <= mask
+                    && (long) LONGS.getAcquire(sequences, (int) (position + ready) & mask) == position + ready + 1) {
+                ready++;
+            }
+            if (ready == 0) {
+                if ((long) LONGS.getAcquire(sequences, (int) position & mask) < position + 1) {
+                    return 0;
+                }
+                continue;
+            }
+
+            if (LONGS.compareAndSet(positions, HEAD, position, position + ready)) {
+                int next = 0;
+                try {
+                    while (next < ready) {
+                        E element = consume((int) (position + next) & mask, position + next);
+                        next++;
+                        target.add(element);
+                    }
+                } finally {
+                    // Se add ha lanciato un'eccezione, libera comunque gli slot riservati
+                    while (next < ready) {
+                        consume((int) (position + next) & mask, position + next);
+                        next++;
+                    }
+                }
+                return ready;
+            }
+        }
+    }
+
+    /**
+     * Inserisce un elemento attendendo che si liberi spazio.
+     *
+     * @param element L'elemento da inserire
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa
+     */
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++) {
+            idle(attempt);
+        }
+    }
+
+    /**
+     * Estrae un elemento attendendo che sia disponibile.
+     *
+     * @return L'elemento in testa
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa
+     */
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++) {
+            idle(attempt);
+        }
+        return element;
+    }
+
+    /**
+     * Numero approssimato di elementi presenti (esatto solo in assenza di operazioni concorrenti).
+     *
+     * @return Il numero di elementi
+     */
+    public int size() {
+        long head = (long) LONGS.getVolatile(positions, HEAD);
+        long tail = (long) LONGS.getVolatile(positions, TAIL);
+        return (int) Math.max(0, Math.min(tail - head, capacity()));
+    }
+
+    /**
+     * @return {@code true} se la coda appare vuota
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return La capacità effettiva (potenza di 2)
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Legge l'elemento di uno slot riservato e lo rende disponibile al giro successivo.
+     */
+    @SuppressWarnings("unchecked")
+    private E consume(int index, long position) {
+        E element = (E) elements[index];
+        elements[index] = null;
+        LONGS.setRelease(sequences, index, position + mask + 1);
+        return element;
+    }
+
+    /**
+     * Attesa progressiva: prima spin, poi yield, infine park di breve durata.
+     */
+    private static void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (attempt < 64) {
+            Thread.onSpinWait();
+        } else if (attempt < 128) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+    }
+}
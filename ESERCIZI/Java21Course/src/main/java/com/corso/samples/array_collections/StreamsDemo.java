@@ -13,6 +13,8 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import com.corso.samples.datatypes.BigDecimalAggregator;
+
 /**
  * Demo completa sugli Streams in Java 21.
  *
@@ -215,6 +217,24 @@ public class StreamsDemo {
         System.out.println("orders total: " + total);
         System.out.println("ageStats: " + ageStats);
         System.out.println("amountStats: " + amountStats);
+
+        printSubSection("Somme BigDecimal su molti elementi");
+        // Stesso risultato della reduce (scala compresa), senza un BigDecimal per elemento
+        BigDecimal aggregated = orders.stream().collect(BigDecimalAggregator.summing(Order::total));
+        System.out.println("orders total (BigDecimalAggregator.summing): " + aggregated);
+
+        List<BigDecimal> lineTotals = IntStream.range(0, 2_000_000)
+                .mapToObj(i -> BigDecimal.valueOf(100 + (i * 7919L) % 99_900, 2))
+                .toList();
+        long start = System.nanoTime();
+        BigDecimal reduced = lineTotals.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        long reduceMicros = (System.nanoTime() - start) / 1_000;
+        start = System.nanoTime();
+        BigDecimal parallel = BigDecimalAggregator.parallelSum(lineTotals);
+        long parallelMicros = (System.nanoTime() - start) / 1_000;
+        System.out.println("2M righe, reduce: " + reduced + " in " + reduceMicros + " us");
+        System.out.println("2M righe, parallelSum: " + parallel + " in " + parallelMicros + " us, equals="
+                + parallel.equals(reduced));
     }
 
     private static void demoOptionalWithStreams() {
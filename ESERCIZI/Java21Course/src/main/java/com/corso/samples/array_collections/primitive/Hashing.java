@@ -0,0 +1,45 @@
+package com.corso.samples.array_collections.primitive;
+
+/**
+ * Funzioni comuni alle tabelle hash a indirizzamento aperto del package.
+ */
+final class Hashing {
+
+    /** Capacità massima della tabella (potenza di 2). */
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private Hashing() {
+    }
+
+    /**
+     * Mescola i bit dell'hash: con il probing lineare e una maschera sui bit bassi,
+     * chiavi consecutive o multiple di potenze di 2 finirebbero in cluster.
+     *
+     * @param hash L'hash originale
+     * @return L'hash mescolato
+     */
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Dimensione della tabella per {@code expectedSize} elementi con fattore di carico 0,5.
+     *
+     * @param expectedSize Il numero di elementi previsto
+     * @return Una potenza di 2
+     */
+    static int tableSize(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        long needed = Math.max(MIN_CAPACITY, 2L * expectedSize);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        int highest = Integer.highestOneBit((int) needed);
+        return highest == needed ? highest : highest << 1;
+    }
+}
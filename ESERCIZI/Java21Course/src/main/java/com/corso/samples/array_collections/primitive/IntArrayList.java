@@ -0,0 +1,291 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Lista di {@code int} su un array primitivo: l'equivalente di {@code List<Integer>}
+ * senza boxing.
+ *
+ * <p>
+ * Un {@code ArrayList<Integer>} tiene un array di riferimenti e, fuori dalla cache
+ * -128..127, un oggetto {@link Integer} da 16 byte per elemento: circa 20 byte
+ * per valore contro i 4 di questa lista, e a ogni lettura una dereferenziazione in
+ * più. Iteratori e stream restituiscono {@code int} senza passare dai wrapper.
+ * </p>
+ *
+ * <p>
+ * Non è thread-safe e gli iteratori non rilevano modifiche concorrenti.
+ * </p>
+ */
+public final class IntArrayList {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private int[] elements;
+    private int size;
+
+    /**
+     * Crea una lista vuota con capacità 10.
+     */
+    public IntArrayList() {
+        this(10);
+    }
+
+    /**
+     * @param initialCapacity La capacità iniziale
+     */
+    public IntArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        this.elements = new int[initialCapacity];
+    }
+
+    /**
+     * @param values I valori
+     * @return Una nuova lista con i valori indicati
+     */
+    public static IntArrayList of(int... values) {
+        IntArrayList list = new IntArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    /**
+     * Raccoglie uno {@link IntStream} senza passare da {@code boxed().toList()}.
+     *
+     * @param stream Lo stream
+     * @return Una nuova lista con gli elementi dello stream
+     */
+    public static IntArrayList from(IntStream stream) {
+        Objects.requireNonNull(stream, "stream must not be null");
+        return stream.collect(IntArrayList::new, IntArrayList::add, IntArrayList::addAll);
+    }
+
+    /**
+     * @param value Il valore da aggiungere in coda
+     */
+    public void add(int value) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * @param values I valori da aggiungere in coda
+     */
+    public void addAll(int... values) {
+        Objects.requireNonNull(values, "values must not be null");
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, elements, size, values.length);
+        size += values.length;
+    }
+
+    /**
+     * @param other La lista da aggiungere in coda
+     */
+    public void addAll(IntArrayList other) {
+        Objects.requireNonNull(other, "other must not be null");
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param index La posizione
+     * @return Il valore alla posizione indicata
+     */
+    public int get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * @param index La posizione
+     * @param value Il nuovo valore
+     * @return Il valore precedente
+     */
+    public int set(int index, int value) {
+        Objects.checkIndex(index, size);
+        int previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    /**
+     * Rimuove l'elemento alla posizione indicata, spostando i successivi.
+     *
+     * @param index La posizione
+     * @return Il valore rimosso
+     */
+    public int removeAt(int index) {
+        Objects.checkIndex(index, size);
+        int removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    /**
+     * @param value Il valore cercato
+     * @return La prima posizione del valore, -1 se assente
+     */
+    public int indexOf(int value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value Il valore cercato
+     * @return {@code true} se la lista contiene il valore
+     */
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return Il numero di elementi
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} se la lista è vuota
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Svuota la lista mantenendo la capacità.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Ordina gli elementi in modo crescente.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * @param minCapacity La capacità minima richiesta
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Riduce la capacità al numero di elementi.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * @return Una copia degli elementi
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * @param action L'azione da eseguire per ogni elemento, in ordine
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action, "action must not be null");
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * @return Un iteratore che restituisce {@code int} con {@code nextInt()}
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elements[next++];
+            }
+        };
+    }
+
+    /**
+     * Stream sugli elementi correnti; va consumato prima di modificare la lista.
+     *
+     * @return Lo stream degli elementi
+     */
+    public IntStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntArrayList other) || size != other.size) {
+            return false;
+        }
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + elements[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 4 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Required array size too large: " + Integer.toUnsignedString(minCapacity));
+        }
+        // Crescita del 50%, come ArrayList
+        long preferred = elements.length + (elements.length >> 1) + 1L;
+        int newCapacity = (int) Math.min(MAX_ARRAY_SIZE, Math.max(minCapacity, preferred));
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+}
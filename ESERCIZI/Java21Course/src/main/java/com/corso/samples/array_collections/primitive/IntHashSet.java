@@ -0,0 +1,316 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Insieme di {@code int} a indirizzamento aperto: l'equivalente di {@code Set<Integer>}
+ * senza boxing.
+ *
+ * <p>
+ * {@code HashSet<Integer>} è una {@code HashMap} con valore fittizio: nodo, wrapper
+ * e riferimento per ogni elemento. Qui un solo array di {@code int} con probing
+ * lineare e fattore di carico massimo 0,5, come {@link IntIntHashMap}. Lo 0 segna
+ * le celle libere ed è tenuto a parte. Non è thread-safe e gli iteratori non
+ * rilevano modifiche concorrenti.
+ * </p>
+ */
+public final class IntHashSet {
+
+    private static final int FREE = 0;
+
+    private int[] elements;
+    private int mask;
+    private int resizeAt;
+    // Elementi nella tabella, escluso lo 0
+    private int assigned;
+    private boolean hasZero;
+
+    /**
+     * Crea un insieme vuoto per circa 16 elementi.
+     */
+    public IntHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Il numero di elementi previsto: fino a questo valore non ci sono rehash
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * @param values I valori
+     * @return Un nuovo insieme con i valori indicati
+     */
+    public static IntHashSet of(int... values) {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * Raccoglie uno {@link IntStream} senza passare da {@code boxed().collect(toSet())}.
+     *
+     * @param stream Lo stream
+     * @return Un nuovo insieme con gli elementi distinti dello stream
+     */
+    public static IntHashSet from(IntStream stream) {
+        Objects.requireNonNull(stream, "stream must not be null");
+        return stream.collect(IntHashSet::new, IntHashSet::add, IntHashSet::addAll);
+    }
+
+    /**
+     * @param value Il valore
+     * @return {@code true} se il valore non era presente
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int slot = slotOf(value);
+        if (elements[slot] == value) {
+            return false;
+        }
+        elements[slot] = value;
+        if (++assigned > resizeAt) {
+            rehash();
+        }
+        return true;
+    }
+
+    /**
+     * @param other L'insieme da aggiungere
+     */
+    public void addAll(IntHashSet other) {
+        Objects.requireNonNull(other, "other must not be null");
+        other.forEach(this::add);
+    }
+
+    /**
+     * @param value Il valore
+     * @return {@code true} se il valore è presente
+     */
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return hasZero;
+        }
+        return elements[slotOf(value)] == value;
+    }
+
+    /**
+     * @param value Il valore
+     * @return {@code true} se il valore era presente
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+        int slot = slotOf(value);
+        if (elements[slot] != value) {
+            return false;
+        }
+        shiftBack(slot);
+        assigned--;
+        return true;
+    }
+
+    /**
+     * @return Il numero di elementi
+     */
+    public int size() {
+        return assigned + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * @return {@code true} se l'insieme è vuoto
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Rimuove tutti gli elementi mantenendo la capacità.
+     */
+    public void clear() {
+        Arrays.fill(elements, FREE);
+        assigned = 0;
+        hasZero = false;
+    }
+
+    /**
+     * @return Gli elementi, in ordine non specificato
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int index = 0;
+        if (hasZero) {
+            result[index++] = FREE;
+        }
+        for (int value : elements) {
+            if (value != FREE) {
+                result[index++] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param action L'azione da eseguire per ogni elemento, in ordine non specificato
+     */
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action, "action must not be null");
+        if (hasZero) {
+            action.accept(FREE);
+        }
+        int[] table = elements;
+        for (int value : table) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * @return Un iteratore che restituisce {@code int} con {@code nextInt()}
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private boolean zeroPending = hasZero;
+            private int next = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || next < elements.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return FREE;
+                }
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                int value = elements[next];
+                next = advance(next + 1);
+                return value;
+            }
+
+            private int advance(int from) {
+                int slot = from;
+                while (slot < elements.length && elements[slot] == FREE) {
+                    slot++;
+                }
+                return slot;
+            }
+        };
+    }
+
+    /**
+     * Stream sugli elementi correnti; va consumato prima di modificare l'insieme.
+     *
+     * @return Gli elementi, in ordine non specificato
+     */
+    public IntStream stream() {
+        IntStream table = Arrays.stream(elements).filter(value -> value != FREE);
+        return hasZero ? IntStream.concat(IntStream.of(FREE), table) : table;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntHashSet other) || size() != other.size() || hasZero != other.hasZero) {
+            return false;
+        }
+        for (int value : elements) {
+            if (value != FREE && !other.contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Somma degli elementi, come Set.hashCode()
+        int hash = 0;
+        for (int value : elements) {
+            hash += value;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('[');
+        forEach(value -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(value);
+        });
+        return builder.append(']').toString();
+    }
+
+    /**
+     * @return La posizione del valore o della prima cella libera del suo cluster
+     */
+    private int slotOf(int value) {
+        int[] table = elements;
+        int slot = Hashing.mix(value) & mask;
+        int current;
+        while ((current = table[slot]) != FREE && current != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int gap) {
+        int[] table = elements;
+        int slot = (gap + 1) & mask;
+        while (table[slot] != FREE) {
+            int ideal = Hashing.mix(table[slot]) & mask;
+            // Il valore può occupare il buco se questo sta tra la sua cella ideale e quella attuale
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[gap] = FREE;
+    }
+
+    private void rehash() {
+        if (elements.length == Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("IntHashSet capacity exceeded: " + size());
+        }
+        int[] old = elements;
+        allocate(old.length << 1);
+        for (int value : old) {
+            if (value != FREE) {
+                elements[slotOf(value)] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity >> 1;
+    }
+}
@@ -0,0 +1,285 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Mappa {@code int → int} a indirizzamento aperto: l'equivalente di
+ * {@code Map<Integer, Integer>} senza boxing.
+ *
+ * <p>
+ * Chiavi e valori stanno in due array paralleli; le collisioni si risolvono con
+ * probing lineare (la cella successiva), quindi una lookup legge celle contigue
+ * invece di seguire i nodi di {@code HashMap}. Una voce di {@code HashMap<Integer, Integer>}
+ * costa il nodo (32 byte), due wrapper (32 byte) e il riferimento nella tabella:
+ * qui ogni cella costa 8 byte (chiave e valore), quindi con il fattore di carico
+ * massimo di 0,5 almeno 16 byte per voce, fino a 32 subito dopo un rehash.
+ * </p>
+ *
+ * <p>
+ * La chiave 0 segna le celle libere ed è tenuta a parte. La rimozione sposta
+ * indietro le voci successive del cluster (backward shift), senza tombstone.
+ * Non è thread-safe.
+ * </p>
+ */
+public final class IntIntHashMap {
+
+    private static final int FREE = 0;
+
+    /**
+     * Azione su una coppia chiave/valore, senza boxing.
+     */
+    @FunctionalInterface
+    public interface IntIntConsumer {
+
+        /**
+         * @param key   La chiave
+         * @param value Il valore
+         */
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    // Voci nella tabella, esclusa la chiave 0
+    private int assigned;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    /**
+     * Crea una mappa vuota per circa 16 voci.
+     */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Il numero di voci previsto: fino a questo valore non ci sono rehash
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * @param key   La chiave
+     * @param value Il valore
+     */
+    public void put(int key, int value) {
+        if (key == FREE) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        insert(slot, key, value);
+    }
+
+    /**
+     * Somma {@code delta} al valore della chiave (0 se assente): l'equivalente di
+     * {@code map.merge(key, delta, Integer::sum)}.
+     *
+     * @param key   La chiave
+     * @param delta Il valore da sommare
+     * @return Il nuovo valore
+     */
+    public int addTo(int key, int delta) {
+        if (key == FREE) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        insert(slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * @param key          La chiave
+     * @param defaultValue Il valore da restituire se la chiave è assente
+     * @return Il valore associato o {@code defaultValue}
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key La chiave
+     * @return {@code true} se la chiave è presente
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        return keys[slotOf(key)] == key;
+    }
+
+    /**
+     * @param key La chiave
+     * @return {@code true} se la chiave era presente
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            return removed;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            return false;
+        }
+        shiftBack(slot);
+        assigned--;
+        return true;
+    }
+
+    /**
+     * @return Il numero di voci
+     */
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * @return {@code true} se la mappa è vuota
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Rimuove tutte le voci mantenendo la capacità.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * @param action L'azione da eseguire per ogni voce, in ordine non specificato
+     */
+    public void forEach(IntIntConsumer action) {
+        Objects.requireNonNull(action, "action must not be null");
+        if (hasZeroKey) {
+            action.accept(FREE, zeroValue);
+        }
+        int[] k = keys;
+        int[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != FREE) {
+                action.accept(k[i], v[i]);
+            }
+        }
+    }
+
+    /**
+     * Stream delle chiavi; va consumato prima di modificare la mappa.
+     *
+     * @return Le chiavi, in ordine non specificato
+     */
+    public IntStream keys() {
+        IntStream table = Arrays.stream(keys).filter(key -> key != FREE);
+        return hasZeroKey ? IntStream.concat(IntStream.of(FREE), table) : table;
+    }
+
+    /**
+     * Stream dei valori, nello stesso ordine di {@link #keys()}; va consumato prima
+     * di modificare la mappa.
+     *
+     * @return I valori
+     */
+    public IntStream values() {
+        int[] k = keys;
+        int[] v = values;
+        IntStream table = IntStream.range(0, k.length).filter(i -> k[i] != FREE).map(i -> v[i]);
+        return hasZeroKey ? IntStream.concat(IntStream.of(zeroValue), table) : table;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('{');
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    /**
+     * @return La posizione della chiave o della prima cella libera del suo cluster
+     */
+    private int slotOf(int key) {
+        int[] k = keys;
+        int slot = Hashing.mix(key) & mask;
+        int current;
+        while ((current = k[slot]) != FREE && current != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, int key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++assigned > resizeAt) {
+            rehash();
+        }
+    }
+
+    private void shiftBack(int gap) {
+        int[] k = keys;
+        int[] v = values;
+        int slot = (gap + 1) & mask;
+        while (k[slot] != FREE) {
+            int ideal = Hashing.mix(k[slot]) & mask;
+            // La voce può occupare il buco se questo sta tra la sua cella ideale e quella attuale
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                k[gap] = k[slot];
+                v[gap] = v[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        k[gap] = FREE;
+    }
+
+    private void rehash() {
+        if (keys.length == Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("IntIntHashMap capacity exceeded: " + size());
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != FREE) {
+                int slot = slotOf(key);
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity >> 1;
+    }
+}
@@ -0,0 +1,290 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Lista di {@code long} su un array primitivo: l'equivalente di {@code List<Long>}
+ * senza boxing.
+ *
+ * <p>
+ * Ogni {@link Long} fuori dalla cache -128..127 è un oggetto da 16 byte più il
+ * riferimento nell'array di {@code ArrayList}; qui ogni valore occupa 8 byte
+ * contigui. Iteratori e stream restituiscono {@code long} senza passare dai wrapper.
+ * </p>
+ *
+ * <p>
+ * Non è thread-safe e gli iteratori non rilevano modifiche concorrenti.
+ * </p>
+ */
+public final class LongArrayList {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private long[] elements;
+    private int size;
+
+    /**
+     * Crea una lista vuota con capacità 10.
+     */
+    public LongArrayList() {
+        this(10);
+    }
+
+    /**
+     * @param initialCapacity La capacità iniziale
+     */
+    public LongArrayList(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        this.elements = new long[initialCapacity];
+    }
+
+    /**
+     * @param values I valori
+     * @return Una nuova lista con i valori indicati
+     */
+    public static LongArrayList of(long... values) {
+        LongArrayList list = new LongArrayList(values.length);
+        list.addAll(values);
+        return list;
+    }
+
+    /**
+     * Raccoglie uno {@link LongStream} senza passare da {@code boxed().toList()}.
+     *
+     * @param stream Lo stream
+     * @return Una nuova lista con gli elementi dello stream
+     */
+    public static LongArrayList from(LongStream stream) {
+        Objects.requireNonNull(stream, "stream must not be null");
+        return stream.collect(LongArrayList::new, LongArrayList::add, LongArrayList::addAll);
+    }
+
+    /**
+     * @param value Il valore da aggiungere in coda
+     */
+    public void add(long value) {
+        if (size == elements.length) {
+            grow(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * @param values I valori da aggiungere in coda
+     */
+    public void addAll(long... values) {
+        Objects.requireNonNull(values, "values must not be null");
+        ensureCapacity(size + values.length);
+        System.arraycopy(values, 0, elements, size, values.length);
+        size += values.length;
+    }
+
+    /**
+     * @param other La lista da aggiungere in coda
+     */
+    public void addAll(LongArrayList other) {
+        Objects.requireNonNull(other, "other must not be null");
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param index La posizione
+     * @return Il valore alla posizione indicata
+     */
+    public long get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    /**
+     * @param index La posizione
+     * @param value Il nuovo valore
+     * @return Il valore precedente
+     */
+    public long set(int index, long value) {
+        Objects.checkIndex(index, size);
+        long previous = elements[index];
+        elements[index] = value;
+        return previous;
+    }
+
+    /**
+     * Rimuove l'elemento alla posizione indicata, spostando i successivi.
+     *
+     * @param index La posizione
+     * @return Il valore rimosso
+     */
+    public long removeAt(int index) {
+        Objects.checkIndex(index, size);
+        long removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    /**
+     * @param value Il valore cercato
+     * @return La prima posizione del valore, -1 se assente
+     */
+    public int indexOf(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value Il valore cercato
+     * @return {@code true} se la lista contiene il valore
+     */
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return Il numero di elementi
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} se la lista è vuota
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Svuota la lista mantenendo la capacità.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Ordina gli elementi in modo crescente.
+     */
+    public void sort() {
+        Arrays.sort(elements, 0, size);
+    }
+
+    /**
+     * @param minCapacity La capacità minima richiesta
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Riduce la capacità al numero di elementi.
+     */
+    public void trimToSize() {
+        if (size < elements.length) {
+            elements = Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * @return Una copia degli elementi
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * @param action L'azione da eseguire per ogni elemento, in ordine
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action, "action must not be null");
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * @return Un iteratore che restituisce {@code long} con {@code nextLong()}
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return elements[next++];
+            }
+        };
+    }
+
+    /**
+     * Stream sugli elementi correnti; va consumato prima di modificare la lista.
+     *
+     * @return Lo stream degli elementi
+     */
+    public LongStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LongArrayList other) || size != other.size) {
+            return false;
+        }
+        return Arrays.equals(elements, 0, size, other.elements, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 8 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(elements[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Required array size too large: " + Integer.toUnsignedString(minCapacity));
+        }
+        // Crescita del 50%, come ArrayList
+        long preferred = elements.length + (elements.length >> 1) + 1L;
+        int newCapacity = (int) Math.min(MAX_ARRAY_SIZE, Math.max(minCapacity, preferred));
+        elements = Arrays.copyOf(elements, newCapacity);
+    }
+}
@@ -0,0 +1,250 @@
+package com.corso.samples.array_collections.primitive;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Mappa {@code K → int} a indirizzamento aperto: l'equivalente di
+ * {@code Map<String, Integer>} senza boxing dei valori.
+ *
+ * <p>
+ * Il conteggio {@code map.merge(word, 1, Integer::sum)} su una {@code HashMap} crea un
+ * {@link Integer} nuovo a ogni incremento oltre 127 e passa dal nodo della voce;
+ * {@link #addTo(Object, int)} aggiorna un {@code int} nell'array dei valori. Chiavi e
+ * valori stanno in due array paralleli con probing lineare e fattore di carico
+ * massimo 0,5. Le chiavi {@code null} non sono ammesse (segnano le celle libere).
+ * Non è thread-safe.
+ * </p>
+ *
+ * @param <K> Il tipo della chiave
+ */
+public final class ObjectIntHashMap<K> {
+
+    private Object[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+
+    /**
+     * Crea una mappa vuota per circa 16 voci.
+     */
+    public ObjectIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize Il numero di voci previsto: fino a questo valore non ci sono rehash
+     */
+    public ObjectIntHashMap(int expectedSize) {
+        allocate(Hashing.tableSize(expectedSize));
+    }
+
+    /**
+     * @param key   La chiave
+     * @param value Il valore
+     */
+    public void put(K key, int value) {
+        int slot = slotOf(Objects.requireNonNull(key, "key must not be null"));
+        if (keys[slot] != null) {
+            values[slot] = value;
+            return;
+        }
+        insert(slot, key, value);
+    }
+
+    /**
+     * Somma {@code delta} al valore della chiave (0 se assente): l'equivalente di
+     * {@code map.merge(key, delta, Integer::sum)}.
+     *
+     * @param key   La chiave
+     * @param delta Il valore da sommare
+     * @return Il nuovo valore
+     */
+    public int addTo(K key, int delta) {
+        int slot = slotOf(Objects.requireNonNull(key, "key must not be null"));
+        if (keys[slot] != null) {
+            return values[slot] += delta;
+        }
+        insert(slot, key, delta);
+        return delta;
+    }
+
+    /**
+     * @param key          La chiave
+     * @param defaultValue Il valore da restituire se la chiave è assente
+     * @return Il valore associato o {@code defaultValue}
+     */
+    public int getOrDefault(Object key, int defaultValue) {
+        if (key == null) {
+            return defaultValue;
+        }
+        int slot = slotOf(key);
+        return keys[slot] != null ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key La chiave
+     * @return {@code true} se la chiave è presente
+     */
+    public boolean containsKey(Object key) {
+        return key != null && keys[slotOf(key)] != null;
+    }
+
+    /**
+     * @param key La chiave
+     * @return {@code true} se la chiave era presente
+     */
+    public boolean remove(Object key) {
+        if (key == null) {
+            return false;
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == null) {
+            return false;
+        }
+        shiftBack(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * @return Il numero di voci
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} se la mappa è vuota
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Rimuove tutte le voci mantenendo la capacità.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * @param action L'azione da eseguire per ogni voce, in ordine non specificato
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjIntConsumer<? super K> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        Object[] k = keys;
+        int[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != null) {
+                action.accept((K) k[i], v[i]);
+            }
+        }
+    }
+
+    /**
+     * Stream delle chiavi; va consumato prima di modificare la mappa.
+     *
+     * @return Le chiavi, in ordine non specificato
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<K> keys() {
+        return Arrays.stream(keys).filter(Objects::nonNull).map(key -> (K) key);
+    }
+
+    /**
+     * Stream dei valori, nello stesso ordine di {@link #keys()}; va consumato prima
+     * di modificare la mappa.
+     *
+     * @return I valori
+     */
+    public IntStream values() {
+        Object[] k = keys;
+        int[] v = values;
+        return IntStream.range(0, k.length).filter(i -> k[i] != null).map(i -> v[i]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('{');
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    /**
+     * @return La posizione della chiave o della prima cella libera del suo cluster
+     */
+    private int slotOf(Object key) {
+        Object[] k = keys;
+        int slot = Hashing.mix(key.hashCode()) & mask;
+        Object current;
+        while ((current = k[slot]) != null && !current.equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, K key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash();
+        }
+    }
+
+    private void shiftBack(int gap) {
+        Object[] k = keys;
+        int[] v = values;
+        int slot = (gap + 1) & mask;
+        while (k[slot] != null) {
+            int ideal = Hashing.mix(k[slot].hashCode()) & mask;
+            // La voce può occupare il buco se questo sta tra la sua cella ideale e quella attuale
+            if (((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                k[gap] = k[slot];
+                v[gap] = v[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        k[gap] = null;
+    }
+
+    private void rehash() {
+        if (keys.length == Hashing.MAX_CAPACITY) {
+            throw new IllegalStateException("ObjectIntHashMap capacity exceeded: " + size);
+        }
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object key = oldKeys[i];
+            if (key != null) {
+                // Le chiavi sono distinte: basta la prima cella libera, senza equals
+                int slot = Hashing.mix(key.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity >> 1;
+    }
+}
@@ -0,0 +1,234 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Somme di molti {@link BigDecimal} senza allocare un {@link BigDecimal} per elemento.
+ *
+ * <p>
+ * {@code Stream.reduce(BigDecimal.ZERO, BigDecimal::add)} crea un nuovo oggetto a ogni
+ * somma e riallinea la scala ogni volta. Qui la somma avviene sui valori non scalati:
+ * un accumulatore {@code long} alla scala comune (la massima incontrata finora; quando
+ * arriva un valore con scala maggiore l'accumulatore viene riscalato). Se un valore
+ * non sta in un {@code long} o la somma va in overflow, la parte eccedente passa a un
+ * {@link BigInteger} di riserva e il ciclo prosegue sul {@code long}. Per elemento
+ * resta solo il {@link BigInteger} temporaneo di {@code unscaledValue()}, che la JIT
+ * spesso elimina; su un solo core il guadagno è soprattutto in allocazioni, mentre
+ * {@link #parallelSum(List)} e {@link #summing(Function)} su stream paralleli
+ * dividono il lavoro tra i core.
+ * </p>
+ *
+ * <p>
+ * Il risultato è identico a quello della {@code reduce} ingenua, scala compresa
+ * ({@code equals}, non solo {@code compareTo}): la scala è il massimo tra 0 e le scale
+ * degli elementi, come per {@code BigDecimal.ZERO.add(...)}.
+ * </p>
+ */
+public final class BigDecimalAggregator {
+
+    /** Elementi sotto i quali {@link #parallelSum(List)} non divide ulteriormente il lavoro. */
+    public static final int PARALLEL_THRESHOLD = 8_192;
+
+    // 10^18 è la più grande potenza di 10 in un long
+    private static final int MAX_LONG_SHIFT = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_SHIFT + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_LONG_SHIFT; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private BigDecimalAggregator() {
+    }
+
+    /**
+     * @param values I valori (null non ammessi)
+     * @return La somma, uguale a {@code reduce(BigDecimal.ZERO, BigDecimal::add)}
+     */
+    public static BigDecimal sum(Iterable<BigDecimal> values) {
+        Objects.requireNonNull(values, "values must not be null");
+        Accumulator accumulator = new Accumulator();
+        for (BigDecimal value : values) {
+            accumulator.add(value);
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * @param values I valori (null non ammessi)
+     * @return La somma, uguale a {@code reduce(BigDecimal.ZERO, BigDecimal::add)}
+     */
+    public static BigDecimal sum(BigDecimal... values) {
+        Objects.requireNonNull(values, "values must not be null");
+        Accumulator accumulator = new Accumulator();
+        for (BigDecimal value : values) {
+            accumulator.add(value);
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * @param items  Gli elementi
+     * @param amount L'importo di ogni elemento (ad esempio {@code Order::total})
+     * @param <T>    Il tipo degli elementi
+     * @return La somma degli importi
+     */
+    public static <T> BigDecimal sum(Iterable<T> items, Function<? super T, BigDecimal> amount) {
+        Objects.requireNonNull(items, "items must not be null");
+        Objects.requireNonNull(amount, "amount must not be null");
+        Accumulator accumulator = new Accumulator();
+        for (T item : items) {
+            accumulator.add(amount.apply(item));
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * Somma parziali calcolati in parallelo sul ForkJoinPool comune.
+     *
+     * @param values I valori (null non ammessi); la lista deve supportare l'accesso casuale
+     * @return La somma, uguale a {@code reduce(BigDecimal.ZERO, BigDecimal::add)}
+     */
+    public static BigDecimal parallelSum(List<BigDecimal> values) {
+        Objects.requireNonNull(values, "values must not be null");
+        if (values.size() <= PARALLEL_THRESHOLD) {
+            return sum(values);
+        }
+        return ForkJoinPool.commonPool().invoke(new PartialSum(values, 0, values.size())).result();
+    }
+
+    /**
+     * Collector equivalente a {@code map(amount).reduce(BigDecimal.ZERO, BigDecimal::add)},
+     * utilizzabile anche con stream paralleli.
+     *
+     * @param amount L'importo di ogni elemento
+     * @param <T>    Il tipo degli elementi
+     * @return Il collector
+     */
+    public static <T> Collector<T, ?, BigDecimal> summing(Function<? super T, BigDecimal> amount) {
+        Objects.requireNonNull(amount, "amount must not be null");
+        return Collector.of(Accumulator::new,
+                (accumulator, item) -> accumulator.add(amount.apply(item)),
+                Accumulator::merge,
+                Accumulator::result);
+    }
+
+    /**
+     * Somma parziale: {@code (spill + compact) × 10^-scale}.
+     */
+    private static final class Accumulator {
+        private int scale;
+        private long compact;
+        private BigInteger spill = BigInteger.ZERO;
+
+        void add(BigDecimal value) {
+            int valueScale = value.scale();
+            if (valueScale > scale) {
+                rescale(valueScale);
+            }
+            // scale >= 0 e valueScale <= scale: lo spostamento non è mai negativo
+            long shift = (long) scale - valueScale;
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < Long.SIZE && shift <= MAX_LONG_SHIFT) {
+                long compactValue = unscaled.longValue();
+                long factor = POWERS_OF_TEN[(int) shift];
+                long aligned = compactValue * factor;
+                if (Math.multiplyHigh(compactValue, factor) == (aligned >> 63)) {
+                    addCompact(aligned);
+                    return;
+                }
+            }
+            spill = spill.add(unscaled.multiply(BigInteger.TEN.pow(Math.toIntExact(shift))));
+        }
+
+        Accumulator merge(Accumulator other) {
+            if (other.scale > scale) {
+                rescale(other.scale);
+            } else if (scale > other.scale) {
+                other.rescale(scale);
+            }
+            addCompact(other.compact);
+            if (other.spill.signum() != 0) {
+                spill = spill.add(other.spill);
+            }
+            return this;
+        }
+
+        BigDecimal result() {
+            if (spill.signum() == 0) {
+                return BigDecimal.valueOf(compact, scale);
+            }
+            return new BigDecimal(spill.add(BigInteger.valueOf(compact)), scale);
+        }
+
+        private void addCompact(long value) {
+            long sum = compact + value;
+            // Overflow se gli addendi hanno lo stesso segno e la somma no
+            if (((compact ^ sum) & (value ^ sum)) < 0) {
+                spill = spill.add(BigInteger.valueOf(compact));
+                sum = value;
+            }
+            compact = sum;
+        }
+
+        private void rescale(int newScale) {
+            int shift = newScale - scale;
+            if (spill.signum() != 0) {
+                spill = spill.multiply(BigInteger.TEN.pow(shift));
+            }
+            if (compact != 0) {
+                long scaled = shift <= MAX_LONG_SHIFT ? compact * POWERS_OF_TEN[shift] : 0;
+                if (shift <= MAX_LONG_SHIFT
+                        && Math.multiplyHigh(compact, POWERS_OF_TEN[shift]) == (scaled >> 63)) {
+                    compact = scaled;
+                } else {
+                    spill = spill.add(BigInteger.valueOf(compact).multiply(BigInteger.TEN.pow(shift)));
+                    compact = 0;
+                }
+            }
+            scale = newScale;
+        }
+    }
+
+    /**
+     * Divide l'intervallo a metà fino a {@link #PARALLEL_THRESHOLD} elementi e unisce i parziali.
+     */
+    private static final class PartialSum extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<BigDecimal> values;
+        private final int from;
+        private final int to;
+
+        PartialSum(List<BigDecimal> values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                Accumulator accumulator = new Accumulator();
+                for (int i = from; i < to; i++) {
+                    accumulator.add(values.get(i));
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            PartialSum left = new PartialSum(values, from, middle);
+            left.fork();
+            Accumulator right = new PartialSum(values, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
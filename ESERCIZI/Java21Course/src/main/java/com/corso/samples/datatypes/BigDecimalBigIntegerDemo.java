@@ -3,6 +3,8 @@ package com.corso.samples.datatypes;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe demo completa per l'apprendimento di BigDecimal e BigInteger in Java
@@ -372,6 +374,37 @@ public class BigDecimalBigIntegerDemo {
         System.out.println("  → " + factorial);
         System.out.println("  (numero a 65 cifre!)\n");
         
+        printSubSection("⚡ BigMath: Fattoriale, Fibonacci e modPow su Molti Core");
+        
+        System.out.println("Il ciclo result.multiply(i) moltiplica un numero enorme per uno piccolo:");
+        System.out.println("costo quadratico. BigMath moltiplica ad albero operandi di dimensione simile,");
+        System.out.println("calcola i sottoalberi in parallelo e usa parallelMultiply per i prodotti più grandi.\n");
+        
+        int bigN = 20_000;
+        long t0 = System.nanoTime();
+        BigInteger naive = BigInteger.ONE;
+        for (int i = 2; i <= bigN; i++) {
+            naive = naive.multiply(BigInteger.valueOf(i));
+        }
+        long t1 = System.nanoTime();
+        BigInteger fast = BigMath.factorial(bigN);
+        long t2 = System.nanoTime();
+        
+        System.out.println("20000! → " + fast.bitLength() + " bit");
+        System.out.println("  ciclo multiply:       " + (t1 - t0) / 1_000_000 + " ms");
+        System.out.println("  BigMath.factorial:    " + (t2 - t1) / 1_000_000 + " ms (uguali: " + naive.equals(fast) + ")");
+        
+        BigInteger fib = BigMath.fibonacci(100_000);
+        System.out.println("BigMath.fibonacci(100000) → " + fib.toString().length() + " cifre (fast doubling)");
+        
+        BigInteger mersenne = BigInteger.ONE.shiftLeft(521).subtract(BigInteger.ONE);  // primo di Mersenne
+        List<BigInteger> exponents = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            exponents.add(BigInteger.valueOf(i).shiftLeft(500).add(BigInteger.valueOf(i)));
+        }
+        List<BigInteger> powers = BigMath.modPow(BigInteger.valueOf(3), exponents, mersenne);
+        System.out.println("BigMath.modPow(3, 64 esponenti, 2^521-1) → " + powers.size() + " risultati\n");
+        
         waitForEnter();
     }
 
@@ -1012,7 +1045,61 @@ public class BigDecimalBigIntegerDemo {
         System.out.println("3. ATTENZIONE AI LOOP:");
         System.out.println("   Evita BigDecimal in loop tight (milioni di iterazioni)");
         System.out.println("   Considera se long con scaling manuale è sufficiente\n");
-        
+
+        printSubSection("🗃️ DecimalCache: Costanti Condivise anche da Configurazione");
+
+        System.out.println("Quando le aliquote arrivano come stringhe (configurazione, tabelle, messaggi)");
+        System.out.println("non c'è una costante da riutilizzare: DecimalCache le interna per (valore non");
+        System.out.println("scalato, scala), con capacità limitata (LRU a lotti) e metriche di hit rate.\n");
+
+        DecimalCache rates = new DecimalCache(1_024);
+        String[] configRates = { "0.22", "0.10", "0.04", "0.05", "1.05" };
+        int lookups = 2_000_000;
+
+        // Tre giri: il primo scalda la JIT, si riporta l'ultimo
+        long parseMicros = 0;
+        long cacheMicros = 0;
+        BigDecimal parsedTotal = BigDecimal.ZERO;
+        BigDecimal cachedTotal = BigDecimal.ZERO;
+        for (int round = 0; round < 3; round++) {
+            long parseStart = System.nanoTime();
+            parsedTotal = BigDecimal.ZERO;
+            for (int i = 0; i < lookups; i++) {
+                BigDecimal rate = new BigDecimal(configRates[i % configRates.length]);
+                if (i % 100_000 == 0) {
+                    parsedTotal = parsedTotal.add(rate);
+                }
+            }
+            parseMicros = (System.nanoTime() - parseStart) / 1_000;
+
+            long cacheStart = System.nanoTime();
+            cachedTotal = BigDecimal.ZERO;
+            for (int i = 0; i < lookups; i++) {
+                BigDecimal rate = rates.parse(configRates[i % configRates.length]);
+                if (i % 100_000 == 0) {
+                    cachedTotal = cachedTotal.add(rate);
+                }
+            }
+            cacheMicros = (System.nanoTime() - cacheStart) / 1_000;
+        }
+
+        System.out.println("DecimalCache rates = new DecimalCache(1_024);");
+        System.out.println("rates.parse(\"0.22\") == rates.parse(\"0.22\")  → " + (rates.parse("0.22") == rates.parse("0.22")));
+        System.out.println("rates.parse(\"0.22\").equals(rates.parse(\"0.220\")) → "
+                + rates.parse("0.22").equals(rates.parse("0.220")) + " (scala diversa, voce diversa)");
+        System.out.println("\n" + lookups + " aliquote lette da stringa (dopo il riscaldamento):");
+        System.out.println("  new BigDecimal(text) → " + parseMicros + " µs");
+        System.out.println("  rates.parse(text)    → " + cacheMicros + " µs (risultati uguali: "
+                + parsedTotal.equals(cachedTotal) + ")");
+        System.out.println("  " + rates.stats());
+
+        System.out.println("\nMathContext predefiniti, senza new a ogni divisione:");
+        System.out.println("  DecimalCache.RATE  → " + DecimalCache.RATE);
+        System.out.println("  DecimalCache.MONEY → " + DecimalCache.MONEY);
+        System.out.println("  DecimalCache.mathContext(12, HALF_UP) stessa istanza: "
+                + (DecimalCache.mathContext(12, RoundingMode.HALF_UP) == DecimalCache.mathContext(12, RoundingMode.HALF_UP)));
+        System.out.println("  1 / 3 con RATE → " + BigDecimal.ONE.divide(BigDecimal.valueOf(3), DecimalCache.RATE) + "\n");
+
         printSubSection("💰 Esempio: Scaling Manuale per Performance");
         
         System.out.println("Per somme monetarie semplici, puoi usare long (centesimi):\n");
@@ -1037,6 +1124,57 @@ public class BigDecimalBigIntegerDemo {
         System.out.println("💡 REGOLA PRATICA:");
         System.out.println("  Se devi chiedere \"posso usare long?\", usa BigDecimal (più sicuro)\n");
         
+        printSubSection("💶 Money: long scalato con overflow controllato");
+        
+        System.out.println("Money unisce la velocità del long alle garanzie che mancano ai centesimi 'a mano':");
+        System.out.println("  • scala configurabile (0..18 decimali)");
+        System.out.println("  • somme e prodotti con Math.*Exact → ArithmeticException invece di overflow silenzioso");
+        System.out.println("  • RoundingMode esplicito per aliquote e divisioni");
+        System.out.println("  • conversione esatta da/verso BigDecimal\n");
+        
+        Money price = Money.parse("10.50", 2);
+        Money lineTotal = price.times(3);
+        BigDecimal vatRate = new BigDecimal("0.22");
+        Money vat = lineTotal.times(vatRate, RoundingMode.HALF_EVEN);
+        
+        System.out.println("Money price = Money.parse(\"10.50\", 2);");
+        System.out.println("price.times(3)                         → " + lineTotal);
+        System.out.println("lineTotal.times(0.22, HALF_EVEN)       → " + vat);
+        System.out.println("lineTotal.dividedBy(7, HALF_EVEN)      → " + lineTotal.dividedBy(7, RoundingMode.HALF_EVEN));
+        System.out.println("vat.toBigDecimal()                     → " + vat.toBigDecimal() + " (esatto)");
+        
+        try {
+            Money.ofUnscaled(Long.MAX_VALUE, 2).plus(Money.ofUnscaled(1, 2));
+        } catch (ArithmeticException e) {
+            System.out.println("Overflow                               → ArithmeticException: " + e.getMessage());
+        }
+        
+        // Somma di 5 milioni di righe: colonna di long contro reduce di BigDecimal
+        int lines = 5_000_000;
+        MoneyArray column = new MoneyArray(2, lines);
+        BigDecimal[] boxed = new BigDecimal[lines];
+        for (int i = 0; i < lines; i++) {
+            long cents = 100 + (i * 7919L) % 99_900;
+            column.addUnscaled(cents);
+            boxed[i] = BigDecimal.valueOf(cents, 2);
+        }
+        
+        long start = System.nanoTime();
+        Money columnTotal = column.sum();
+        long columnMicros = (System.nanoTime() - start) / 1_000;
+        
+        start = System.nanoTime();
+        BigDecimal boxedTotal = BigDecimal.ZERO;
+        for (BigDecimal amount : boxed) {
+            boxedTotal = boxedTotal.add(amount);
+        }
+        long boxedMicros = (System.nanoTime() - start) / 1_000;
+        
+        System.out.println("\nSomma di " + lines + " righe:");
+        System.out.println("  MoneyArray.sum()   → " + columnTotal + " in " + columnMicros + " µs");
+        System.out.println("  BigDecimal.add     → " + boxedTotal + " in " + boxedMicros + " µs");
+        System.out.println("  Risultati identici: " + (columnTotal.toBigDecimal().compareTo(boxedTotal) == 0) + "\n");
+        
         printSubSection("🔒 Thread Safety");
         
         System.out.println("BigDecimal e BigInteger sono IMMUTABILI:");
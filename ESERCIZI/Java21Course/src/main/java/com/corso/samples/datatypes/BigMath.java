@@ -0,0 +1,218 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calcoli su {@link BigInteger} grandi: fattoriale, Fibonacci, prodotto di molti
+ * fattori e {@code modPow} per molti esponenti.
+ *
+ * <p>
+ * Il ciclo {@code result = result.multiply(BigInteger.valueOf(i))} moltiplica ogni
+ * volta un numero enorme per uno piccolo: il costo totale è quadratico e gli
+ * algoritmi veloci di {@code multiply} (Karatsuba, Toom-Cook) non entrano mai in gioco.
+ * Qui i prodotti sono costruiti ad albero (binary splitting): si moltiplicano sempre
+ * operandi di dimensione simile, i sottoalberi indipendenti sono calcolati in
+ * parallelo sul ForkJoinPool comune e le moltiplicazioni più grandi usano
+ * {@link BigInteger#parallelMultiply(BigInteger)}.
+ * </p>
+ */
+public final class BigMath {
+
+    // Intervalli più piccoli vengono moltiplicati nel thread corrente
+    private static final int SEQUENTIAL_RANGE = 1_024;
+    // Sotto questa dimensione (in bit) parallelMultiply non ripaga il costo dei task
+    private static final int PARALLEL_MULTIPLY_BITS = 1 << 16;
+
+    private BigMath() {
+    }
+
+    /**
+     * @param n Il numero, non negativo
+     * @return {@code n!}
+     */
+    public static BigInteger factorial(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        if (n < 2) {
+            return BigInteger.ONE;
+        }
+        // n! = (prodotto delle parti dispari) × 2^(numero di fattori 2): gli zeri binari
+        // in coda non passano per le moltiplicazioni
+        int twos = 0;
+        for (int m = n; m > 1; m >>= 1) {
+            twos += m >> 1;
+        }
+        return ForkJoinPool.commonPool().invoke(new OddRangeProduct(2, n)).shiftLeft(twos);
+    }
+
+    /**
+     * Prodotto degli interi in [{@code from}, {@code to}], privati dei fattori 2.
+     */
+    private static final class OddRangeProduct extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        OddRangeProduct(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from < SEQUENTIAL_RANGE) {
+                return sequentialOddProduct(from, to);
+            }
+            long middle = (from + to) >>> 1;
+            OddRangeProduct left = new OddRangeProduct(from, middle);
+            left.fork();
+            BigInteger right = new OddRangeProduct(middle + 1, to).compute();
+            return multiply(left.join(), right);
+        }
+    }
+
+    private static BigInteger sequentialOddProduct(long from, long to) {
+        // Accumula in un long finché c'è spazio, poi un solo multiply
+        BigInteger[] partials = new BigInteger[(int) (to - from + 1)];
+        int count = 0;
+        long packed = 1;
+        for (long i = from; i <= to; i++) {
+            long odd = i >> Long.numberOfTrailingZeros(i);
+            if (Math.multiplyHigh(packed, odd) != 0 || packed * odd < 0) {
+                partials[count++] = BigInteger.valueOf(packed);
+                packed = odd;
+            } else {
+                packed *= odd;
+            }
+        }
+        partials[count++] = BigInteger.valueOf(packed);
+        return productTree(partials, 0, count);
+    }
+
+    private static BigInteger productTree(BigInteger[] values, int from, int to) {
+        if (to - from == 1) {
+            return values[from];
+        }
+        if (to - from == 2) {
+            return values[from].multiply(values[from + 1]);
+        }
+        int middle = (from + to) >>> 1;
+        return productTree(values, from, middle).multiply(productTree(values, middle, to));
+    }
+
+    /**
+     * Prodotto di molti fattori con un albero bilanciato, sottoalberi in parallelo.
+     *
+     * @param factors I fattori (null non ammessi); la lista deve supportare l'accesso casuale
+     * @return Il prodotto ({@code ONE} per una lista vuota)
+     */
+    public static BigInteger product(List<BigInteger> factors) {
+        Objects.requireNonNull(factors, "factors must not be null");
+        if (factors.isEmpty()) {
+            return BigInteger.ONE;
+        }
+        return ForkJoinPool.commonPool().invoke(new ListProduct(factors, 0, factors.size()));
+    }
+
+    /**
+     * Prodotto dei fattori in [{@code from}, {@code to}).
+     */
+    private static final class ListProduct extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<BigInteger> factors;
+        private final int from;
+        private final int to;
+
+        ListProduct(List<BigInteger> factors, int from, int to) {
+            this.factors = factors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from == 1) {
+                return Objects.requireNonNull(factors.get(from), "factor must not be null");
+            }
+            if (to - from <= 64) {
+                // Foglie piccole: albero sequenziale, senza task
+                BigInteger[] leaf = new BigInteger[to - from];
+                for (int i = from; i < to; i++) {
+                    leaf[i - from] = Objects.requireNonNull(factors.get(i), "factor must not be null");
+                }
+                return productTree(leaf, 0, leaf.length);
+            }
+            int middle = (from + to) >>> 1;
+            ListProduct left = new ListProduct(factors, from, middle);
+            left.fork();
+            BigInteger right = new ListProduct(factors, middle, to).compute();
+            return multiply(left.join(), right);
+        }
+    }
+
+    /**
+     * Fibonacci con il metodo fast doubling: {@code O(log n)} passi invece di {@code n} somme.
+     *
+     * <p>
+     * {@code F(2k) = F(k) × (2F(k+1) − F(k))} e {@code F(2k+1) = F(k)² + F(k+1)²}.
+     * </p>
+     *
+     * @param n L'indice, non negativo
+     * @return {@code F(n)}, con {@code F(0) = 0} e {@code F(1) = 1}
+     */
+    public static BigInteger fibonacci(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        BigInteger a = BigInteger.ZERO; // F(k)
+        BigInteger b = BigInteger.ONE; // F(k+1)
+        for (int bit = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            BigInteger doubled = multiply(a, b.shiftLeft(1).subtract(a));
+            BigInteger doubledPlusOne = multiply(a, a).add(multiply(b, b));
+            if ((n >>> bit & 1) == 0) {
+                a = doubled;
+                b = doubledPlusOne;
+            } else {
+                a = doubledPlusOne;
+                b = doubled.add(doubledPlusOne);
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Calcola {@code base^e mod modulus} per ogni esponente, in parallelo.
+     *
+     * @param base      La base
+     * @param exponents Gli esponenti, non negativi
+     * @param modulus   Il modulo, positivo
+     * @return I risultati, nell'ordine degli esponenti
+     */
+    public static List<BigInteger> modPow(BigInteger base, List<BigInteger> exponents, BigInteger modulus) {
+        Objects.requireNonNull(base, "base must not be null");
+        Objects.requireNonNull(exponents, "exponents must not be null");
+        Objects.requireNonNull(modulus, "modulus must not be null");
+        if (modulus.signum() <= 0) {
+            throw new IllegalArgumentException("modulus must be positive: " + modulus);
+        }
+        // Riduzione della base una sola volta, non in ogni modPow
+        BigInteger reduced = base.mod(modulus);
+        return exponents.parallelStream()
+                .map(exponent -> reduced.modPow(Objects.requireNonNull(exponent, "exponent must not be null"), modulus))
+                .toList();
+    }
+
+    private static BigInteger multiply(BigInteger left, BigInteger right) {
+        if (left.bitLength() >= PARALLEL_MULTIPLY_BITS && right.bitLength() >= PARALLEL_MULTIPLY_BITS) {
+            return left.parallelMultiply(right);
+        }
+        return left.multiply(right);
+    }
+}
@@ -0,0 +1,297 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache di istanze {@link BigDecimal} ricorrenti (aliquote, percentuali, costanti) e
+ * di {@link MathContext} predefiniti.
+ *
+ * <p>
+ * La chiave è la coppia (valore non scalato, scala), quindi {@code 0.22} e
+ * {@code 0.220} restano istanze distinte come per {@code equals}. Ogni valore viene
+ * creato una sola volta e poi condiviso: {@link BigDecimal} è immutabile. Sono
+ * messi in cache solo i valori con parte non scalata in un {@code long}; gli altri
+ * passano senza essere memorizzati.
+ * </p>
+ *
+ * <p>
+ * {@link #parse(String)} riconosce direttamente i formati comuni
+ * ({@code [+-]cifre[.cifre]}) senza costruire un {@link BigDecimal} se il valore è già
+ * in cache; per ogni altro formato usa {@code new BigDecimal(String)}, quindi il
+ * risultato è sempre identico a quello del costruttore.
+ * </p>
+ *
+ * <p>
+ * La capacità è limitata con eviction LRU a lotti. Le letture passano da una
+ * {@link ConcurrentHashMap} senza lock: una {@code LinkedHashMap} in ordine di accesso
+ * modificherebbe la lista a ogni hit e andrebbe sincronizzata anche in lettura.
+ * L'ultimo utilizzo di ogni voce è registrato come epoca, che avanza a ogni miss;
+ * superata la capacità si rimuovono le voci con l'epoca più vecchia fino al 90%.
+ * </p>
+ */
+public final class DecimalCache {
+
+    /** Aliquote e tassi: 10 cifre significative, arrotondamento bancario. */
+    public static final MathContext RATE = new MathContext(10, RoundingMode.HALF_EVEN);
+
+    /** Importi monetari: 19 cifre significative, arrotondamento bancario. */
+    public static final MathContext MONEY = new MathContext(19, RoundingMode.HALF_EVEN);
+
+    private static final int MAX_CACHED_PRECISION = 64;
+    // Cifre sempre rappresentabili in un long
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private static final MathContext[][] MATH_CONTEXTS =
+            new MathContext[MAX_CACHED_PRECISION + 1][RoundingMode.values().length];
+
+    private static final DecimalCache SHARED = new DecimalCache(4_096);
+
+    /**
+     * Fotografia delle metriche.
+     *
+     * @param hits      Richieste servite dalla cache
+     * @param misses    Richieste che hanno creato una nuova voce
+     * @param bypassed  Valori non memorizzabili (parte non scalata oltre il {@code long})
+     * @param evictions Voci rimosse per capacità
+     * @param size      Voci presenti
+     */
+    public record Stats(long hits, long misses, long bypassed, long evictions, int size) {
+
+        /**
+         * @return La frazione di richieste servite dalla cache, in [0, 1]
+         */
+        public double hitRate() {
+            long requests = hits + misses + bypassed;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d bypassed=%d evictions=%d size=%d hitRate=%.2f%%",
+                    hits, misses, bypassed, evictions, size, hitRate() * 100);
+        }
+    }
+
+    private record Key(long unscaled, int scale) {
+    }
+
+    /**
+     * Voce della cache con l'epoca dell'ultimo accesso.
+     */
+    private static final class Entry {
+        final BigDecimal value;
+        volatile long lastUse;
+
+        Entry(BigDecimal value, long lastUse) {
+            this.value = value;
+            this.lastUse = lastUse;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, Entry> entries;
+    private final int maxSize;
+    // Avanza a ogni miss: le eviction avvengono solo sui miss, quindi la recenza
+    // misurata in epoche basta a ordinare le voci per ultimo utilizzo
+    private final AtomicLong epoch = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize Il numero massimo di valori in cache, positivo
+     */
+    public DecimalCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1_024));
+    }
+
+    /**
+     * @return La cache condivisa (4096 valori)
+     */
+    public static DecimalCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Restituisce un {@link MathContext} condiviso; precisioni fino a 64 sono create una
+     * sola volta per modalità di arrotondamento.
+     *
+     * @param precision Le cifre significative (0 = illimitata)
+     * @param rounding  L'arrotondamento
+     * @return Il contesto
+     */
+    public static MathContext mathContext(int precision, RoundingMode rounding) {
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        if (precision < 0 || precision > MAX_CACHED_PRECISION) {
+            return new MathContext(precision, rounding);
+        }
+        MathContext[] byRounding = MATH_CONTEXTS[precision];
+        MathContext context = byRounding[rounding.ordinal()];
+        if (context == null) {
+            // Corsa benigna: MathContext è immutabile e due istanze uguali sono intercambiabili
+            context = new MathContext(precision, rounding);
+            byRounding[rounding.ordinal()] = context;
+        }
+        return context;
+    }
+
+    /**
+     * @param unscaled Il valore non scalato
+     * @param scale    La scala
+     * @return L'istanza condivisa di {@code unscaled × 10^-scale}
+     */
+    public BigDecimal valueOf(long unscaled, int scale) {
+        return lookup(unscaled, scale, null);
+    }
+
+    /**
+     * @param value Il valore
+     * @return L'istanza condivisa uguale ({@code equals}) a {@code value}
+     */
+    public BigDecimal intern(BigDecimal value) {
+        Objects.requireNonNull(value, "value must not be null");
+        if (value.unscaledValue().bitLength() >= Long.SIZE) {
+            bypassed.increment();
+            return value;
+        }
+        return lookup(value.unscaledValue().longValue(), value.scale(), value);
+    }
+
+    /**
+     * Equivalente a {@code intern(new BigDecimal(text))}, senza costruire il
+     * {@link BigDecimal} quando il valore è già in cache.
+     *
+     * @param text Il valore testuale (ad esempio {@code "0.22"})
+     * @return L'istanza condivisa
+     * @throws NumberFormatException se il testo non è un numero valido
+     */
+    public BigDecimal parse(String text) {
+        Objects.requireNonNull(text, "text must not be null");
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            index++;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; index < length; index++) {
+            char c = text.charAt(index);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_FAST_DIGITS) {
+                    return intern(new BigDecimal(text));
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                // Esponente, spazi o testo non valido: decide il costruttore di BigDecimal
+                return intern(new BigDecimal(text));
+            }
+        }
+        if (digits == 0) {
+            return intern(new BigDecimal(text));
+        }
+        return lookup(negative ? -unscaled : unscaled, scale, null);
+    }
+
+    /**
+     * @return Le metriche correnti
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), bypassed.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * @return La capacità massima
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    private BigDecimal lookup(long unscaled, int scale, BigDecimal candidate) {
+        Key key = new Key(unscaled, scale);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            touch(entry);
+            hits.increment();
+            return entry.value;
+        }
+        BigDecimal created = candidate != null ? candidate : BigDecimal.valueOf(unscaled, scale);
+        Entry previous = entries.putIfAbsent(key, new Entry(created, epoch.incrementAndGet()));
+        if (previous != null) {
+            // Un altro thread ha inserito la stessa voce nel frattempo
+            touch(previous);
+            hits.increment();
+            return previous.value;
+        }
+        misses.increment();
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return created;
+    }
+
+    private void touch(Entry entry) {
+        long now = epoch.get();
+        // Scrive solo se è cambiata l'epoca: a regime i hit non toccano la memoria condivisa
+        if (entry.lastUse != now) {
+            entry.lastUse = now;
+        }
+    }
+
+    /**
+     * Rimuove a lotti le voci usate meno di recente, riportando la cache al 90% della
+     * capacità: il costo della scansione si divide su molti inserimenti.
+     */
+    private void evict() {
+        synchronized (evictionLock) {
+            int size = entries.size();
+            if (size <= maxSize) {
+                return;
+            }
+            int toRemove = size - maxSize * 9 / 10;
+            long[] uses = new long[size];
+            int count = 0;
+            for (Entry entry : entries.values()) {
+                if (count == uses.length) {
+                    break;
+                }
+                uses[count++] = entry.lastUse;
+            }
+            Arrays.sort(uses, 0, count);
+            long threshold = uses[Math.min(toRemove, count) - 1];
+
+            int removed = 0;
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext() && removed < toRemove) {
+                if (iterator.next().getValue().lastUse <= threshold) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            evictions.add(removed);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Importo monetario a virgola fissa: un {@code long} scalato, come i centesimi della
+ * demo su BigDecimal ma con scala configurabile e overflow controllato.
+ *
+ * <p>
+ * Il valore è {@code unscaled × 10^-scale} (ad esempio {@code 1050} con scala 2 vale
+ * {@code 10.50}). Somme e prodotti usano {@code Math.*Exact}: un overflow solleva
+ * {@link ArithmeticException} invece di produrre un importo sbagliato. Le operazioni
+ * che possono perdere cifre (prodotto per un'aliquota, divisione, cambio di scala)
+ * richiedono un {@link RoundingMode}. La conversione verso {@link BigDecimal} è
+ * esatta; quella da {@link BigDecimal} fallisce se il valore non è rappresentabile.
+ * </p>
+ *
+ * <p>
+ * Come per {@link BigDecimal}, la scala fa parte dell'identità: {@code 1.0} e
+ * {@code 1.00} non sono {@code equals}; {@link #compareTo(Money)} confronta il valore.
+ * Somma e sottrazione richiedono la stessa scala.
+ * </p>
+ *
+ * @param unscaled Il valore scalato
+ * @param scale    Le cifre decimali, in [0, {@value #MAX_SCALE}]
+ */
+public record Money(long unscaled, int scale) implements Comparable<Money> {
+
+    /** Scala massima: 10^18 è la più grande potenza di 10 in un {@code long}. */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public Money {
+        checkScale(scale);
+    }
+
+    /**
+     * @param unscaled Il valore scalato
+     * @param scale    Le cifre decimali
+     * @return L'importo {@code unscaled × 10^-scale}
+     */
+    public static Money ofUnscaled(long unscaled, int scale) {
+        return new Money(unscaled, scale);
+    }
+
+    /**
+     * Converte senza arrotondare.
+     *
+     * @param value L'importo
+     * @param scale La scala del risultato
+     * @return L'importo alla scala richiesta
+     * @throws ArithmeticException se servirebbe un arrotondamento o il valore non sta in un {@code long}
+     */
+    public static Money of(BigDecimal value, int scale) {
+        return of(value, scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * @param value    L'importo
+     * @param scale    La scala del risultato
+     * @param rounding L'arrotondamento verso la scala richiesta
+     * @return L'importo alla scala richiesta
+     * @throws ArithmeticException se il valore non sta in un {@code long}
+     */
+    public static Money of(BigDecimal value, int scale, RoundingMode rounding) {
+        Objects.requireNonNull(value, "value must not be null");
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        checkScale(scale);
+        return new Money(value.setScale(scale, rounding).unscaledValue().longValueExact(), scale);
+    }
+
+    /**
+     * @param value L'importo in forma testuale (ad esempio {@code "10.50"})
+     * @param scale La scala del risultato
+     * @return L'importo alla scala richiesta
+     * @throws NumberFormatException se il testo non è un numero
+     * @throws ArithmeticException   se servirebbe un arrotondamento o il valore non sta in un {@code long}
+     */
+    public static Money parse(String value, int scale) {
+        return of(new BigDecimal(Objects.requireNonNull(value, "value must not be null")), scale);
+    }
+
+    /**
+     * @param scale Le cifre decimali
+     * @return Lo zero alla scala richiesta
+     */
+    public static Money zero(int scale) {
+        return new Money(0, scale);
+    }
+
+    /**
+     * @return Il valore esatto come {@link BigDecimal}
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * @param other L'addendo, con la stessa scala
+     * @return La somma
+     * @throws ArithmeticException in caso di overflow
+     */
+    public Money plus(Money other) {
+        return new Money(Math.addExact(unscaled, unscaledAtSameScale(other)), scale);
+    }
+
+    /**
+     * @param other Il sottraendo, con la stessa scala
+     * @return La differenza
+     * @throws ArithmeticException in caso di overflow
+     */
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(unscaled, unscaledAtSameScale(other)), scale);
+    }
+
+    /**
+     * @return L'importo con segno opposto
+     * @throws ArithmeticException in caso di overflow
+     */
+    public Money negate() {
+        return new Money(Math.negateExact(unscaled), scale);
+    }
+
+    /**
+     * @param quantity Il moltiplicatore intero (ad esempio la quantità di una riga d'ordine)
+     * @return Il prodotto, senza arrotondamenti
+     * @throws ArithmeticException in caso di overflow
+     */
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(unscaled, quantity), scale);
+    }
+
+    /**
+     * Moltiplica per un fattore decimale (aliquota, sconto, cambio) mantenendo la scala.
+     *
+     * @param factor   Il fattore
+     * @param rounding L'arrotondamento del risultato
+     * @return Il prodotto alla scala di questo importo
+     * @throws ArithmeticException in caso di overflow o con {@link RoundingMode#UNNECESSARY} se serve arrotondare
+     */
+    public Money times(BigDecimal factor, RoundingMode rounding) {
+        Objects.requireNonNull(factor, "factor must not be null");
+        if (factor.precision() <= MAX_SCALE && factor.scale() >= 0 && factor.scale() <= MAX_SCALE) {
+            return times(factor.unscaledValue().longValue(), factor.scale(), rounding);
+        }
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        return of(toBigDecimal().multiply(factor), scale, rounding);
+    }
+
+    /**
+     * Come {@link #times(BigDecimal, RoundingMode)} con il fattore già scomposto, per i
+     * cicli in cui anche l'accesso a {@code unscaledValue()} va evitato.
+     *
+     * @param factorUnscaled Il valore scalato del fattore
+     * @param factorScale    La scala del fattore, in [0, {@value #MAX_SCALE}]
+     * @param rounding       L'arrotondamento del risultato
+     * @return Il prodotto alla scala di questo importo
+     * @throws ArithmeticException in caso di overflow o con {@link RoundingMode#UNNECESSARY} se serve arrotondare
+     */
+    public Money times(long factorUnscaled, int factorScale, RoundingMode rounding) {
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        checkScale(factorScale);
+        long high = Math.multiplyHigh(unscaled, factorUnscaled);
+        long low = unscaled * factorUnscaled;
+        // Il prodotto sta in un long se la parte alta è solo l'estensione del segno
+        if (high == (low >> 63)) {
+            return new Money(divide(low, POWERS_OF_TEN[factorScale], rounding), scale);
+        }
+        // Prodotto intermedio oltre i 64 bit: percorso esatto con BigDecimal
+        return of(toBigDecimal().multiply(BigDecimal.valueOf(factorUnscaled, factorScale)), scale, rounding);
+    }
+
+    /**
+     * @param divisor  Il divisore intero (ad esempio il numero di rate)
+     * @param rounding L'arrotondamento del risultato
+     * @return Il quoziente alla scala di questo importo
+     * @throws ArithmeticException se il divisore è zero o con {@link RoundingMode#UNNECESSARY} se serve arrotondare
+     */
+    public Money dividedBy(long divisor, RoundingMode rounding) {
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        return new Money(divide(unscaled, divisor, rounding), scale);
+    }
+
+    /**
+     * @param newScale La nuova scala
+     * @param rounding L'arrotondamento se la scala diminuisce
+     * @return L'importo alla nuova scala
+     * @throws ArithmeticException in caso di overflow o con {@link RoundingMode#UNNECESSARY} se serve arrotondare
+     */
+    public Money withScale(int newScale, RoundingMode rounding) {
+        Objects.requireNonNull(rounding, "rounding must not be null");
+        checkScale(newScale);
+        if (newScale >= scale) {
+            return new Money(Math.multiplyExact(unscaled, POWERS_OF_TEN[newScale - scale]), newScale);
+        }
+        return new Money(divide(unscaled, POWERS_OF_TEN[scale - newScale], rounding), newScale);
+    }
+
+    /**
+     * @return -1, 0 o 1 secondo il segno dell'importo
+     */
+    public int signum() {
+        return Long.signum(unscaled);
+    }
+
+    /**
+     * Confronta i valori, anche con scale diverse.
+     */
+    @Override
+    public int compareTo(Money other) {
+        if (scale == other.scale) {
+            return Long.compare(unscaled, other.unscaled);
+        }
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    /**
+     * @return L'importo in notazione decimale semplice (ad esempio {@code -0.05})
+     */
+    @Override
+    public String toString() {
+        if (scale == 0) {
+            return Long.toString(unscaled);
+        }
+        StringBuilder digits = new StringBuilder(Long.toString(unscaled));
+        int start = unscaled < 0 ? 1 : 0;
+        while (digits.length() - start <= scale) {
+            digits.insert(start, '0');
+        }
+        return digits.insert(digits.length() - scale, '.').toString();
+    }
+
+    /**
+     * Divisione intera con arrotondamento, senza allocazioni.
+     *
+     * @param dividend Il dividendo
+     * @param divisor  Il divisore
+     * @param rounding L'arrotondamento
+     * @return Il quoziente arrotondato
+     * @throws ArithmeticException se il divisore è zero o con {@link RoundingMode#UNNECESSARY} se serve arrotondare
+     */
+    static long divide(long dividend, long divisor, RoundingMode rounding) {
+        if (dividend == Long.MIN_VALUE && divisor == -1) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        // |r| confrontato con |d| - |r| invece di 2|r| con |d|, che può andare in overflow.
+        // Confronto senza segno: Math.abs(Long.MIN_VALUE) resta 2^63 letto come unsigned
+        long absRemainder = Math.abs(remainder);
+        int half = Long.compareUnsigned(absRemainder, Math.abs(divisor) - absRemainder);
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || half == 0 && (quotient & 1) != 0;
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    private long unscaledAtSameScale(Money other) {
+        if (other.scale != scale) {
+            throw new IllegalArgumentException("scale mismatch: " + scale + " vs " + other.scale);
+        }
+        return other.unscaled;
+    }
+
+    static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("scale must be in [0, " + MAX_SCALE + "]: " + scale);
+        }
+    }
+}
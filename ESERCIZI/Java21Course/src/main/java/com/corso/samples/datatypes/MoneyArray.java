@@ -0,0 +1,117 @@
+package com.corso.samples.datatypes;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Colonna di importi {@link Money} con la stessa scala, memorizzati come {@code long[]}.
+ *
+ * <p>
+ * Pensata per somme su molte righe d'ordine: 8 byte per importo, nessun oggetto per
+ * elemento e una somma che è un ciclo su un array primitivo. L'overflow della somma
+ * solleva {@link ArithmeticException} come per {@link Money#plus(Money)}.
+ * </p>
+ */
+public final class MoneyArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int scale;
+    private long[] values;
+    private int size;
+
+    /**
+     * @param scale La scala di tutti gli importi
+     */
+    public MoneyArray(int scale) {
+        this(scale, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param scale           La scala di tutti gli importi
+     * @param initialCapacity La capacità iniziale
+     */
+    public MoneyArray(int scale, int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        Money.checkScale(scale);
+        this.scale = scale;
+        this.values = new long[initialCapacity];
+    }
+
+    /**
+     * @param amount L'importo, con la scala della colonna
+     */
+    public void add(Money amount) {
+        Objects.requireNonNull(amount, "amount must not be null");
+        if (amount.scale() != scale) {
+            throw new IllegalArgumentException("scale mismatch: " + scale + " vs " + amount.scale());
+        }
+        addUnscaled(amount.unscaled());
+    }
+
+    /**
+     * @param unscaled Il valore scalato, già alla scala della colonna
+     */
+    public void addUnscaled(long unscaled) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, values.length + (values.length >> 1)));
+        }
+        values[size++] = unscaled;
+    }
+
+    /**
+     * @param index La posizione
+     * @return L'importo
+     */
+    public Money get(int index) {
+        return new Money(getUnscaled(index), scale);
+    }
+
+    /**
+     * @param index La posizione
+     * @return Il valore scalato, senza allocazioni
+     */
+    public long getUnscaled(int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    /**
+     * @return La somma di tutti gli importi
+     * @throws ArithmeticException in caso di overflow
+     */
+    public Money sum() {
+        return new Money(sumUnscaled(0, size), scale);
+    }
+
+    /**
+     * @param fromIndex Il primo indice, incluso
+     * @param toIndex   L'ultimo indice, escluso
+     * @return La somma dei valori scalati nell'intervallo
+     * @throws ArithmeticException in caso di overflow
+     */
+    public long sumUnscaled(int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        long total = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            total = Math.addExact(total, values[i]);
+        }
+        return total;
+    }
+
+    /**
+     * @return Il numero di importi
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return La scala degli importi
+     */
+    public int scale() {
+        return scale;
+    }
+}
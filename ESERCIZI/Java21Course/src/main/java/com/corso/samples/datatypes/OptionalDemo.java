@@ -8,6 +8,8 @@ import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 
+import com.corso.samples.advanced.JsonPipeline;
+
 /**
  * Demo completa sull'uso di Optional in Java.
  */
@@ -219,6 +221,16 @@ public class OptionalDemo {
                 .orElse(BigDecimal.ZERO);
 
         System.out.println("Discount missing user: " + discountUnknown);
+
+        printSubSection("Export/import JSON degli utenti (JsonPipeline)");
+        JsonPipeline<User> json = JsonPipeline.forType(User.class);
+        for (String id : List.of("u1", "u2")) {
+            User user = repository.findById(id).orElseThrow();
+            String document = json.write(user);
+            // u2 senza indirizzo: il campo diventa null e torna null, non Optional
+            System.out.println("JSON: " + document);
+            System.out.println("Riletto uguale all'originale: " + json.read(document).equals(user));
+        }
     }
 
     private static void demoBestPractices() {
@@ -2,6 +2,12 @@ package com.corso.samples.datatypes;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+import com.corso.samples.array_collections.primitive.IntArrayList;
+import com.corso.samples.array_collections.primitive.IntHashSet;
+import com.corso.samples.array_collections.primitive.ObjectIntHashMap;
 
 /**
  * Classe demo completa per l'apprendimento dei WRAPPER TYPES in Java
@@ -894,7 +900,41 @@ public class WrapperTypesDemo {
         System.out.println("  - Array primitivi: int[] invece di List<Integer>");
         System.out.println("  - Stream specializzati: IntStream, LongStream, DoubleStream");
         System.out.println("  - Librerie specializzate per performance critiche\n");
-        
+
+        printSubSection("Collezioni Primitive: Nessun Wrapper");
+
+        System.out.println("Il package array_collections.primitive offre le stesse strutture senza boxing:");
+        System.out.println("  IntArrayList / LongArrayList  invece di  List<Integer> / List<Long>");
+        System.out.println("  IntIntHashMap                 invece di  Map<Integer, Integer>");
+        System.out.println("  ObjectIntHashMap<K>           invece di  Map<String, Integer>");
+        System.out.println("  IntHashSet                    invece di  Set<Integer>\n");
+
+        IntArrayList primitiveNumbers = IntArrayList.of(10, 20, 30);
+        primitiveNumbers.add(1_000);  // nessun Integer creato, nemmeno fuori dalla cache
+        int primitiveSum = 0;
+        for (PrimitiveIterator.OfInt it = primitiveNumbers.iterator(); it.hasNext(); ) {
+            primitiveSum += it.nextInt();  // nextInt(): nessun unboxing
+        }
+
+        System.out.println("IntArrayList numbers = IntArrayList.of(10, 20, 30);");
+        System.out.println("numbers.add(1_000);");
+        System.out.println("numbers → " + primitiveNumbers);
+        System.out.println("somma con iterator().nextInt()  → " + primitiveSum);
+        System.out.println("numbers.stream().sum()          → " + primitiveNumbers.stream().sum() + "  (IntStream diretto)\n");
+
+        ObjectIntHashMap<String> wordCounts = new ObjectIntHashMap<>();
+        for (String word : "a b a c b a".split(" ")) {
+            wordCounts.addTo(word, 1);  // al posto di merge(word, 1, Integer::sum)
+        }
+        IntHashSet evens = IntHashSet.from(IntStream.rangeClosed(1, 10).filter(n -> n % 2 == 0));
+
+        System.out.println("wordCounts.addTo(word, 1)       → " + wordCounts);
+        System.out.println("IntHashSet.from(IntStream ...)  → " + evens + ", contains(4) = " + evens.contains(4) + "\n");
+
+        System.out.println("Con 1.000.000 di interi casuali (PrimitiveCollectionsBenchmark, indicativo):");
+        System.out.println("  ArrayList<Integer> ~21 byte/elemento   IntArrayList  4 byte/elemento");
+        System.out.println("  HashMap<Integer, Integer> ~72 byte/voce   IntIntHashMap ~17 byte/voce\n");
+
         printSubSection("Esempio: null in Collections");
         
         List<Integer> numbersWithNull = new ArrayList<>();
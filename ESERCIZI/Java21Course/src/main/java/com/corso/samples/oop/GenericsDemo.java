@@ -197,6 +197,26 @@ public class GenericsDemo {
         Optional<User> found = userRepo.findById("U2");
         System.out.println("findById(U2): " + found.orElse(null));
         System.out.println("all users: " + userRepo.findAll());
+
+        printSubSection("Indici secondari (IndexedRepository)");
+        IndexedRepository<User> indexed = new IndexedRepository<>();
+        IndexedRepository.UniqueIndex<String, User> byName = indexed.uniqueIndex("name", User::name);
+        IndexedRepository.MultiIndex<Character, User> byInitial = indexed.multiIndex("initial",
+                user -> user.name().charAt(0));
+
+        indexed.save(new User("U1", "Mario"));
+        indexed.save(new User("U2", "Anna"));
+        indexed.save(new User("U3", "Marta"));
+
+        System.out.println("byName.find(Anna): " + byName.find("Anna").orElse(null));
+        System.out.println("byInitial.find('M'): " + byInitial.find('M'));
+        System.out.println("findAll() due volte, stessa istanza? " + (indexed.findAll() == indexed.findAll()));
+
+        try {
+            indexed.save(new User("U4", "Anna"));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Indice univoco violato: " + e.getMessage());
+        }
     }
 
     private static void demoTypeErasureConcept() {
@@ -414,34 +434,29 @@ public class GenericsDemo {
         List<T> findAll();
     }
 
+    /**
+     * Adattatore verso {@link IndexedRepository}: findById per hash invece di
+     * scansione lineare, findAll senza copia se i dati non sono cambiati.
+     */
     private static final class InMemoryRepository<T extends Identifiable> implements Repository<T> {
-        private final List<T> store = new ArrayList<>();
+        private final IndexedRepository<T> store = new IndexedRepository<>();
 
         @Override
         public void save(T element) {
-            store.add(Objects.requireNonNull(element));
+            store.save(Objects.requireNonNull(element));
         }
 
         @Override
         public Optional<T> findById(String id) {
-            for (T element : store) {
-                if (element.id().equals(id)) {
-                    return Optional.of(element);
-                }
-            }
-            return Optional.empty();
+            return store.findById(id);
         }
 
         @Override
         public List<T> findAll() {
-            return List.copyOf(store);
+            return store.findAll();
         }
     }
 
-    private interface Identifiable {
-        String id();
-    }
-
     private record User(String id, String name) implements Identifiable {
         private User {
             if (id == null || id.isBlank()) {
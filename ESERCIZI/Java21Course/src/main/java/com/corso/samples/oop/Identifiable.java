@@ -0,0 +1,12 @@
+package com.corso.samples.oop;
+
+/**
+ * Entità con un identificativo univoco, usato come chiave primaria dai repository.
+ */
+public interface Identifiable {
+
+    /**
+     * @return L'identificativo dell'entità (non null)
+     */
+    String id();
+}
@@ -0,0 +1,392 @@
+package com.corso.samples.oop;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Repository in memoria indicizzato per entità {@link Identifiable}.
+ *
+ * <p>
+ * La chiave primaria è l'{@code id} dell'entità, in una hash map: {@link #findById(String)}
+ * è O(1) invece della scansione lineare di una lista. Si possono dichiarare indici
+ * secondari su qualunque proprietà derivata dall'entità:
+ * </p>
+ * <ul>
+ * <li>{@link #uniqueIndex(String, Function)}: una sola entità per chiave (es. email);</li>
+ * <li>{@link #multiIndex(String, Function)}: più entità per chiave (es. città).</li>
+ * </ul>
+ *
+ * <p>
+ * Gli indici sono aggiornati a ogni {@link #save(Identifiable)}; le entità con chiave
+ * {@code null} non vengono indicizzate. Letture concorrenti non si bloccano tra loro
+ * (read lock); le scritture sono esclusive, così indice primario e secondari sono
+ * sempre coerenti. {@link #findAll()} restituisce una vista immutabile calcolata una
+ * sola volta per versione dei dati: chiamate ripetute senza scritture intermedie
+ * condividono la stessa lista, senza una copia per chiamata.
+ * </p>
+ *
+ * @param <T> Il tipo delle entità
+ */
+public final class IndexedRepository<T extends Identifiable> {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // LinkedHashMap: findAll restituisce le entità in ordine di primo inserimento
+    private final Map<String, T> byId = new LinkedHashMap<>();
+    private final Map<String, UniqueIndex<?, T>> uniqueIndexes = new LinkedHashMap<>();
+    private final Map<String, MultiIndex<?, T>> multiIndexes = new LinkedHashMap<>();
+
+    // Vista immutabile di tutte le entità, invalidata a ogni scrittura
+    private volatile List<T> snapshot = List.of();
+
+    /**
+     * Dichiara un indice secondario univoco, costruito anche sulle entità già presenti.
+     *
+     * @param name      Il nome dell'indice (univoco nel repository)
+     * @param extractor La funzione che calcola la chiave dall'entità
+     * @param <K>       Il tipo della chiave
+     * @return L'indice, da usare per le ricerche
+     * @throws IllegalArgumentException se due entità presenti hanno la stessa chiave
+     */
+    public <K> UniqueIndex<K, T> uniqueIndex(String name, Function<? super T, ? extends K> extractor) {
+        UniqueIndex<K, T> index = new UniqueIndex<>(this, name, extractor);
+        lock.writeLock().lock();
+        try {
+            checkIndexName(name);
+            for (T entity : byId.values()) {
+                index.checkAvailable(entity);
+                index.add(entity);
+            }
+            uniqueIndexes.put(name, index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    /**
+     * Dichiara un indice secondario multi-valore, costruito anche sulle entità già presenti.
+     *
+     * @param name      Il nome dell'indice (univoco nel repository)
+     * @param extractor La funzione che calcola la chiave dall'entità
+     * @param <K>       Il tipo della chiave
+     * @return L'indice, da usare per le ricerche
+     */
+    public <K> MultiIndex<K, T> multiIndex(String name, Function<? super T, ? extends K> extractor) {
+        MultiIndex<K, T> index = new MultiIndex<>(this, name, extractor);
+        lock.writeLock().lock();
+        try {
+            checkIndexName(name);
+            for (T entity : byId.values()) {
+                index.add(entity);
+            }
+            multiIndexes.put(name, index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return index;
+    }
+
+    /**
+     * Inserisce un'entità o sostituisce quella con lo stesso id, aggiornando tutti gli indici.
+     *
+     * @param entity L'entità da salvare
+     * @throws IllegalArgumentException se viola un indice univoco (il repository resta invariato)
+     */
+    public void save(T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        String id = Objects.requireNonNull(entity.id(), "id must not be null");
+
+        lock.writeLock().lock();
+        try {
+            // Prima tutte le verifiche, poi le modifiche: nessun aggiornamento parziale
+            for (UniqueIndex<?, T> index : uniqueIndexes.values()) {
+                index.checkAvailable(entity);
+            }
+
+            T previous = byId.put(id, entity);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (UniqueIndex<?, T> index : uniqueIndexes.values()) {
+                index.add(entity);
+            }
+            for (MultiIndex<?, T> index : multiIndexes.values()) {
+                index.add(entity);
+            }
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Salva più entità con una sola acquisizione del lock.
+     *
+     * @param entities Le entità da salvare
+     * @throws IllegalArgumentException alla prima entità che viola un indice univoco
+     *                                  (le precedenti restano salvate)
+     */
+    public void saveAll(Iterable<? extends T> entities) {
+        lock.writeLock().lock();
+        try {
+            for (T entity : entities) {
+                save(entity);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rimuove l'entità con l'id indicato.
+     *
+     * @param id L'id dell'entità
+     * @return L'entità rimossa, se presente
+     */
+    public Optional<T> deleteById(String id) {
+        lock.writeLock().lock();
+        try {
+            T removed = byId.remove(id);
+            if (removed != null) {
+                unindex(removed);
+                snapshot = null;
+            }
+            return Optional.ofNullable(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ricerca per chiave primaria in O(1).
+     *
+     * @param id L'id dell'entità
+     * @return L'entità, se presente
+     */
+    public Optional<T> findById(String id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tutte le entità, in ordine di primo inserimento.
+     *
+     * @return Una vista immutabile, condivisa tra le chiamate finché non avviene una scrittura
+     */
+    public List<T> findAll() {
+        List<T> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Più lettori possono ricostruirla in parallelo: il risultato è identico
+            current = List.copyOf(byId.values());
+            snapshot = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Il numero di entità
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(T entity) {
+        for (UniqueIndex<?, T> index : uniqueIndexes.values()) {
+            index.remove(entity);
+        }
+        for (MultiIndex<?, T> index : multiIndexes.values()) {
+            index.remove(entity);
+        }
+    }
+
+    private void checkIndexName(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        if (uniqueIndexes.containsKey(name) || multiIndexes.containsKey(name)) {
+            throw new IllegalArgumentException("index already declared: " + name);
+        }
+    }
+
+    /**
+     * Indice secondario univoco: chiave -> entità.
+     *
+     * @param <K> Il tipo della chiave
+     * @param <T> Il tipo delle entità
+     */
+    public static final class UniqueIndex<K, T extends Identifiable> {
+
+        private final IndexedRepository<T> repository;
+        private final String name;
+        private final Function<? super T, ? extends K> extractor;
+        private final Map<K, T> entries = new HashMap<>();
+
+        private UniqueIndex(IndexedRepository<T> repository, String name,
+                Function<? super T, ? extends K> extractor) {
+            this.repository = repository;
+            this.name = name;
+            this.extractor = Objects.requireNonNull(extractor, "extractor must not be null");
+        }
+
+        /**
+         * Ricerca per chiave in O(1).
+         *
+         * @param key La chiave
+         * @return L'entità con quella chiave, se presente
+         */
+        public Optional<T> find(K key) {
+            repository.lock.readLock().lock();
+            try {
+                return Optional.ofNullable(entries.get(key));
+            } finally {
+                repository.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return Il nome dell'indice
+         */
+        public String name() {
+            return name;
+        }
+
+        private void checkAvailable(T entity) {
+            K key = extractor.apply(entity);
+            if (key == null) {
+                return;
+            }
+            T owner = entries.get(key);
+            if (owner != null && !owner.id().equals(entity.id())) {
+                throw new IllegalArgumentException(
+                        "duplicate key for unique index " + name + ": " + key + " (owned by " + owner.id() + ")");
+            }
+        }
+
+        private void add(T entity) {
+            K key = extractor.apply(entity);
+            if (key != null) {
+                entries.put(key, entity);
+            }
+        }
+
+        private void remove(T entity) {
+            K key = extractor.apply(entity);
+            if (key != null) {
+                entries.remove(key, entity);
+            }
+        }
+    }
+
+    /**
+     * Indice secondario multi-valore: chiave -> entità con quella chiave.
+     *
+     * @param <K> Il tipo della chiave
+     * @param <T> Il tipo delle entità
+     */
+    public static final class MultiIndex<K, T extends Identifiable> {
+
+        private final IndexedRepository<T> repository;
+        private final String name;
+        private final Function<? super T, ? extends K> extractor;
+
+        // Per ogni chiave le entità per id: rimozione O(1) anche con gruppi grandi
+        private final Map<K, Map<String, T>> entries = new HashMap<>();
+
+        private MultiIndex(IndexedRepository<T> repository, String name,
+                Function<? super T, ? extends K> extractor) {
+            this.repository = repository;
+            this.name = name;
+            this.extractor = Objects.requireNonNull(extractor, "extractor must not be null");
+        }
+
+        /**
+         * Tutte le entità con la chiave indicata, in ordine di inserimento nell'indice.
+         *
+         * @param key La chiave
+         * @return Una lista immutabile (vuota se nessuna entità corrisponde)
+         */
+        public List<T> find(K key) {
+            repository.lock.readLock().lock();
+            try {
+                Map<String, T> group = entries.get(key);
+                return group == null ? List.of() : List.copyOf(group.values());
+            } finally {
+                repository.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Numero di entità con la chiave indicata, senza copiarle.
+         *
+         * @param key La chiave
+         * @return Il numero di entità
+         */
+        public int count(K key) {
+            repository.lock.readLock().lock();
+            try {
+                Map<String, T> group = entries.get(key);
+                return group == null ? 0 : group.size();
+            } finally {
+                repository.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return Le chiavi presenti nell'indice
+         */
+        public List<K> keys() {
+            repository.lock.readLock().lock();
+            try {
+                return List.copyOf(entries.keySet());
+            } finally {
+                repository.lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return Il nome dell'indice
+         */
+        public String name() {
+            return name;
+        }
+
+        private void add(T entity) {
+            K key = extractor.apply(entity);
+            if (key != null) {
+                entries.computeIfAbsent(key, ignored -> new LinkedHashMap<>()).put(entity.id(), entity);
+            }
+        }
+
+        private void remove(T entity) {
+            K key = extractor.apply(entity);
+            if (key == null) {
+                return;
+            }
+            Map<String, T> group = entries.get(key);
+            if (group != null && group.remove(entity.id(), entity) && group.isEmpty()) {
+                entries.remove(key);
+            }
+        }
+    }
+}
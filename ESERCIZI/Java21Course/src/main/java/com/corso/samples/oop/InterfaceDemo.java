@@ -1,9 +1,22 @@
 package com.corso.samples.oop;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.corso.samples.advanced.AsyncLineWriter;
+import com.corso.samples.advanced.CsvStreamWriter;
+import com.corso.samples.advanced.FanOutDispatcher;
+import com.corso.samples.advanced.JsonPipeline;
+import com.corso.samples.advanced.MetricsProxyFactory;
 
 /**
  * Demo completa sulle Interfacce in Java 21.
@@ -66,6 +79,23 @@ public class InterfaceDemo {
 
         System.out.println("Processor: " + processor.name());
         System.out.println("Result: " + result);
+
+        printSubSection("Stessa interfaccia, metriche per metodo (MetricsProxyFactory)");
+        MetricsProxyFactory.Instrumented<PaymentProcessor> instrumented = MetricsProxyFactory.instrument(
+                PaymentProcessor.class, processor, MetricsProxyFactory.Strategy.HIDDEN_CLASS);
+        PaymentProcessor measured = instrumented.instance();
+        for (int i = 1; i <= 5; i++) {
+            measured.process(new PaymentRequest("ORD-20" + i, 10.0 * i));
+        }
+        measured.name();
+        // Il client non cambia: riceve sempre un PaymentProcessor
+        instrumented.calledStats().forEach(stats -> System.out.println("  " + stats));
+
+        printSubSection("Export/import JSON del risultato (JsonPipeline)");
+        JsonPipeline<PaymentResult> json = JsonPipeline.forType(PaymentResult.class);
+        String document = json.write(result);
+        System.out.println("JSON: " + document);
+        System.out.println("Riletto uguale all'originale: " + json.read(document).equals(result));
     }
 
     private static void demoPolymorphismWithInterface() {
@@ -82,6 +112,34 @@ public class InterfaceDemo {
 
         printSubSection("Vantaggio");
         System.out.println("Il chiamante usa NotificationChannel senza conoscere le classi concrete.");
+
+        printSubSection("Fan-out parallelo (FanOutDispatcher)");
+        List<String> recipients = IntStream.range(0, 1_000).mapToObj(i -> "user" + i + "@corso.dev").toList();
+        SimulatedChannel email = new SimulatedChannel(new EmailChannel(), Duration.ofMillis(20));
+        SimulatedChannel sms = new SimulatedChannel(new SmsChannel(), Duration.ofMillis(50));
+        SimulatedChannel push = new SimulatedChannel(new PushChannel(), Duration.ofMillis(30));
+        SimulatedChannel legacyMail = new SimulatedChannel(new LegacyMailAdapter(new LegacyMailService()),
+                Duration.ofMillis(400));
+
+        try (FanOutDispatcher dispatcher = new FanOutDispatcher()
+                .addChannel("email", new FanOutDispatcher.ChannelPolicy(200, 1, Duration.ofSeconds(5)),
+                        (recipient, message) -> email.send(recipient + " " + message))
+                .addChannel("sms", new FanOutDispatcher.ChannelPolicy(50, 1, Duration.ofSeconds(5)),
+                        (recipient, message) -> sms.send(recipient + " " + message))
+                .addBatchChannel("push", new FanOutDispatcher.ChannelPolicy(4, 100, Duration.ofSeconds(5)),
+                        push::sendAll)
+                .addChannel("legacy-mail", new FanOutDispatcher.ChannelPolicy(2, 1, Duration.ofMillis(500)),
+                        (recipient, message) -> legacyMail.send(recipient + " " + message))) {
+            FanOutDispatcher.Result result = dispatcher.dispatch("Benvenuto nel corso Java 21", recipients);
+            for (FanOutDispatcher.ChannelSummary summary : result.summaries()) {
+                System.out.println(summary);
+            }
+            System.out.printf("Consegne: %d ok, %d scadute in %d ms (in sequenza: %d ms)%n",
+                    result.count(FanOutDispatcher.Status.DELIVERED), result.count(FanOutDispatcher.Status.TIMED_OUT),
+                    result.elapsedNanos() / 1_000_000, result.sequentialNanos() / 1_000_000);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private static void demoDefaultMethods() {
@@ -91,10 +149,36 @@ public class InterfaceDemo {
         JsonExporter json = new JsonExporter();
 
         System.out.println(csv.export("userId,name"));
-        System.out.println(json.export("{\"userId\":\"U1\"}"));
+        System.out.println(json.export("{ \"userId\": \"U1\", \"roles\": [\"ADMIN\"] }"));
 
         printSubSection("Use case");
         System.out.println("I default methods permettono evoluzione API senza rompere implementazioni esistenti.");
+
+        printSubSection("Export in streaming (CsvStreamWriter)");
+        StreamingCsvExporter streaming = new StreamingCsvExporter();
+        try {
+            // Le righe vengono scritte una alla volta: nessuna String con l'intero export
+            streaming.exportRows(Stream.of(
+                    List.of("userId", "name", "note"),
+                    List.of("U1", "Rossi, Mario", "dice \"ciao\""),
+                    List.of("U2", "Bianchi", "riga1\nriga2")), System.out);
+
+            Path directory = Files.createTempDirectory("export");
+            long start = System.nanoTime();
+            List<Path> files = CsvStreamWriter.exportPartitioned(directory, "users", List.of("id", "name", "score"),
+                    1_000_000, 250_000, Runtime.getRuntime().availableProcessors(),
+                    (row, out) -> out.field(row).field("User " + row).field(row % 100));
+            long totalBytes = 0;
+            for (Path file : files) {
+                totalBytes += Files.size(file);
+                Files.delete(file);
+            }
+            Files.delete(directory);
+            System.out.printf("Export parallelo: %d righe in %d file, %d byte, %d ms%n", 1_000_000, files.size(),
+                    totalBytes, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException exception) {
+            System.out.println("Export fallito: " + exception.getMessage());
+        }
     }
 
     private static void demoStaticAndPrivateMethodsInInterface() {
@@ -106,6 +190,42 @@ public class InterfaceDemo {
         AuditTrail audit = new ConsoleAuditTrail();
         audit.audit("Export completato");
 
+        printSubSection("AuditTrail asincrono (AsyncLineWriter)");
+        try {
+            Path file = Files.createTempFile("audit-", ".log");
+            AsyncLineWriter.Options options = new AsyncLineWriter.Options(16 * 1024, 1024,
+                    AsyncLineWriter.Overflow.BLOCK, AsyncLineWriter.FsyncPolicy.PERIODIC, Duration.ofMillis(100));
+            AsyncFileAuditTrail asyncAudit = new AsyncFileAuditTrail(file, options);
+            try (asyncAudit) {
+                List<Thread> producers = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int producer = t;
+                    Thread thread = new Thread(() -> {
+                        for (int i = 0; i < 50_000; i++) {
+                            asyncAudit.audit("producer-" + producer + " event-" + i);
+                        }
+                    });
+                    thread.start();
+                    producers.add(thread);
+                }
+                for (Thread producer : producers) {
+                    producer.join();
+                }
+            }
+            AsyncLineWriter.Metrics metrics = asyncAudit.metrics();
+            long lines;
+            try (Stream<String> stream = Files.lines(file)) {
+                lines = stream.count();
+            }
+            Files.delete(file);
+            System.out.println("Metriche: " + metrics);
+            System.out.println("Righe nel file: " + lines);
+        } catch (IOException exception) {
+            System.out.println("Audit fallito: " + exception.getMessage());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
         printSubSection("Nota");
         System.out.println("I metodi private in interfaccia sono helper riusabili da default methods.");
     }
@@ -138,6 +258,7 @@ public class InterfaceDemo {
         Order order = new Order("ORD-SHIPPING-01", 3.5);
         System.out.printf("Standard shipping: %.2f%n", standard.calculate(order));
         System.out.printf("Express shipping: %.2f%n", express.calculate(order));
+        System.out.println("Ordine in JSON: " + JsonPipeline.forType(Order.class).write(order));
 
         printSubSection("Scenario");
         System.out.println("Cambio algoritmo runtime senza if/else annidati.");
@@ -194,6 +315,24 @@ public class InterfaceDemo {
 
         System.out.println("All users: " + reader.findAll());
 
+        printSubSection("Stesse interfacce, implementazione concorrente (SnapshotRepository)");
+        try (SnapshotUserRepository batched = new SnapshotUserRepository(SnapshotRepository.Mode.BATCHED)) {
+            ReadRepository<UserRecord> snapshotReader = batched;
+            WriteRepository<UserRecord> snapshotWriter = batched;
+
+            snapshotWriter.save(new UserRecord("U1", "Mario"));
+            snapshotWriter.save(new UserRecord("U2", "Anna"));
+            System.out.println("BATCHED prima di publish(): " + snapshotReader.findAll());
+            batched.publish();
+            System.out.println("BATCHED dopo publish():     " + snapshotReader.findAll());
+        }
+
+        try (SnapshotUserRepository consistent = new SnapshotUserRepository(SnapshotRepository.Mode.CONSISTENT)) {
+            consistent.save(new UserRecord("U3", "Luca"));
+            System.out.println("CONSISTENT subito visibile: " + consistent.findAll());
+        }
+        System.out.println("I lettori non prendono lock: leggono uno snapshot immutabile.");
+
         printSubSection("Principio");
         System.out.println("Meglio interfacce piccole e specifiche invece di una interfaccia gigante.");
     }
@@ -320,6 +459,44 @@ public class InterfaceDemo {
         }
     }
 
+    /**
+     * Canale di prova per il fan-out: aggiunge a un canale reale la latenza di un
+     * provider remoto e supporta l'invio a blocchi.
+     */
+    private static class SimulatedChannel implements NotificationChannel {
+        private final NotificationChannel delegate;
+        private final Duration latency;
+
+        SimulatedChannel(NotificationChannel delegate, Duration latency) {
+            this.delegate = Objects.requireNonNull(delegate);
+            this.latency = Objects.requireNonNull(latency);
+        }
+
+        @Override
+        public String send(String message) {
+            pause();
+            return delegate.send(message);
+        }
+
+        List<String> sendAll(List<String> recipients, String message) {
+            pause();
+            List<String> results = new ArrayList<>(recipients.size());
+            for (String recipient : recipients) {
+                results.add(delegate.send(recipient + " " + message));
+            }
+            return results;
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("send interrupted", exception);
+            }
+        }
+    }
+
     private interface Exporter {
         String export(String data);
 
@@ -349,7 +526,32 @@ public class InterfaceDemo {
     private static class JsonExporter implements Exporter {
         @Override
         public String export(String data) {
-            return exportWithHeader("JSON|" + data);
+            // Documento validato e normalizzato da Jackson, non concatenato a mano
+            return exportWithHeader("JSON|" + JsonPipeline.normalize(data));
+        }
+    }
+
+    /**
+     * Variante in streaming: le righe vanno direttamente alla destinazione.
+     */
+    private interface StreamingExporter extends Exporter {
+        long exportRows(Stream<List<String>> rows, Appendable out) throws IOException;
+    }
+
+    private static class StreamingCsvExporter implements StreamingExporter {
+        @Override
+        public String export(String data) {
+            return exportWithHeader("CSV|" + data);
+        }
+
+        @Override
+        public long exportRows(Stream<List<String>> rows, Appendable out) throws IOException {
+            try (CsvStreamWriter csv = new CsvStreamWriter(out)) {
+                for (Iterator<List<String>> iterator = rows.iterator(); iterator.hasNext();) {
+                    csv.row(iterator.next());
+                }
+                return csv.rowCount();
+            }
         }
     }
 
@@ -379,6 +581,37 @@ public class InterfaceDemo {
         }
     }
 
+    /**
+     * Audit su file senza I/O nel thread chiamante: la riga viene solo accodata e un
+     * thread dedicato la scrive a blocchi.
+     */
+    private static class AsyncFileAuditTrail implements AuditTrail, AutoCloseable {
+        private final AsyncLineWriter writer;
+
+        AsyncFileAuditTrail(Path file, AsyncLineWriter.Options options) throws IOException {
+            this.writer = new AsyncLineWriter(file, options);
+        }
+
+        @Override
+        public void audit(String event) {
+            auditWithPrefix(event);
+        }
+
+        @Override
+        public void write(String line) {
+            writer.append(line);
+        }
+
+        AsyncLineWriter.Metrics metrics() {
+            return writer.metrics();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
     @FunctionalInterface
     private interface DiscountPolicy {
         double apply(double amount);
@@ -462,20 +695,48 @@ public class InterfaceDemo {
     }
 
     private static class InMemoryUserRepository implements ReadRepository<UserRecord>, WriteRepository<UserRecord> {
-        private final List<UserRecord> store = new ArrayList<>();
+        private final IndexedRepository<UserRecord> store = new IndexedRepository<>();
+
+        @Override
+        public List<UserRecord> findAll() {
+            return store.findAll();
+        }
+
+        @Override
+        public void save(UserRecord element) {
+            store.save(Objects.requireNonNull(element));
+        }
+    }
+
+    private static class SnapshotUserRepository
+            implements ReadRepository<UserRecord>, WriteRepository<UserRecord>, AutoCloseable {
+        private final SnapshotRepository<UserRecord> store;
+
+        SnapshotUserRepository(SnapshotRepository.Mode mode) {
+            this.store = new SnapshotRepository<>(mode, 16);
+        }
 
         @Override
         public List<UserRecord> findAll() {
-            return List.copyOf(store);
+            return store.findAll();
         }
 
         @Override
         public void save(UserRecord element) {
-            store.add(Objects.requireNonNull(element));
+            store.save(Objects.requireNonNull(element));
+        }
+
+        void publish() {
+            store.publish();
+        }
+
+        @Override
+        public void close() {
+            store.close();
         }
     }
 
-    private record UserRecord(String id, String username) {
+    private record UserRecord(String id, String username) implements Identifiable {
         private UserRecord {
             Objects.requireNonNull(id);
             Objects.requireNonNull(username);
@@ -0,0 +1,338 @@
+package com.corso.samples.oop;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Repository ottimizzato per carichi con molte più letture che scritture.
+ *
+ * <p>
+ * I lettori leggono uno snapshot immutabile pubblicato tramite un singolo riferimento
+ * volatile: nessun lock, nessuna attesa e nessuna allocazione in {@link #get(String)}
+ * e {@link #findAll()} (la lista completa viene costruita una volta per snapshot).
+ * Le entità sono suddivise in stripe per hash dell'id: una scrittura copia solo la
+ * stripe interessata, mentre le altre sono condivise con lo snapshot precedente.
+ * </p>
+ *
+ * <p>
+ * Due modalità di scrittura:
+ * </p>
+ * <ul>
+ * <li>{@link Mode#BATCHED}: le scritture vengono accodate e rese visibili tutte
+ * insieme da {@link #publish()}, invocato su richiesta o periodicamente con
+ * {@link #publishEvery(Duration)}. Una pubblicazione copia ogni stripe al più una
+ * volta, qualunque sia il numero di scritture accumulate.</li>
+ * <li>{@link Mode#CONSISTENT}: ogni scrittura è visibile appena {@code save} ritorna.
+ * Un lock per stripe serializza le scritture sulla stessa stripe, mentre quelle su
+ * stripe diverse procedono in parallelo e si contendono solo una CAS sullo snapshot.</li>
+ * </ul>
+ *
+ * @param <T> Il tipo delle entità
+ */
+public final class SnapshotRepository<T extends Identifiable> implements AutoCloseable {
+
+    /**
+     * Modalità di pubblicazione delle scritture.
+     */
+    public enum Mode {
+        /** Scritture accodate e pubblicate a blocchi. */
+        BATCHED,
+        /** Scritture visibili immediatamente, con lock per stripe. */
+        CONSISTENT
+    }
+
+    private final Mode mode;
+    private final int mask;
+    private final ReentrantLock[] stripeLocks;
+    private final AtomicReference<Snapshot<T>> current;
+
+    // Solo in modalità BATCHED
+    private final ConcurrentLinkedQueue<Write<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private ScheduledExecutorService publisher;
+
+    /**
+     * Crea un repository vuoto.
+     *
+     * @param mode    La modalità di pubblicazione delle scritture
+     * @param stripes Il numero di stripe, arrotondato alla potenza di 2 successiva
+     */
+    public SnapshotRepository(Mode mode, int stripes) {
+        this.mode = Objects.requireNonNull(mode, "mode must not be null");
+        if (stripes < 1 || stripes > (1 << 16)) {
+            throw new IllegalArgumentException("stripes must be in [1, 65536]: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+        this.mask = size - 1;
+
+        this.stripeLocks = new ReentrantLock[size];
+        Map<String, T>[] empty = newStripes(size);
+        for (int i = 0; i < size; i++) {
+            stripeLocks[i] = new ReentrantLock();
+            empty[i] = Map.of();
+        }
+        this.current = new AtomicReference<>(new Snapshot<>(empty, 0, 0, List.of()));
+    }
+
+    /**
+     * Pubblica periodicamente le scritture accodate (solo modalità BATCHED).
+     *
+     * @param interval L'intervallo tra due pubblicazioni
+     */
+    public synchronized void publishEvery(Duration interval) {
+        if (mode != Mode.BATCHED) {
+            throw new IllegalStateException("periodic publishing requires BATCHED mode");
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        if (publisher != null) {
+            throw new IllegalStateException("periodic publishing already started");
+        }
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-repository-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = interval.toNanos();
+        publisher.scheduleWithFixedDelay(this::publish, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Inserisce o sostituisce l'entità con lo stesso id.
+     *
+     * @param entity L'entità da salvare
+     */
+    public void save(T entity) {
+        Objects.requireNonNull(entity, "entity must not be null");
+        write(Objects.requireNonNull(entity.id(), "id must not be null"), entity);
+    }
+
+    /**
+     * Rimuove l'entità con l'id indicato (se presente).
+     *
+     * @param id L'id dell'entità
+     */
+    public void deleteById(String id) {
+        write(Objects.requireNonNull(id, "id must not be null"), null);
+    }
+
+    /**
+     * Rende visibili ai lettori tutte le scritture accodate.
+     * In modalità CONSISTENT non ha effetto.
+     *
+     * @return Il numero di scritture applicate
+     */
+    public int publish() {
+        if (pendingCount.get() == 0) {
+            return 0;
+        }
+
+        publishLock.lock();
+        try {
+            Snapshot<T> snapshot = current.get();
+            Map<String, T>[] stripes = snapshot.stripes.clone();
+            boolean[] copied = new boolean[stripes.length];
+            int size = snapshot.size;
+            int applied = 0;
+
+            Write<T> write;
+            while ((write = pending.poll()) != null) {
+                int stripe = stripeOf(write.id());
+                if (!copied[stripe]) {
+                    // Ogni stripe viene copiata al più una volta per pubblicazione
+                    stripes[stripe] = new HashMap<>(stripes[stripe]);
+                    copied[stripe] = true;
+                }
+                size += apply(stripes[stripe], write.id(), write.entity());
+                applied++;
+            }
+            if (applied == 0) {
+                return 0;
+            }
+            pendingCount.addAndGet(-applied);
+
+            // Il publisher paga la costruzione della lista completa, non i lettori
+            current.set(new Snapshot<>(stripes, size, snapshot.version + 1, flatten(stripes, size)));
+            return applied;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Ricerca per id senza lock né allocazioni.
+     *
+     * @param id L'id dell'entità
+     * @return L'entità, oppure {@code null} se assente nello snapshot corrente
+     */
+    public T get(String id) {
+        return current.get().stripes[stripeOf(id)].get(id);
+    }
+
+    /**
+     * Ricerca per id; a differenza di {@link #get(String)} alloca l'{@code Optional}.
+     *
+     * @param id L'id dell'entità
+     * @return L'entità, se presente nello snapshot corrente
+     */
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(get(id));
+    }
+
+    /**
+     * Tutte le entità dello snapshot corrente, in ordine non specificato.
+     *
+     * @return Una lista immutabile, condivisa da tutti i lettori dello stesso snapshot
+     */
+    public List<T> findAll() {
+        Snapshot<T> snapshot = current.get();
+        List<T> all = snapshot.all;
+        if (all == null) {
+            // Solo in modalità CONSISTENT: costruita dal primo lettore dopo una scrittura
+            all = flatten(snapshot.stripes, snapshot.size);
+            snapshot.all = all;
+        }
+        return all;
+    }
+
+    /**
+     * @return Il numero di entità nello snapshot corrente
+     */
+    public int size() {
+        return current.get().size;
+    }
+
+    /**
+     * @return Il numero di snapshot pubblicati dalla creazione
+     */
+    public long version() {
+        return current.get().version;
+    }
+
+    /**
+     * @return Le scritture accodate e non ancora pubblicate
+     */
+    public int pendingWrites() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @return La modalità di pubblicazione
+     */
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Ferma la pubblicazione periodica e pubblica le scritture residue.
+     */
+    @Override
+    public synchronized void close() {
+        if (publisher != null) {
+            publisher.shutdown();
+            publisher = null;
+        }
+        publish();
+    }
+
+    private void write(String id, T entity) {
+        if (mode == Mode.BATCHED) {
+            // Prima il contatore: un publish() concorrente che preleva la scrittura lo
+            // trova già incrementato e non lo porta sotto zero
+            pendingCount.incrementAndGet();
+            pending.add(new Write<>(id, entity));
+            return;
+        }
+
+        int stripe = stripeOf(id);
+        ReentrantLock lock = stripeLocks[stripe];
+        lock.lock();
+        try {
+            // Con il lock della stripe nessun altro può modificarla: la copia si fa una volta sola
+            Map<String, T> updated = new HashMap<>(current.get().stripes[stripe]);
+            int delta = apply(updated, id, entity);
+
+            // La CAS fallisce solo per scritture concorrenti su altre stripe: si ripete
+            // la sostituzione del riferimento, non la copia della stripe
+            while (true) {
+                Snapshot<T> snapshot = current.get();
+                Map<String, T>[] stripes = snapshot.stripes.clone();
+                stripes[stripe] = updated;
+                Snapshot<T> next = new Snapshot<>(stripes, snapshot.size + delta, snapshot.version + 1, null);
+                if (current.compareAndSet(snapshot, next)) {
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applica una scrittura a una stripe già copiata.
+     *
+     * @return La variazione del numero di entità (-1, 0 o +1)
+     */
+    private static <T> int apply(Map<String, T> stripe, String id, T entity) {
+        if (entity == null) {
+            return stripe.remove(id) != null ? -1 : 0;
+        }
+        return stripe.put(id, entity) == null ? 1 : 0;
+    }
+
+    private int stripeOf(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static <T> List<T> flatten(Map<String, T>[] stripes, int size) {
+        List<T> all = new ArrayList<>(size);
+        for (Map<String, T> stripe : stripes) {
+            all.addAll(stripe.values());
+        }
+        return List.copyOf(all);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> Map<String, T>[] newStripes(int size) {
+        return (Map<String, T>[]) new Map[size];
+    }
+
+    /**
+     * Scrittura accodata in modalità BATCHED; {@code entity == null} indica una cancellazione.
+     */
+    private record Write<T>(String id, T entity) {
+    }
+
+    /**
+     * Stato immutabile pubblicato ai lettori. Solo {@code all} viene valorizzato in
+     * ritardo; la race tra lettori è innocua perché calcolano la stessa lista.
+     */
+    private static final class Snapshot<T> {
+        private final Map<String, T>[] stripes;
+        private final int size;
+        private final long version;
+        private volatile List<T> all;
+
+        private Snapshot(Map<String, T>[] stripes, int size, long version, List<T> all) {
+            this.stripes = stripes;
+            this.size = size;
+            this.version = version;
+            this.all = all;
+        }
+    }
+}
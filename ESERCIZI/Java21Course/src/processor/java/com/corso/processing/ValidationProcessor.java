@@ -0,0 +1,514 @@
+package com.corso.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor che sostituisce l'ispezione riflessiva delle annotation della
+ * demo ({@code AnnotationAdvancedDemo}) con codice generato a compile time.
+ *
+ * <p>
+ * Per ogni tipo con campi {@code @NotBlank}/{@code @IntRange} genera, nello stesso
+ * package, una classe {@code <Tipo>Validator} con un metodo statico
+ * {@code validate(...)} che legge i campi direttamente (accessor dei record, campi
+ * non privati o getter). I campi privati senza getter si leggono con un
+ * {@link java.lang.invoke.VarHandle} risolto una volta all'inizializzazione della
+ * classe generata, come fa {@code CompiledValidator}. Genera inoltre {@code com.corso.samples.generated.AnnotationRegistry}
+ * con i metadati di {@code @UseCase} e {@code @AuditAction} e la tabella dei validatori
+ * per classe: a runtime non servono reflection né scansione del classpath.
+ * </p>
+ *
+ * <p>
+ * Le annotation sono riconosciute per nome tramite {@link AnnotationMirror}, quindi
+ * il processor non dipende dalle classi che elabora. Campi di tipo non supportato o
+ * dichiarati in una superclasse non accessibile dal package generato producono un
+ * warning e vengono esclusi.
+ * </p>
+ */
+public final class ValidationProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATIONS = "com.corso.samples.advanced.AnnotationAdvancedDemo.";
+    private static final String NOT_BLANK = ANNOTATIONS + "NotBlank";
+    private static final String INT_RANGE = ANNOTATIONS + "IntRange";
+    private static final String USE_CASE = ANNOTATIONS + "UseCase";
+    private static final String AUDIT_ACTION = ANNOTATIONS + "AuditAction";
+
+    private static final String REGISTRY_PACKAGE = "com.corso.samples.generated";
+    private static final String REGISTRY_CLASS = "AnnotationRegistry";
+    private static final String GENERATED = "@javax.annotation.processing.Generated(\"" + ValidationProcessor.class.getName() + "\")";
+
+    private Elements elements;
+    private Filer filer;
+    private Messager messager;
+
+    // Raccolti round dopo round; gli Element non si conservano tra un round e l'altro
+    private final Map<String, String> validators = new LinkedHashMap<>();
+    private final List<String> useCases = new ArrayList<>();
+    private final List<String> auditActions = new ArrayList<>();
+    private boolean annotationsSeen;
+    private boolean registryWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(NOT_BLANK, INT_RANGE, USE_CASE, AUDIT_ACTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // Il registro si scrive nel primo round senza tipi annotati (di norma quello con i soli
+        // validatori generati): contiene così anche i tipi prodotti da altri processor nei round
+        // intermedi e resta visibile ai sorgenti che lo importano. Nell'ultimo round i file
+        // generati non sarebbero più risolvibili, quindi lì si scrive solo come ultima possibilità
+        if (annotations.isEmpty() || roundEnv.processingOver()) {
+            if (annotationsSeen && !registryWritten) {
+                writeRegistry();
+                registryWritten = true;
+            }
+            return false;
+        }
+        if (registryWritten) {
+            for (TypeElement annotation : annotations) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR, "Annotated element generated after "
+                            + REGISTRY_CLASS + " was written: it would be missing from the registry", element);
+                }
+            }
+            return false;
+        }
+        annotationsSeen = true;
+
+        // I validatori si generano nel round in cui compare il tipo
+        for (TypeElement type : validatedTypes(annotations, roundEnv)) {
+            String validator = writeValidator(type);
+            if (validator != null) {
+                validators.put(type.getQualifiedName().toString(), validator);
+            }
+        }
+
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (name.equals(USE_CASE) && element instanceof TypeElement type) {
+                    useCases.add(useCaseEntry(type, mirror(element, USE_CASE)));
+                } else if (name.equals(AUDIT_ACTION) && element instanceof ExecutableElement method) {
+                    auditActions.add(auditActionEntry(method, mirror(element, AUDIT_ACTION)));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * I tipi che dichiarano almeno un campo con {@code @NotBlank} o {@code @IntRange}.
+     */
+    private Set<TypeElement> validatedTypes(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+            if (!name.equals(NOT_BLANK) && !name.equals(INT_RANGE)) {
+                continue;
+            }
+            // Le annotation su parametri di metodo non riguardano i validatori di tipo
+            for (VariableElement field : ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                types.add((TypeElement) field.getEnclosingElement());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Genera il validatore di un tipo.
+     *
+     * @return Il nome completo della classe generata, oppure {@code null} se il tipo non è validabile
+     */
+    private String writeValidator(TypeElement type) {
+        if (!isAccessible(type)) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "Validator not generated: type is private or nested in a private type", type);
+            return null;
+        }
+
+        String packageName = packageOf(type);
+        String simpleName = flatName(type) + "Validator";
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder checks = new StringBuilder();
+        StringBuilder handles = new StringBuilder();
+        int rules = 0;
+        int handleCount = 0;
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            StringBuilder ownChecks = new StringBuilder();
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                AnnotationMirror notBlank = mirror(field, NOT_BLANK);
+                AnnotationMirror intRange = mirror(field, INT_RANGE);
+                if (notBlank == null && intRange == null) {
+                    continue;
+                }
+
+                String read = readExpression(type, current, field);
+                if (read == null) {
+                    if (!isSupported(field, notBlank, intRange)) {
+                        messager.printMessage(Diagnostic.Kind.WARNING,
+                                "Field skipped by generated validator: unsupported type " + field.asType(), field);
+                        continue;
+                    }
+                    if (!isAccessibleFrom(current, packageName)) {
+                        messager.printMessage(Diagnostic.Kind.WARNING,
+                                "Field skipped by generated validator: declaring class not accessible", field);
+                        continue;
+                    }
+                    // Privato senza getter: VarHandle con privateLookupIn, come CompiledValidator
+                    String handle = "FIELD_" + handleCount++;
+                    TypeMirror erased = processingEnv.getTypeUtils().erasure(field.asType());
+                    handles.append("    private static final java.lang.invoke.VarHandle ").append(handle)
+                            .append(" = field(").append(current.getQualifiedName()).append(".class, ")
+                            .append(elements.getConstantExpression(field.getSimpleName().toString())).append(", ")
+                            .append(erased).append(".class);\n");
+                    read = "(" + erased + ") " + handle + ".get(target)";
+                }
+
+                String name = field.getSimpleName().toString();
+                String local = "v" + rules;
+                TypeMirror fieldType = field.asType();
+
+                if (notBlank != null) {
+                    if (isType(fieldType, "java.lang.String")) {
+                        ownChecks.append("        String ").append(local).append(" = ").append(read).append(";\n")
+                                .append("        if (").append(local).append(" != null && ").append(local)
+                                .append(".isBlank()) {\n")
+                                .append("            issues = add(issues, ")
+                                .append(elements.getConstantExpression(name + " must not be blank")).append(");\n")
+                                .append("        }\n");
+                        rules++;
+                    } else {
+                        messager.printMessage(Diagnostic.Kind.WARNING, "@NotBlank ignored on non-String field", field);
+                    }
+                }
+
+                if (intRange != null) {
+                    int min = (Integer) value(intRange, "min");
+                    int max = (Integer) value(intRange, "max");
+                    String message = name + " out of range [" + min + ", " + max + "]";
+                    String rangeLocal = "r" + rules;
+                    if (fieldType.getKind() == TypeKind.INT) {
+                        ownChecks.append("        int ").append(rangeLocal).append(" = ").append(read).append(";\n")
+                                .append("        if (").append(rangeLocal).append(" < ").append(min).append(" || ")
+                                .append(rangeLocal).append(" > ").append(max).append(") {\n");
+                    } else if (isType(fieldType, "java.lang.Integer")) {
+                        ownChecks.append("        Integer ").append(rangeLocal).append(" = ").append(read).append(";\n")
+                                .append("        if (").append(rangeLocal).append(" != null && (").append(rangeLocal)
+                                .append(" < ").append(min).append(" || ").append(rangeLocal).append(" > ").append(max)
+                                .append(")) {\n");
+                    } else {
+                        messager.printMessage(Diagnostic.Kind.WARNING, "@IntRange ignored on non-int field", field);
+                        continue;
+                    }
+                    ownChecks.append("            issues = add(issues, ")
+                            .append(elements.getConstantExpression(message)).append(");\n")
+                            .append("        }\n");
+                    rules++;
+                }
+            }
+            // Campi della superclasse prima di quelli dichiarati, come CompiledValidator
+            checks.insert(0, ownChecks);
+        }
+
+        if (rules == 0) {
+            return null;
+        }
+
+        String source = "package " + packageName + ";\n\n"
+                + "/**\n"
+                + " * Validatore generato per {@link " + typeName + "}.\n"
+                + (handles.isEmpty() ? " * Nessuna reflection a runtime.\n"
+                        : " * I campi privati senza getter si leggono con VarHandle risolti una volta.\n")
+                + " */\n"
+                + GENERATED + "\n"
+                + "public final class " + simpleName + " {\n\n"
+                + "    public static final int RULE_COUNT = " + rules + ";\n\n"
+                + (handles.isEmpty() ? "" : handles + "\n")
+                + "    private " + simpleName + "() {\n"
+                + "    }\n\n"
+                + "    /**\n"
+                + "     * @return Le violazioni, oppure una lista vuota condivisa se l'oggetto è valido\n"
+                + "     */\n"
+                + "    public static java.util.List<String> validate(" + typeName + " target) {\n"
+                + "        java.util.List<String> issues = null;\n"
+                + checks
+                + "        return issues == null ? java.util.List.of() : issues;\n"
+                + "    }\n\n"
+                + "    private static java.util.List<String> add(java.util.List<String> issues, String issue) {\n"
+                + "        if (issues == null) {\n"
+                + "            issues = new java.util.ArrayList<>(RULE_COUNT);\n"
+                + "        }\n"
+                + "        issues.add(issue);\n"
+                + "        return issues;\n"
+                + "    }\n"
+                + (handles.isEmpty() ? "" : "\n"
+                        + "    private static java.lang.invoke.VarHandle field(Class<?> owner, String name, Class<?> type) {\n"
+                        + "        try {\n"
+                        + "            return java.lang.invoke.MethodHandles.privateLookupIn(owner, java.lang.invoke.MethodHandles.lookup())\n"
+                        + "                    .findVarHandle(owner, name, type);\n"
+                        + "        } catch (ReflectiveOperationException e) {\n"
+                        + "            throw new ExceptionInInitializerError(e);\n"
+                        + "        }\n"
+                        + "    }\n")
+                + "}\n";
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        write(qualifiedName, source, type);
+        return qualifiedName;
+    }
+
+    /**
+     * Espressione Java che legge il campo senza reflection, oppure {@code null} se non è possibile.
+     */
+    private String readExpression(TypeElement validated, TypeElement declaring, VariableElement field) {
+        String name = field.getSimpleName().toString();
+
+        if (declaring.getKind() == ElementKind.RECORD) {
+            return "target." + name + "()";
+        }
+
+        Set<Modifier> modifiers = field.getModifiers();
+        boolean samePackage = packageOf(declaring).equals(packageOf(validated));
+        if (modifiers.contains(Modifier.PUBLIC) || (!modifiers.contains(Modifier.PRIVATE) && samePackage)) {
+            return "target." + name;
+        }
+
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (ExecutableElement method : ElementFilter.methodsIn(declaring.getEnclosedElements())) {
+            String methodName = method.getSimpleName().toString();
+            boolean getterName = methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized)
+                    || methodName.equals(name);
+            Set<Modifier> methodModifiers = method.getModifiers();
+            boolean visible = methodModifiers.contains(Modifier.PUBLIC)
+                    || (!methodModifiers.contains(Modifier.PRIVATE) && samePackage);
+            if (getterName && visible && method.getParameters().isEmpty()
+                    && !methodModifiers.contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+                return "target." + methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    private void writeRegistry() {
+        StringBuilder table = new StringBuilder();
+        for (Map.Entry<String, String> entry : validators.entrySet()) {
+            String typeName = entry.getKey();
+            table.append(table.isEmpty() ? "" : ",\n")
+                    .append("            java.util.Map.entry(").append(typeName).append(".class,\n")
+                    .append("                    target -> ").append(entry.getValue()).append(".validate((")
+                    .append(typeName).append(") target))");
+        }
+
+        String source = "package " + REGISTRY_PACKAGE + ";\n\n"
+                + "/**\n"
+                + " * Metadati delle annotation raccolti a compile time: use case, azioni auditate\n"
+                + " * e validatori generati per classe.\n"
+                + " */\n"
+                + GENERATED + "\n"
+                + "public final class " + REGISTRY_CLASS + " {\n\n"
+                + "    /**\n"
+                + "     * Metadati di una classe annotata con {@code @UseCase}.\n"
+                + "     */\n"
+                + "    public record UseCaseInfo(String className, String name, int priority) {\n"
+                + "    }\n\n"
+                + "    /**\n"
+                + "     * Metadati di un metodo o costruttore annotato con {@code @AuditAction}.\n"
+                + "     */\n"
+                + "    public record AuditActionInfo(String className, String member, String action) {\n"
+                + "    }\n\n"
+                + "    public static final java.util.List<UseCaseInfo> USE_CASES = java.util.List.of("
+                + joinEntries(useCases) + ");\n\n"
+                + "    public static final java.util.List<AuditActionInfo> AUDIT_ACTIONS = java.util.List.of("
+                + joinEntries(auditActions) + ");\n\n"
+                + "    private static final java.util.Map<Class<?>, java.util.function.Function<Object, java.util.List<String>>> VALIDATORS =\n"
+                + "            java.util.Map.ofEntries(" + (table.isEmpty() ? "" : "\n" + table) + ");\n\n"
+                + "    private " + REGISTRY_CLASS + "() {\n"
+                + "    }\n\n"
+                + "    /**\n"
+                + "     * @return {@code true} se esiste un validatore generato per la classe\n"
+                + "     */\n"
+                + "    public static boolean hasValidator(Class<?> type) {\n"
+                + "        return VALIDATORS.containsKey(type);\n"
+                + "    }\n\n"
+                + "    /**\n"
+                + "     * Valida un oggetto con il validatore generato per la sua classe.\n"
+                + "     *\n"
+                + "     * @return Le violazioni, oppure una lista vuota se l'oggetto è valido\n"
+                + "     * @throws IllegalArgumentException se per la classe non è stato generato un validatore\n"
+                + "     */\n"
+                + "    public static java.util.List<String> validate(Object target) {\n"
+                + "        java.util.function.Function<Object, java.util.List<String>> validator = VALIDATORS.get(target.getClass());\n"
+                + "        if (validator == null) {\n"
+                + "            throw new IllegalArgumentException(\"No generated validator for \" + target.getClass().getName());\n"
+                + "        }\n"
+                + "        return validator.apply(target);\n"
+                + "    }\n"
+                + "}\n";
+
+        write(REGISTRY_PACKAGE + "." + REGISTRY_CLASS, source, null);
+    }
+
+    private String useCaseEntry(TypeElement type, AnnotationMirror useCase) {
+        return "new UseCaseInfo(" + elements.getConstantExpression(elements.getBinaryName(type).toString()) + ", "
+                + elements.getConstantExpression(value(useCase, "name")) + ", "
+                + value(useCase, "priority") + ")";
+    }
+
+    private String auditActionEntry(ExecutableElement method, AnnotationMirror auditAction) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        return "new AuditActionInfo(" + elements.getConstantExpression(elements.getBinaryName(owner).toString()) + ", "
+                + elements.getConstantExpression(method.getSimpleName().toString()) + ", "
+                + elements.getConstantExpression(value(auditAction, "value")) + ")";
+    }
+
+    private static String joinEntries(List<String> entries) {
+        if (entries.isEmpty()) {
+            return "";
+        }
+        return "\n            " + String.join(",\n            ", entries);
+    }
+
+    private void write(String qualifiedName, String source, Element origin) {
+        try {
+            Element[] origins = origin == null ? new Element[0] : new Element[] { origin };
+            try (Writer writer = filer.createSourceFile(qualifiedName, origins).openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + qualifiedName + ": " + e.getMessage(), origin);
+        }
+    }
+
+    private AnnotationMirror mirror(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String attribute) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing attribute " + attribute + " in " + mirror);
+    }
+
+    private static boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        String name = element.getQualifiedName().toString();
+        return name.equals("java.lang.Object") || name.equals("java.lang.Record") ? null : element;
+    }
+
+    /**
+     * Le combinazioni annotation/tipo per cui il validatore genera un controllo.
+     */
+    private static boolean isSupported(VariableElement field, AnnotationMirror notBlank, AnnotationMirror intRange) {
+        TypeMirror type = field.asType();
+        return notBlank != null && isType(type, "java.lang.String")
+                || intRange != null && (type.getKind() == TypeKind.INT || isType(type, "java.lang.Integer"));
+    }
+
+    /**
+     * Il letterale {@code Declaring.class} compila nella classe generata: tipo non privato
+     * e pubblico oppure nello stesso package.
+     */
+    private boolean isAccessibleFrom(TypeElement declaring, String packageName) {
+        for (Element current = declaring; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)
+                    || !modifiers.contains(Modifier.PUBLIC) && !packageOf(current).equals(packageName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String packageOf(Element element) {
+        PackageElement packageElement = elements.getPackageOf(element);
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    /**
+     * Nome semplice della classe generata: tipi annidati uniti con '_' (es. Outer_Inner).
+     */
+    private static String flatName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element current = type.getEnclosingElement(); current instanceof TypeElement outer;
+                current = current.getEnclosingElement()) {
+            name.insert(0, outer.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.corso.demo;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Verifica che ogni voce del catalogo punti a una demo esistente.
+ * Le classi sono registrate per nome, quindi un refactoring non viene
+ * segnalato dal compilatore.
+ */
+public class DemoCatalogTest
+    extends TestCase
+{
+    public DemoCatalogTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( DemoCatalogTest.class );
+    }
+
+    /**
+     * Ogni classe demo esiste ed espone public static void run()
+     */
+    public void testEveryEntryResolvesToStaticRun() throws Exception
+    {
+        for ( DemoCatalog.Entry entry : DemoCatalog.entries() )
+        {
+            Method run = entry.demoClass().getMethod( "run" );
+            assertTrue( entry.title(), Modifier.isStatic( run.getModifiers() ) );
+            assertEquals( entry.title(), void.class, run.getReturnType() );
+        }
+    }
+
+    /**
+     * Costruire il catalogo non deve avviare alcuna demo
+     */
+    public void testCatalogDoesNotLoadDemos()
+    {
+        assertFalse( DemoCatalog.entries().isEmpty() );
+        assertEquals( 0, DemoCatalog.loadedDemoCount() );
+    }
+}
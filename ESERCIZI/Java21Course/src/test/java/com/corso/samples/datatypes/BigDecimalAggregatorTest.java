@@ -0,0 +1,122 @@
+package com.corso.samples.datatypes;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Confronta BigDecimalAggregator con la reduce ingenua: i risultati devono
+ * essere uguali con equals, quindi stesso valore e stessa scala.
+ */
+public class BigDecimalAggregatorTest
+    extends TestCase
+{
+    public BigDecimalAggregatorTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BigDecimalAggregatorTest.class );
+    }
+
+    /**
+     * Lista vuota: BigDecimal.ZERO
+     */
+    public void testEmpty()
+    {
+        assertEquals( BigDecimal.ZERO, BigDecimalAggregator.sum( List.of() ) );
+        assertEquals( BigDecimal.ZERO, BigDecimalAggregator.parallelSum( List.of() ) );
+    }
+
+    /**
+     * Importi con la stessa scala, come i totali degli ordini
+     */
+    public void testSameScale()
+    {
+        Random random = new Random( 1 );
+        List<BigDecimal> values = new ArrayList<>();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            values.add( BigDecimal.valueOf( random.nextInt( 1_000_000 ) - 500_000, 2 ) );
+        }
+        assertSameAsReduce( values );
+    }
+
+    /**
+     * Scale diverse, anche negative, e scala massima in coda
+     */
+    public void testMixedScales()
+    {
+        Random random = new Random( 2 );
+        List<BigDecimal> values = new ArrayList<>();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            values.add( BigDecimal.valueOf( random.nextLong() >> random.nextInt( 64 ), random.nextInt( 12 ) - 3 ) );
+        }
+        values.add( new BigDecimal( "0.000000000000000000000000001" ) );
+        assertSameAsReduce( values );
+
+        assertSameAsReduce( List.of( new BigDecimal( "1E+5" ), new BigDecimal( "-2E+3" ) ) );
+    }
+
+    /**
+     * Somme oltre Long.MAX_VALUE e valori che non stanno in un long
+     */
+    public void testOverflowSpillsToBigInteger()
+    {
+        List<BigDecimal> values = new ArrayList<>();
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            values.add( BigDecimal.valueOf( Long.MAX_VALUE - i, 2 ) );
+            values.add( BigDecimal.valueOf( Long.MIN_VALUE + i, 4 ) );
+        }
+        values.add( new BigDecimal( BigInteger.TEN.pow( 40 ).negate(), 3 ) );
+        values.add( new BigDecimal( "123456789012345678901234567890.123456789" ) );
+        assertSameAsReduce( values );
+    }
+
+    /**
+     * Il collector dà lo stesso risultato anche su stream paralleli
+     */
+    public void testCollector()
+    {
+        Random random = new Random( 3 );
+        List<BigDecimal> values = new ArrayList<>();
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            values.add( BigDecimal.valueOf( random.nextLong() >> random.nextInt( 64 ), random.nextInt( 6 ) ) );
+        }
+        BigDecimal expected = values.stream().reduce( BigDecimal.ZERO, BigDecimal::add );
+
+        assertEquals( expected, values.stream().collect( BigDecimalAggregator.summing( value -> value ) ) );
+        assertEquals( expected, values.parallelStream().collect( BigDecimalAggregator.summing( value -> value ) ) );
+    }
+
+    /**
+     * Somma con estrattore dell'importo
+     */
+    public void testSumWithExtractor()
+    {
+        List<String> amounts = List.of( "10.50", "3", "0.125", "-7.1" );
+        BigDecimal expected = amounts.stream().map( BigDecimal::new ).reduce( BigDecimal.ZERO, BigDecimal::add );
+
+        assertEquals( expected, BigDecimalAggregator.sum( amounts, BigDecimal::new ) );
+    }
+
+    private static void assertSameAsReduce( List<BigDecimal> values )
+    {
+        BigDecimal expected = values.stream().reduce( BigDecimal.ZERO, BigDecimal::add );
+
+        assertEquals( expected, BigDecimalAggregator.sum( values ) );
+        assertEquals( expected, BigDecimalAggregator.sum( values.toArray( new BigDecimal[0] ) ) );
+        assertEquals( expected, BigDecimalAggregator.parallelSum( values ) );
+    }
+}